@@ -0,0 +1,117 @@
+package bnf_parser;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import mvc.models.HierarchyGenerator;
+import uml_parser.UmlParser;
+
+/**
+ * This class measures the bytes allocated and the time taken by the parsing of a model written by
+ * {@link HierarchyGenerator}. Every parse uses a new {@link UmlParser}, like every {@link mvc.models.Model} does; the
+ * bytes allocated by the current thread during the parse are read from {@link com.sun.management.ThreadMXBean}. The
+ * file is parsed a few times first so the code is compiled, then the fastest and median values are printed.
+ *
+ * <p>It is not part of the application. From the root of the project:</p>
+ *
+ * <pre>
+ * javac -encoding UTF-8 -d bin $(find src benchmark -name '*.java')
+ * java -cp bin bnf_parser.ParseAllocationBenchmark [classes [runs]]
+ * </pre>
+ *
+ * <p>By default, the model has 3000 classes and is parsed 20 times, after 20 parses to warm up.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class ParseAllocationBenchmark
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The number of classes of the model if none is given.
+	 */
+	protected static final int DEFAULT_NUMBER_OF_CLASSES	= 3000;
+
+	/**
+	 * The number of parses measured if none is given. As many are done before to warm up.
+	 */
+	protected static final int DEFAULT_RUNS	= 20;
+
+	/**
+	 * The seed of the model, so every run of the benchmark parses the same model.
+	 */
+	protected static final long SEED	= 1;
+
+	// PRIVATE CONSTRUCTOR
+
+	/**
+	 * Only static methods.
+	 */
+	private ParseAllocationBenchmark()
+	{
+
+	}
+
+	// PUBLIC STATIC METHODS
+
+	/**
+	 * Generates the model, then measures the parses.
+	 *
+	 * @param args	The number of classes and the number of parses measured. Both are optional.
+	 *
+	 * @throws Exception	Thrown if the model cannot be written or parsed, or if the JVM cannot measure the bytes
+	 * 						allocated by a thread.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		int numberOfClasses	= (0 < args.length) ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_CLASSES;
+		int runs			= (1 < args.length) ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+
+		com.sun.management.ThreadMXBean threadMXBean	=
+				(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		if(!threadMXBean.isThreadAllocatedMemorySupported())
+		{
+			throw new UnsupportedOperationException("The JVM does not measure the bytes allocated by a thread.");
+		}
+
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		File file	= File.createTempFile("hierarchy", ".ucd");
+
+		file.deleteOnExit();
+
+		new HierarchyGenerator(numberOfClasses, SEED).write(file.getPath());
+
+		String filename	= file.getPath();
+		long threadId	= Thread.currentThread().getId();
+
+		for(int run = 0; run < runs; ++run)
+		{
+			new UmlParser().parse(filename, UmlParser.UTF8_ENCODING);
+		}
+
+		long[] bytes	= new long[runs];
+		double[] times	= new double[runs];
+
+		for(int run = 0; run < runs; ++run)
+		{
+			long startBytes	= threadMXBean.getThreadAllocatedBytes(threadId);
+			long start		= System.nanoTime();
+
+			new UmlParser().parse(filename, UmlParser.UTF8_ENCODING);
+
+			times[run]	= (System.nanoTime() - start) / 1e6;
+			bytes[run]	= threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+		}
+
+		Arrays.sort(bytes);
+		Arrays.sort(times);
+
+		System.out.printf("%d classes, %d bytes, %d runs: allocated min %.1f MB, median %.1f MB per parse; "
+				+ "time min %.1f ms, median %.1f ms%n", numberOfClasses, file.length(), runs, bytes[0] / 1e6,
+				bytes[runs / 2] / 1e6, times[0], times[runs / 2]);
+	}
+}
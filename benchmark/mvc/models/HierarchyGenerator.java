@@ -0,0 +1,321 @@
+package mvc.models;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * This class writes a UML definition file with a large inheritance hierarchy, used by {@link MetricsBenchmark} and
+ * {@link bnf_parser.ParseAllocationBenchmark}. Class {@code Ci} has zero to two superclasses chosen among the classes
+ * just before it, so the hierarchy is both deep and wide, with many diamonds. Every class has up to five attributes
+ * and four operations whose types are primitives or nearby classes, and there is one association for every three
+ * classes and one aggregation for every five.
+ *
+ * <p>The same number of classes and seed always give the same file.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class HierarchyGenerator
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The types which are not classes of the model.
+	 */
+	protected static final String[] PRIMITIVE_TYPES	= {"Integer", "String", "Real", "Boolean"};
+
+	/**
+	 * The names given to operations. Few names, so classes share and override operations.
+	 */
+	protected static final String[] OPERATION_NAMES	= {"run", "get", "set", "calc", "x", "y", "init"};
+
+	/**
+	 * The number of attribute names a class chooses its attributes from.
+	 */
+	protected static final int ATTRIBUTE_NAMES	= 12;
+
+	/**
+	 * The superclasses of a class are chosen among this number of classes before it.
+	 */
+	protected static final int SUPERCLASS_WINDOW	= 50;
+
+	/**
+	 * The classes used as types by a class are chosen among this number of classes around it.
+	 */
+	protected static final int TYPE_WINDOW	= 30;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The number of classes of the model.
+	 */
+	protected final int numberOfClasses;
+
+	/**
+	 * The generator of every choice.
+	 */
+	protected final Random random;
+
+	// PUBLIC CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param numberOfClasses	The number of classes of the model.
+	 * @param seed				The seed of the choices.
+	 */
+	public HierarchyGenerator(int numberOfClasses, long seed)
+	{
+		this.numberOfClasses	= numberOfClasses;
+		random					= new Random(seed);
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Writes the model.
+	 *
+	 * @param filename	The name of the file written, in UTF-8.
+	 *
+	 * @throws IOException	Thrown if the file cannot be written.
+	 */
+	public void write(String filename) throws IOException
+	{
+		Writer writer	= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), "UTF-8"));
+
+		try
+		{
+			writer.write("MODEL Generated" + numberOfClasses + "\n");
+
+			for(int i = 0; i < numberOfClasses; ++i)
+			{
+				writeClass(writer, i);
+			}
+
+			writeGeneralizations(writer);
+
+			/* A class does not take part twice in the same relation. */
+			for(int i = 0; i < numberOfClasses / 3; ++i)
+			{
+				int[] ids	= chooseClasses(2);
+
+				writer.write("RELATION r" + i + "\n ROLES CLASS C" + ids[0] + " ONE_OR_MANY, CLASS C" + ids[1]
+						+ " MANY\n;\n");
+			}
+
+			for(int i = 0; i < numberOfClasses / 5; ++i)
+			{
+				int[] ids	= chooseClasses(3);
+
+				writer.write("AGGREGATION\nCONTAINER\nCLASS C" + ids[0] + " ONE\nPARTS\nCLASS C" + ids[1]
+						+ " MANY, CLASS C" + ids[2] + " OPTIONALLY_ONE\n;\n");
+			}
+		}
+		finally
+		{
+			writer.close();
+		}
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Writes a class with its attributes and operations.
+	 *
+	 * @param writer	The file.
+	 * @param id		The number of the class.
+	 *
+	 * @throws IOException	Thrown if the file cannot be written.
+	 */
+	protected void writeClass(Writer writer, int id) throws IOException
+	{
+		StringBuilder sb	= new StringBuilder();
+
+		sb.append("CLASS C").append(id).append("\nATTRIBUTES\n");
+
+		/* Distinct names: a class cannot have the same attribute twice. */
+		int[] names				= shuffle(ATTRIBUTE_NAMES);
+		int numberOfAttributes	= random.nextInt(6);
+
+		for(int i = 0; i < numberOfAttributes; ++i)
+		{
+			sb.append((0 == i) ? "  a" : ",\n  a").append(names[i]).append(" : ").append(chooseType(id));
+		}
+
+		sb.append("\nOPERATIONS\n");
+
+		/* Nor the same operation twice: a signature already written is skipped. */
+		HashSet<String> signatures	= new HashSet<String>();
+		int numberOfOperations		= random.nextInt(5);
+
+		for(int i = 0; i < numberOfOperations; ++i)
+		{
+			StringBuilder operation	= new StringBuilder();
+
+			operation.append(OPERATION_NAMES[random.nextInt(OPERATION_NAMES.length)]).append('(');
+
+			int numberOfArguments	= random.nextInt(4);
+
+			for(int j = 0; j < numberOfArguments; ++j)
+			{
+				operation.append((0 == j) ? "p" : ", p").append(j).append(" : ").append(chooseType(id));
+			}
+
+			operation.append(')');
+
+			if(signatures.add(operation.toString()))
+			{
+				sb.append((1 == signatures.size()) ? "  " : ",\n  ").append(operation).append(" : ")
+					.append(PRIMITIVE_TYPES[random.nextInt(PRIMITIVE_TYPES.length)]);
+			}
+		}
+
+		sb.append("\n;\n");
+
+		writer.write(sb.toString());
+	}
+
+	/**
+	 * Chooses the superclasses of every class, then writes one generalization for every class having subclasses.
+	 *
+	 * @param writer	The file.
+	 *
+	 * @throws IOException	Thrown if the file cannot be written.
+	 */
+	protected void writeGeneralizations(Writer writer) throws IOException
+	{
+		ArrayList<ArrayList<Integer>> subclasses	= new ArrayList<ArrayList<Integer>>(numberOfClasses);
+
+		for(int i = 0; i < numberOfClasses; ++i)
+		{
+			subclasses.add(null);
+		}
+
+		for(int i = 1; i < numberOfClasses; ++i)
+		{
+			/* Most classes have one superclass, some have none and some have two. */
+			int numberOfSuperclasses	= Math.min(i, new int[] {0, 1, 1, 1, 2}[random.nextInt(5)]);
+			int first					= Math.max(0, i - SUPERCLASS_WINDOW);
+			int[] candidates			= shuffle(i - first);
+
+			for(int j = 0; j < numberOfSuperclasses; ++j)
+			{
+				int superclass	= first + candidates[j];
+
+				if(null == subclasses.get(superclass))
+				{
+					subclasses.set(superclass, new ArrayList<Integer>());
+				}
+
+				subclasses.get(superclass).add(i);
+			}
+		}
+
+		for(int i = 0; i < numberOfClasses; ++i)
+		{
+			if(null == subclasses.get(i))
+			{
+				continue;
+			}
+
+			StringBuilder sb	= new StringBuilder();
+
+			sb.append("GENERALIZATION C").append(i).append("\n SUBCLASSES ");
+
+			for(int j = 0; j < subclasses.get(i).size(); ++j)
+			{
+				sb.append((0 == j) ? "C" : ", C").append(subclasses.get(i).get(j));
+			}
+
+			sb.append("\n;\n");
+
+			writer.write(sb.toString());
+		}
+	}
+
+	/**
+	 * Chooses the type of an attribute or argument: a primitive or a class around the class declaring it, possibly
+	 * after it.
+	 *
+	 * @param id	The number of the class declaring the member.
+	 *
+	 * @return	The name of the type.
+	 */
+	protected String chooseType(int id)
+	{
+		int first	= Math.max(0, id - TYPE_WINDOW);
+		int last	= Math.min(numberOfClasses, id + TYPE_WINDOW);
+		int choice	= random.nextInt(PRIMITIVE_TYPES.length + last - first);
+
+		if(choice < PRIMITIVE_TYPES.length)
+		{
+			return PRIMITIVE_TYPES[choice];
+		}
+
+		return "C" + (first + choice - PRIMITIVE_TYPES.length);
+	}
+
+	/**
+	 * Chooses distinct classes.
+	 *
+	 * @param count	The number of classes, at most the number of classes of the model.
+	 *
+	 * @return	The numbers of the classes.
+	 */
+	protected int[] chooseClasses(int count)
+	{
+		int[] ids	= new int[count];
+
+		for(int i = 0; i < count; ++i)
+		{
+			ids[i]	= random.nextInt(numberOfClasses);
+
+			for(int j = 0; j < i; ++j)
+			{
+				if(ids[j] == ids[i])
+				{
+					/* Already chosen: let's choose again. */
+					--i;
+
+					break;
+				}
+			}
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Returns the numbers from 0 to {@code size} - 1 in a random order.
+	 *
+	 * @param size	The number of numbers.
+	 *
+	 * @return	The numbers.
+	 */
+	protected int[] shuffle(int size)
+	{
+		int[] numbers	= new int[size];
+
+		for(int i = 0; i < size; ++i)
+		{
+			numbers[i]	= i;
+		}
+
+		for(int i = size - 1; i > 0; --i)
+		{
+			int j		= random.nextInt(i + 1);
+			int number	= numbers[i];
+
+			numbers[i]	= numbers[j];
+			numbers[j]	= number;
+		}
+
+		return numbers;
+	}
+}
@@ -0,0 +1,130 @@
+package mvc.models;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import uml_parser.UmlParser;
+
+/**
+ * This class times the calculation of the {@link Metrics} of a model with a large inheritance hierarchy, written by
+ * {@link HierarchyGenerator}. The file is parsed and checked once like {@link Model#analyseModel()} does, then only
+ * the {@link Metrics} constructor is timed, several times, and the fastest and median times are printed.
+ *
+ * <p>It is not part of the application. From the root of the project:</p>
+ *
+ * <pre>
+ * javac -encoding UTF-8 -d bin $(find src benchmark -name '*.java')
+ * java -cp bin mvc.models.MetricsBenchmark [classes [runs [parallel]]]
+ * </pre>
+ *
+ * <p>By default, the model has 100000 classes, the metrics are calculated 25 times and in the current thread only.
+ * </p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class MetricsBenchmark
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The number of classes of the model if none is given.
+	 */
+	protected static final int DEFAULT_NUMBER_OF_CLASSES	= 100000;
+
+	/**
+	 * The number of calculations if none is given.
+	 */
+	protected static final int DEFAULT_RUNS	= 25;
+
+	/**
+	 * The seed of the model, so every run of the benchmark times the same model.
+	 */
+	protected static final long SEED	= 1;
+
+	// PRIVATE CONSTRUCTOR
+
+	/**
+	 * Only static methods.
+	 */
+	private MetricsBenchmark()
+	{
+
+	}
+
+	// PUBLIC STATIC METHODS
+
+	/**
+	 * Generates the model, then times the calculations.
+	 *
+	 * @param args	The number of classes, the number of calculations and {@code parallel} to split the calculation
+	 * 				between threads. All are optional.
+	 *
+	 * @throws Exception	Thrown if the model cannot be written, parsed or checked.
+	 */
+	public static void main(String[] args) throws Exception
+	{
+		int numberOfClasses	= (0 < args.length) ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_CLASSES;
+		int runs			= (1 < args.length) ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+		boolean parallel	= (2 < args.length) && "parallel".equals(args[2]);
+
+		File file	= File.createTempFile("hierarchy", ".ucd");
+
+		file.deleteOnExit();
+
+		new HierarchyGenerator(numberOfClasses, SEED).write(file.getPath());
+
+		Model model	= new Model();
+
+		prepare(model, file.getPath());
+
+		ClassContainer[] allClasses	= model.getClassesById();
+		double[] times				= new double[runs];
+
+		for(int run = 0; run < runs; ++run)
+		{
+			long start	= System.nanoTime();
+
+			new Metrics(allClasses, model.inheritanceGraph, model.typeLinks, parallel, false, null);
+
+			times[run]	= (System.nanoTime() - start) / 1e6;
+		}
+
+		Arrays.sort(times);
+
+		System.out.printf("%d classes, %d runs%s: min %.1f ms, median %.1f ms%n", numberOfClasses, runs,
+				parallel ? " (parallel)" : "", times[0], times[runs / 2]);
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Parses a file, then creates and checks its classes, generalizations, associations and aggregations, and links
+	 * the types of their members, like {@link Model#analyseModel()} does before calculating the metrics. The members
+	 * of the classes are not cached, so the metrics can be calculated again and again.
+	 *
+	 * @param model		The model.
+	 * @param filename	The file.
+	 *
+	 * @throws Exception	Thrown if the file cannot be parsed or checked.
+	 */
+	protected static void prepare(Model model, String filename) throws Exception
+	{
+		model.umlModel		= model.umlParser.parse(filename, UmlParser.UTF8_ENCODING);
+		model.symbolTable	= model.umlModel.getSymbolTable();
+		model.classes		= new HashMap<String, ClassContainer>();
+
+		model.createAndCheckClasses();
+
+		ClassContainer[] allClasses	= model.getClassesById();
+
+		model.typeLinks	= new TypeLinks(allClasses);
+
+		model.typeLinks.linkAll(allClasses, false, null);
+
+		model.createAndCheckGeneralizations();
+		model.createAndCheckAssociations();
+		model.createAndCheckAggregations();
+	}
+}
@@ -8,12 +8,15 @@ import java.nio.CharBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.HashMap;
 
+import bnf_parser.ParseBudgetExceededException.LIMITS;
 import bnf_parser.callables.Callable;
 import bnf_parser.callables.CallableContainsMoreThanOneCollectorException;
 import bnf_parser.collectors.Collector;
+import bnf_parser.patterns.CompiledPattern;
+import bnf_parser.patterns.PatternCompiler;
 
 
 /**
@@ -37,6 +40,19 @@ public class BnfParser
 	 */
 	public static final String LATIN_1_ENCODING	= "ISO-8859-1";
 
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Initial capacity of the stack of collectors used by {@link Subparser}.
+	 */
+	protected static final int INITIAL_STACK_CAPACITY	= 64;
+
+	/**
+	 * The wall time limit of the {@link ParseBudget} is checked once every this number of rule evaluations, since
+	 * reading the clock on every evaluation would slow down the parser for nothing.
+	 */
+	protected static final int WALL_TIME_CHECK_INTERVAL	= 1024;
+
 	// PROTECTED PROPERTIES
 
 	/**
@@ -44,6 +60,11 @@ public class BnfParser
 	 */
 	protected Subparser subparser;
 
+	/**
+	 * The identifier of the next rule created by {@link #newRule()}.
+	 */
+	protected int nextRuleId	= 0;
+
 	// PUBLIC CONSTRUCTORS
 
 	/**
@@ -76,6 +97,48 @@ public class BnfParser
 		subparser.close();
 	}
 
+	/**
+	 * Sets the {@link ParseBudget} of the next parsing sessions. The budget is applied from the moment a file is
+	 * opened.
+	 *
+	 * @param budget	The budget. If null, parsing is unlimited.
+	 */
+	public void setBudget(ParseBudget budget)
+	{
+		subparser.budget	= (null == budget) ? new ParseBudget() : budget;
+	}
+
+	/**
+	 * Returns the {@link ParseBudget} of the parser.
+	 *
+	 * @return	The budget.
+	 */
+	public ParseBudget getBudget()
+	{
+		return subparser.budget;
+	}
+
+	/**
+	 * Sets the {@link CancellationToken} checked by the next parsing sessions. The parser checks it before evaluating
+	 * any rule, so parsing stops within a few microseconds after it was cancelled.
+	 *
+	 * @param cancellationToken	The token. If null, parsing cannot be cancelled.
+	 */
+	public void setCancellationToken(CancellationToken cancellationToken)
+	{
+		subparser.cancellationToken	= cancellationToken;
+	}
+
+	/**
+	 * Sets the {@link RuleListener} notified when rules marked with {@link Rule#reportMatches()} match.
+	 *
+	 * @param ruleListener	The listener. If null, nobody is notified.
+	 */
+	public void setRuleListener(RuleListener ruleListener)
+	{
+		subparser.ruleListener	= ruleListener;
+	}
+
 	/**
 	 * Returns a new empty {@link Rule}.
 	 *
@@ -83,7 +146,27 @@ public class BnfParser
 	 */
 	public Rule newRule()
 	{
-		return new Rule();
+		return new Rule(nextRuleId++);
+	}
+
+	/**
+	 * Sets the {@link RuleProfiler} recording statistics for every rule evaluated.
+	 *
+	 * @param profiler	The profiler. If null, profiling is disabled.
+	 */
+	public void setProfiler(RuleProfiler profiler)
+	{
+		subparser.profiler	= profiler;
+	}
+
+	/**
+	 * Returns the {@link RuleProfiler} of the parser.
+	 *
+	 * @return	The profiler, or null if profiling is disabled.
+	 */
+	public RuleProfiler getProfiler()
+	{
+		return subparser.profiler;
 	}
 
 	/**
@@ -98,9 +181,13 @@ public class BnfParser
 	 * @throws CallableContainsMoreThanOneCollectorException	Thrown if a {@link Callable} contains more than one
 	 * 															{@link Collector}.
 	 * @throws NoFileSpecifiedException							Thrown if parsing occurs before the file was specified.
+	 * @throws ParsingAbortedException							Thrown if the parser stops before the end, for example
+	 * 															when its {@link ParseBudget} is exceeded (see
+	 * 															{@link ParseBudgetExceededException}).
 	 */
 	public Collector evaluateRule(Rule rule)
-			throws ParsingFailedException, CallableContainsMoreThanOneCollectorException, NoFileSpecifiedException
+			throws ParsingFailedException, CallableContainsMoreThanOneCollectorException, NoFileSpecifiedException,
+			ParsingAbortedException
 	{
 		return subparser.evaluateRule(rule);
 	}
@@ -146,6 +233,82 @@ public class BnfParser
 		 */
 		protected int rawBufferPosition;
 
+		/**
+		 * Patterns already compiled by {@link PatternCompiler}. The key is the pattern as given to
+		 * {@link #matchPattern(String)}. Patterns are compiled the first time they are used and kept as long as the
+		 * parser exists, since rules never change.
+		 */
+		protected HashMap<String, CompiledPattern> compiledPatterns;
+
+		/**
+		 * Stack of the collectors handed by the {@link Callable}'s with {@link #collect(Collector)}. Every rule being
+		 * evaluated owns the top of the stack starting at the size it had when its evaluation started. The array is
+		 * reused for the whole parsing session and only grows when needed.
+		 */
+		protected Collector[] collectorStack;
+
+		/**
+		 * For every collector of {@code collectorStack}, the index associated with it in the rule (see
+		 * {@link Rule#setIndex(int)}).
+		 */
+		protected int[] indexStack;
+
+		/**
+		 * The number of collectors currently in {@code collectorStack}.
+		 */
+		protected int collectorStackSize;
+
+		/**
+		 * The exception thrown when a rule fails. Rules fail all the time (alternatives are tried one after the other)
+		 * and the exception carries no information, so a single instance without stack trace is reused.
+		 */
+		protected final ParsingFailedException parsingFailedException;
+
+		/**
+		 * The limits of the parsing session.
+		 */
+		protected ParseBudget budget;
+
+		/**
+		 * The token checked before evaluating a rule. Can be null.
+		 */
+		protected CancellationToken cancellationToken;
+
+		/**
+		 * The listener notified when a rule marked with {@link Rule#reportMatches()} matches. Can be null.
+		 */
+		protected RuleListener ruleListener;
+
+		/**
+		 * The profiler recording statistics for every rule evaluated. Null when profiling is disabled.
+		 */
+		protected RuleProfiler profiler;
+
+		/**
+		 * The number of characters the parser went back the last time a rule failed. Only used by the profiler.
+		 */
+		protected int backtrackDistance;
+
+		/**
+		 * The number of rules evaluated since the file was opened.
+		 */
+		protected long ruleEvaluations;
+
+		/**
+		 * The value of {@code ruleEvaluations} at which the wall time will be checked next.
+		 */
+		protected long nextWallTimeCheck;
+
+		/**
+		 * The time ({@link System#nanoTime()}) when the file was opened.
+		 */
+		protected long startTime;
+
+		/**
+		 * The furthest character position reached in the file.
+		 */
+		protected int furthestBufferPosition;
+
 		// PUBLIC CONSTRUCTORS
 
 		/**
@@ -153,7 +316,12 @@ public class BnfParser
 		 */
 		public Subparser()
 		{
-
+			compiledPatterns		= new HashMap<String, CompiledPattern>();
+			collectorStack			= new Collector[INITIAL_STACK_CAPACITY];
+			indexStack				= new int[INITIAL_STACK_CAPACITY];
+			collectorStackSize		= 0;
+			parsingFailedException	= new ParsingFailedException(null, false);
+			budget					= new ParseBudget();
 		}
 
 		// PUBLIC METHODS
@@ -188,6 +356,14 @@ public class BnfParser
 	        charBuffer				= Charset.forName(charset).newDecoder().decode(byteBuffer);
 	        charBufferPosition		= 0;
 	        rawBufferPosition		= 0;
+
+	        truncateCollectorStack(0);
+
+	        /* The budget applies to the whole parsing session. */
+	        ruleEvaluations			= 0;
+	        nextWallTimeCheck		= WALL_TIME_CHECK_INTERVAL;
+	        furthestBufferPosition	= 0;
+	        startTime				= System.nanoTime();
 		}
 
 		/**
@@ -213,25 +389,123 @@ public class BnfParser
 			{
 				fileInputStream	= null;
 				charBuffer		= null;
+
+				truncateCollectorStack(0);
 			}
 		}
 
 		@Override
 		public Collector evaluateRule(Rule rule)
-				throws ParsingFailedException, CallableContainsMoreThanOneCollectorException, NoFileSpecifiedException
+				throws ParsingFailedException, CallableContainsMoreThanOneCollectorException, NoFileSpecifiedException,
+				ParsingAbortedException
 		{
 			if((null == fileInputStream) || (null == charBuffer))
 			{
 				throw new NoFileSpecifiedException();
 			}
 
-			/* Creating the rule's collector. It might be 'null' (for example, a simple pattern matching rule may only have
-			 * to return true if the pattern matched, but the matched string is not important. As an example, creating a
-			 * rule to match spaces often doesn't have to 'collectString' the matched spaces. If a callable's collector will
-			 * override the rule's collector, the collector, here, will be null as it doesn't make any sense to create a
-			 * collector to later replace it by another. */
-			Collector collector = rule.createCollector();
+			if((null != cancellationToken) && cancellationToken.isCancelled())
+			{
+				/* The line is not computed: it reads the file from the start and cancelling must not wait for it. */
+				throw new ParsingCancelledException(ruleEvaluations, getBufferPosition(), furthestBufferPosition,
+						getElapsedTime());
+			}
+
+			if(++ruleEvaluations > budget.maxRuleEvaluations)
+			{
+				throw budgetExceeded(LIMITS.RULE_EVALUATIONS, budget.maxRuleEvaluations);
+			}
+
+			if(ruleEvaluations == nextWallTimeCheck)
+			{
+				checkWallTime();
+			}
+
+			if(null == profiler)
+			{
+				return matchRule(rule);
+			}
 
+			return matchRuleAndProfile(rule);
+		}
+
+		@Override
+		public void collect(Collector collector)
+		{
+			if(collectorStackSize == collectorStack.length)
+			{
+				collectorStack	= Arrays.copyOf(collectorStack, 2 * collectorStackSize);
+				indexStack		= Arrays.copyOf(indexStack, 2 * collectorStackSize);
+			}
+
+			collectorStack[collectorStackSize++]	= collector;
+		}
+
+		@Override
+		public int skipPattern(String pattern)
+		{
+			int length	= getCompiledPattern(pattern).match(charBuffer);
+
+			if(CompiledPattern.NO_MATCH != length)
+			{
+				/* Same as matchPattern() except that the raw length is computed directly on the buffer. */
+				incrementRawBufferPosition(fileCharset.equals(UTF8_ENCODING) ? length(charBuffer, 0, length) : length);
+
+				setBufferPosition(charBufferPosition + length);
+
+				return length;
+			}
+
+			return NO_MATCH;
+		}
+
+		/**
+		 * Checks if at the current parser's position the provided pattern matches.
+		 * @param pattern the pattern to check which must not start with '^'
+		 * @return the matched string if success, null otherwise
+		 */
+		@Override
+		public String matchPattern(String pattern)
+		{
+			/* The pattern is compiled only once. Most patterns become a DFA which matches in linear time without
+			 * backtracking; the others fall back to java.util.regex. Both only try to match at the current position
+			 * (the CharBuffer is relative to its position). */
+			int length	= getCompiledPattern(pattern).match(charBuffer);
+
+			if(CompiledPattern.NO_MATCH != length)
+			{
+				String group = charBuffer.subSequence(0, length).toString();
+
+				/* Moving the buffer's position after the found string. */
+				setBufferPosition(charBufferPosition + length);
+
+				incrementRawBufferPosition(group);
+
+				return group;
+			}
+
+			/* Pattern did not match. */
+			return null;
+		}
+
+		// PROTECTED METHODS
+
+		/**
+		 * Matches the subrules of a rule, in order, and returns the collector of the rule. Called by
+		 * {@link #evaluateRule(Rule)} once the file, the cancellation token and the budget were checked.
+		 *
+		 * @param rule	The rule to be matched.
+		 *
+		 * @return	The collector of the rule, or null.
+		 *
+		 * @throws ParsingFailedException							Thrown when the rule did not match.
+		 * @throws CallableContainsMoreThanOneCollectorException	Thrown when a callable contains more than one
+		 * 															collector.
+		 * @throws ParsingAbortedException							Thrown when the parser stops.
+		 */
+		protected Collector matchRule(Rule rule)
+				throws ParsingFailedException, CallableContainsMoreThanOneCollectorException, ParsingAbortedException
+		{
 			int startOffset	= getBufferPosition();
 
 			/* The rule only has one instance, so we must reset it before adding collectors to it. */
@@ -240,45 +514,116 @@ public class BnfParser
 			int bufferPositionBeforeParsing		= getBufferPosition();
 			int rawBufferPositionBeforeParsing	= getRawBufferPosition();
 
+			/* Every collector above this position in the stack belongs to this rule. */
+			int stackStart						= collectorStackSize;
+
+			/* The collector of the rule is only known at the end: either it is created (if the rule has one) or it is
+			 * the one offered by one of the subrules. A subrule's collector overriding the rule's collector makes it
+			 * useless to create the latter. */
+			boolean overrideCollector			= !rule.noCollectorOverriding();
+			boolean keepCollectors				= overrideCollector || rule.hasCollector();
+			Collector collector					= null;
+
 			while(rule.hasNext())
 			{
 				/* Get next subrule. */
 				Callable callable	= rule.next();
 
-				if(!callable.parse(this))
+				int callableStart	= collectorStackSize;
+				boolean parsed;
+
+				try
+				{
+					parsed	= callable.parse(this);
+				}
+				catch(RuntimeException e)
+				{
+					/* Callers may catch it and go on parsing: the stack must not keep this rule's collectors. */
+					truncateCollectorStack(stackStart);
+
+					throw e;
+				}
+
+				if(!parsed)
 				{
-					/* Subrule failed. Let's throw an exception. */
+					/* Subrule failed. Let's drop everything collected for this rule and throw an exception. Going back
+					 * too far means the file makes the parser try and retry the same text over and over. */
+
+					if((getBufferPosition() - bufferPositionBeforeParsing) > budget.maxBacktrackDistance)
+					{
+						throw budgetExceeded(LIMITS.BACKTRACK_DISTANCE, budget.maxBacktrackDistance);
+					}
+
+					backtrackDistance	= getBufferPosition() - bufferPositionBeforeParsing;
 
 					setBufferPosition(bufferPositionBeforeParsing);
 					setRawBufferPosition(rawBufferPositionBeforeParsing);
 
-					throw new ParsingFailedException();
+					truncateCollectorStack(stackStart);
+
+					throw parsingFailedException;
 				}
 
 				if(rule.doOverrideCollector())
 				{
-					/* If the current subrule "offers" its collector to the rule, let's grab it. */
+					/* If the current subrule "offers" its collector to the rule, let's grab it. It must not have more
+					 * than one. */
 
-					collector = callable.getCollector();
-				}
-				else if(rule.noCollectorOverriding() && (null != collector))
-				{
-					/* If there is no collector overriding and the rule has a collector, let's add all the current
-					 * subrule's collectors to it.  */
+					int numberOfCollectors	= collectorStackSize - callableStart;
 
-					for(Collector callableCollector	: callable.getCollectors())
+					if(1 < numberOfCollectors)
 					{
-						collector.addChild(callableCollector, rule.getIndex());
+						truncateCollectorStack(stackStart);
+
+						throw new CallableContainsMoreThanOneCollectorException();
 					}
+
+					collector	= (1 == numberOfCollectors) ? collectorStack[callableStart] : null;
+
+					truncateCollectorStack(callableStart);
+				}
+				else if(!keepCollectors || overrideCollector)
+				{
+					/* Nobody will ever use the current subrule's collectors. */
+
+					truncateCollectorStack(callableStart);
+				}
+				else
+				{
+					/* The collectors will be added to the rule's collector at the end: let's remember their index. */
+
+					Arrays.fill(indexStack, callableStart, collectorStackSize, rule.getIndex());
 				}
 			}
 
 			if(rule.doMatchEndOfFile() && (rawBufferPosition != fileSize))
 			{
 				/* All subrules were applied but the rule has to match the end of file but it doesn't: exception. */
-				throw new ParsingFailedException();
+				truncateCollectorStack(stackStart);
+
+				backtrackDistance	= 0;
+
+				throw parsingFailedException;
 			}
 
+			if(!overrideCollector)
+			{
+				/* Creating the rule's collector. It might be 'null' (for example, a simple pattern matching rule may
+				 * only have to return true if the pattern matched, but the matched string is not important. As an
+				 * example, creating a rule to match spaces often doesn't have to 'collectString' the matched spaces.
+				 * If there is a collector, let's add all the subrules' collectors to it, in order. */
+				collector	= rule.createCollector();
+
+				if(null != collector)
+				{
+					for(int i = stackStart; i < collectorStackSize; ++i)
+					{
+						collector.addChild(collectorStack[i], indexStack[i]);
+					}
+				}
+
+				truncateCollectorStack(stackStart);
+			}
 
 			if(null != collector)
 			{
@@ -287,38 +632,156 @@ public class BnfParser
 				collector.setOffsets(startOffset, getBufferPosition());
 			}
 
+			if((null != ruleListener) && rule.doReportMatches())
+			{
+				ruleListener.ruleMatched(rule, rawBufferPosition, fileSize);
+			}
+
 			return collector;
 		}
 
 		/**
-		 * Checks if at the current parser's position the provided pattern matches.
-		 * @param pattern the pattern to check which must not start with '^'
-		 * @return the matched string if success, null otherwise
+		 * Same as {@link #matchRule(Rule)} but records the evaluation in the profiler.
+		 *
+		 * @param rule	The rule to be matched.
+		 *
+		 * @return	The collector of the rule, or null.
+		 *
+		 * @throws ParsingFailedException							Thrown when the rule did not match.
+		 * @throws CallableContainsMoreThanOneCollectorException	Thrown when a callable contains more than one
+		 * 															collector.
+		 * @throws ParsingAbortedException							Thrown when the parser stops.
 		 */
-		@Override
-		public String matchPattern(String pattern)
+		protected Collector matchRuleAndProfile(Rule rule)
+				throws ParsingFailedException, CallableContainsMoreThanOneCollectorException, ParsingAbortedException
 		{
-			Pattern pattern1	= Pattern.compile("(^" + pattern + ")", Pattern.DOTALL);
-			Matcher matcher		= pattern1.matcher(charBuffer);
+			int startPosition	= getBufferPosition();
+			long startTime		= System.nanoTime();
+			boolean success		= false;
+			int backtracked		= 0;
 
-			/* There is only one group that can be found, the one contained in the parentheses above. */
-			if(matcher.find())
+			try
 			{
-				String group = matcher.group();
+				Collector collector	= matchRule(rule);
 
-				/* Moving the buffer's position after the found string. */
-				setBufferPosition(charBufferPosition + group.length());
+				success	= true;
 
-				incrementRawBufferPosition(group);
+				return collector;
+			}
+			catch(ParsingFailedException e)
+			{
+				/* Subrules were evaluated before, so the distance is the one of this rule. */
+				backtracked	= backtrackDistance;
 
-				return group;
+				throw e;
 			}
+			finally
+			{
+				profiler.record(rule, success, success ? (getBufferPosition() - startPosition) : 0, backtracked,
+						System.nanoTime() - startTime);
+			}
+		}
 
-			/* Pattern did not match. */
-			return null;
+		/**
+		 * Returns the compiled version of {@code pattern}, compiling it if it was never used before.
+		 *
+		 * @param pattern	The pattern.
+		 *
+		 * @return	The compiled pattern.
+		 */
+		protected CompiledPattern getCompiledPattern(String pattern)
+		{
+			CompiledPattern compiledPattern	= compiledPatterns.get(pattern);
+
+			if(null == compiledPattern)
+			{
+				compiledPattern	= PatternCompiler.compile(pattern);
+
+				compiledPatterns.put(pattern, compiledPattern);
+			}
+
+			return compiledPattern;
 		}
 
-		// PROTECTED METHODS
+		/**
+		 * Throws a {@link ParseBudgetExceededException} if the parsing session lasts for longer than the budget allows.
+		 * It also schedules the next check.
+		 *
+		 * @throws ParseBudgetExceededException	Thrown if the wall time limit is exceeded.
+		 */
+		protected void checkWallTime() throws ParseBudgetExceededException
+		{
+			nextWallTimeCheck	+= WALL_TIME_CHECK_INTERVAL;
+
+			if((ParseBudget.UNLIMITED != budget.maxWallTime) && (getElapsedTime() > budget.maxWallTime))
+			{
+				throw budgetExceeded(LIMITS.WALL_TIME, budget.maxWallTime);
+			}
+		}
+
+		/**
+		 * Creates a {@link ParseBudgetExceededException} reporting how far the parser got.
+		 *
+		 * @param limit			The limit that was exceeded.
+		 * @param limitValue	The value of the limit.
+		 *
+		 * @return	The exception.
+		 */
+		protected ParseBudgetExceededException budgetExceeded(LIMITS limit, long limitValue)
+		{
+			return new ParseBudgetExceededException(limit, limitValue, ruleEvaluations, getBufferPosition(),
+					furthestBufferPosition, getLine(furthestBufferPosition), getElapsedTime());
+		}
+
+		/**
+		 * Returns the time elapsed since the file was opened.
+		 *
+		 * @return	The elapsed time in milliseconds.
+		 */
+		protected long getElapsedTime()
+		{
+			return (System.nanoTime() - startTime) / 1000000;
+		}
+
+		/**
+		 * Returns the line (starting at 1) of a character position in the file. It reads the file from the start, so
+		 * it must only be used to report an error.
+		 *
+		 * @param position	The character position.
+		 *
+		 * @return	The line.
+		 */
+		protected int getLine(int position)
+		{
+			int line	= 1;
+
+			for(int i = 0, iMax = Math.min(position, charBuffer.limit()); i < iMax; ++i)
+			{
+				/* get(int) is absolute, unlike charAt(int) which is relative to the current position. */
+				if('\n' == charBuffer.get(i))
+				{
+					++line;
+				}
+			}
+
+			return line;
+		}
+
+		/**
+		 * Removes the collectors above {@code size} from the stack. References are cleared so the collectors can be
+		 * garbage collected.
+		 *
+		 * @param size	The new size of the stack.
+		 */
+		protected void truncateCollectorStack(int size)
+		{
+			if(size < collectorStackSize)
+			{
+				Arrays.fill(collectorStack, size, collectorStackSize, null);
+			}
+
+			collectorStackSize	= size;
+		}
 
 		/**
 		 * Returns the buffer's current position (character position).
@@ -347,6 +810,11 @@ public class BnfParser
 		{
 			charBufferPosition	= position;
 
+			if(position > furthestBufferPosition)
+			{
+				furthestBufferPosition	= position;
+			}
+
 			charBuffer.position(charBufferPosition);
 		}
 
@@ -386,18 +854,20 @@ public class BnfParser
 		}
 
 		/**
-		 * Returns the total number of bytes in a {@link SubSequence}. Many encodings such as UTF-8 sometimes use more
-		 * than one byte to create a character. This method is used to calculate offset in the file.
+		 * Returns the total number of bytes of the characters between {@code start} and {@code end} in a
+		 * {@link CharSequence}. See {@link #length(CharSequence)}.
 		 *
-		 * @param sequence	The {@link CharSequence} from which return the length.
+		 * @param sequence	The {@link CharSequence}.
+		 * @param start		The index of the first character.
+		 * @param end		The index after the last character.
 		 *
-		 * @return	The length of the sequence.
+		 * @return	The length of the characters.
 		 */
-		protected int length(CharSequence sequence)
+		protected int length(CharSequence sequence, int start, int end)
 		{
 			int count = 0;
 
-			for (int i = 0, iMax = sequence.length(); i < iMax; ++i)
+			for (int i = start; i < end; ++i)
 			{
 				char character = sequence.charAt(i);
 
@@ -423,5 +893,18 @@ public class BnfParser
 
 			return count;
 		}
+
+		/**
+		 * Returns the total number of bytes in a {@link SubSequence}. Many encodings such as UTF-8 sometimes use more
+		 * than one byte to create a character. This method is used to calculate offset in the file.
+		 *
+		 * @param sequence	The {@link CharSequence} from which return the length.
+		 *
+		 * @return	The length of the sequence.
+		 */
+		protected int length(CharSequence sequence)
+		{
+			return length(sequence, 0, sequence.length());
+		}
 	}
 }
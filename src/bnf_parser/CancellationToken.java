@@ -0,0 +1,49 @@
+package bnf_parser;
+
+/**
+ * Allows a thread to ask a long task (parsing, analysis) running in another thread to stop. Cancellation is
+ * cooperative: the task checks {@link #isCancelled()} regularly and stops by itself as soon as it sees it returns
+ * true. A token cannot be reset: a new one must be used for every task.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class CancellationToken
+{
+	// PROTECTED PROPERTIES
+
+	/**
+	 * Whether or not the task was cancelled. Volatile since it is written and read by different threads.
+	 */
+	protected volatile boolean cancelled	= false;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor.
+	 */
+	public CancellationToken()
+	{
+
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Asks the task to stop. Can be called from any thread.
+	 */
+	public void cancel()
+	{
+		cancelled	= true;
+	}
+
+	/**
+	 * Returns whether or not the task was asked to stop.
+	 *
+	 * @return	{@code true} if {@link #cancel()} was called, {@code false} otherwise.
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+}
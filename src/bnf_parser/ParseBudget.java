@@ -0,0 +1,144 @@
+package bnf_parser;
+
+/**
+ * Defines the limits of a parsing session of {@link BnfParser}. A malformed file can make the parser try a huge number
+ * of alternatives before failing. When one of the limits is exceeded, the parser stops and throws a
+ * {@link ParseBudgetExceededException}.
+ *
+ * <p>Every limit is {@link #UNLIMITED} by default. Setters return {@code this} to allow chaining, for example
+ * {@code new ParseBudget().setMaxRuleEvaluations(1000000).setMaxWallTime(5000)}.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class ParseBudget
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * Value of a limit which is not checked.
+	 */
+	public static final long UNLIMITED	= Long.MAX_VALUE;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The maximum number of rules evaluated (successfully or not) during a parsing session.
+	 */
+	protected long maxRuleEvaluations	= UNLIMITED;
+
+	/**
+	 * The maximum number of characters the parser can go back when a rule fails.
+	 */
+	protected long maxBacktrackDistance	= UNLIMITED;
+
+	/**
+	 * The maximum duration of a parsing session, in milliseconds, starting when the file is opened.
+	 */
+	protected long maxWallTime			= UNLIMITED;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor. Every limit is {@link #UNLIMITED}.
+	 */
+	public ParseBudget()
+	{
+
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Sets the maximum number of rules evaluated during a parsing session.
+	 *
+	 * @param maxRuleEvaluations	The maximum number of rule evaluations, or {@link #UNLIMITED}.
+	 *
+	 * @return	'this' to allow chaining.
+	 */
+	public ParseBudget setMaxRuleEvaluations(long maxRuleEvaluations)
+	{
+		this.maxRuleEvaluations	= checkLimit(maxRuleEvaluations);
+
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of characters the parser can go back when a rule fails.
+	 *
+	 * @param maxBacktrackDistance	The maximum backtrack distance in characters, or {@link #UNLIMITED}.
+	 *
+	 * @return	'this' to allow chaining.
+	 */
+	public ParseBudget setMaxBacktrackDistance(long maxBacktrackDistance)
+	{
+		this.maxBacktrackDistance	= checkLimit(maxBacktrackDistance);
+
+		return this;
+	}
+
+	/**
+	 * Sets the maximum duration of a parsing session.
+	 *
+	 * @param maxWallTime	The maximum duration in milliseconds, or {@link #UNLIMITED}.
+	 *
+	 * @return	'this' to allow chaining.
+	 */
+	public ParseBudget setMaxWallTime(long maxWallTime)
+	{
+		this.maxWallTime	= checkLimit(maxWallTime);
+
+		return this;
+	}
+
+	/**
+	 * Returns the maximum number of rules evaluated during a parsing session.
+	 *
+	 * @return	The maximum number of rule evaluations, or {@link #UNLIMITED}.
+	 */
+	public long getMaxRuleEvaluations()
+	{
+		return maxRuleEvaluations;
+	}
+
+	/**
+	 * Returns the maximum number of characters the parser can go back when a rule fails.
+	 *
+	 * @return	The maximum backtrack distance in characters, or {@link #UNLIMITED}.
+	 */
+	public long getMaxBacktrackDistance()
+	{
+		return maxBacktrackDistance;
+	}
+
+	/**
+	 * Returns the maximum duration of a parsing session.
+	 *
+	 * @return	The maximum duration in milliseconds, or {@link #UNLIMITED}.
+	 */
+	public long getMaxWallTime()
+	{
+		return maxWallTime;
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Checks that a limit is not negative.
+	 *
+	 * @param limit	The limit.
+	 *
+	 * @return	The limit.
+	 *
+	 * @throws IllegalArgumentException	Thrown if the limit is negative.
+	 */
+	protected long checkLimit(long limit)
+	{
+		if(limit < 0)
+		{
+			throw new IllegalArgumentException("A limit cannot be negative: " + limit);
+		}
+
+		return limit;
+	}
+}
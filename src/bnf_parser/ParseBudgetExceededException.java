@@ -0,0 +1,82 @@
+package bnf_parser;
+
+/**
+ * Defines an exception thrown when a limit of the {@link ParseBudget} of the parser is exceeded.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class ParseBudgetExceededException extends ParsingAbortedException
+{
+	/**
+	 * The limits of a {@link ParseBudget}.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	public static enum LIMITS
+	{
+		BACKTRACK_DISTANCE,
+		RULE_EVALUATIONS,
+		WALL_TIME,
+		;
+	}
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The limit that was exceeded.
+	 */
+	protected final LIMITS limit;
+
+	/**
+	 * The value of the limit that was exceeded.
+	 */
+	protected final long limitValue;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor.
+	 *
+	 * @param limit				The limit that was exceeded.
+	 * @param limitValue		The value of the limit that was exceeded.
+	 * @param ruleEvaluations	The number of rules evaluated before the parser stopped.
+	 * @param position			The character position in the file when the parser stopped.
+	 * @param furthestPosition	The furthest character position reached in the file.
+	 * @param furthestLine		The line (starting at 1) of {@code furthestPosition}.
+	 * @param elapsedTime		The time elapsed since the file was opened, in milliseconds.
+	 */
+	public ParseBudgetExceededException(LIMITS limit, long limitValue, long ruleEvaluations, int position,
+			int furthestPosition, int furthestLine, long elapsedTime)
+	{
+		super(limit + " limit (" + limitValue + ") exceeded after " + ruleEvaluations + " rule evaluations and "
+				+ elapsedTime + " ms, furthest position " + furthestPosition + " (line " + furthestLine + ")",
+				ruleEvaluations, position, furthestPosition, furthestLine, elapsedTime);
+
+		this.limit		= limit;
+		this.limitValue	= limitValue;
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the limit that was exceeded.
+	 *
+	 * @return	The limit.
+	 */
+	public LIMITS getLimit()
+	{
+		return limit;
+	}
+
+	/**
+	 * Returns the value of the limit that was exceeded.
+	 *
+	 * @return	The value of the limit.
+	 */
+	public long getLimitValue()
+	{
+		return limitValue;
+	}
+}
@@ -0,0 +1,123 @@
+package bnf_parser;
+
+/**
+ * Defines an exception thrown when the parser stops before the end of the evaluation of a rule for a reason other than
+ * the rule not matching. Unlike {@link ParsingFailedException}, it is never caught by the parser itself: it goes up to
+ * the caller of {@link BnfParser#evaluateRule(Rule)}. It tells how far the parser got.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class ParsingAbortedException extends Exception
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * Value of the furthest line when it was not computed.
+	 */
+	public static final int UNKNOWN_LINE	= 0;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The number of rules evaluated before the parser stopped.
+	 */
+	protected final long ruleEvaluations;
+
+	/**
+	 * The character position in the file when the parser stopped.
+	 */
+	protected final int position;
+
+	/**
+	 * The furthest character position reached in the file.
+	 */
+	protected final int furthestPosition;
+
+	/**
+	 * The line (starting at 1) of {@code furthestPosition}, or {@link #UNKNOWN_LINE}.
+	 */
+	protected final int furthestLine;
+
+	/**
+	 * The time elapsed since the file was opened, in milliseconds.
+	 */
+	protected final long elapsedTime;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor.
+	 *
+	 * @param message			The message.
+	 * @param ruleEvaluations	The number of rules evaluated before the parser stopped.
+	 * @param position			The character position in the file when the parser stopped.
+	 * @param furthestPosition	The furthest character position reached in the file.
+	 * @param furthestLine		The line (starting at 1) of {@code furthestPosition}.
+	 * @param elapsedTime		The time elapsed since the file was opened, in milliseconds.
+	 */
+	public ParsingAbortedException(String message, long ruleEvaluations, int position, int furthestPosition,
+			int furthestLine, long elapsedTime)
+	{
+		super(message);
+
+		this.ruleEvaluations	= ruleEvaluations;
+		this.position			= position;
+		this.furthestPosition	= furthestPosition;
+		this.furthestLine		= furthestLine;
+		this.elapsedTime		= elapsedTime;
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the number of rules evaluated before the parser stopped.
+	 *
+	 * @return	The number of rule evaluations.
+	 */
+	public long getRuleEvaluations()
+	{
+		return ruleEvaluations;
+	}
+
+	/**
+	 * Returns the character position in the file when the parser stopped.
+	 *
+	 * @return	The position.
+	 */
+	public int getPosition()
+	{
+		return position;
+	}
+
+	/**
+	 * Returns the furthest character position reached in the file. It is usually close to the place where the file
+	 * stops making sense.
+	 *
+	 * @return	The furthest position.
+	 */
+	public int getFurthestPosition()
+	{
+		return furthestPosition;
+	}
+
+	/**
+	 * Returns the line (starting at 1) of the furthest position reached in the file.
+	 *
+	 * @return	The line, or {@link #UNKNOWN_LINE} if it was not computed.
+	 */
+	public int getFurthestLine()
+	{
+		return furthestLine;
+	}
+
+	/**
+	 * Returns the time elapsed since the file was opened.
+	 *
+	 * @return	The elapsed time in milliseconds.
+	 */
+	public long getElapsedTime()
+	{
+		return elapsedTime;
+	}
+}
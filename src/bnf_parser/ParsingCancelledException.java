@@ -0,0 +1,24 @@
+package bnf_parser;
+
+/**
+ * Defines an exception thrown when the {@link CancellationToken} of the parser was cancelled.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class ParsingCancelledException extends ParsingAbortedException
+{
+	/**
+	 * Constructor.
+	 *
+	 * @param ruleEvaluations	The number of rules evaluated before the parser stopped.
+	 * @param position			The character position in the file when the parser stopped.
+	 * @param furthestPosition	The furthest character position reached in the file.
+	 * @param elapsedTime		The time elapsed since the file was opened, in milliseconds.
+	 */
+	public ParsingCancelledException(long ruleEvaluations, int position, int furthestPosition, long elapsedTime)
+	{
+		super("Parsing cancelled after " + ruleEvaluations + " rule evaluations and " + elapsedTime + " ms",
+				ruleEvaluations, position, furthestPosition, UNKNOWN_LINE, elapsedTime);
+	}
+}
@@ -25,4 +25,17 @@ public class ParsingFailedException extends Exception
 	{
 		super(message);
 	}
+
+	/**
+	 * Constructor with message which allows to skip the stack trace. The parser throws this exception every time a
+	 * rule fails, which is most of the time expected (for example when trying the alternatives of a rule), so filling
+	 * the stack trace would be a waste of time.
+	 *
+	 * @param message				The message.
+	 * @param writableStackTrace	If false, the stack trace is not filled.
+	 */
+	public ParsingFailedException(String message, boolean writableStackTrace)
+	{
+		super(message, null, false, writableStackTrace);
+	}
 }
@@ -1,5 +1,6 @@
 package bnf_parser;
 
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
 
@@ -28,11 +29,28 @@ public class Rule
 
 	// PROTECTED PROPERTIES
 
+	/**
+	 * The identifier of the rule, unique for the {@link BnfParser} that created it. Identifiers start at 0 and are
+	 * consecutive so they can be used as array indexes (see {@link RuleProfiler}).
+	 */
+	protected final int id;
+
+	/**
+	 * The name of the rule, used in reports.
+	 */
+	protected String name;
+
 	/**
 	 * The class of the {@link Collector} used by the rule.
 	 */
 	protected Class<?> collectorClass;
 
+	/**
+	 * The default constructor of {@code collectorClass}, looked up once when the collector is set instead of every time
+	 * a collector is created.
+	 */
+	protected Constructor<?> collectorConstructor;
+
 	/**
 	 * The list of {@link Callable}'s which are equivalent to subrules.
 	 */
@@ -53,13 +71,22 @@ public class Rule
 	 */
 	protected boolean mustMatchEndOfFile	= false;
 
+	/**
+	 * Whether or not the {@link RuleListener} of the parser must be notified when the rule matches.
+	 */
+	protected boolean reportMatches	= false;
+
 	// PACKAGE CONSTRUCTOR
 
 	/**
 	 * Package constructor.
+	 *
+	 * @param id	The identifier of the rule.
 	 */
-	Rule()
+	Rule(int id)
 	{
+		this.id			= id;
+		name			= "rule" + id;
 		collectorClass	= null;
 		callables		= new ArrayList<CallableContainer>();
 	}
@@ -84,6 +111,17 @@ public class Rule
 
 		this.collectorClass = collectorClass;
 
+		try
+		{
+			collectorConstructor	= collectorClass.getConstructor();
+		}
+		catch(Exception e)
+		{
+			/* No public default constructor: createCollector() will return null, as it always did. */
+
+			collectorConstructor	= null;
+		}
+
 		return this;
 	}
 
@@ -239,6 +277,53 @@ public class Rule
 		return mustMatchEndOfFile(true);
 	}
 
+	/**
+	 * Sets the name of the rule, used in reports (for example, by {@link RuleProfiler}).
+	 *
+	 * @param name	The name.
+	 *
+	 * @return	'this' to allow chaining.
+	 */
+	public Rule setName(String name)
+	{
+		this.name	= name;
+
+		return this;
+	}
+
+	/**
+	 * Returns the name of the rule. If none was set, it is 'rule' followed by the identifier of the rule.
+	 *
+	 * @return	The name.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Returns the identifier of the rule.
+	 *
+	 * @return	The identifier.
+	 */
+	public int getId()
+	{
+		return id;
+	}
+
+	/**
+	 * Asks the parser to notify its {@link RuleListener} every time the rule matches. It should only be used on rules
+	 * matching big parts of a file (for example, a declaration), otherwise the listener would be called too often.
+	 *
+	 * @return	'this' to allow chaining.
+	 */
+	public Rule reportMatches()
+	{
+		reportMatches	= true;
+
+		return this;
+	}
+
 	// PACKAGE METHODS
 
 	/**
@@ -248,7 +333,7 @@ public class Rule
 	 */
 	Collector createCollector()
 	{
-		if(null == collectorClass)
+		if(null == collectorConstructor)
 		{
 			/* A subrule can have no collector. */
 
@@ -259,7 +344,7 @@ public class Rule
 		{
 			/* Using Java's reflexivity, we call the default constructor of the class. This might throw an exception,
 			 * but correctly designed collectors should not! */
-			return (Collector) collectorClass.getConstructor().newInstance();
+			return (Collector) collectorConstructor.newInstance();
 		}
 		catch(Exception e)
 		{
@@ -269,6 +354,16 @@ public class Rule
 		}
 	}
 
+	/**
+	 * Returns whether or not the rule has a {@link Collector}.
+	 *
+	 * @return	{@code true} if {@link #createCollector()} can create a {@link Collector}, {@code false} otherwise.
+	 */
+	boolean hasCollector()
+	{
+		return (null != collectorConstructor);
+	}
+
 	/**
 	 * Resets the iterator to the beginning of the list of {@link Callable}'s. Since a {@link Rule} can be used
 	 * many times, the parser must reset the iterator to be able to iterate again.
@@ -352,6 +447,16 @@ public class Rule
 		return mustMatchEndOfFile;
 	}
 
+	/**
+	 * Returns whether or not the {@link RuleListener} of the parser must be notified when the {@link Rule} matches.
+	 *
+	 * @return	{@code true} if the listener must be notified, {@code false} otherwise.
+	 */
+	boolean doReportMatches()
+	{
+		return reportMatches;
+	}
+
 
 	// PROTECTED
 
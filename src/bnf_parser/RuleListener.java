@@ -0,0 +1,20 @@
+package bnf_parser;
+
+/**
+ * Interface of the objects notified by {@link BnfParser} when a rule marked with {@link Rule#reportMatches()}
+ * matches. It allows to follow the progress of the parsing.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public interface RuleListener
+{
+	/**
+	 * Called every time a rule marked with {@link Rule#reportMatches()} matches.
+	 *
+	 * @param rule			The rule that matched.
+	 * @param bytesConsumed	The byte position in the file after the match.
+	 * @param fileSize		The size of the file in bytes.
+	 */
+	public void ruleMatched(Rule rule, long bytesConsumed, long fileSize);
+}
@@ -0,0 +1,162 @@
+package bnf_parser;
+
+/**
+ * The statistics of one {@link Rule} recorded by a {@link RuleProfiler}. It is a snapshot: it does not change when
+ * the profiler records more evaluations.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class RuleProfile
+{
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The name of the rule.
+	 */
+	protected final String ruleName;
+
+	/**
+	 * The number of times the rule was evaluated.
+	 */
+	protected final long invocations;
+
+	/**
+	 * The number of times the rule matched.
+	 */
+	protected final long successes;
+
+	/**
+	 * The number of times the rule did not match.
+	 */
+	protected final long failures;
+
+	/**
+	 * The number of failures after which the parser had to go back in the file.
+	 */
+	protected final long backtracks;
+
+	/**
+	 * The number of characters matched by the rule, for all its successes.
+	 */
+	protected final long charactersConsumed;
+
+	/**
+	 * The number of characters the parser had to go back, for all the backtracks of the rule.
+	 */
+	protected final long charactersBacktracked;
+
+	/**
+	 * The time spent evaluating the rule, including the time spent evaluating its subrules, in nanoseconds.
+	 */
+	protected final long cumulativeTime;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor. Only {@link RuleProfiler} creates instances.
+	 *
+	 * @param ruleName				The name of the rule.
+	 * @param invocations			The number of times the rule was evaluated.
+	 * @param successes				The number of times the rule matched.
+	 * @param backtracks			The number of failures after which the parser had to go back in the file.
+	 * @param charactersConsumed	The number of characters matched by the rule.
+	 * @param charactersBacktracked	The number of characters the parser had to go back.
+	 * @param cumulativeTime		The time spent evaluating the rule, in nanoseconds.
+	 */
+	RuleProfile(String ruleName, long invocations, long successes, long backtracks, long charactersConsumed,
+			long charactersBacktracked, long cumulativeTime)
+	{
+		this.ruleName				= ruleName;
+		this.invocations			= invocations;
+		this.successes				= successes;
+		this.failures				= invocations - successes;
+		this.backtracks				= backtracks;
+		this.charactersConsumed		= charactersConsumed;
+		this.charactersBacktracked	= charactersBacktracked;
+		this.cumulativeTime			= cumulativeTime;
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the name of the rule.
+	 *
+	 * @return	The name.
+	 */
+	public String getRuleName()
+	{
+		return ruleName;
+	}
+
+	/**
+	 * Returns the number of times the rule was evaluated.
+	 *
+	 * @return	The number of invocations.
+	 */
+	public long getInvocations()
+	{
+		return invocations;
+	}
+
+	/**
+	 * Returns the number of times the rule matched.
+	 *
+	 * @return	The number of successes.
+	 */
+	public long getSuccesses()
+	{
+		return successes;
+	}
+
+	/**
+	 * Returns the number of times the rule did not match.
+	 *
+	 * @return	The number of failures.
+	 */
+	public long getFailures()
+	{
+		return failures;
+	}
+
+	/**
+	 * Returns the number of failures after which the parser had to go back in the file.
+	 *
+	 * @return	The number of backtracks.
+	 */
+	public long getBacktracks()
+	{
+		return backtracks;
+	}
+
+	/**
+	 * Returns the number of characters matched by the rule, for all its successes.
+	 *
+	 * @return	The number of characters.
+	 */
+	public long getCharactersConsumed()
+	{
+		return charactersConsumed;
+	}
+
+	/**
+	 * Returns the number of characters the parser had to go back, for all the backtracks of the rule.
+	 *
+	 * @return	The number of characters.
+	 */
+	public long getCharactersBacktracked()
+	{
+		return charactersBacktracked;
+	}
+
+	/**
+	 * Returns the time spent evaluating the rule. It includes the time spent evaluating its subrules, so the times of
+	 * a rule and of its subrules must not be added.
+	 *
+	 * @return	The time in nanoseconds.
+	 */
+	public long getCumulativeTime()
+	{
+		return cumulativeTime;
+	}
+}
@@ -0,0 +1,212 @@
+package bnf_parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Formatter;
+
+/**
+ * Records statistics for every {@link Rule} evaluated by a {@link BnfParser}: number of invocations, successes,
+ * failures and backtracks, characters consumed and cumulative time. Profiling is enabled by giving an instance to
+ * {@link BnfParser#setProfiler(RuleProfiler)} and disabled by giving null, in which case the parser only does a null
+ * check per rule evaluated.
+ *
+ * <p>Statistics accumulate over all parsing sessions until {@link #reset()} is called. This class is not thread-safe:
+ * an instance must only be used by one parser at the time.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class RuleProfiler
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Initial number of rules for which statistics can be stored. Arrays grow when needed.
+	 */
+	protected static final int INITIAL_CAPACITY	= 32;
+
+	// PROTECTED PROPERTIES
+
+	/* Statistics are stored in arrays indexed by the identifier of the rules (see Rule.getId()). This way, recording
+	 * an evaluation does not allocate anything. */
+
+	/**
+	 * The names of the rules.
+	 */
+	protected String[] ruleNames;
+
+	/**
+	 * The number of invocations of each rule.
+	 */
+	protected long[] invocations;
+
+	/**
+	 * The number of successes of each rule.
+	 */
+	protected long[] successes;
+
+	/**
+	 * The number of backtracks of each rule.
+	 */
+	protected long[] backtracks;
+
+	/**
+	 * The number of characters consumed by each rule.
+	 */
+	protected long[] charactersConsumed;
+
+	/**
+	 * The number of characters backtracked by each rule.
+	 */
+	protected long[] charactersBacktracked;
+
+	/**
+	 * The cumulative time of each rule, in nanoseconds.
+	 */
+	protected long[] cumulativeTimes;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor.
+	 */
+	public RuleProfiler()
+	{
+		reset();
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Forgets all the statistics recorded so far.
+	 */
+	public void reset()
+	{
+		ruleNames				= new String[INITIAL_CAPACITY];
+		invocations				= new long[INITIAL_CAPACITY];
+		successes				= new long[INITIAL_CAPACITY];
+		backtracks				= new long[INITIAL_CAPACITY];
+		charactersConsumed		= new long[INITIAL_CAPACITY];
+		charactersBacktracked	= new long[INITIAL_CAPACITY];
+		cumulativeTimes			= new long[INITIAL_CAPACITY];
+	}
+
+	/**
+	 * Returns the statistics of every rule evaluated at least once, sorted by decreasing cumulative time.
+	 *
+	 * @return	The statistics.
+	 */
+	public RuleProfile[] getProfiles()
+	{
+		ArrayList<RuleProfile> profiles	= new ArrayList<RuleProfile>();
+
+		for(int id = 0; id < invocations.length; ++id)
+		{
+			if(0 != invocations[id])
+			{
+				profiles.add(new RuleProfile(ruleNames[id], invocations[id], successes[id], backtracks[id],
+						charactersConsumed[id], charactersBacktracked[id], cumulativeTimes[id]));
+			}
+		}
+
+		Collections.sort(profiles, new Comparator<RuleProfile>()
+		{
+			@Override
+			public int compare(RuleProfile first, RuleProfile second)
+			{
+				return Long.compare(second.getCumulativeTime(), first.getCumulativeTime());
+			}
+		});
+
+		return profiles.toArray(new RuleProfile[profiles.size()]);
+	}
+
+	/**
+	 * Returns a report of the statistics of every rule evaluated at least once as a table, one line per rule, sorted by
+	 * decreasing cumulative time.
+	 *
+	 * @return	The report.
+	 */
+	public String getReport()
+	{
+		StringBuilder sb		= new StringBuilder();
+		Formatter formatter		= new Formatter(sb);
+		String format			= "%-28s %12s %12s %12s %12s %14s %14s %12s%n";
+
+		formatter.format(format, "RULE", "INVOCATIONS", "SUCCESSES", "FAILURES", "BACKTRACKS", "CHARS CONSUMED",
+				"CHARS BACKTR.", "TIME (ms)");
+
+		for(RuleProfile profile : getProfiles())
+		{
+			formatter.format(format, profile.getRuleName(), profile.getInvocations(), profile.getSuccesses(),
+					profile.getFailures(), profile.getBacktracks(), profile.getCharactersConsumed(),
+					profile.getCharactersBacktracked(), String.format("%.3f", profile.getCumulativeTime() / 1e6));
+		}
+
+		formatter.close();
+
+		return sb.toString();
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Records one evaluation of a rule. Called by the parser.
+	 *
+	 * @param rule					The rule.
+	 * @param success				Whether or not the rule matched.
+	 * @param charactersConsumed	The number of characters matched if the rule matched.
+	 * @param charactersBacktracked	The number of characters the parser went back if the rule did not match.
+	 * @param time					The time spent evaluating the rule, in nanoseconds.
+	 */
+	void record(Rule rule, boolean success, int charactersConsumed, int charactersBacktracked, long time)
+	{
+		int id	= rule.getId();
+
+		if(id >= invocations.length)
+		{
+			grow(id + 1);
+		}
+
+		ruleNames[id]	= rule.getName();
+
+		++invocations[id];
+
+		cumulativeTimes[id]	+= time;
+
+		if(success)
+		{
+			++successes[id];
+
+			this.charactersConsumed[id]	+= charactersConsumed;
+		}
+		else if(0 < charactersBacktracked)
+		{
+			++backtracks[id];
+
+			this.charactersBacktracked[id]	+= charactersBacktracked;
+		}
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Grows the arrays so they can contain at least {@code minimumCapacity} rules.
+	 *
+	 * @param minimumCapacity	The minimum capacity.
+	 */
+	protected void grow(int minimumCapacity)
+	{
+		int capacity	= Math.max(minimumCapacity, 2 * invocations.length);
+
+		ruleNames				= Arrays.copyOf(ruleNames, capacity);
+		invocations				= Arrays.copyOf(invocations, capacity);
+		successes				= Arrays.copyOf(successes, capacity);
+		backtracks				= Arrays.copyOf(backtracks, capacity);
+		charactersConsumed		= Arrays.copyOf(charactersConsumed, capacity);
+		charactersBacktracked	= Arrays.copyOf(charactersBacktracked, capacity);
+		cumulativeTimes			= Arrays.copyOf(cumulativeTimes, capacity);
+	}
+}
@@ -13,6 +13,11 @@ import bnf_parser.collectors.Collector;
  */
 public interface SubparserInterface
 {
+	/**
+	 * Value returned by {@link #skipPattern(String)} when the pattern does not match.
+	 */
+	public static final int NO_MATCH	= -1;
+
 	/**
 	 * Tries to match the specified rule.
 	 *
@@ -25,10 +30,12 @@ public interface SubparserInterface
 	 * @throws CallableContainsMoreThanOneCollectorException	Thrown when a callable contains more than one collector.
 	 * @throws NoFileSpecifiedException							Thrown when the parsing happens before any file was
 	 * 															specified.
+	 * @throws ParsingAbortedException							Thrown when the parser stops, for example when its
+	 * 															{@link ParseBudget} is exceeded.
 	 */
 	public Collector evaluateRule(Rule rule)
 			throws ParsingFailedException, CallableContainsMoreThanOneCollectorException,
-			NoFileSpecifiedException;
+			NoFileSpecifiedException, ParsingAbortedException;
 
 	/**
 	 * The class implements this interface must provide this method. A pattern is the basic element used by the parser
@@ -38,4 +45,21 @@ public interface SubparserInterface
 	 * @return			The string that was matched by the pattern.
 	 */
 	public String matchPattern(String pattern);
+
+	/**
+	 * Same as {@link #matchPattern(String)} except that the matched string is not created: the position in the file is
+	 * simply moved after it.
+	 *
+	 * @param pattern	The pattern to be matched
+	 * @return			The number of characters matched, or {@link #NO_MATCH} if the pattern did not match.
+	 */
+	public int skipPattern(String pattern);
+
+	/**
+	 * Hands a collector produced by a {@link Callable} to the parser. It will be added to the collector of the rule
+	 * being evaluated if the rule succeeds, or dropped if it fails.
+	 *
+	 * @param collector	The collector. It can be null (a rule without collector).
+	 */
+	public void collect(Collector collector);
 }
@@ -1,5 +1,6 @@
 package bnf_parser.callables;
 
+import bnf_parser.ParsingAbortedException;
 import bnf_parser.Rule;
 import bnf_parser.SubparserInterface;
 
@@ -38,10 +39,8 @@ public class MatchAnyRule extends Callable
 	 * @return	True if parsing succeeded, false otherwise.
 	 */
 	@Override
-	public boolean parse(SubparserInterface parser)
+	public boolean parse(SubparserInterface parser) throws ParsingAbortedException
 	{
-		resetCollectors();
-
 		int occurences	= 0;
 
 		/* Loop until the number of occurences reaches the maximum value. */
@@ -56,12 +55,17 @@ public class MatchAnyRule extends Callable
 				try
 				{
 					/* If parsing is successful, it will return a Collector (or null). */
-					addCollector(parser.evaluateRule(rule));
+					parser.collect(parser.evaluateRule(rule));
 
 					++occurences;
 
 					matched	= true;
 				}
+				catch (ParsingAbortedException e)
+				{
+					/* The parser stopped: it is not a rule that did not match. */
+					throw e;
+				}
 				catch (Exception e)
 				{
 					/* The current rule did not match, let's try the next one (if this is not the last one in the
@@ -83,10 +87,8 @@ public class MatchAnyRule extends Callable
 			return true;
 		}
 
-		/* If the number of occurences is wrong, let's reset the collectors so they can be garbage collected and let's
-		 * return false. */
-
-		resetCollectors();
+		/* If the number of occurences is wrong, let's return false. The parser will drop the collectors collected so
+		 * far since the rule containing this callable fails. */
 
 		return false;
 	}
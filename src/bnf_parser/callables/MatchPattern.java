@@ -24,6 +24,12 @@ public class MatchPattern extends Callable
 	 */
 	protected boolean quotePattern	= false;
 
+	/**
+	 * The pattern actually sent to the parser: {@code pattern}, quoted if {@code quotePattern} is true. It is computed
+	 * once instead of on every call so the parser can find its compiled version quickly.
+	 */
+	protected String patternWorkCopy;
+
 	/**
 	 * If true, the matched string will be collected (by creating a {@link StringCollector}. This is useful to safe
 	 * memory when only the presence of the pattern is sufficient to determine that a rule has succeeded. For example,
@@ -61,6 +67,7 @@ public class MatchPattern extends Callable
 		super(minOccurences, maxOccurences);
 
 		this.pattern	= pattern;
+		patternWorkCopy	= pattern;
 
 		collectString(collectString);
 	}
@@ -74,35 +81,34 @@ public class MatchPattern extends Callable
 	@Override
 	public boolean parse(SubparserInterface parser)
 	{
-		resetCollectors();
-
-		/* By default, the collector is null because we don't necessarily want to create a StringCollector
-		 * unusefully. */
-		StringCollector collector	= null;
-		int occurences				= 0;
-		StringBuilder sb			= null;
-
-		if(collectString)
+		if(!collectString)
 		{
-			/* Only create a StringBuilder if the string must be collected. */
-			sb	= new StringBuilder();
+			/* The matched string is not needed, so let's only move the parser: nothing is allocated. */
+			return skip(parser);
 		}
 
-		String patternWorkCopy	= pattern;
+		int occurences				= 0;
 
-		if(quotePattern)
-		{
-			/* Quote the pattern (it becomes a simple string to be matched) if it must. */
-			patternWorkCopy	= Pattern.quote(pattern);
-		}
+		/* Most patterns match only once, so the StringBuilder is only created if a second occurence is found. */
+		String firstVal				= null;
+		StringBuilder sb			= null;
 
 		String val;
 
 		/* Loop as long as the pattern matches and the number of occurences is <= maxOccurences. */
 		while((val = parser.matchPattern(patternWorkCopy)) != null)
 		{
-			if(null != sb)
+			if(null == firstVal)
 			{
+				firstVal	= val;
+			}
+			else
+			{
+				if(null == sb)
+				{
+					sb	= new StringBuilder(firstVal);
+				}
+
 				sb.append(val);
 			}
 
@@ -116,15 +122,13 @@ public class MatchPattern extends Callable
 
 		if(occurences >= minOccurences)
 		{
-			/*If the number of occurences is at least equal to minOccurences, create the StringCollector if required,
-			 * and then return true. */
-			if(null != sb)
-			{
-				collector	= new StringCollector();
-				collector.addString(sb.toString());
+			/*If the number of occurences is at least equal to minOccurences, create the StringCollector and then return
+			 * true. */
+			StringCollector collector	= new StringCollector();
 
-				addCollector(collector);
-			}
+			collector.addString((null != sb) ? sb.toString() : ((null != firstVal) ? firstVal : ""));
+
+			parser.collect(collector);
 
 			return true;
 		}
@@ -136,6 +140,30 @@ public class MatchPattern extends Callable
 
 	// PROTECTED METHODS
 
+	/**
+	 * Same as {@link #parse(SubparserInterface)} when the matched string does not have to be collected.
+	 *
+	 * @param parser	The current instance of a parser implementign {@link SubparserInterface}.
+	 *
+	 * @return	True if parsing is successful, false otherwise.
+	 */
+	protected boolean skip(SubparserInterface parser)
+	{
+		int occurences	= 0;
+
+		while(SubparserInterface.NO_MATCH != parser.skipPattern(patternWorkCopy))
+		{
+			++occurences;
+
+			if(occurences == maxOccurences)
+			{
+				break;
+			}
+		}
+
+		return occurences >= minOccurences;
+	}
+
 	/**
 	 * Sets whether or not the pattern must be quoted.
 	 * @param val	If true, the pattern will be quoted.
@@ -143,6 +171,9 @@ public class MatchPattern extends Callable
 	protected void quotePattern(boolean val)
 	{
 		quotePattern	= val;
+
+		/* Quote the pattern (it becomes a simple string to be matched) if it must. */
+		patternWorkCopy	= quotePattern ? Pattern.quote(pattern) : pattern;
 	}
 
 	/**
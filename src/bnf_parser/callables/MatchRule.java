@@ -1,5 +1,6 @@
 package bnf_parser.callables;
 
+import bnf_parser.ParsingAbortedException;
 import bnf_parser.Rule;
 import bnf_parser.SubparserInterface;
 
@@ -36,10 +37,8 @@ public class MatchRule extends Callable
 	 * @return	True if parsing succeeded, false otherwise.
 	 */
 	@Override
-	public boolean parse(SubparserInterface parser)
+	public boolean parse(SubparserInterface parser) throws ParsingAbortedException
 	{
-		resetCollectors();
-
 		int occurences		= 0;
 
 		/* Loop until the maximum number of occurences was reached or the rule failed. */
@@ -48,7 +47,12 @@ public class MatchRule extends Callable
 			try
 			{
 				/* If the parsing of the rule succeeds, the parser will return a Collector (it can be NULL). */
-				addCollector(parser.evaluateRule(rule));
+				parser.collect(parser.evaluateRule(rule));
+			}
+			catch (ParsingAbortedException e)
+			{
+				/* The parser stopped: it is not a rule that did not match. */
+				throw e;
 			}
 			catch (Exception e)
 			{
@@ -73,10 +77,8 @@ public class MatchRule extends Callable
 			return true;
 		}
 
-		/* If the number of occurences is wrong, let's reset the collectors so they can be garbage collected and let's
-		 * return false. */
-
-		resetCollectors();
+		/* If the number of occurences is wrong, let's return false. The parser will drop the collectors collected so
+		 * far since the rule containing this callable fails. */
 
 		return false;
 	}
@@ -0,0 +1,68 @@
+package bnf_parser.patterns;
+
+/**
+ * This abstract class represents a pattern that was compiled once by {@link PatternCompiler} and that can then be
+ * matched many times at the current position of the parser. Every pattern is anchored: it only matches from the very
+ * first character of the provided input, never further.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public abstract class CompiledPattern
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * Value returned by {@link #match(CharSequence)} when the pattern does not match.
+	 */
+	public static final int NO_MATCH	= -1;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The source of the pattern, as specified by the user.
+	 */
+	protected final String pattern;
+
+	// PROTECTED CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pattern	The source of the pattern.
+	 */
+	protected CompiledPattern(String pattern)
+	{
+		this.pattern	= pattern;
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the source of the pattern.
+	 *
+	 * @return	The source of the pattern.
+	 */
+	public String getPattern()
+	{
+		return pattern;
+	}
+
+	@Override
+	public String toString()
+	{
+		return pattern;
+	}
+
+	// PUBLIC ABSTRACT METHODS
+
+	/**
+	 * Matches the pattern from the first character of {@code input}.
+	 *
+	 * @param input	The sequence of characters to match. The match always starts at index 0.
+	 *
+	 * @return	The number of characters matched (it can be 0 if the pattern matches an empty string) or
+	 * 			{@link #NO_MATCH} if the pattern does not match.
+	 */
+	public abstract int match(CharSequence input);
+}
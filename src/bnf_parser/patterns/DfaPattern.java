@@ -0,0 +1,185 @@
+package bnf_parser.patterns;
+
+import java.util.Arrays;
+
+/**
+ * This class matches a pattern with a table-driven deterministic finite automaton built by {@link PatternCompiler}.
+ * Matching never backtracks and never allocates: every character is read at most once and the time is linear in the
+ * length of the match.
+ *
+ * <p>Unlike {@link java.util.regex}, which stops at the first alternative that matches, this class always returns the
+ * longest possible match. For the patterns used by the parser (for example {@code ONE_OR_MANY|ONE|MANY}) both are
+ * the same.</p>
+ *
+ * <p>Characters are read one UTF-16 unit at a time. If the automaton would have to go through a surrogate character,
+ * the match is delegated to a {@link RegexPattern} so supplementary characters are treated as {@link java.util.regex}
+ * does.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class DfaPattern extends CompiledPattern
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Value of a transition leading nowhere.
+	 */
+	protected static final int DEAD_STATE	= -1;
+
+	/**
+	 * Number of characters for which the class is stored directly in {@code asciiClasses}.
+	 */
+	protected static final int ASCII_SIZE	= 128;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The first character of every class of characters, sorted. Characters of the same class always lead to the same
+	 * state.
+	 */
+	protected final int[] classStarts;
+
+	/**
+	 * The class of every ASCII character, to avoid a binary search on {@code classStarts} in the common case.
+	 */
+	protected final int[] asciiClasses;
+
+	/**
+	 * The number of classes of characters.
+	 */
+	protected final int numberOfClasses;
+
+	/**
+	 * The transition table: {@code transitions[state * numberOfClasses + class]} is the next state or
+	 * {@link #DEAD_STATE}. State 0 is the initial state.
+	 */
+	protected final int[] transitions;
+
+	/**
+	 * Whether or not each state is accepting.
+	 */
+	protected final boolean[] accepting;
+
+	/**
+	 * Whether or not each class contains surrogate characters.
+	 */
+	protected final boolean[] surrogateClasses;
+
+	/**
+	 * Used when a surrogate character is reached. Only created when needed.
+	 */
+	protected RegexPattern fallback;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor. Only {@link PatternCompiler} creates instances.
+	 *
+	 * @param pattern		The source of the pattern.
+	 * @param classStarts	The first character of every class of characters, sorted, starting with 0.
+	 * @param transitions	The transition table.
+	 * @param accepting		Whether or not each state is accepting.
+	 */
+	DfaPattern(String pattern, int[] classStarts, int[] transitions, boolean[] accepting)
+	{
+		super(pattern);
+
+		this.classStarts	= classStarts;
+		this.transitions	= transitions;
+		this.accepting		= accepting;
+		numberOfClasses		= classStarts.length;
+		asciiClasses		= new int[ASCII_SIZE];
+		surrogateClasses	= new boolean[numberOfClasses];
+
+		for(int character = 0; character < ASCII_SIZE; ++character)
+		{
+			asciiClasses[character]	= findClass(character);
+		}
+
+		for(int i = 0; i < numberOfClasses; ++i)
+		{
+			int classEnd	= ((i + 1) < numberOfClasses) ? (classStarts[i + 1] - 1) : Nfa.MAX_CHAR;
+
+			surrogateClasses[i]	= (classStarts[i] <= Character.MAX_SURROGATE)
+					&& (classEnd >= Character.MIN_SURROGATE);
+		}
+	}
+
+	// PUBLIC METHODS
+
+	@Override
+	public int match(CharSequence input)
+	{
+		int state		= 0;
+		int lastMatch	= accepting[0] ? 0 : NO_MATCH;
+
+		for(int i = 0, iMax = input.length(); i < iMax; ++i)
+		{
+			char character	= input.charAt(i);
+			int characterClass	= (character < ASCII_SIZE) ? asciiClasses[character] : findClass(character);
+
+			state	= transitions[(state * numberOfClasses) + characterClass];
+
+			if(DEAD_STATE == state)
+			{
+				break;
+			}
+
+			if(surrogateClasses[characterClass] && Character.isSurrogate(character))
+			{
+				/* The automaton reads UTF-16 units but java.util.regex reads code points. */
+				return getFallback().match(input);
+			}
+
+			if(accepting[state])
+			{
+				lastMatch	= i + 1;
+			}
+		}
+
+		return lastMatch;
+	}
+
+	/**
+	 * Returns the number of states of the automaton.
+	 *
+	 * @return	The number of states.
+	 */
+	public int getNumberOfStates()
+	{
+		return accepting.length;
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Returns the class of a character using a binary search on {@code classStarts}.
+	 *
+	 * @param character	The character.
+	 *
+	 * @return	The class.
+	 */
+	protected int findClass(int character)
+	{
+		int index	= Arrays.binarySearch(classStarts, character);
+
+		/* Not found: the class is the one before the insertion point. */
+		return (0 <= index) ? index : (-index - 2);
+	}
+
+	/**
+	 * Returns the {@link RegexPattern} used for surrogate characters, creating it if needed.
+	 *
+	 * @return	The {@link RegexPattern}.
+	 */
+	protected RegexPattern getFallback()
+	{
+		if(null == fallback)
+		{
+			fallback	= new RegexPattern(pattern);
+		}
+
+		return fallback;
+	}
+}
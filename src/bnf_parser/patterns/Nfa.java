@@ -0,0 +1,917 @@
+package bnf_parser.patterns;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class parses a pattern and transforms it into a non-deterministic finite automaton (Thompson's construction).
+ * Only the regular subset of {@link java.util.regex} syntax is accepted: literals, {@code \Q...\E} quoting, escapes,
+ * character classes (ranges, negation, {@code \d \s \w} and their negations), {@code .}, groups, alternations and the
+ * greedy quantifiers {@code * + ?} and {@code {n}}, {@code {n,}}, {@code {n,m}}. Anything else throws an
+ * {@link UnsupportedPatternException}.
+ *
+ * <p>Sets of characters are stored as sorted arrays of inclusive ranges: {@code {lo0, hi0, lo1, hi1, ...}}.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class Nfa
+{
+	// PACKAGE STATIC CONSTANTS
+
+	/**
+	 * Highest character value (characters are matched one UTF-16 unit at a time).
+	 */
+	static final int MAX_CHAR	= Character.MAX_VALUE;
+
+	/**
+	 * Maximum number of states. Above it, the pattern is considered too complex and falls back to a regex.
+	 */
+	static final int MAX_STATES	= 4096;
+
+	/**
+	 * Maximum value accepted in a bounded repetition ({@code {n,m}}), since every repetition is copied.
+	 */
+	static final int MAX_REPETITION	= 32;
+
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * {@code \d}.
+	 */
+	protected static final int[] DIGITS	= {'0', '9'};
+
+	/**
+	 * {@code \s}, which is {@code [ \t\n\x0B\f\r]} in {@link java.util.regex}.
+	 */
+	protected static final int[] SPACES	= {'\t', '\r', ' ', ' '};
+
+	/**
+	 * {@code \w}.
+	 */
+	protected static final int[] WORD_CHARACTERS	= {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+
+	/**
+	 * {@code .} in {@code DOTALL} mode.
+	 */
+	protected static final int[] ANY_CHARACTER	= {0, MAX_CHAR};
+
+	// PACKAGE PROPERTIES
+
+	/**
+	 * All the states, the index of a state being its id.
+	 */
+	final ArrayList<State> states;
+
+	/**
+	 * The initial state.
+	 */
+	State start;
+
+	/**
+	 * The only accepting state.
+	 */
+	State accept;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The pattern being parsed.
+	 */
+	protected final String pattern;
+
+	/**
+	 * Current position in {@code pattern}.
+	 */
+	protected int position;
+
+	/**
+	 * Equals true between {@code \Q} and {@code \E}.
+	 */
+	protected boolean quoting	= false;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Parses the pattern and builds the automaton.
+	 *
+	 * @param pattern	The pattern.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	Nfa(String pattern) throws UnsupportedPatternException
+	{
+		this.pattern	= pattern;
+		states			= new ArrayList<State>();
+		position		= 0;
+
+		Fragment fragment	= parseAlternation();
+
+		if(position < pattern.length())
+		{
+			/* Only an unbalanced ')' can stop the parsing before the end. */
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		start	= fragment.start;
+		accept	= fragment.end;
+	}
+
+	// PACKAGE STATIC METHODS
+
+	/**
+	 * Returns the complement of a set of ranges.
+	 *
+	 * @param ranges	The sorted and merged ranges.
+	 *
+	 * @return	The complement.
+	 */
+	static int[] complement(int[] ranges)
+	{
+		int[] result	= new int[ranges.length + 2];
+		int n			= 0;
+		int next		= 0;
+
+		for(int i = 0; i < ranges.length; i += 2)
+		{
+			if(ranges[i] > next)
+			{
+				result[n++]	= next;
+				result[n++]	= ranges[i] - 1;
+			}
+
+			next	= ranges[i + 1] + 1;
+		}
+
+		if(next <= MAX_CHAR)
+		{
+			result[n++]	= next;
+			result[n++]	= MAX_CHAR;
+		}
+
+		return Arrays.copyOf(result, n);
+	}
+
+	/**
+	 * Sorts and merges a list of ranges.
+	 *
+	 * @param ranges	The ranges, in any order, possibly overlapping.
+	 *
+	 * @return	The sorted and merged ranges.
+	 */
+	static int[] normalize(int[] ranges)
+	{
+		int nRanges		= ranges.length / 2;
+		long[] packed	= new long[nRanges];
+
+		for(int i = 0; i < nRanges; ++i)
+		{
+			packed[i]	= (((long) ranges[2 * i]) << 32) | ranges[(2 * i) + 1];
+		}
+
+		Arrays.sort(packed);
+
+		int[] result	= new int[ranges.length];
+		int n			= 0;
+
+		for(long range : packed)
+		{
+			int lo	= (int) (range >>> 32);
+			int hi	= (int) range;
+
+			if((0 < n) && (lo <= (result[n - 1] + 1)))
+			{
+				/* Overlapping or adjacent: let's extend the previous range. */
+				result[n - 1]	= Math.max(result[n - 1], hi);
+			}
+			else
+			{
+				result[n++]	= lo;
+				result[n++]	= hi;
+			}
+		}
+
+		return Arrays.copyOf(result, n);
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * alternation := concatenation ('|' concatenation)*
+	 *
+	 * @return	The fragment.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected Fragment parseAlternation() throws UnsupportedPatternException
+	{
+		Fragment first	= parseConcatenation();
+
+		if(!peek('|'))
+		{
+			return first;
+		}
+
+		State alternationStart	= newState();
+		State alternationEnd	= newState();
+
+		alternationStart.addEpsilon(first.start);
+		first.end.addEpsilon(alternationEnd);
+
+		while(peek('|'))
+		{
+			++position;
+
+			Fragment next	= parseConcatenation();
+
+			alternationStart.addEpsilon(next.start);
+			next.end.addEpsilon(alternationEnd);
+		}
+
+		return new Fragment(alternationStart, alternationEnd);
+	}
+
+	/**
+	 * concatenation := repetition*
+	 *
+	 * @return	The fragment.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected Fragment parseConcatenation() throws UnsupportedPatternException
+	{
+		State emptyState	= newState();
+		Fragment result		= new Fragment(emptyState, emptyState);
+
+		while(position < pattern.length())
+		{
+			if(!quoting && (peek('|') || peek(')')))
+			{
+				break;
+			}
+
+			Fragment next	= parseRepetition();
+
+			if(null != next)
+			{
+				result.end.addEpsilon(next.start);
+
+				result	= new Fragment(result.start, next.end);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * repetition := atom quantifier?
+	 *
+	 * @return	The fragment, or {@code null} if only a {@code \Q} or {@code \E} was read.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected Fragment parseRepetition() throws UnsupportedPatternException
+	{
+		int atomStart	= position;
+		Fragment atom	= parseAtom();
+		int atomEnd		= position;
+
+		if(quoting || (position >= pattern.length()))
+		{
+			/* Quantifiers are literal characters inside \Q...\E. */
+			return atom;
+		}
+
+		int min;
+		int max;
+
+		switch(pattern.charAt(position))
+		{
+			case '*':
+				min	= 0;
+				max	= Integer.MAX_VALUE;
+
+				++position;
+
+				break;
+
+			case '+':
+				min	= 1;
+				max	= Integer.MAX_VALUE;
+
+				++position;
+
+				break;
+
+			case '?':
+				min	= 0;
+				max	= 1;
+
+				++position;
+
+				break;
+
+			case '{':
+				int[] bounds	= parseBounds();
+
+				min	= bounds[0];
+				max	= bounds[1];
+
+				break;
+
+			default:
+				return atom;
+		}
+
+		if((null == atom) || peek('?') || peek('+') || peek('*') || peek('{'))
+		{
+			/* Quantifier applied to a \Q...\E sequence (it would only apply to its last character), lazy and
+			 * possessive quantifiers are not supported. */
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		return repeat(atom, atomStart, atomEnd, min, max);
+	}
+
+	/**
+	 * Parses {@code {n}}, {@code {n,}} or {@code {n,m}}.
+	 *
+	 * @return	The minimum and maximum ({@code Integer.MAX_VALUE} if unbounded).
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the bounds are malformed or too large.
+	 */
+	protected int[] parseBounds() throws UnsupportedPatternException
+	{
+		int closing	= pattern.indexOf('}', position);
+
+		if(0 > closing)
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		String content	= pattern.substring(position + 1, closing);
+		int comma		= content.indexOf(',');
+		int[] bounds	= new int[2];
+
+		try
+		{
+			if(0 > comma)
+			{
+				bounds[0]	= Integer.parseInt(content);
+				bounds[1]	= bounds[0];
+			}
+			else
+			{
+				bounds[0]	= Integer.parseInt(content.substring(0, comma));
+				bounds[1]	= (comma == (content.length() - 1)) ? Integer.MAX_VALUE
+						: Integer.parseInt(content.substring(comma + 1));
+			}
+		}
+		catch(NumberFormatException e)
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		if((bounds[0] > bounds[1]) || (bounds[0] > MAX_REPETITION)
+				|| ((Integer.MAX_VALUE != bounds[1]) && (bounds[1] > MAX_REPETITION)))
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		position	= closing + 1;
+
+		return bounds;
+	}
+
+	/**
+	 * Repeats a fragment. Since a fragment can only be used once in an automaton, the atom is parsed again (from
+	 * {@code atomStart} to {@code atomEnd}) for every extra copy.
+	 *
+	 * @param atom		The fragment, already parsed once.
+	 * @param atomStart	The position of the atom in the pattern.
+	 * @param atomEnd	The position following the atom in the pattern.
+	 * @param min		The minimum number of occurences.
+	 * @param max		The maximum number of occurences, {@code Integer.MAX_VALUE} being 'infinity'.
+	 *
+	 * @return	The repeated fragment.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected Fragment repeat(Fragment atom, int atomStart, int atomEnd, int min, int max)
+			throws UnsupportedPatternException
+	{
+		int savedPosition	= position;
+
+		State emptyState	= newState();
+		Fragment result		= new Fragment(emptyState, emptyState);
+		Fragment copy		= atom;
+
+		for(int i = 0; i < min; ++i)
+		{
+			if(null == copy)
+			{
+				copy	= parseCopy(atomStart, atomEnd);
+			}
+
+			result.end.addEpsilon(copy.start);
+
+			result	= new Fragment(result.start, copy.end);
+			copy	= null;
+		}
+
+		if(Integer.MAX_VALUE == max)
+		{
+			if(null == copy)
+			{
+				copy	= parseCopy(atomStart, atomEnd);
+			}
+
+			/* Kleene star: the copy can be skipped or repeated. */
+			State loopStart	= newState();
+			State loopEnd	= newState();
+
+			loopStart.addEpsilon(copy.start);
+			loopStart.addEpsilon(loopEnd);
+			copy.end.addEpsilon(copy.start);
+			copy.end.addEpsilon(loopEnd);
+
+			result.end.addEpsilon(loopStart);
+
+			result	= new Fragment(result.start, loopEnd);
+		}
+		else
+		{
+			for(int i = min; i < max; ++i)
+			{
+				if(null == copy)
+				{
+					copy	= parseCopy(atomStart, atomEnd);
+				}
+
+				/* Optional copy. */
+				State optionalEnd	= newState();
+
+				result.end.addEpsilon(copy.start);
+				result.end.addEpsilon(optionalEnd);
+				copy.end.addEpsilon(optionalEnd);
+
+				result	= new Fragment(result.start, optionalEnd);
+				copy	= null;
+			}
+		}
+
+		position	= savedPosition;
+
+		return result;
+	}
+
+	/**
+	 * Parses the atom located between {@code atomStart} and {@code atomEnd} again.
+	 *
+	 * @param atomStart	The position of the atom in the pattern.
+	 * @param atomEnd	The position following the atom in the pattern.
+	 *
+	 * @return	A new fragment.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected Fragment parseCopy(int atomStart, int atomEnd) throws UnsupportedPatternException
+	{
+		position	= atomStart;
+
+		Fragment copy	= parseAtom();
+
+		if(position != atomEnd)
+		{
+			/* Should not happen since parsing is deterministic. */
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		return copy;
+	}
+
+	/**
+	 * atom := '(' alternation ')' | '[' class ']' | '.' | escape | literal
+	 *
+	 * @return	The fragment, or {@code null} if only a {@code \Q} or {@code \E} was read.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected Fragment parseAtom() throws UnsupportedPatternException
+	{
+		char character	= pattern.charAt(position);
+
+		if(quoting)
+		{
+			if(pattern.startsWith("\\E", position))
+			{
+				quoting		= false;
+				position	+= 2;
+
+				return null;
+			}
+
+			++position;
+
+			return newCharacterSet(new int[] {character, character});
+		}
+
+		switch(character)
+		{
+			case '(':
+				++position;
+
+				if(peek('?'))
+				{
+					/* Only non-capturing groups are supported. Capturing groups are fine since only the whole match
+					 * is used. */
+					if(!pattern.startsWith("?:", position))
+					{
+						throw new UnsupportedPatternException(pattern);
+					}
+
+					position	+= 2;
+				}
+
+				Fragment group	= parseAlternation();
+
+				if(!peek(')'))
+				{
+					throw new UnsupportedPatternException(pattern);
+				}
+
+				++position;
+
+				return group;
+
+			case '[':
+				return newCharacterSet(parseCharacterClass());
+
+			case '.':
+				++position;
+
+				return newCharacterSet(ANY_CHARACTER);
+
+			case '\\':
+				if(pattern.startsWith("\\Q", position))
+				{
+					quoting		= true;
+					position	+= 2;
+
+					return null;
+				}
+
+				int[] escaped	= parseEscape(false);
+
+				return newCharacterSet(escaped);
+
+			case '^':
+			case '$':
+			case ')':
+			case '*':
+			case '+':
+			case '?':
+			case '{':
+				throw new UnsupportedPatternException(pattern);
+
+			default:
+				++position;
+
+				return newCharacterSet(new int[] {character, character});
+		}
+	}
+
+	/**
+	 * Parses a character class, starting at '['.
+	 *
+	 * @return	The ranges of the class.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected int[] parseCharacterClass() throws UnsupportedPatternException
+	{
+		/* Skipping '['. */
+		++position;
+
+		boolean negate	= peek('^');
+
+		if(negate)
+		{
+			++position;
+		}
+
+		if(peek(']'))
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		int[] ranges	= new int[8];
+		int n			= 0;
+
+		while(!peek(']'))
+		{
+			if((position >= pattern.length()) || peek('[') || pattern.startsWith("&&", position))
+			{
+				/* Unterminated class, unions and intersections. */
+				throw new UnsupportedPatternException(pattern);
+			}
+
+			int[] item	= parseClassItem();
+
+			if(peek('-') && ((position + 1) < pattern.length()) && (']' != pattern.charAt(position + 1)))
+			{
+				/* Range: both ends must be single characters. */
+				++position;
+
+				int[] end	= parseClassItem();
+
+				if((2 != item.length) || (item[0] != item[1]) || (2 != end.length) || (end[0] != end[1])
+						|| (item[0] > end[0]))
+				{
+					throw new UnsupportedPatternException(pattern);
+				}
+
+				item	= new int[] {item[0], end[0]};
+			}
+
+			if((n + item.length) > ranges.length)
+			{
+				ranges	= Arrays.copyOf(ranges, (2 * ranges.length) + item.length);
+			}
+
+			System.arraycopy(item, 0, ranges, n, item.length);
+
+			n	+= item.length;
+		}
+
+		/* Skipping ']'. */
+		++position;
+
+		int[] normalized	= normalize(Arrays.copyOf(ranges, n));
+
+		return negate ? complement(normalized) : normalized;
+	}
+
+	/**
+	 * Parses one character (or one escape) inside a character class.
+	 *
+	 * @return	The ranges of the item.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern contains an unsupported construct.
+	 */
+	protected int[] parseClassItem() throws UnsupportedPatternException
+	{
+		char character	= pattern.charAt(position);
+
+		if('\\' == character)
+		{
+			return parseEscape(true);
+		}
+
+		++position;
+
+		return new int[] {character, character};
+	}
+
+	/**
+	 * Parses an escape sequence, starting at '\'.
+	 *
+	 * @param inClass	Whether the escape is inside a character class or not.
+	 *
+	 * @return	The ranges of the escaped character(s).
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the escape is not supported.
+	 */
+	protected int[] parseEscape(boolean inClass) throws UnsupportedPatternException
+	{
+		if((position + 1) >= pattern.length())
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		char character	= pattern.charAt(position + 1);
+
+		position	+= 2;
+
+		switch(character)
+		{
+			case 'd':
+				return DIGITS;
+
+			case 'D':
+				return complement(DIGITS);
+
+			case 's':
+				return SPACES;
+
+			case 'S':
+				return complement(SPACES);
+
+			case 'w':
+				return WORD_CHARACTERS;
+
+			case 'W':
+				return complement(WORD_CHARACTERS);
+
+			case 't':
+				return new int[] {'\t', '\t'};
+
+			case 'n':
+				return new int[] {'\n', '\n'};
+
+			case 'r':
+				return new int[] {'\r', '\r'};
+
+			case 'f':
+				return new int[] {'\f', '\f'};
+
+			case 'a':
+				return new int[] {'\u0007', '\u0007'};
+
+			case 'e':
+				return new int[] {'\u001B', '\u001B'};
+
+			case 'x':
+				return parseHexadecimal(2);
+
+			case 'u':
+				return parseHexadecimal(4);
+
+			default:
+				if(Character.isLetterOrDigit(character))
+				{
+					/* Anchors, back-references, Unicode properties, etc. */
+					throw new UnsupportedPatternException(pattern);
+				}
+
+				/* Escaped symbol, like '\-' or '\.'. */
+				return new int[] {character, character};
+		}
+	}
+
+	/**
+	 * Parses {@code digits} hexadecimal digits following {@code \x} or {@code \\u}.
+	 *
+	 * @param digits	The number of digits.
+	 *
+	 * @return	The ranges of the character.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the digits are malformed.
+	 */
+	protected int[] parseHexadecimal(int digits) throws UnsupportedPatternException
+	{
+		if((position + digits) > pattern.length())
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		int value;
+
+		try
+		{
+			value	= Integer.parseInt(pattern.substring(position, position + digits), 16);
+		}
+		catch(NumberFormatException e)
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		position	+= digits;
+
+		return new int[] {value, value};
+	}
+
+	/**
+	 * Returns whether or not the character at the current position is {@code character}.
+	 *
+	 * @param character	The character.
+	 *
+	 * @return	{@code true} if it is, {@code false} otherwise (or at the end of the pattern).
+	 */
+	protected boolean peek(char character)
+	{
+		return (position < pattern.length()) && (character == pattern.charAt(position));
+	}
+
+	/**
+	 * Creates a fragment matching one character among {@code ranges}.
+	 *
+	 * @param ranges	The ranges.
+	 *
+	 * @return	The fragment.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the automaton becomes too large.
+	 */
+	protected Fragment newCharacterSet(int[] ranges) throws UnsupportedPatternException
+	{
+		State setStart	= newState();
+		State setEnd	= newState();
+
+		setStart.ranges	= ranges;
+		setStart.next	= setEnd;
+
+		return new Fragment(setStart, setEnd);
+	}
+
+	/**
+	 * Creates a new state.
+	 *
+	 * @return	The new state.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the automaton becomes too large.
+	 */
+	protected State newState() throws UnsupportedPatternException
+	{
+		if(states.size() >= MAX_STATES)
+		{
+			throw new UnsupportedPatternException(pattern);
+		}
+
+		State state	= new State(states.size());
+
+		states.add(state);
+
+		return state;
+	}
+
+	/**
+	 * A state of the automaton. It either has one transition on a set of characters ({@code ranges}/{@code next})
+	 * or any number of empty transitions ({@code epsilons}).
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	static class State
+	{
+		/**
+		 * The id of the state (its index in {@code states}).
+		 */
+		final int id;
+
+		/**
+		 * The characters accepted by the transition, {@code null} if there is none.
+		 */
+		int[] ranges;
+
+		/**
+		 * The target of the transition.
+		 */
+		State next;
+
+		/**
+		 * The targets of the empty transitions.
+		 */
+		final ArrayList<State> epsilons	= new ArrayList<State>(2);
+
+		/**
+		 * Constructor.
+		 *
+		 * @param id	The id of the state.
+		 */
+		State(int id)
+		{
+			this.id	= id;
+		}
+
+		/**
+		 * Adds an empty transition.
+		 *
+		 * @param target	The target.
+		 */
+		void addEpsilon(State target)
+		{
+			epsilons.add(target);
+		}
+	}
+
+	/**
+	 * A part of the automaton with one entry and one exit.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	static class Fragment
+	{
+		/**
+		 * The entry.
+		 */
+		final State start;
+
+		/**
+		 * The exit.
+		 */
+		final State end;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param start	The entry.
+		 * @param end	The exit.
+		 */
+		Fragment(State start, State end)
+		{
+			this.start	= start;
+			this.end	= end;
+		}
+	}
+}
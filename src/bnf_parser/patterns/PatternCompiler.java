@@ -0,0 +1,262 @@
+package bnf_parser.patterns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * This class compiles the patterns used by the parser. Patterns using only regular constructs (see {@link Nfa}) are
+ * transformed into a {@link DfaPattern} by the subset construction. Any other pattern, or a pattern whose automaton
+ * would be too large, is compiled into a {@link RegexPattern}.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class PatternCompiler
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * Maximum number of states of a {@link DfaPattern}. Above it, the pattern falls back to a {@link RegexPattern}.
+	 */
+	public static final int MAX_DFA_STATES	= 1024;
+
+	// PRIVATE CONSTRUCTOR
+
+	/**
+	 * Only static methods.
+	 */
+	private PatternCompiler()
+	{
+
+	}
+
+	// PUBLIC STATIC METHODS
+
+	/**
+	 * Compiles a pattern.
+	 *
+	 * @param pattern	The pattern. It must not start with {@code ^} since patterns are always anchored.
+	 *
+	 * @return	A {@link DfaPattern} if possible, a {@link RegexPattern} otherwise.
+	 */
+	public static CompiledPattern compile(String pattern)
+	{
+		try
+		{
+			return compileToDfa(pattern);
+		}
+		catch(UnsupportedPatternException e)
+		{
+			/* Unsupported construct or automaton too large: java.util.regex will do the job. */
+
+			return new RegexPattern(pattern);
+		}
+	}
+
+	/**
+	 * Compiles a pattern into a {@link DfaPattern}.
+	 *
+	 * @param pattern	The pattern.
+	 *
+	 * @return	The {@link DfaPattern}.
+	 *
+	 * @throws UnsupportedPatternException	Thrown if the pattern cannot be transformed into a {@link DfaPattern}.
+	 */
+	public static DfaPattern compileToDfa(String pattern) throws UnsupportedPatternException
+	{
+		Nfa nfa	= new Nfa(pattern);
+
+		int[] classStarts	= computeClassStarts(nfa);
+		int numberOfClasses	= classStarts.length;
+
+		/* For every state having a transition, the classes of characters it accepts. */
+		BitSet[] acceptedClasses	= new BitSet[nfa.states.size()];
+
+		for(Nfa.State state : nfa.states)
+		{
+			if(null != state.ranges)
+			{
+				acceptedClasses[state.id]	= new BitSet(numberOfClasses);
+
+				for(int i = 0; i < state.ranges.length; i += 2)
+				{
+					int from	= findClass(classStarts, state.ranges[i]);
+					int to		= findClass(classStarts, state.ranges[i + 1]);
+
+					acceptedClasses[state.id].set(from, to + 1);
+				}
+			}
+		}
+
+		/* Subset construction: every state of the DFA is a set of states of the NFA. */
+		HashMap<BitSet, Integer> dfaStates	= new HashMap<BitSet, Integer>();
+		ArrayList<BitSet> dfaStateSets		= new ArrayList<BitSet>();
+		ArrayList<int[]> dfaTransitions		= new ArrayList<int[]>();
+		ArrayDeque<BitSet> statesToVisit	= new ArrayDeque<BitSet>();
+
+		BitSet initialSet	= new BitSet();
+
+		initialSet.set(nfa.start.id);
+
+		closure(nfa, initialSet);
+
+		dfaStates.put(initialSet, 0);
+		dfaStateSets.add(initialSet);
+		statesToVisit.add(initialSet);
+
+		while(!statesToVisit.isEmpty())
+		{
+			BitSet currentSet	= statesToVisit.removeFirst();
+			int[] row			= new int[numberOfClasses];
+
+			for(int characterClass = 0; characterClass < numberOfClasses; ++characterClass)
+			{
+				BitSet nextSet	= new BitSet();
+
+				for(int id = currentSet.nextSetBit(0); id >= 0; id = currentSet.nextSetBit(id + 1))
+				{
+					if((null != acceptedClasses[id]) && acceptedClasses[id].get(characterClass))
+					{
+						nextSet.set(nfa.states.get(id).next.id);
+					}
+				}
+
+				if(nextSet.isEmpty())
+				{
+					row[characterClass]	= DfaPattern.DEAD_STATE;
+
+					continue;
+				}
+
+				closure(nfa, nextSet);
+
+				Integer nextState	= dfaStates.get(nextSet);
+
+				if(null == nextState)
+				{
+					if(dfaStateSets.size() >= MAX_DFA_STATES)
+					{
+						throw new UnsupportedPatternException(pattern);
+					}
+
+					nextState	= dfaStateSets.size();
+
+					dfaStates.put(nextSet, nextState);
+					dfaStateSets.add(nextSet);
+					statesToVisit.add(nextSet);
+				}
+
+				row[characterClass]	= nextState;
+			}
+
+			dfaTransitions.add(row);
+		}
+
+		/* Flattening the table. Rows were added in the same order as the states were numbered. */
+		int numberOfStates		= dfaStateSets.size();
+		int[] transitions		= new int[numberOfStates * numberOfClasses];
+		boolean[] accepting		= new boolean[numberOfStates];
+
+		for(int state = 0; state < numberOfStates; ++state)
+		{
+			System.arraycopy(dfaTransitions.get(state), 0, transitions, state * numberOfClasses, numberOfClasses);
+
+			accepting[state]	= dfaStateSets.get(state).get(nfa.accept.id);
+		}
+
+		return new DfaPattern(pattern, classStarts, transitions, accepting);
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Splits the characters into classes: two characters are in the same class if every transition of the NFA accepts
+	 * both or none of them.
+	 *
+	 * @param nfa	The NFA.
+	 *
+	 * @return	The first character of every class, sorted, starting with 0.
+	 */
+	protected static int[] computeClassStarts(Nfa nfa)
+	{
+		TreeSet<Integer> boundaries	= new TreeSet<Integer>();
+
+		boundaries.add(0);
+
+		for(Nfa.State state : nfa.states)
+		{
+			if(null != state.ranges)
+			{
+				for(int i = 0; i < state.ranges.length; i += 2)
+				{
+					boundaries.add(state.ranges[i]);
+
+					if(state.ranges[i + 1] < Nfa.MAX_CHAR)
+					{
+						boundaries.add(state.ranges[i + 1] + 1);
+					}
+				}
+			}
+		}
+
+		int[] classStarts	= new int[boundaries.size()];
+		int n				= 0;
+
+		for(Integer boundary : boundaries)
+		{
+			classStarts[n++]	= boundary;
+		}
+
+		return classStarts;
+	}
+
+	/**
+	 * Returns the class of a character.
+	 *
+	 * @param classStarts	The first character of every class.
+	 * @param character		The character.
+	 *
+	 * @return	The class.
+	 */
+	protected static int findClass(int[] classStarts, int character)
+	{
+		int index	= Arrays.binarySearch(classStarts, character);
+
+		return (0 <= index) ? index : (-index - 2);
+	}
+
+	/**
+	 * Adds to {@code set} every state reachable through empty transitions.
+	 *
+	 * @param nfa	The NFA.
+	 * @param set	The set of states, modified in place.
+	 */
+	protected static void closure(Nfa nfa, BitSet set)
+	{
+		ArrayDeque<Nfa.State> statesToVisit	= new ArrayDeque<Nfa.State>();
+
+		for(int id = set.nextSetBit(0); id >= 0; id = set.nextSetBit(id + 1))
+		{
+			statesToVisit.add(nfa.states.get(id));
+		}
+
+		while(!statesToVisit.isEmpty())
+		{
+			Nfa.State state	= statesToVisit.removeFirst();
+
+			for(Nfa.State target : state.epsilons)
+			{
+				if(!set.get(target.id))
+				{
+					set.set(target.id);
+
+					statesToVisit.add(target);
+				}
+			}
+		}
+	}
+}
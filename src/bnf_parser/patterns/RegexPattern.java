@@ -0,0 +1,67 @@
+package bnf_parser.patterns;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class matches a pattern using {@link java.util.regex}. It is used by {@link PatternCompiler} whenever a
+ * pattern contains a construct that cannot be transformed into a {@link DfaPattern} (for example, anchors,
+ * back-references, lookarounds or lazy quantifiers).
+ *
+ * <p>Since the {@link Matcher} is reused from one call to another, an instance must not be shared between threads.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class RegexPattern extends CompiledPattern
+{
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The compiled {@link Pattern}. {@code DOTALL} is used since the parser always did.
+	 */
+	protected final Pattern compiledPattern;
+
+	/**
+	 * The {@link Matcher} reused between calls to avoid creating a new one every time.
+	 */
+	protected Matcher matcher;
+
+	// PUBLIC CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param pattern	The pattern to be compiled.
+	 */
+	public RegexPattern(String pattern)
+	{
+		super(pattern);
+
+		compiledPattern	= Pattern.compile(pattern, Pattern.DOTALL);
+	}
+
+	// PUBLIC METHODS
+
+	@Override
+	public int match(CharSequence input)
+	{
+		if(null == matcher)
+		{
+			matcher	= compiledPattern.matcher(input);
+		}
+		else
+		{
+			matcher.reset(input);
+		}
+
+		/* 'lookingAt' only tries to match at the beginning of the input. Using 'find' with '^' would try (and fail) at
+		 * every position until the end of the input. */
+		if(matcher.lookingAt())
+		{
+			return matcher.end();
+		}
+
+		return NO_MATCH;
+	}
+}
@@ -0,0 +1,29 @@
+package bnf_parser.patterns;
+
+/**
+ * Exception thrown when a pattern contains a construct that cannot be compiled into a {@link DfaPattern}. When it
+ * happens, {@link PatternCompiler} falls back to a {@link RegexPattern}.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class UnsupportedPatternException extends Exception
+{
+	/**
+	 * Constructor without message.
+	 */
+	public UnsupportedPatternException()
+	{
+		super();
+	}
+
+	/**
+	 * Constructor with message.
+	 *
+	 * @param message	The message.
+	 */
+	public UnsupportedPatternException(String message)
+	{
+		super(message);
+	}
+}
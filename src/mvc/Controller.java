@@ -1,14 +1,15 @@
 package mvc;
 
 import java.io.File;
-import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 
 import javax.swing.JFileChooser;
 
+import mvc.models.FlightRecorderSupport;
 import mvc.models.Metrics.METRICS;
+import mvc.models.MetricsCsvWriter;
 import mvc.models.Model;
 import mvc.models.ModelException;
 import mvc.models.ModelException.ATTRIBUTES;
@@ -141,6 +142,9 @@ public class Controller
 				/* This is THE call, the one transforming the file into a bunch of nested objects. */
 				model.analyseFile(filename);
 
+				/* The view never changes the model: let's keep it in its compact read-only form. */
+				model.freeze();
+
 				/* Parsing succeeded, let's show the create metrics button. */
 				view.enablecreateMetricsFileButton();
 			}
@@ -154,6 +158,11 @@ public class Controller
 
 				switch(e.getError())
 				{
+					case ANALYSIS_CANCELLED:
+						sb.append("L'analyse du fichier a été annulée.");
+
+						break;
+
 					case DUPLICATE_ASSOCIATION:
 						sb.append("L'association '")
 							.append(e.get(ATTRIBUTES.ASSOCIATION))
@@ -194,7 +203,9 @@ public class Controller
 						break;
 
 					case INHERITANCE_CYCLE:
-						sb.append("Un cycle a été détecté dans l'héritage d'une ou plusieurs classes.");
+						sb.append("Un cycle a été détecté dans l'héritage des classes suivantes : ")
+							.append(e.get(ATTRIBUTES.CYCLE_CLASSES))
+							.append(".");
 
 						break;
 
@@ -207,6 +218,17 @@ public class Controller
 						sb.append("De l'héritage multiple a été détecté alors qu'il n'est présentement pas permis dans les options.");
 						break;
 
+					case PARSE_BUDGET_EXCEEDED:
+						sb.append("L'interprétation du fichier a été interrompue car elle dépassait la limite ")
+							.append(e.get(ATTRIBUTES.BUDGET_LIMIT))
+							.append(" (")
+							.append(e.get(ATTRIBUTES.RULE_EVALUATIONS))
+							.append(" règles évaluées). Veuillez vérifier la syntaxe du fichier vers la ligne ")
+							.append(e.get(ATTRIBUTES.LINE))
+							.append(".");
+
+						break;
+
 					case PARSING_FAILED:
 						sb.append("L'interprétation du fichier a échoué. Veuillez vérifier la syntaxe du fichier.");
 
@@ -249,6 +271,13 @@ public class Controller
 
 						break;
 
+					case UNKNOWN_CLASS:
+						sb.append("La classe '")
+							.append(e.get(ATTRIBUTES.CLASS))
+							.append("' n'existe pas.");
+
+						break;
+
 					case UNKNOWN_GENERALIZATION_SUBCLASS:
 						sb.append("La sous-classe '")
 							.append(e.get(ATTRIBUTES.SUBCLASS))
@@ -282,62 +311,42 @@ public class Controller
 	{
 		if((null != model) && (null != filename))
 		{
-			/* First line = header, all other lines = class name + all metric values */
-			String[][] metrics	= model.getMetrics();
-
-			StringBuilder sb	= new StringBuilder();
-
-			int nMetrics	= METRICS.getNumberOfMetrics();
-
-			/* Header line */
-
-			sb.append(quoteString("Class"));
-
-			for(int i = 0; i < nMetrics; ++i)
-			{
-				sb.append(",");
-				sb.append(quoteString(METRICS.getMetricFromIndex(i).toString()));
-			}
+			/* Java Flight Recorder event: only recorded if a recording is running, and only created if the API is
+			 * present. */
+			MetricsExportEvent event	= FlightRecorderSupport.isAvailable() ? new MetricsExportEvent() : null;
 
-			sb.append("\r\n");
-
-			/* Class name + metric values, one line per class. */
-
-			for (String[] metric : metrics)
+			if(null != event)
 			{
-				sb.append(quoteString(metric[0]));
-
-				for(int j = 1; j <= nMetrics; ++j)
-				{
-					sb.append(",");
-					sb.append(quoteString(metric[j]));
-				}
-
-				sb.append("\r\n");
+				event.begin();
 			}
 
 			/* To avoid overwritting a file, let's append the current date/time to it. */
 			String date			= (new SimpleDateFormat("yyyyMMdd-HHmmss")).format(new Date());
 			String outFilename	= filename + "-metrics" + "-" + date + ".csv";
 
-			PrintWriter fileWriter	= null;
+			/* The lines are written as they are formatted, so the whole file is never held in memory. */
+			MetricsCsvWriter writer	= new MetricsCsvWriter(model);
+
+			long fileSize;
 
 			try
 			{
-				fileWriter	= new PrintWriter(outFilename, "ISO-8859-1");
-
-				fileWriter.print(sb.toString());
+				fileSize	= writer.write(outFilename);
 			}
 			catch (Exception e)
 			{
 				view.showError("Une erreur est survenue lors de la création du fichier des métriques.");
+
+				return;
 			}
-			finally
+
+			if((null != event) && event.shouldCommit())
 			{
-				if(null != fileWriter)
-				{
-					fileWriter.close();
-				}
+				event.fileName		= outFilename;
+				event.fileSize		= fileSize;
+				event.classCount	= writer.getClassCount();
+
+				event.commit();
 			}
 
 			view.showSuccess("Les métriques ont été enregistrées dans le fichier suivant :\n" + outFilename);
@@ -403,16 +412,4 @@ public class Controller
 	{
 		/* Do nothing. We'll check if it is checked when parsing the file. */
 	}
-
-	/**
-	 * Puts a string between quotes for the generation of the CSV file.
-	 *
-	 * @param string	The string to be quoted. It is assumed that it does not contain quotes.
-	 *
-	 * @return	The quoted string.
-	 */
-	protected String quoteString(String string)
-	{
-		return "\"" + string + "\"";
-	}
 }
@@ -0,0 +1,43 @@
+package mvc;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event covering the creation of the CSV metrics file by
+ * {@link Controller#createMetricsFileButtonClicked()}. It is only recorded when a recording is running (for example,
+ * started with {@code jcmd <pid> JFR.start}); otherwise it costs almost nothing. It is only created if the
+ * {@code jdk.jfr} module is present (see {@link mvc.models.FlightRecorderSupport}).
+ *
+ * @author Hubert Lemelin
+ *
+ */
+@Name("mvc.MetricsExport")
+@Label("UML Metrics Export")
+@Category({"UML Analysis", "Export"})
+@Description("Creation of the CSV file containing the metrics of a UML model")
+public class MetricsExportEvent extends Event
+{
+	/**
+	 * The name of the CSV file.
+	 */
+	@Label("File Name")
+	public String fileName;
+
+	/**
+	 * The number of bytes written.
+	 */
+	@Label("File Size")
+	@DataAmount
+	public long fileSize;
+
+	/**
+	 * The number of classes exported.
+	 */
+	@Label("Class Count")
+	public int classCount;
+}
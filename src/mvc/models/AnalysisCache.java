@@ -0,0 +1,620 @@
+package mvc.models;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import uml_parser.SymbolTable;
+import bnf_parser.CancellationToken;
+
+/**
+ * This class keeps in memory the analyses of files, keyed by their content, so a {@link Model} analysing a file
+ * whose content was already analysed (by any model using the same cache, under any path) gets the result at once
+ * instead of parsing the file. It is set with {@link Model#setAnalysisCache(AnalysisCache)} and can be shared by
+ * models used from several threads: every model parses with its own {@link uml_parser.UmlParser}, so the files
+ * missing from the cache are analysed at the same time.
+ *
+ * <p>The key of an analysis is the size of the file, a 128-bit hash of its content (read through a mapping of the
+ * file, much faster than a cryptographic hash but not meant to resist files crafted to collide) and whether or not
+ * multiple inheritance was allowed. The analyses are kept up to a memory budget, estimated like
+ * {@link AnalysisStatisticsMXBean#getLoadedModelsHeapSize()}: when it is exceeded, the least recently used ones are
+ * evicted. An analysis larger than the budget is not kept.</p>
+ *
+ * <p>When a model asks for a file which is being analysed by another model, it waits for that analysis instead of
+ * doing it again; if that analysis fails or is cancelled, one of the waiting models does it.</p>
+ *
+ * <p>The classes and metrics of a kept analysis are shared by every model which got it: a model makes a copy of them
+ * before changing them ({@link Model#applyChanges(ModelChangeSet)}). The custom metrics are not kept: every model
+ * calculates its own.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class AnalysisCache
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * Default memory budget, in bytes.
+	 */
+	public static final long DEFAULT_MEMORY_BUDGET	= 256L * 1024 * 1024;
+
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * How long, in milliseconds, a model waiting for an analysis sleeps before checking if it was cancelled.
+	 */
+	protected static final long WAIT_INTERVAL		= 50;
+
+	/**
+	 * The size, in bytes, of the parts of a file mapped at once to hash it. Multiple of 8.
+	 */
+	protected static final int MAPPING_SIZE			= 1 << 30;
+
+	/**
+	 * First multiplier of the hash (64-bit primes of xxHash).
+	 */
+	protected static final long PRIME_1				= 0x9E3779B185EBCA87L;
+
+	/**
+	 * Second multiplier of the hash.
+	 */
+	protected static final long PRIME_2				= 0xC2B2AE3D27D4EB4FL;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The memory budget, in bytes.
+	 */
+	protected final long memoryBudget;
+
+	/**
+	 * The analyses kept, from the least recently used to the most recently used.
+	 */
+	protected final LinkedHashMap<Key, Analysis> analyses	= new LinkedHashMap<Key, Analysis>(16, 0.75f, true);
+
+	/**
+	 * The analyses being done, by key.
+	 */
+	protected final HashMap<Key, Computation> computations	= new HashMap<Key, Computation>();
+
+	/**
+	 * The estimated size, in bytes, of the analyses kept.
+	 */
+	protected long memoryUsed;
+
+	/**
+	 * The number of analyses found in the cache, or received from another model analysing the same file.
+	 */
+	protected long hits;
+
+	/**
+	 * The number of analyses not found in the cache (so done by the model asking for them).
+	 */
+	protected long misses;
+
+	/**
+	 * The number of hits for which the model waited for another model analysing the same file.
+	 */
+	protected long sharedComputations;
+
+	/**
+	 * The number of analyses evicted to respect the memory budget.
+	 */
+	protected long evictions;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor using a memory budget of {@link #DEFAULT_MEMORY_BUDGET} bytes.
+	 */
+	public AnalysisCache()
+	{
+		this(DEFAULT_MEMORY_BUDGET);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param memoryBudget	The estimated number of bytes the analyses kept can use.
+	 *
+	 * @throws IllegalArgumentException	Thrown if the budget is negative.
+	 */
+	public AnalysisCache(long memoryBudget)
+	{
+		if(0 > memoryBudget)
+		{
+			throw new IllegalArgumentException("The memory budget can't be negative.");
+		}
+
+		this.memoryBudget	= memoryBudget;
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the memory budget.
+	 *
+	 * @return	The estimated number of bytes the analyses kept can use.
+	 */
+	public long getMemoryBudget()
+	{
+		return memoryBudget;
+	}
+
+	/**
+	 * Returns the estimated size of the analyses kept.
+	 *
+	 * @return	The number of bytes.
+	 */
+	public synchronized long getMemoryUsed()
+	{
+		return memoryUsed;
+	}
+
+	/**
+	 * Returns the number of analyses kept.
+	 *
+	 * @return	The number of analyses.
+	 */
+	public synchronized int getSize()
+	{
+		return analyses.size();
+	}
+
+	/**
+	 * Returns the number of analyses found in the cache, or received from another model analysing the same file.
+	 *
+	 * @return	The number of hits.
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 * Returns the number of analyses not found in the cache, so done by the model asking for them.
+	 *
+	 * @return	The number of misses.
+	 */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	/**
+	 * Returns the number of hits for which the model waited for another model analysing the same file.
+	 *
+	 * @return	The number of hits.
+	 */
+	public synchronized long getSharedComputations()
+	{
+		return sharedComputations;
+	}
+
+	/**
+	 * Returns the number of analyses evicted to respect the memory budget.
+	 *
+	 * @return	The number of evictions.
+	 */
+	public synchronized long getEvictions()
+	{
+		return evictions;
+	}
+
+	/**
+	 * Returns the ratio of hits.
+	 *
+	 * @return	The hits divided by the hits and misses, or 0 if there were none.
+	 */
+	public synchronized double getHitRatio()
+	{
+		long requests	= hits + misses;
+
+		return (0 == requests) ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 * Removes every analysis kept. The analyses being done are kept when they are done. The statistics are not reset.
+	 */
+	public synchronized void clear()
+	{
+		analyses.clear();
+
+		memoryUsed	= 0;
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Creates the key of a file. The whole file is read to hash its content.
+	 *
+	 * @param filename					The filename of the model's definition file.
+	 * @param allowMultipleInheritance	Whether or not multiple inheritance is allowed.
+	 *
+	 * @return	The key.
+	 *
+	 * @throws IOException	Thrown if the file can't be read.
+	 */
+	Key createKey(String filename, boolean allowMultipleInheritance) throws IOException
+	{
+		RandomAccessFile randomAccessFile	= new RandomAccessFile(new File(filename), "r");
+
+		try
+		{
+			FileChannel fileChannel	= randomAccessFile.getChannel();
+			long size				= fileChannel.size();
+			long hash1				= PRIME_1 ^ size;
+			long hash2				= PRIME_2 ^ size;
+
+			/* Both halves of the hash read every 8 bytes, with different multipliers and rotations. */
+			for(long position = 0; position < size; position += MAPPING_SIZE)
+			{
+				ByteBuffer buffer	= fileChannel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(MAPPING_SIZE, size - position));
+
+				while(8 <= buffer.remaining())
+				{
+					long value	= buffer.getLong();
+
+					hash1	= Long.rotateLeft(hash1 ^ (value * PRIME_2), 31) * PRIME_1;
+					hash2	= Long.rotateLeft(hash2 ^ (value * PRIME_1), 27) * PRIME_2;
+				}
+
+				while(buffer.hasRemaining())
+				{
+					long value	= buffer.get() & 0xFF;
+
+					hash1	= Long.rotateLeft(hash1 ^ (value * PRIME_2), 11) * PRIME_1;
+					hash2	= Long.rotateLeft(hash2 ^ (value * PRIME_1), 13) * PRIME_2;
+				}
+			}
+
+			return new Key(size, mix(hash1 + hash2), mix(hash2 ^ hash1), allowMultipleInheritance);
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Returns the analysis of a file. If it is being analysed by another model, waits for it. If it is neither kept
+	 * nor being analysed, returns null: the caller must then analyse the file and give the outcome to
+	 * {@link #complete(Key, Analysis)} or {@link #abandon(Key)}, even if it fails.
+	 *
+	 * @param key				The key of the file.
+	 * @param cancellationToken	The token to cancel the analysis. Can be null.
+	 *
+	 * @return	The analysis, or null if the caller must analyse the file.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis is cancelled, or the thread
+	 * 							interrupted, while waiting.
+	 */
+	Analysis acquire(Key key, CancellationToken cancellationToken) throws ModelException
+	{
+		while(true)
+		{
+			Computation computation;
+
+			synchronized(this)
+			{
+				Analysis analysis	= analyses.get(key);
+
+				if(null != analysis)
+				{
+					++hits;
+
+					return analysis;
+				}
+
+				computation	= computations.get(key);
+
+				if(null == computation)
+				{
+					++misses;
+
+					computations.put(key, new Computation());
+
+					return null;
+				}
+			}
+
+			if(computation.await(cancellationToken))
+			{
+				synchronized(this)
+				{
+					++hits;
+					++sharedComputations;
+				}
+
+				return computation.analysis;
+			}
+
+			/* Failed or cancelled: let's try again, maybe analysing the file ourselves. */
+		}
+	}
+
+	/**
+	 * Keeps the analysis of a file, evicting the least recently used ones if the memory budget is exceeded, and gives
+	 * it to the models waiting for it.
+	 *
+	 * @param key		The key of the file.
+	 * @param analysis	The analysis.
+	 */
+	synchronized void complete(Key key, Analysis analysis)
+	{
+		if(analysis.size <= memoryBudget)
+		{
+			Analysis previous	= analyses.put(key, analysis);
+
+			if(null != previous)
+			{
+				memoryUsed	-= previous.size;
+			}
+
+			memoryUsed	+= analysis.size;
+
+			Iterator<Analysis> iterator	= analyses.values().iterator();
+
+			/* The analysis just added is the last one, and fits. */
+			while(memoryUsed > memoryBudget)
+			{
+				memoryUsed	-= iterator.next().size;
+
+				iterator.remove();
+
+				++evictions;
+			}
+		}
+
+		Computation computation	= computations.remove(key);
+
+		if(null != computation)
+		{
+			computation.finish(analysis);
+		}
+	}
+
+	/**
+	 * Tells the models waiting for the analysis of a file that it failed or was cancelled.
+	 *
+	 * @param key	The key of the file.
+	 */
+	synchronized void abandon(Key key)
+	{
+		Computation computation	= computations.remove(key);
+
+		if(null != computation)
+		{
+			computation.finish(null);
+		}
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Mixes the bits of a hash (finalizer of MurmurHash3), so every bit of the input changes about half of them.
+	 *
+	 * @param hash	The hash.
+	 *
+	 * @return	The mixed hash.
+	 */
+	protected static long mix(long hash)
+	{
+		hash	^= hash >>> 33;
+		hash	*= 0xFF51AFD7ED558CCDL;
+		hash	^= hash >>> 33;
+		hash	*= 0xC4CEB9FE1A85EC53L;
+		hash	^= hash >>> 33;
+
+		return hash;
+	}
+
+	// PACKAGE STATIC CLASSES
+
+	/**
+	 * The key of a file: its size, the hash of its content and the options changing the outcome of the analysis.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	static class Key
+	{
+		// PROTECTED PROPERTIES
+
+		/**
+		 * The size of the file, in bytes.
+		 */
+		protected final long size;
+
+		/**
+		 * The first half of the hash of the content.
+		 */
+		protected final long hash1;
+
+		/**
+		 * The second half of the hash of the content.
+		 */
+		protected final long hash2;
+
+		/**
+		 * Whether or not multiple inheritance was allowed.
+		 */
+		protected final boolean allowMultipleInheritance;
+
+		// PROTECTED CONSTRUCTOR
+
+		/**
+		 * Constructor.
+		 *
+		 * @param size						The size of the file, in bytes.
+		 * @param hash1						The first half of the hash of the content.
+		 * @param hash2						The second half of the hash of the content.
+		 * @param allowMultipleInheritance	Whether or not multiple inheritance was allowed.
+		 */
+		protected Key(long size, long hash1, long hash2, boolean allowMultipleInheritance)
+		{
+			this.size						= size;
+			this.hash1						= hash1;
+			this.hash2						= hash2;
+			this.allowMultipleInheritance	= allowMultipleInheritance;
+		}
+
+		// PUBLIC METHODS
+
+		@Override
+		public boolean equals(Object object)
+		{
+			if(!(object instanceof Key))
+			{
+				return false;
+			}
+
+			Key key	= (Key) object;
+
+			return (size == key.size) && (hash1 == key.hash1) && (hash2 == key.hash2)
+					&& (allowMultipleInheritance == key.allowMultipleInheritance);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return (int) hash1;
+		}
+	}
+
+	/**
+	 * The analysis of a file: what a {@link Model} keeps once the file is analysed, except the custom metrics.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	static class Analysis
+	{
+		// PACKAGE PROPERTIES
+
+		/**
+		 * The classes, by name.
+		 */
+		final HashMap<String, ClassContainer> classes;
+
+		/**
+		 * The names of the classes, sorted.
+		 */
+		final ArrayList<String> sortedClassNames;
+
+		/**
+		 * The metrics.
+		 */
+		final Metrics metrics;
+
+		/**
+		 * The table the classes are resolved in.
+		 */
+		final SymbolTable symbolTable;
+
+		/**
+		 * The estimated size, in bytes.
+		 */
+		final long size;
+
+		// PACKAGE CONSTRUCTOR
+
+		/**
+		 * Constructor.
+		 *
+		 * @param classes			The classes, by name.
+		 * @param sortedClassNames	The names of the classes, sorted.
+		 * @param metrics			The metrics.
+		 * @param symbolTable		The table the classes are resolved in.
+		 * @param size				The estimated size, in bytes.
+		 */
+		Analysis(HashMap<String, ClassContainer> classes, ArrayList<String> sortedClassNames, Metrics metrics,
+				SymbolTable symbolTable, long size)
+		{
+			this.classes			= classes;
+			this.sortedClassNames	= sortedClassNames;
+			this.metrics			= metrics;
+			this.symbolTable		= symbolTable;
+			this.size				= size;
+		}
+	}
+
+	// PROTECTED STATIC CLASSES
+
+	/**
+	 * An analysis being done by a model, which other models can wait for.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	protected static class Computation
+	{
+		// PROTECTED PROPERTIES
+
+		/**
+		 * Counted down when the analysis is done.
+		 */
+		protected final CountDownLatch done	= new CountDownLatch(1);
+
+		/**
+		 * The analysis, or null if it failed or was cancelled. Set before {@link #done} is counted down.
+		 */
+		protected volatile Analysis analysis;
+
+		// PROTECTED METHODS
+
+		/**
+		 * Gives the outcome of the analysis to the models waiting for it.
+		 *
+		 * @param analysis	The analysis, or null if it failed or was cancelled.
+		 */
+		protected void finish(Analysis analysis)
+		{
+			this.analysis	= analysis;
+
+			done.countDown();
+		}
+
+		/**
+		 * Waits for the analysis.
+		 *
+		 * @param cancellationToken	The token to cancel the analysis. Can be null.
+		 *
+		 * @return	{@code true} if the analysis is available, {@code false} if it failed or was cancelled.
+		 *
+		 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis of the waiting model is
+		 * 							cancelled, or its thread interrupted.
+		 */
+		protected boolean await(CancellationToken cancellationToken) throws ModelException
+		{
+			try
+			{
+				while(!done.await(WAIT_INTERVAL, TimeUnit.MILLISECONDS))
+				{
+					if((null != cancellationToken) && cancellationToken.isCancelled())
+					{
+						throw new ModelException(ModelException.ERRORS.ANALYSIS_CANCELLED);
+					}
+				}
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+
+				throw new ModelException(ModelException.ERRORS.ANALYSIS_CANCELLED);
+			}
+
+			return null != analysis;
+		}
+	}
+}
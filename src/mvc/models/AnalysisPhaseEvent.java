@@ -0,0 +1,50 @@
+package mvc.models;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event covering one phase of the analysis of a file by {@link Model}: the parsing by
+ * {@link uml_parser.UmlParser}, each {@code createAndCheck*} method, the calculation of the {@link Metrics} and the
+ * building of the caches of the {@link ClassContainer}'s. It is only recorded when a recording is running (for
+ * example, started with {@code jcmd <pid> JFR.start}); otherwise it costs almost nothing. It is only created if the
+ * {@code jdk.jfr} module is present (see {@link FlightRecorderSupport}), so {@code uml_parser} does not depend on it.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+@Name("mvc.models.AnalysisPhase")
+@Label("UML Analysis Phase")
+@Category({"UML Analysis", "Model"})
+@Description("One phase of the analysis of a parsed UML model")
+public class AnalysisPhaseEvent extends Event
+{
+	/**
+	 * The name of the phase.
+	 */
+	@Label("Phase")
+	public String phase;
+
+	/**
+	 * The name of the file analysed.
+	 */
+	@Label("File Name")
+	public String fileName;
+
+	/**
+	 * The size of the file analysed.
+	 */
+	@Label("File Size")
+	@DataAmount
+	public long fileSize;
+
+	/**
+	 * The number of classes of the model.
+	 */
+	@Label("Class Count")
+	public int classCount;
+}
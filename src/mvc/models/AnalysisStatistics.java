@@ -0,0 +1,388 @@
+package mvc.models;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import mvc.models.ModelException.ERRORS;
+
+/**
+ * This class counts the analyses done by every {@link Model} of the JVM: files parsed, bytes and classes processed,
+ * latency of every phase, failures and heap held by the models. It is a singleton registered in the platform MBean
+ * server, through {@link AnalysisStatisticsMXBean}, the first time it is used.
+ *
+ * <p>Counters are {@link LongAdder}'s: recording only touches a cell owned (most of the time) by the current thread,
+ * so analyses running at the same time do not contend. Reading a value sums the cells, which is only done by JMX
+ * clients.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class AnalysisStatistics implements AnalysisStatisticsMXBean
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * The name under which the instance is registered in the platform MBean server.
+	 */
+	public static final String OBJECT_NAME	= "mvc.models:type=AnalysisStatistics";
+
+	// PROTECTED STATIC PROPERTIES
+
+	/**
+	 * The unique instance.
+	 */
+	protected static AnalysisStatistics instance;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * Number of files parsed successfully.
+	 */
+	protected final LongAdder filesParsed		= new LongAdder();
+
+	/**
+	 * Number of files analysed successfully.
+	 */
+	protected final LongAdder filesAnalysed		= new LongAdder();
+
+	/**
+	 * Number of bytes of the files parsed successfully.
+	 */
+	protected final LongAdder bytesParsed		= new LongAdder();
+
+	/**
+	 * Number of classes of the files analysed successfully.
+	 */
+	protected final LongAdder classesAnalysed	= new LongAdder();
+
+	/**
+	 * Time spent parsing the files parsed successfully, in nanoseconds.
+	 */
+	protected final LongAdder parseTime			= new LongAdder();
+
+	/**
+	 * Time spent validating and calculating the metrics of the files analysed successfully, in nanoseconds.
+	 */
+	protected final LongAdder analysisTime		= new LongAdder();
+
+	/**
+	 * Number of failures, indexed by the ordinal of {@link ERRORS}.
+	 */
+	protected final LongAdder[] failures		= new LongAdder[ERRORS.values().length];
+
+	/**
+	 * Latencies of the parsing phase.
+	 */
+	protected final LatencyHistogram parseLatencies			= new LatencyHistogram();
+
+	/**
+	 * Latencies of the validation phase.
+	 */
+	protected final LatencyHistogram validationLatencies	= new LatencyHistogram();
+
+	/**
+	 * Latencies of the metrics phase.
+	 */
+	protected final LatencyHistogram metricsLatencies		= new LatencyHistogram();
+
+	/**
+	 * The estimated heap size of every loaded {@link Model}. Keys are weak so a model dropped without being reset is
+	 * not kept alive, and stops being counted once collected.
+	 */
+	protected final Map<Model, Long> loadedModels	= Collections.synchronizedMap(new WeakHashMap<Model, Long>());
+
+	// PUBLIC STATIC METHODS
+
+	/**
+	 * Returns the unique instance, creating and registering it if needed.
+	 *
+	 * @return	The unique instance of {@link AnalysisStatistics}.
+	 */
+	public static synchronized AnalysisStatistics getInstance()
+	{
+		if(null == instance)
+		{
+			instance	= new AnalysisStatistics();
+
+			try
+			{
+				ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(OBJECT_NAME));
+			}
+			catch(JMException e)
+			{
+				/* Already registered (for example, by another class loader) or JMX unavailable: statistics are still
+				 * recorded, they simply cannot be watched. */
+			}
+		}
+
+		return instance;
+	}
+
+	// PRIVATE CONSTRUCTOR
+
+	/**
+	 * Private constructor.
+	 */
+	private AnalysisStatistics()
+	{
+		for(int i = 0; i < failures.length; ++i)
+		{
+			failures[i]	= new LongAdder();
+		}
+	}
+
+	// PUBLIC METHODS
+
+	@Override
+	public long getFilesParsed()
+	{
+		return filesParsed.sum();
+	}
+
+	@Override
+	public long getFilesAnalysed()
+	{
+		return filesAnalysed.sum();
+	}
+
+	@Override
+	public long getFailures()
+	{
+		long sum	= 0;
+
+		for(LongAdder failure : failures)
+		{
+			sum	+= failure.sum();
+		}
+
+		return sum;
+	}
+
+	@Override
+	public Map<String, Long> getFailuresByError()
+	{
+		/* Every error is present, even with 0 failure, so scrapers always see the same keys. */
+		Map<String, Long> map	= new LinkedHashMap<String, Long>();
+
+		for(ERRORS error : ERRORS.values())
+		{
+			map.put(error.name(), failures[error.ordinal()].sum());
+		}
+
+		return map;
+	}
+
+	@Override
+	public long getBytesParsed()
+	{
+		return bytesParsed.sum();
+	}
+
+	@Override
+	public long getClassesAnalysed()
+	{
+		return classesAnalysed.sum();
+	}
+
+	@Override
+	public double getBytesPerSecond()
+	{
+		return perSecond(bytesParsed.sum(), parseTime.sum());
+	}
+
+	@Override
+	public double getClassesPerSecond()
+	{
+		return perSecond(classesAnalysed.sum(), analysisTime.sum());
+	}
+
+	@Override
+	public double getParseLatencyP50()
+	{
+		return parseLatencies.getPercentile(0.5);
+	}
+
+	@Override
+	public double getParseLatencyP99()
+	{
+		return parseLatencies.getPercentile(0.99);
+	}
+
+	@Override
+	public double getValidationLatencyP50()
+	{
+		return validationLatencies.getPercentile(0.5);
+	}
+
+	@Override
+	public double getValidationLatencyP99()
+	{
+		return validationLatencies.getPercentile(0.99);
+	}
+
+	@Override
+	public double getMetricsLatencyP50()
+	{
+		return metricsLatencies.getPercentile(0.5);
+	}
+
+	@Override
+	public double getMetricsLatencyP99()
+	{
+		return metricsLatencies.getPercentile(0.99);
+	}
+
+	@Override
+	public int getLoadedModels()
+	{
+		return loadedModels.size();
+	}
+
+	@Override
+	public long getLoadedModelsHeapSize()
+	{
+		long sum	= 0;
+
+		synchronized(loadedModels)
+		{
+			for(Long size : loadedModels.values())
+			{
+				sum	+= size;
+			}
+		}
+
+		return sum;
+	}
+
+	@Override
+	public void reset()
+	{
+		filesParsed.reset();
+		filesAnalysed.reset();
+		bytesParsed.reset();
+		classesAnalysed.reset();
+		parseTime.reset();
+		analysisTime.reset();
+
+		for(LongAdder failure : failures)
+		{
+			failure.reset();
+		}
+
+		parseLatencies.reset();
+		validationLatencies.reset();
+		metricsLatencies.reset();
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Records a file parsed successfully.
+	 *
+	 * @param bytes	The size of the file.
+	 * @param nanos	The time spent parsing, in nanoseconds.
+	 */
+	void recordParsing(long bytes, long nanos)
+	{
+		filesParsed.increment();
+		bytesParsed.add(bytes);
+		parseTime.add(nanos);
+		parseLatencies.record(nanos);
+	}
+
+	/**
+	 * Records the validation phase of a file.
+	 *
+	 * @param nanos	The time spent validating, in nanoseconds.
+	 */
+	void recordValidation(long nanos)
+	{
+		analysisTime.add(nanos);
+		validationLatencies.record(nanos);
+	}
+
+	/**
+	 * Records the metrics phase of a file.
+	 *
+	 * @param nanos	The time spent calculating the metrics, in nanoseconds.
+	 */
+	void recordMetrics(long nanos)
+	{
+		analysisTime.add(nanos);
+		metricsLatencies.record(nanos);
+	}
+
+	/**
+	 * Records a file analysed successfully, which is now held by {@code model}.
+	 *
+	 * @param model			The model.
+	 * @param classes		The number of classes of the file.
+	 * @param heapSize		The estimated heap held by the model.
+	 */
+	void recordAnalysis(Model model, int classes, long heapSize)
+	{
+		filesAnalysed.increment();
+		classesAnalysed.add(classes);
+		loadedModels.put(model, heapSize);
+	}
+
+	/**
+	 * Records a failed analysis.
+	 *
+	 * @param error	The error.
+	 */
+	void recordFailure(ERRORS error)
+	{
+		failures[error.ordinal()].increment();
+	}
+
+	/**
+	 * Records that a model does not hold an analysed file anymore.
+	 *
+	 * @param model	The model.
+	 */
+	void modelUnloaded(Model model)
+	{
+		loadedModels.remove(model);
+	}
+
+	/**
+	 * Records the new estimated heap held by a model whose analysed file takes less memory (see
+	 * {@link Model#freeze()}).
+	 *
+	 * @param model		The model.
+	 * @param heapSize	The estimated number of bytes.
+	 */
+	void recordHeapSize(Model model, long heapSize)
+	{
+		synchronized(loadedModels)
+		{
+			if(loadedModels.containsKey(model))
+			{
+				loadedModels.put(model, heapSize);
+			}
+		}
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Returns a rate per second.
+	 *
+	 * @param count	The count.
+	 * @param nanos	The time, in nanoseconds.
+	 *
+	 * @return	The rate, or 0 if no time was spent.
+	 */
+	protected static double perSecond(long count, long nanos)
+	{
+		return (0 == nanos) ? 0 : (count * 1e9) / nanos;
+	}
+}
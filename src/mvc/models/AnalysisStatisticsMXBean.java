@@ -0,0 +1,132 @@
+package mvc.models;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link AnalysisStatistics}. It is registered in the platform MBean server under
+ * {@link AnalysisStatistics#OBJECT_NAME} so the statistics of the analyses done by {@link Model} can be watched with
+ * JConsole or any JMX client. Latencies are in milliseconds and rates are computed over the time actually spent in
+ * the corresponding phase.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public interface AnalysisStatisticsMXBean
+{
+	/**
+	 * Returns the number of files parsed successfully.
+	 *
+	 * @return	The number of files parsed.
+	 */
+	public long getFilesParsed();
+
+	/**
+	 * Returns the number of files analysed successfully (parsed, validated and for which the metrics were calculated).
+	 *
+	 * @return	The number of files analysed.
+	 */
+	public long getFilesAnalysed();
+
+	/**
+	 * Returns the number of analyses that failed.
+	 *
+	 * @return	The number of failures.
+	 */
+	public long getFailures();
+
+	/**
+	 * Returns the number of failures for each {@link ModelException.ERRORS}, by name.
+	 *
+	 * @return	The number of failures by error.
+	 */
+	public Map<String, Long> getFailuresByError();
+
+	/**
+	 * Returns the number of bytes of the files parsed successfully.
+	 *
+	 * @return	The number of bytes parsed.
+	 */
+	public long getBytesParsed();
+
+	/**
+	 * Returns the number of classes of the files analysed successfully.
+	 *
+	 * @return	The number of classes analysed.
+	 */
+	public long getClassesAnalysed();
+
+	/**
+	 * Returns the parsing throughput.
+	 *
+	 * @return	The number of bytes parsed per second spent parsing.
+	 */
+	public double getBytesPerSecond();
+
+	/**
+	 * Returns the analysis throughput.
+	 *
+	 * @return	The number of classes analysed per second spent validating and calculating metrics.
+	 */
+	public double getClassesPerSecond();
+
+	/**
+	 * Returns the median latency of the parsing phase.
+	 *
+	 * @return	The latency, in milliseconds.
+	 */
+	public double getParseLatencyP50();
+
+	/**
+	 * Returns the 99th percentile of the latency of the parsing phase.
+	 *
+	 * @return	The latency, in milliseconds.
+	 */
+	public double getParseLatencyP99();
+
+	/**
+	 * Returns the median latency of the validation phase.
+	 *
+	 * @return	The latency, in milliseconds.
+	 */
+	public double getValidationLatencyP50();
+
+	/**
+	 * Returns the 99th percentile of the latency of the validation phase.
+	 *
+	 * @return	The latency, in milliseconds.
+	 */
+	public double getValidationLatencyP99();
+
+	/**
+	 * Returns the median latency of the metrics phase.
+	 *
+	 * @return	The latency, in milliseconds.
+	 */
+	public double getMetricsLatencyP50();
+
+	/**
+	 * Returns the 99th percentile of the latency of the metrics phase.
+	 *
+	 * @return	The latency, in milliseconds.
+	 */
+	public double getMetricsLatencyP99();
+
+	/**
+	 * Returns the number of {@link Model}'s currently holding an analysed file.
+	 *
+	 * @return	The number of loaded models.
+	 */
+	public int getLoadedModels();
+
+	/**
+	 * Returns an estimate of the heap held by the {@link Model}'s currently holding an analysed file.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	public long getLoadedModelsHeapSize();
+
+	/**
+	 * Resets all the counters and histograms. Loaded models are still counted.
+	 */
+	public void reset();
+}
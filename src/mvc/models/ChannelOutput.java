@@ -0,0 +1,321 @@
+package mvc.models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+
+/**
+ * This class writes binary values (big-endian) to a channel through a fixed-size buffer, written every time it is
+ * full, so the memory used does not depend on the size of the output. It is used by {@link MetricsBinaryFile} and
+ * {@link ModelSnapshot}.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class ChannelOutput
+{
+	// PACKAGE STATIC CONSTANTS
+
+	/**
+	 * The size, in bytes, of the buffer.
+	 */
+	static final int BUFFER_SIZE	= 64 * 1024;
+
+	/**
+	 * The charset of the strings.
+	 */
+	static final Charset UTF_8		= Charset.forName("UTF-8");
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The channel.
+	 */
+	protected final WritableByteChannel channel;
+
+	/**
+	 * The buffer, in write mode.
+	 */
+	protected final ByteBuffer buffer	= ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+	/**
+	 * The number of bytes given so far, written or still in the buffer.
+	 */
+	protected long size;
+
+	/**
+	 * The digest hashing the bytes given since {@link #startDigest(MessageDigest)}. Null if no bytes are hashed.
+	 */
+	protected MessageDigest digest;
+
+	/**
+	 * The position in the buffer of the first byte not hashed yet.
+	 */
+	protected int digestStart;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param channel	The channel. It is not closed.
+	 */
+	ChannelOutput(WritableByteChannel channel)
+	{
+		this.channel	= channel;
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the number of bytes given so far, written or still in the buffer.
+	 *
+	 * @return	The number of bytes.
+	 */
+	long getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Adds a byte.
+	 *
+	 * @param value	The value.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putByte(byte value) throws IOException
+	{
+		reserve(1);
+
+		buffer.put(value);
+	}
+
+	/**
+	 * Adds an int.
+	 *
+	 * @param value	The value.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putInt(int value) throws IOException
+	{
+		reserve(4);
+
+		buffer.putInt(value);
+	}
+
+	/**
+	 * Adds a long.
+	 *
+	 * @param value	The value.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putLong(long value) throws IOException
+	{
+		reserve(8);
+
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Adds a float.
+	 *
+	 * @param value	The value.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putFloat(float value) throws IOException
+	{
+		reserve(4);
+
+		buffer.putFloat(value);
+	}
+
+	/**
+	 * Adds a double.
+	 *
+	 * @param value	The value.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putDouble(double value) throws IOException
+	{
+		reserve(8);
+
+		buffer.putDouble(value);
+	}
+
+	/**
+	 * Adds bytes, in several parts if they don't fit in the buffer.
+	 *
+	 * @param bytes	The bytes.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void put(byte[] bytes) throws IOException
+	{
+		int start	= 0;
+
+		while(start < bytes.length)
+		{
+			if(!buffer.hasRemaining())
+			{
+				flush();
+			}
+
+			int length	= Math.min(buffer.remaining(), bytes.length - start);
+
+			buffer.put(bytes, start, length);
+
+			start	+= length;
+			size	+= length;
+		}
+	}
+
+	/**
+	 * Adds a string: its number of bytes in UTF-8, then these bytes. Null is written as -1.
+	 *
+	 * @param string	The string. Can be null.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putString(String string) throws IOException
+	{
+		if(null == string)
+		{
+			putInt(-1);
+
+			return;
+		}
+
+		byte[] bytes	= string.getBytes(UTF_8);
+
+		putInt(bytes.length);
+		put(bytes);
+	}
+
+	/**
+	 * Adds an array of ints, preceded by its length.
+	 *
+	 * @param values	The values.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void putInts(int[] values) throws IOException
+	{
+		putInt(values.length);
+
+		for(int value : values)
+		{
+			putInt(value);
+		}
+	}
+
+	/**
+	 * Adds zeros up to an offset.
+	 *
+	 * @param offset	The offset, not before the current one.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void padTo(long offset) throws IOException
+	{
+		while(size < offset)
+		{
+			putByte((byte) 0);
+		}
+	}
+
+	/**
+	 * Starts hashing the bytes given from now on.
+	 *
+	 * @param digest	The digest. It is updated with every byte until {@link #endDigest()}.
+	 */
+	void startDigest(MessageDigest digest)
+	{
+		this.digest	= digest;
+		digestStart	= buffer.position();
+	}
+
+	/**
+	 * Stops hashing the bytes given and returns their hash.
+	 *
+	 * @return	The hash of the bytes given since {@link #startDigest(MessageDigest)}.
+	 */
+	byte[] endDigest()
+	{
+		updateDigest(buffer.position());
+
+		byte[] hash	= digest.digest();
+
+		digest	= null;
+
+		return hash;
+	}
+
+	/**
+	 * Writes the whole content of the buffer to the channel and clears it.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	void flush() throws IOException
+	{
+		updateDigest(buffer.position());
+
+		digestStart	= 0;
+
+		buffer.flip();
+
+		/* A channel may write fewer bytes than asked. */
+		while(buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Hashes the bytes of the buffer not hashed yet, if a digest is started.
+	 *
+	 * @param end	The position in the buffer after the last byte to hash.
+	 */
+	protected void updateDigest(int end)
+	{
+		if(null == digest)
+		{
+			return;
+		}
+
+		ByteBuffer bytes	= buffer.duplicate();
+
+		bytes.limit(end).position(digestStart);
+
+		digest.update(bytes);
+
+		digestStart	= end;
+	}
+
+	/**
+	 * Makes room for a value, writing the buffer first if needed, and counts its bytes.
+	 *
+	 * @param length	The number of bytes of the value.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	protected void reserve(int length) throws IOException
+	{
+		if(buffer.remaining() < length)
+		{
+			flush();
+		}
+
+		size	+= length;
+	}
+}
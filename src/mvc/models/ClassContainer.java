@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Map.Entry;
 
 import mvc.models.ModelException.ATTRIBUTES;
@@ -14,6 +13,7 @@ import uml_parser.Association;
 import uml_parser.ClassContent;
 import uml_parser.Dataitem;
 import uml_parser.Operation;
+import uml_parser.SymbolTable;
 import uml_parser.UmlParser;
 
 /**
@@ -24,6 +24,28 @@ import uml_parser.UmlParser;
  */
 class ClassContainer
 {
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Estimated size, in bytes, of the header of an object or an array on a 64-bit JVM with compressed references.
+	 */
+	protected static final int OBJECT_HEADER_SIZE	= 16;
+
+	/**
+	 * Estimated size, in bytes, of a reference.
+	 */
+	protected static final int REFERENCE_SIZE		= 4;
+
+	/**
+	 * Estimated size, in bytes, of a {@link String} without its characters: the object and the header of its array.
+	 */
+	protected static final int STRING_SIZE			= (2 * OBJECT_HEADER_SIZE) + 8;
+
+	/**
+	 * Number of fields of a {@code ClassContainer}: references, {@code id} and {@code nameSymbol}.
+	 */
+	protected static final int NUMBER_OF_FIELDS		= 17;
+
 	// PROTECTED PROPERTIES
 
 	/**
@@ -31,11 +53,22 @@ class ClassContainer
 	 */
 	protected ClassContent	classContent;
 
+	/**
+	 * Dense identifier of the class in its model: classes are numbered from 0 in the order they are created. It is
+	 * used as an index by the arrays of {@link Metrics}.
+	 */
+	protected final int id;
+
 	/**
 	 * Name of the class.
 	 */
 	protected String name;
 
+	/**
+	 * Symbol of the name of the class in the {@link SymbolTable} of the model.
+	 */
+	protected final int nameSymbol;
+
 	/**
 	 * List of direct superclasses.
 	 */
@@ -47,9 +80,9 @@ class ClassContainer
 	protected ArrayList<ClassContainer> subclasses;
 
 	/**
-	 * List of attributes. We use a HashMap to easily check if an attribute already exists.
+	 * List of attributes, by name. We use a HashMap to easily check if an attribute already exists.
 	 */
-	protected HashMap<String, String> attributes;
+	protected HashMap<String, Dataitem> attributes;
 
 	/**
 	 * List of methods. At the outer level, in the HashMap, we use the name of the operation as the key. The the inner
@@ -70,21 +103,10 @@ class ClassContainer
 	protected ArrayList<InnerAggregationContainer> aggregations;
 
 	/**
-	 * Cache of the names of the attributes.
+	 * The symbols of the names of the attributes in the {@link SymbolTable} of the model, in the order of
+	 * {@code attributes}, until the caches are built.
 	 */
-	protected String[] attributeNamesCache;
-
-	/**
-	 * Cache of all the {@link ClassContainer} instances of all direct/indirect superclasses. Using a cache reduce
-	 * the number of computation required.
-	 */
-	protected ClassContainer[] allSuperclassesCache;
-
-	/**
-	 * Cache of all the {@link ClassContainer} instances of all direct/indirect subclasses. Using a cache reduce
-	 * the number of computation required.
-	 */
-	protected ClassContainer[] allSubclassesCache;
+	protected int[] attributeSymbols;
 
 	/**
 	 * Cache of the type/name of the attributes. Used by the model to send data to the view. This way, we can unlink
@@ -124,41 +146,51 @@ class ClassContainer
 	 */
 	protected AggregationContainer[] aggregationsCache;
 
-	/**
-	 * Cache of the calculated metrics. Used by the model to send data to the view.
-	 */
-	protected String[] metricsCache;
-
-	/**
-	 * An array of arrays of {@link String}. Each outer level is one metric. In the inner level are only two elements:
-	 * the name of the metric and the value of the metric.
-	 */
-	protected String[][] metrics;
-
 	/**
 	 * Constructor.
 	 *
 	 * @param classContent		The reference to the {@link ClassContent} returned by {@link UmlParser}.
+	 * @param id				The identifier of the class: the number of classes created before it in the model.
+	 * @param symbols			The table of the model. The symbols of {@code classContent} are used as they are if
+	 * 							they are in this table, otherwise its strings are interned again.
 	 *
 	 * @throws ModelException	Thrown whenever an error occurs.
 	 */
-	protected ClassContainer(ClassContent classContent) throws ModelException
+	protected ClassContainer(ClassContent classContent, int id, SymbolTable symbols) throws ModelException
 	{
 		this.classContent	= classContent;
-		name				= classContent.getIdentifier();
+		this.id				= id;
+		nameSymbol			= symbols.intern(classContent.getIdentifier(), classContent.getIdentifierSymbol(),
+				classContent.getSymbolTable());
+		name				= symbols.getString(nameSymbol);
 		superclasses		= new ArrayList<ClassContainer>();
 		subclasses			= new ArrayList<ClassContainer>();
-		attributes			= new HashMap<String, String>();
+		attributes			= new HashMap<String, Dataitem>();
 		operations			= new HashMap<String, ArrayList<OperationContainer>>();
 		associations		= new HashMap<String, InnerAssociationContainer>();
 		aggregations		= new ArrayList<InnerAggregationContainer>();
 
 		/* Creates and checks attributes. A ModelException is thrown if a duplicate attribute name is found. */
-		createAndCheckAttributes();
+		createAndCheckAttributes(symbols);
 
 		/* Creates and checks methods (operations). A ModelException is thrown if a duplicate operation
 		 * name/signature is found. */
-		createAndCheckOperations();
+		createAndCheckOperations(symbols);
+	}
+
+	/**
+	 * Constructor of a class loaded from a {@link ModelSnapshot}: only its name is set, its caches are set by the
+	 * snapshot. Like after {@link #buildCaches()}, it has no {@link ClassContent} and no members.
+	 *
+	 * @param id		The identifier of the class.
+	 * @param name		The name of the class.
+	 * @param symbols	The table of the model.
+	 */
+	ClassContainer(int id, String name, SymbolTable symbols)
+	{
+		this.id		= id;
+		nameSymbol	= symbols.intern(name);
+		this.name	= symbols.getString(nameSymbol);
 	}
 
 	// PACKAGE METHODS
@@ -173,6 +205,26 @@ class ClassContainer
 		return name;
 	}
 
+	/**
+	 * Returns the symbol of the name of the class.
+	 *
+	 * @return	The symbol of the name of the class.
+	 */
+	int getNameSymbol()
+	{
+		return nameSymbol;
+	}
+
+	/**
+	 * Returns the identifier of the class.
+	 *
+	 * @return	The identifier, between 0 and the number of classes of the model - 1.
+	 */
+	int getId()
+	{
+		return id;
+	}
+
 	/**
 	 * Adds a superclass to the list of superclasses.
 	 *
@@ -265,6 +317,19 @@ class ClassContainer
 		return superclasses.size();
 	}
 
+	/**
+	 * Returns one direct superclass without copying the list of superclasses. Only valid before
+	 * {@link #buildCaches()}.
+	 *
+	 * @param index	The index of the superclass, between 0 and {@link #getNumberOfSuperClasses()} - 1.
+	 *
+	 * @return	The {@link ClassContainer} instance of the superclass.
+	 */
+	ClassContainer getSuperclass(int index)
+	{
+		return superclasses.get(index);
+	}
+
 	/**
 	 * Returns the {@link ClassContainer} instances of direct superclasses.
 	 *
@@ -280,49 +345,6 @@ class ClassContainer
 		return superclasses.toArray(new ClassContainer[superclasses.size()]);
 	}
 
-
-	/**
-	 * Returns the {@link ClassContainer} instances of direct/indirect superclasses.
-	 * @return	The {@link ClassContainer} instances of direct/indirect superclasses.
-	 */
-	ClassContainer[] getAllSuperclasses()
-	{
-		if(null != allSuperclassesCache)
-		{
-			return allSuperclassesCache;
-		}
-
-		LinkedList<ClassContainer> allSuperclasses	= new LinkedList<ClassContainer>();
-		LinkedList<ClassContainer> classesToVisit	= new LinkedList<ClassContainer>();
-
-		for(ClassContainer superclass : superclasses)
-		{
-			classesToVisit.add(superclass);
-		}
-
-		while(0 != classesToVisit.size())
-		{
-			ClassContainer currentClass	= classesToVisit.removeFirst();
-
-			if(!allSuperclasses.contains(currentClass))
-			{
-				allSuperclasses.add(currentClass);
-
-				if(null != currentClass.superclasses)
-				{
-					for(ClassContainer superclass : currentClass.superclasses)
-					{
-						classesToVisit.add(superclass);
-					}
-				}
-			}
-		}
-
-		allSuperclassesCache	= allSuperclasses.toArray(new ClassContainer[allSuperclasses.size()]);
-
-		return allSuperclassesCache;
-	}
-
 	/**
 	 * Returns the {@link ClassContainer} instances of direct subclasses.
 	 *
@@ -333,48 +355,6 @@ class ClassContainer
 		return subclasses.toArray(new ClassContainer[subclasses.size()]);
 	}
 
-	/**
-	 * Returns the {@link ClassContainer} instances of direct/indirect subclasses.
-	 * @return	The {@link ClassContainer} instances of direct/indirect subclasses.
-	 */
-	ClassContainer[] getAllSubclasses()
-	{
-		if(null != allSubclassesCache)
-		{
-			return allSubclassesCache;
-		}
-
-		LinkedList<ClassContainer> allSubclasses	= new LinkedList<ClassContainer>();
-		LinkedList<ClassContainer> classesToVisit	= new LinkedList<ClassContainer>();
-
-		for(ClassContainer subclasses : subclasses)
-		{
-			classesToVisit.add(subclasses);
-		}
-
-		while(0 != classesToVisit.size())
-		{
-			ClassContainer currentClass	= classesToVisit.removeFirst();
-
-			if(!allSubclasses.contains(currentClass))
-			{
-				allSubclasses.add(currentClass);
-
-				if(null != currentClass.subclasses)
-				{
-					for(ClassContainer subclass : currentClass.subclasses)
-					{
-						classesToVisit.add(subclass);
-					}
-				}
-			}
-		}
-
-		allSubclassesCache	= allSubclasses.toArray(new ClassContainer[allSubclasses.size()]);
-
-		return allSubclassesCache;
-	}
-
 	/**
 	 * Returns all the {@OperationContainer} instances of the operations.
 	 *
@@ -382,25 +362,27 @@ class ClassContainer
 	 */
 	OperationContainer[] getOperationContainers()
 	{
-		LinkedList<OperationContainer> cache	= new LinkedList<OperationContainer>();
-
+		/* Counted first, so the array is filled directly. */
 		int n	= 0;
 
-		Iterator<Entry<String, ArrayList<OperationContainer>>>	iterator = operations.entrySet().iterator();
-
-		while(iterator.hasNext())
+		for(ArrayList<OperationContainer> overloads : operations.values())
 		{
-			Entry<String, ArrayList<OperationContainer>> val	= iterator.next();
+			n	+= overloads.size();
+		}
 
-			for(OperationContainer oc : val.getValue())
-			{
-				cache.add(oc);
+		OperationContainer[] operationContainers	= new OperationContainer[n];
+
+		n	= 0;
 
-				++n;
+		for(ArrayList<OperationContainer> overloads : operations.values())
+		{
+			for(OperationContainer oc : overloads)
+			{
+				operationContainers[n++]	= oc;
 			}
 		}
 
-		return cache.toArray(new OperationContainer[n]);
+		return operationContainers;
 	}
 
 	/**
@@ -423,123 +405,19 @@ class ClassContainer
 		return aggregations.size();
 	}
 
-	/**
-	 * Sets the (calculated) metrics. This is called by the {@link Model}.
-	 *
-	 * @param metrics	The calculated metrics. One metric per row. Frist inner index = metric name, second inner index
-	 * 					= value.
-	 */
-	void setMetrics(String[][] metrics)
-	{
-		this.metrics	= metrics;
-	}
-
-	/**
-	 * Returns the (calculated) metrics.
-	 *
-	 * @return	The calculated metrics. One metric per row. Frist inner index = metric name, second inner index
-	 * 			= value.
-	 */
-	String[][] getMetrics()
-	{
-		return metrics;
-	}
-
-	/**
-	 * Checks if the class contains an attribute with the provided name.
-	 *
-	 * @param name	The name of the attribute.
-	 *
-	 * @return	{@code true} if an attribute of the specified name exists, {@code false} otherwise.
-	 */
-	boolean containsAttribute(String name)
-	{
-		return attributes.containsKey(name);
-	}
-
-	/**
-	 * Checks if the class contains an operation with the provided name/signature.
-	 *
-	 * @param name		The name of the operation.
-	 * @param signature	The signature of the operation.
-	 *
-	 * @return	{@code true} if an operation of the specified name/signature exists, {@code false} otherwise.
-	 */
-	boolean containsMethod(String name, String signature)
-	{
-		ArrayList<OperationContainer> methodSignatures	= operations.get(name);
-
-		if(null != methodSignatures)
-		{
-			for(OperationContainer oc : methodSignatures)
-			{
-				if(signature.equals(oc.getSignature()))
-				{
-					return true;
-				}
-			}
-		}
-
-		return false;
-	}
-
 	/**
 	 * When the {@link Model} has finished all the calculations of all the classes, it asks every class to build caches
-	 * to free memory and to minimize compuation.
+	 * to free memory and to minimize compuation. The metrics are not stored in the class: the {@link Model} formats
+	 * them from {@link Metrics} when they are shown or exported.
 	 */
 	protected void buildCaches()
 	{
-		if((null == attributes) || (null == operations) || (null == subclasses) || (null == superclasses) || (null == metrics))
+		if((null == attributes) || (null == operations) || (null == subclasses) || (null == superclasses))
 		{
 			return;
 		}
 
-		{
-			ArrayList<String> temp	= new ArrayList<String>();
-
-			Iterator<Entry<String, String>>	iterator = attributes.entrySet().iterator();
-
-			while(iterator.hasNext())
-			{
-				Entry<String, String> val	= iterator.next();
-
-				temp.add(val.getValue() + " " + val.getKey());
-			}
-
-			Collections.sort(temp);
-
-			attributesCache	= temp.toArray(new String[temp.size()]);
-
-			attributes.clear();
-
-			attributes	= null;
-		}
-
-		{
-			ArrayList<String> temp	= new ArrayList<String>();
-
-			Iterator<Entry<String, ArrayList<OperationContainer>>>	iterator = operations.entrySet().iterator();
-
-			while(iterator.hasNext())
-			{
-				Entry<String, ArrayList<OperationContainer>> val	= iterator.next();
-
-				String opName	= val.getKey();
-
-				for(OperationContainer oc : val.getValue())
-				{
-					temp.add(oc.getType() + " " + opName + "(" + oc.signature + ")");
-				}
-			}
-
-			Collections.sort(temp);
-
-			operationsCache	= temp.toArray(new String[temp.size()]);
-
-			operations.clear();
-
-			operations	= null;
-		}
+		buildMemberCaches();
 
 		{
 			ArrayList<String>	temp	= new ArrayList<String>();
@@ -606,33 +484,132 @@ class ClassContainer
 			aggregations	= null;
 		}
 
+	}
+
+	/**
+	 * Replaces the attributes and operations of the class by the ones of another instance created, and checked, from
+	 * the new {@link ClassContent} of the class. Everything else (generalizations, associations, aggregations and
+	 * their caches) is kept. {@link #buildMemberCaches()} must be called once the metrics are updated.
+	 *
+	 * @param changedClass	The instance holding the new members.
+	 */
+	void replaceMembers(ClassContainer changedClass)
+	{
+		classContent			= changedClass.classContent;
+		attributes				= changedClass.attributes;
+		operations				= changedClass.operations;
+		attributeSymbols		= changedClass.attributeSymbols;
+	}
+
+	/**
+	 * Builds the caches of the attributes and operations, then unlinks them and the {@link ClassContent}. Called by
+	 * {@link #buildCaches()}, and by the {@link Model} after {@link #replaceMembers(ClassContainer)}.
+	 */
+	protected void buildMemberCaches()
+	{
 		{
-			metricsCache	= new String[metrics.length];
+			ArrayList<String> temp	= new ArrayList<String>();
+
+			Iterator<Entry<String, Dataitem>>	iterator = attributes.entrySet().iterator();
+
+			while(iterator.hasNext())
+			{
+				Entry<String, Dataitem> val	= iterator.next();
+
+				temp.add(val.getValue().getType() + " " + val.getKey());
+			}
+
+			Collections.sort(temp);
+
+			attributesCache	= temp.toArray(new String[temp.size()]);
+
+			attributes.clear();
+
+			attributes				= null;
+			attributeSymbols		= null;
+		}
+
+		{
+			ArrayList<String> temp	= new ArrayList<String>();
 
-			int n = 0;
+			Iterator<Entry<String, ArrayList<OperationContainer>>>	iterator = operations.entrySet().iterator();
 
-			for(String[] metric : metrics)
+			while(iterator.hasNext())
 			{
-				metricsCache[n++]	= metric[0] + " : " + metric[1];
+				Entry<String, ArrayList<OperationContainer>> val	= iterator.next();
+
+				String opName	= val.getKey();
+
+				for(OperationContainer oc : val.getValue())
+				{
+					temp.add(oc.getType() + " " + opName + "(" + oc.signature + ")");
+				}
 			}
+
+			Collections.sort(temp);
+
+			operationsCache	= temp.toArray(new String[temp.size()]);
+
+			operations.clear();
+
+			operations	= null;
 		}
 
 		/* Hopefully this will free "lots" of memory... */
 		classContent	= null;
 	}
 
+	/**
+	 * Estimates the heap held by the class once {@link #buildCaches()} was called: the class itself and its caches.
+	 * The objects of {@link UmlParser} still referenced by the associations and aggregations are not counted since
+	 * they may be shared.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	long estimateHeapSize()
+	{
+		long size	= OBJECT_HEADER_SIZE + (NUMBER_OF_FIELDS * REFERENCE_SIZE) + estimateHeapSize(name);
+
+		size	+= estimateHeapSize(attributesCache)
+				+ estimateHeapSize(operationsCache) + estimateHeapSize(subclassesCache)
+				+ estimateHeapSize(superclassesCache);
+
+		if(null != associationsCache)
+		{
+			size	+= estimateArraySize(associationsCache);
+
+			for(AssociationContainer associationContainer : associationsCache)
+			{
+				size	+= OBJECT_HEADER_SIZE + (2 * REFERENCE_SIZE) + estimateHeapSize(associationContainer.string);
+			}
+		}
+
+		if(null != aggregationsCache)
+		{
+			size	+= estimateArraySize(aggregationsCache);
+
+			for(AggregationContainer aggregationContainer : aggregationsCache)
+			{
+				size	+= OBJECT_HEADER_SIZE + (2 * REFERENCE_SIZE) + estimateHeapSize(aggregationContainer.string);
+			}
+		}
+
+		return size;
+	}
+
 	// PROTECTED METHODS
 
 	/**
 	 * Adds an attribute to the class.
 	 *
-	 * @param name	Name of the attribute.
-	 * @param type	Type of the attribute.
+	 * @param attribute	The {@link Dataitem} instance containing the name and type of the attribute.
 	 *
 	 * @throws DuplicateException	Thrown if the attribute already exists.
 	 */
-	protected void addAttribute(String name, String type) throws DuplicateException
+	protected void addAttribute(Dataitem attribute) throws DuplicateException
 	{
+		String name	= attribute.getIdentifier();
+
 		if(attributes.containsKey(name))
 		{
 			/* Duplicate. We don't care about the type since no two attributes can share the same name regardless of
@@ -641,20 +618,22 @@ class ClassContainer
 			throw new DuplicateException();
 		}
 
-		attributes.put(name, type);
+		attributes.put(name, attribute);
 	}
 
 	/**
 	 * Adds an operation to the class.
 	 *
 	 * @param operation	The {@link Operation} instance containing the information about the operation to be added.
+	 * @param symbols	The table of the model.
 	 *
 	 * @throws DuplicateException	Thrown if the operation (name/signature) already exists.
 	 */
-	protected void addOperation(Operation operation) throws DuplicateException
+	protected void addOperation(Operation operation, SymbolTable symbols) throws DuplicateException
 	{
 		ArrayList<OperationContainer> ocArrayList	= null;
-		OperationContainer operationContainer		= new OperationContainer(operation);
+		OperationContainer operationContainer		= new OperationContainer(operation, symbols,
+				classContent.getSymbolTable());
 		String name									= operation.getIdentifier();
 
 		if(operations.containsKey(name))
@@ -693,17 +672,20 @@ class ClassContainer
 	}
 
 	/**
-	 * Creates, and checks, attributes. This is called directly by the constructor.
+	 * Creates, and checks, attributes, then sets the symbols of their names. This is called directly by the
+	 * constructor.
+	 *
+	 * @param symbols	The table of the model.
 	 *
 	 * @throws ModelException	Thrown if a duplicate error occurs.
 	 */
-	protected void createAndCheckAttributes() throws ModelException
+	protected void createAndCheckAttributes(SymbolTable symbols) throws ModelException
 	{
 		for(Dataitem attribute : classContent.getAttributes())
 		{
 			try
 			{
-				addAttribute(attribute.getIdentifier(), attribute.getType());
+				addAttribute(attribute);
 			}
 			catch (DuplicateException e)
 			{
@@ -714,20 +696,33 @@ class ClassContainer
 					.set(ATTRIBUTES.CLASS, getName());
 			}
 		}
+
+		SymbolTable contentSymbols	= classContent.getSymbolTable();
+		int pos						= 0;
+
+		attributeSymbols	= new int[attributes.size()];
+
+		for(Dataitem attribute : attributes.values())
+		{
+			attributeSymbols[pos++]	= symbols.intern(attribute.getIdentifier(), attribute.getIdentifierSymbol(),
+					contentSymbols);
+		}
 	}
 
 	/**
 	 * Created, and checks, operations. This is called directly by the constructor.
 	 *
+	 * @param symbols	The table of the model.
+	 *
 	 * @throws ModelException	Thrown if a duplicate error occurs.
 	 */
-	protected void createAndCheckOperations() throws ModelException
+	protected void createAndCheckOperations(SymbolTable symbols) throws ModelException
 	{
 		for(Operation operation : classContent.getOperations())
 		{
 			try
 			{
-				addOperation(operation);
+				addOperation(operation, symbols);
 			}
 			catch (DuplicateException e)
 			{
@@ -759,45 +754,102 @@ class ClassContainer
 	}
 
 	/**
-	 * Returns all the names of the attributes.
+	 * Returns the symbols of the names of all the attributes in the {@link SymbolTable} of the model. The members must
+	 * not be cached yet.
 	 *
-	 * @return	All the names of the attributes.
+	 * @return	The symbols of the names of all the attributes.
 	 */
-	public String[] getAttributeNames()
+	int[] getAttributeSymbols()
 	{
-		if(null != attributeNamesCache)
+		return attributeSymbols;
+	}
+
+	/**
+	 * Creates a new {@link ModelException}. It could be used to free some memory but since an exception thrown here
+	 * will be caught by the {@link Model}, all references to 'this' will be lost since the {@link Model} resets itself
+	 * whenever an exception occurs.
+	 *
+	 * @param error	The type of the error.
+	 *
+	 * @return	The new exception.
+	 */
+	protected ModelException createException(ModelException.ERRORS error)
+	{
+		return new ModelException(error);
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Estimates the heap held by a {@link String}, assuming its characters are stored on one byte.
+	 *
+	 * @param string	The string. Can be null.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	protected static long estimateHeapSize(String string)
+	{
+		return (null == string) ? 0 : (STRING_SIZE + string.length());
+	}
+
+	/**
+	 * Estimates the heap held by an array of {@link String}'s and its strings.
+	 *
+	 * @param strings	The array. Can be null.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	protected static long estimateHeapSize(String[] strings)
+	{
+		long size	= estimateArraySize(strings);
+
+		if(null != strings)
 		{
-			return attributeNamesCache;
+			for(String string : strings)
+			{
+				size	+= estimateHeapSize(string);
+			}
 		}
 
-		int pos = 0;
+		return size;
+	}
 
-		attributeNamesCache	= new String[attributes.size()];
+	/**
+	 * Estimates the heap held by a {@link SymbolTable} and its strings. The names of the classes are counted again,
+	 * though they are shared with the classes.
+	 *
+	 * @param symbols	The table. Can be null.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	protected static long estimateHeapSize(SymbolTable symbols)
+	{
+		if(null == symbols)
+		{
+			return 0;
+		}
 
-		Iterator<Entry<String, String>>	iterator = attributes.entrySet().iterator();
+		/* The table, its array of strings and its slots, at least twice as many as the strings. */
+		long size	= (3 * OBJECT_HEADER_SIZE) + ((long) symbols.size() * (REFERENCE_SIZE + 8));
 
-		while(iterator.hasNext())
+		for(int symbol = 0, symbolMax = symbols.size(); symbol < symbolMax; ++symbol)
 		{
-			Entry<String, String> val	= iterator.next();
-
-			attributeNamesCache[pos++]	= val.getKey();
+			size	+= estimateHeapSize(symbols.getString(symbol));
 		}
 
-		return attributeNamesCache;
+		return size;
 	}
 
 	/**
-	 * Creates a new {@link ModelException}. It could be used to free some memory but since an exception thrown here
-	 * will be caught by the {@link Model}, all references to 'this' will be lost since the {@link Model} resets itself
-	 * whenever an exception occurs.
+	 * Estimates the heap held by an array of references, without the objects referenced.
 	 *
-	 * @param error	The type of the error.
+	 * @param array	The array. Can be null.
 	 *
-	 * @return	The new exception.
+	 * @return	The estimated number of bytes.
 	 */
-	protected ModelException createException(ModelException.ERRORS error)
+	protected static long estimateArraySize(Object[] array)
 	{
-		return new ModelException(error);
+		return (null == array) ? 0 : (OBJECT_HEADER_SIZE + ((long) array.length * REFERENCE_SIZE));
 	}
 }
 
@@ -840,4 +892,4 @@ class InnerAggregationContainer
 		this.isContainer	= isContainer;
 		this.details		= details;
 	}
-}
\ No newline at end of file
+}
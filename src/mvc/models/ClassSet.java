@@ -0,0 +1,207 @@
+package mvc.models;
+
+import java.util.Arrays;
+
+/**
+ * This class is an immutable set of class ids (see {@link ClassContainer#getId()}) used for the transitive closures
+ * of {@link InheritanceGraph}. Like a container of a roaring bitmap, it is stored in the smallest of two forms: a
+ * sorted array of ids when the set is sparse, or a bitmap when it is dense. The bitmap only keeps the words between
+ * the first and the last id of the set. This way, a set never takes more than about 32 bits per element, so the
+ * closures of a large model stay proportional to the number of (class, ancestor) pairs instead of the square of the
+ * number of classes.
+ *
+ * <p>Sets are built in a scratch bitmap ({@code long[]}, 64 ids per word) shared by all the sets of a closure: see
+ * {@link #orInto(long[])} and {@link #copyOf(long[], int, int)}.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class ClassSet
+{
+	// PACKAGE STATIC CONSTANTS
+
+	/**
+	 * The empty set.
+	 */
+	static final ClassSet EMPTY	= new ClassSet(new int[0], null, 0, 0);
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The sorted ids of the set, if it is sparse. Null otherwise.
+	 */
+	protected final int[] ids;
+
+	/**
+	 * The words of the bitmap from {@code firstWord}, if the set is dense. Null otherwise.
+	 */
+	protected final long[] words;
+
+	/**
+	 * The index, in a whole bitmap, of the first word of {@code words}.
+	 */
+	protected final int firstWord;
+
+	/**
+	 * The number of ids of the set.
+	 */
+	protected final int cardinality;
+
+	// PROTECTED CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param ids			The sorted ids or null.
+	 * @param words			The words of the bitmap or null.
+	 * @param firstWord		The index of the first word of {@code words}.
+	 * @param cardinality	The number of ids.
+	 */
+	protected ClassSet(int[] ids, long[] words, int firstWord, int cardinality)
+	{
+		this.ids			= ids;
+		this.words			= words;
+		this.firstWord		= firstWord;
+		this.cardinality	= cardinality;
+	}
+
+	// PACKAGE STATIC METHODS
+
+	/**
+	 * Creates a set from a part of a scratch bitmap, choosing the smallest form.
+	 *
+	 * @param bitmap	The scratch bitmap. It is not modified nor kept.
+	 * @param fromWord	The first word to read.
+	 * @param toWord	The word after the last word to read. Words outside of the range must be 0.
+	 *
+	 * @return	The set.
+	 */
+	static ClassSet copyOf(long[] bitmap, int fromWord, int toWord)
+	{
+		int cardinality	= 0;
+
+		for(int i = fromWord; i < toWord; ++i)
+		{
+			cardinality	+= Long.bitCount(bitmap[i]);
+		}
+
+		if(0 == cardinality)
+		{
+			return EMPTY;
+		}
+
+		/* Let's trim the empty words at both ends. */
+		while(0 == bitmap[fromWord])
+		{
+			++fromWord;
+		}
+
+		while(0 == bitmap[toWord - 1])
+		{
+			--toWord;
+		}
+
+		/* An int takes 32 bits: the array is smaller as long as less than one bit out of 32 is set. */
+		if(((long) cardinality * Integer.SIZE) >= ((long) (toWord - fromWord) * Long.SIZE))
+		{
+			return new ClassSet(null, Arrays.copyOfRange(bitmap, fromWord, toWord), fromWord, cardinality);
+		}
+
+		int[] ids	= new int[cardinality];
+		int n		= 0;
+
+		for(int i = fromWord; i < toWord; ++i)
+		{
+			for(long word = bitmap[i]; 0 != word; word &= word - 1)
+			{
+				ids[n++]	= (i * Long.SIZE) + Long.numberOfTrailingZeros(word);
+			}
+		}
+
+		return new ClassSet(ids, null, 0, cardinality);
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the number of ids of the set.
+	 *
+	 * @return	The number of ids.
+	 */
+	int cardinality()
+	{
+		return cardinality;
+	}
+
+	/**
+	 * Returns the first word of a whole bitmap containing ids of the set.
+	 *
+	 * @return	The index of the word. Meaningless if the set is empty.
+	 */
+	int getFirstWord()
+	{
+		return (null != words) ? firstWord : (ids[0] / Long.SIZE);
+	}
+
+	/**
+	 * Returns the word after the last word of a whole bitmap containing ids of the set.
+	 *
+	 * @return	The index of the word. Meaningless if the set is empty.
+	 */
+	int getEndWord()
+	{
+		return (null != words) ? (firstWord + words.length) : ((ids[cardinality - 1] / Long.SIZE) + 1);
+	}
+
+	/**
+	 * Adds the ids of the set to a scratch bitmap. A dense set is added a word (64 ids) at a time.
+	 *
+	 * @param bitmap	The bitmap modified.
+	 */
+	void orInto(long[] bitmap)
+	{
+		if(null != words)
+		{
+			for(int i = 0, iMax = words.length; i < iMax; ++i)
+			{
+				bitmap[firstWord + i]	|= words[i];
+			}
+
+			return;
+		}
+
+		for(int id : ids)
+		{
+			bitmap[id / Long.SIZE]	|= 1L << id;
+		}
+	}
+
+	/**
+	 * Copies the ids, in increasing order, to an array.
+	 *
+	 * @param buffer	The array. It must contain at least {@link #cardinality()} elements.
+	 *
+	 * @return	The number of ids copied.
+	 */
+	int copyTo(int[] buffer)
+	{
+		if(null != ids)
+		{
+			System.arraycopy(ids, 0, buffer, 0, cardinality);
+
+			return cardinality;
+		}
+
+		int n	= 0;
+
+		for(int i = 0, iMax = words.length; i < iMax; ++i)
+		{
+			for(long word = words[i]; 0 != word; word &= word - 1)
+			{
+				buffer[n++]	= ((firstWord + i) * Long.SIZE) + Long.numberOfTrailingZeros(word);
+			}
+		}
+
+		return n;
+	}
+}
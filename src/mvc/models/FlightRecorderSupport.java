@@ -0,0 +1,67 @@
+package mvc.models;
+
+/**
+ * This class tells whether or not the Java Flight Recorder API ({@code jdk.jfr}) is present. The events of the
+ * application ({@link AnalysisPhaseEvent}, {@link mvc.MetricsExportEvent}) extend {@code jdk.jfr.Event}, so they are
+ * only created when it is: on a runtime without the {@code jdk.jfr} module, the analysis runs without events instead
+ * of failing with a {@link NoClassDefFoundError}.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class FlightRecorderSupport
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * True if the {@code jdk.jfr} module is present. Checked once, when this class is loaded.
+	 */
+	protected static final boolean AVAILABLE	= isModulePresent();
+
+	// PRIVATE CONSTRUCTOR
+
+	/**
+	 * Only static methods.
+	 */
+	private FlightRecorderSupport()
+	{
+
+	}
+
+	// PUBLIC STATIC METHODS
+
+	/**
+	 * Checks if events can be created.
+	 *
+	 * @return	{@code true} if the {@code jdk.jfr} module is present, {@code false} otherwise.
+	 */
+	public static boolean isAvailable()
+	{
+		return AVAILABLE;
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Looks for the base class of the events without initializing it.
+	 *
+	 * @return	{@code true} if {@code jdk.jfr.Event} can be loaded, {@code false} otherwise.
+	 */
+	protected static boolean isModulePresent()
+	{
+		try
+		{
+			Class.forName("jdk.jfr.Event", false, FlightRecorderSupport.class.getClassLoader());
+
+			return true;
+		}
+		catch(ClassNotFoundException e)
+		{
+			return false;
+		}
+		catch(LinkageError e)
+		{
+			return false;
+		}
+	}
+}
@@ -0,0 +1,637 @@
+package mvc.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import bnf_parser.collectors.Collector;
+import uml_parser.collectors.AggregationCollector;
+import uml_parser.collectors.AssociationCollector;
+
+/**
+ * This class holds the classes of an analysed {@link Model} in a compact, read-only form (see {@link Model#freeze()})
+ * instead of one {@link ClassContainer} per class with its arrays of strings and objects. Every string shown (names of
+ * the classes, attributes, operations, associations and aggregations) is stored once, in UTF-8, in a single pool; the
+ * lists of every class are ranges of int arrays: {@code xOffsets[id]} to {@code xOffsets[id + 1]} in {@code x}. The
+ * strings are only created when a class is shown.
+ *
+ * <p>The associations and aggregations keep their offsets in the file, so their details are read from the file like
+ * before.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class FrozenModel
+{
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The bytes (UTF-8) of every string.
+	 */
+	protected final byte[] pool;
+
+	/**
+	 * The start of every string in {@link #pool}, plus the end of the last one.
+	 */
+	protected final int[] stringOffsets;
+
+	/**
+	 * The string of the name of every class, by id.
+	 */
+	protected final int[] classNames;
+
+	/**
+	 * The ids of the classes, sorted by name.
+	 */
+	protected final int[] sortedIds;
+
+	/**
+	 * The start of the attributes of every class in {@link #attributes}.
+	 */
+	protected final int[] attributeOffsets;
+
+	/**
+	 * The strings of the attributes (as shown, sorted).
+	 */
+	protected final int[] attributes;
+
+	/**
+	 * The start of the operations of every class in {@link #operations}.
+	 */
+	protected final int[] operationOffsets;
+
+	/**
+	 * The strings of the operations (as shown, sorted).
+	 */
+	protected final int[] operations;
+
+	/**
+	 * The start of the superclasses of every class in {@link #superclassIds}.
+	 */
+	protected final int[] superclassOffsets;
+
+	/**
+	 * The ids of the direct superclasses, in the order they are shown.
+	 */
+	protected final int[] superclassIds;
+
+	/**
+	 * The start of the subclasses of every class in {@link #subclassIds}.
+	 */
+	protected final int[] subclassOffsets;
+
+	/**
+	 * The ids of the direct subclasses, in the order they are shown.
+	 */
+	protected final int[] subclassIds;
+
+	/**
+	 * The start of the associations of every class in {@link #associations}.
+	 */
+	protected final int[] associationOffsets;
+
+	/**
+	 * The strings of the associations (as shown).
+	 */
+	protected final int[] associations;
+
+	/**
+	 * The start and end offsets in the file of every association, or -1 if they are not known.
+	 */
+	protected final int[] associationSpans;
+
+	/**
+	 * The start of the aggregations of every class in {@link #aggregations}.
+	 */
+	protected final int[] aggregationOffsets;
+
+	/**
+	 * The strings of the aggregations (as shown).
+	 */
+	protected final int[] aggregations;
+
+	/**
+	 * The start and end offsets in the file of every aggregation, or -1 if they are not known.
+	 */
+	protected final int[] aggregationSpans;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor. The classes are not modified.
+	 *
+	 * @param allClasses		All the classes, indexed by id, once {@link ClassContainer#buildCaches()} was called.
+	 * @param classes			All the classes, by name.
+	 * @param sortedClassNames	The names of the classes, sorted.
+	 */
+	FrozenModel(ClassContainer[] allClasses, HashMap<String, ClassContainer> classes,
+			ArrayList<String> sortedClassNames)
+	{
+		int numberOfClasses	= allClasses.length;
+
+		classNames			= new int[numberOfClasses];
+		sortedIds			= new int[numberOfClasses];
+		attributeOffsets	= new int[numberOfClasses + 1];
+		operationOffsets	= new int[numberOfClasses + 1];
+		superclassOffsets	= new int[numberOfClasses + 1];
+		subclassOffsets		= new int[numberOfClasses + 1];
+		associationOffsets	= new int[numberOfClasses + 1];
+		aggregationOffsets	= new int[numberOfClasses + 1];
+
+		/* First pass: let's count the elements of every list. */
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			ClassContainer currentClass	= allClasses[id];
+
+			attributeOffsets[id + 1]	= attributeOffsets[id] + currentClass.attributesCache.length;
+			operationOffsets[id + 1]	= operationOffsets[id] + currentClass.operationsCache.length;
+			superclassOffsets[id + 1]	= superclassOffsets[id] + currentClass.superclassesCache.length;
+			subclassOffsets[id + 1]		= subclassOffsets[id] + currentClass.subclassesCache.length;
+			associationOffsets[id + 1]	= associationOffsets[id] + currentClass.associationsCache.length;
+			aggregationOffsets[id + 1]	= aggregationOffsets[id] + currentClass.aggregationsCache.length;
+		}
+
+		attributes			= new int[attributeOffsets[numberOfClasses]];
+		operations			= new int[operationOffsets[numberOfClasses]];
+		superclassIds		= new int[superclassOffsets[numberOfClasses]];
+		subclassIds			= new int[subclassOffsets[numberOfClasses]];
+		associations		= new int[associationOffsets[numberOfClasses]];
+		associationSpans	= new int[2 * associations.length];
+		aggregations		= new int[aggregationOffsets[numberOfClasses]];
+		aggregationSpans	= new int[2 * aggregations.length];
+
+		/* Second pass: let's fill them. Identical strings (the same attribute in many classes, for example) share
+		 * the same bytes. */
+		StringPool stringPool	= new StringPool();
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			ClassContainer currentClass	= allClasses[id];
+
+			classNames[id]	= stringPool.add(currentClass.getName());
+
+			stringPool.addAll(currentClass.attributesCache, attributes, attributeOffsets[id]);
+			stringPool.addAll(currentClass.operationsCache, operations, operationOffsets[id]);
+
+			fillIds(currentClass.superclassesCache, classes, superclassIds, superclassOffsets[id]);
+			fillIds(currentClass.subclassesCache, classes, subclassIds, subclassOffsets[id]);
+
+			for(int i = 0, offset = associationOffsets[id]; i < currentClass.associationsCache.length; ++i)
+			{
+				AssociationContainer associationContainer	= currentClass.associationsCache[i];
+
+				associations[offset + i]	= stringPool.add(associationContainer.string);
+
+				fillSpan(associationContainer.association, associationSpans, offset + i);
+			}
+
+			for(int i = 0, offset = aggregationOffsets[id]; i < currentClass.aggregationsCache.length; ++i)
+			{
+				AggregationContainer aggregationContainer	= currentClass.aggregationsCache[i];
+
+				aggregations[offset + i]	= stringPool.add(aggregationContainer.string);
+
+				fillSpan(aggregationContainer.aggregation, aggregationSpans, offset + i);
+			}
+		}
+
+		for(int i = 0; i < numberOfClasses; ++i)
+		{
+			sortedIds[i]	= classes.get(sortedClassNames.get(i)).getId();
+		}
+
+		pool			= stringPool.getBytes();
+		stringOffsets	= stringPool.getOffsets();
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the number of classes.
+	 *
+	 * @return	The number of classes.
+	 */
+	int getNumberOfClasses()
+	{
+		return classNames.length;
+	}
+
+	/**
+	 * Returns the name of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The name of the class.
+	 */
+	String getClassName(int id)
+	{
+		return getString(classNames[id]);
+	}
+
+	/**
+	 * Returns the id of a class, searching its name among the sorted names.
+	 *
+	 * @param name	The name of the class.
+	 *
+	 * @return	The id of the class, or -1 if there is no class with this name.
+	 */
+	int getClassId(String name)
+	{
+		int low		= 0;
+		int high	= sortedIds.length - 1;
+
+		while(low <= high)
+		{
+			int middle		= (low + high) >>> 1;
+			int comparison	= getClassName(sortedIds[middle]).compareTo(name);
+
+			if(0 == comparison)
+			{
+				return sortedIds[middle];
+			}
+
+			if(0 > comparison)
+			{
+				low		= middle + 1;
+			}
+			else
+			{
+				high	= middle - 1;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the ids of the classes, sorted by name.
+	 *
+	 * @return	The ids. Must not be modified.
+	 */
+	int[] getSortedIds()
+	{
+		return sortedIds;
+	}
+
+	/**
+	 * Returns the attributes of a class, as shown.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The attributes.
+	 */
+	String[] getAttributes(int id)
+	{
+		return getStrings(attributeOffsets, attributes, id);
+	}
+
+	/**
+	 * Returns the operations of a class, as shown.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The operations.
+	 */
+	String[] getOperations(int id)
+	{
+		return getStrings(operationOffsets, operations, id);
+	}
+
+	/**
+	 * Returns the names of the direct superclasses of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The names of the superclasses.
+	 */
+	String[] getSuperclasses(int id)
+	{
+		return getClassNames(superclassOffsets, superclassIds, id);
+	}
+
+	/**
+	 * Returns the names of the direct subclasses of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The names of the subclasses.
+	 */
+	String[] getSubclasses(int id)
+	{
+		return getClassNames(subclassOffsets, subclassIds, id);
+	}
+
+	/**
+	 * Returns the associations of a class, as shown.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The associations.
+	 */
+	String[] getAssociations(int id)
+	{
+		return getStrings(associationOffsets, associations, id);
+	}
+
+	/**
+	 * Returns the aggregations of a class, as shown.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The aggregations.
+	 */
+	String[] getAggregations(int id)
+	{
+		return getStrings(aggregationOffsets, aggregations, id);
+	}
+
+	/**
+	 * Returns the number of associations of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The number of associations.
+	 */
+	int getNumberOfAssociations(int id)
+	{
+		return associationOffsets[id + 1] - associationOffsets[id];
+	}
+
+	/**
+	 * Returns the number of aggregations of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The number of aggregations.
+	 */
+	int getNumberOfAggregations(int id)
+	{
+		return aggregationOffsets[id + 1] - aggregationOffsets[id];
+	}
+
+	/**
+	 * Returns an association of a class, holding only its offsets in the file, for
+	 * {@link uml_parser.UmlParser#getSubstringFromFile(String, String, Object)}.
+	 *
+	 * @param id	The id of the class.
+	 * @param index	The index of the association, between 0 and {@link #getNumberOfAssociations(int)} - 1.
+	 *
+	 * @return	The association.
+	 */
+	AssociationCollector getAssociation(int id, int index)
+	{
+		AssociationCollector collector	= new AssociationCollector();
+		int i							= associationOffsets[id] + index;
+
+		collector.setOffsets(associationSpans[2 * i], associationSpans[(2 * i) + 1]);
+
+		return collector;
+	}
+
+	/**
+	 * Returns an aggregation of a class, holding only its offsets in the file, for
+	 * {@link uml_parser.UmlParser#getSubstringFromFile(String, String, Object)}.
+	 *
+	 * @param id	The id of the class.
+	 * @param index	The index of the aggregation, between 0 and {@link #getNumberOfAggregations(int)} - 1.
+	 *
+	 * @return	The aggregation.
+	 */
+	AggregationCollector getAggregation(int id, int index)
+	{
+		AggregationCollector collector	= new AggregationCollector();
+		int i							= aggregationOffsets[id] + index;
+
+		collector.setOffsets(aggregationSpans[2 * i], aggregationSpans[(2 * i) + 1]);
+
+		return collector;
+	}
+
+	/**
+	 * Estimates the heap held by the frozen classes: the pool and the int arrays.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	long estimateHeapSize()
+	{
+		long size	= ClassContainer.OBJECT_HEADER_SIZE + (18 * ClassContainer.REFERENCE_SIZE)
+				+ ClassContainer.OBJECT_HEADER_SIZE + pool.length;
+
+		int[][] arrays	= {stringOffsets, classNames, sortedIds, attributeOffsets, attributes, operationOffsets,
+				operations, superclassOffsets, superclassIds, subclassOffsets, subclassIds, associationOffsets,
+				associations, associationSpans, aggregationOffsets, aggregations, aggregationSpans};
+
+		for(int[] array : arrays)
+		{
+			size	+= ClassContainer.OBJECT_HEADER_SIZE + (4L * array.length);
+		}
+
+		return size;
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Sets the ids of classes, from their names.
+	 *
+	 * @param names		The names of the classes.
+	 * @param classes	All the classes, by name.
+	 * @param ids		The array to fill.
+	 * @param offset	The index of the first id in {@code ids}.
+	 */
+	protected static void fillIds(String[] names, HashMap<String, ClassContainer> classes, int[] ids, int offset)
+	{
+		for(int i = 0; i < names.length; ++i)
+		{
+			ids[offset + i]	= classes.get(names[i]).getId();
+		}
+	}
+
+	/**
+	 * Sets the offsets in the file of an association or aggregation, or -1 if they are not known.
+	 *
+	 * @param object	The {@link uml_parser.Association} or {@link uml_parser.Aggregation}.
+	 * @param spans		The offsets, two per association or aggregation.
+	 * @param index		The index of the association or aggregation.
+	 */
+	protected static void fillSpan(Object object, int[] spans, int index)
+	{
+		if(object instanceof Collector)
+		{
+			spans[2 * index]		= ((Collector) object).getStartOffset();
+			spans[(2 * index) + 1]	= ((Collector) object).getEndOffset();
+		}
+		else
+		{
+			spans[2 * index]		= -1;
+			spans[(2 * index) + 1]	= -1;
+		}
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Returns a string of the pool.
+	 *
+	 * @param stringId	The index of the string.
+	 *
+	 * @return	The string.
+	 */
+	protected String getString(int stringId)
+	{
+		int start	= stringOffsets[stringId];
+
+		return new String(pool, start, stringOffsets[stringId + 1] - start, ChannelOutput.UTF_8);
+	}
+
+	/**
+	 * Returns the strings of a list of a class.
+	 *
+	 * @param offsets	The start of the list of every class.
+	 * @param stringIds	The strings of the lists.
+	 * @param id		The id of the class.
+	 *
+	 * @return	The strings.
+	 */
+	protected String[] getStrings(int[] offsets, int[] stringIds, int id)
+	{
+		String[] strings	= new String[offsets[id + 1] - offsets[id]];
+
+		for(int i = 0; i < strings.length; ++i)
+		{
+			strings[i]	= getString(stringIds[offsets[id] + i]);
+		}
+
+		return strings;
+	}
+
+	/**
+	 * Returns the names of classes of a list of a class.
+	 *
+	 * @param offsets	The start of the list of every class.
+	 * @param ids		The ids of the classes of the lists.
+	 * @param id		The id of the class.
+	 *
+	 * @return	The names.
+	 */
+	protected String[] getClassNames(int[] offsets, int[] ids, int id)
+	{
+		String[] names	= new String[offsets[id + 1] - offsets[id]];
+
+		for(int i = 0; i < names.length; ++i)
+		{
+			names[i]	= getClassName(ids[offsets[id] + i]);
+		}
+
+		return names;
+	}
+
+	// PROTECTED STATIC CLASSES
+
+	/**
+	 * The pool of strings being built: every distinct string is added once.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	protected static class StringPool
+	{
+		// PROTECTED PROPERTIES
+
+		/**
+		 * The index of every string added.
+		 */
+		protected final HashMap<String, Integer> stringIds	= new HashMap<String, Integer>();
+
+		/**
+		 * The bytes of the strings added.
+		 */
+		protected byte[] bytes		= new byte[1024];
+
+		/**
+		 * The number of bytes used in {@link #bytes}.
+		 */
+		protected int size;
+
+		/**
+		 * The start of every string added, plus the end of the last one.
+		 */
+		protected int[] offsets		= new int[64];
+
+		// PROTECTED METHODS
+
+		/**
+		 * Adds a string, unless it was already added.
+		 *
+		 * @param string	The string.
+		 *
+		 * @return	The index of the string.
+		 */
+		protected int add(String string)
+		{
+			Integer stringId	= stringIds.get(string);
+
+			if(null != stringId)
+			{
+				return stringId;
+			}
+
+			int newId			= stringIds.size();
+			byte[] stringBytes	= string.getBytes(ChannelOutput.UTF_8);
+
+			if(bytes.length - size < stringBytes.length)
+			{
+				bytes	= Arrays.copyOf(bytes, Math.max(2 * bytes.length, size + stringBytes.length));
+			}
+
+			if(offsets.length < newId + 2)
+			{
+				offsets	= Arrays.copyOf(offsets, 2 * offsets.length);
+			}
+
+			System.arraycopy(stringBytes, 0, bytes, size, stringBytes.length);
+
+			size				+= stringBytes.length;
+			offsets[newId + 1]	= size;
+
+			stringIds.put(string, newId);
+
+			return newId;
+		}
+
+		/**
+		 * Adds strings.
+		 *
+		 * @param strings	The strings.
+		 * @param target	The array receiving their indexes.
+		 * @param offset	The index of the first string in {@code target}.
+		 */
+		protected void addAll(String[] strings, int[] target, int offset)
+		{
+			for(int i = 0; i < strings.length; ++i)
+			{
+				target[offset + i]	= add(strings[i]);
+			}
+		}
+
+		/**
+		 * Returns the bytes of the strings, trimmed.
+		 *
+		 * @return	The bytes.
+		 */
+		protected byte[] getBytes()
+		{
+			return Arrays.copyOf(bytes, size);
+		}
+
+		/**
+		 * Returns the start of every string, plus the end of the last one, trimmed.
+		 *
+		 * @return	The offsets.
+		 */
+		protected int[] getOffsets()
+		{
+			return Arrays.copyOf(offsets, stringIds.size() + 1);
+		}
+	}
+}
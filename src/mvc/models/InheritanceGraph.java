@@ -0,0 +1,868 @@
+package mvc.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class stores the generalizations of a model as a graph in compressed sparse row (CSR) form: the direct
+ * superclasses of the class of id {@code i} are {@code superclassIds[superclassOffsets[i]]} to
+ * {@code superclassIds[superclassOffsets[i + 1] - 1]}, and likewise for subclasses. It is built once by
+ * {@link Metrics} so traversals read a few {@code int} arrays instead of copying the lists of every
+ * {@link ClassContainer}, and never recurse.
+ *
+ * <p>Cycles are found by {@link #findCycles()}. Every other traversal needs a topological order, so the graph must not
+ * contain any cycle for them ({@link Model} rejects such models before calculating metrics).</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class InheritanceGraph
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The empty set of ids.
+	 */
+	protected static final int[] EMPTY_SET	= new int[0];
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * Number of classes (vertices).
+	 */
+	protected final int numberOfClasses;
+
+	/**
+	 * Start of the superclasses of every class in {@code superclassIds}. One more element than there are classes.
+	 */
+	protected final int[] superclassOffsets;
+
+	/**
+	 * Ids of the direct superclasses of every class, in the order they were declared.
+	 */
+	protected final int[] superclassIds;
+
+	/**
+	 * Start of the subclasses of every class in {@code subclassIds}. One more element than there are classes.
+	 */
+	protected final int[] subclassOffsets;
+
+	/**
+	 * Ids of the direct subclasses of every class.
+	 */
+	protected final int[] subclassIds;
+
+	/**
+	 * Ids of all the classes in topological order: every class comes after all its superclasses. Computed when first
+	 * needed.
+	 */
+	protected int[] topologicalOrder;
+
+	/**
+	 * For every class, the number of the last search which visited it, so searches of one class do not clear (or
+	 * allocate) an array as large as the graph. Created when first needed.
+	 */
+	protected int[] visits;
+
+	/**
+	 * The number of the last search.
+	 */
+	protected int lastVisit;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param allClasses	All the classes of the model. Every class must be at the index of its id.
+	 */
+	InheritanceGraph(ClassContainer[] allClasses)
+	{
+		numberOfClasses		= allClasses.length;
+		superclassOffsets	= new int[numberOfClasses + 1];
+		subclassOffsets		= new int[numberOfClasses + 1];
+
+		/* First pass: let's count the edges of every class. Subclasses are counted at index + 1 so the prefix sum
+		 * below gives the offsets directly. */
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			ClassContainer currentClass	= allClasses[id];
+			int numberOfSuperclasses	= currentClass.getNumberOfSuperClasses();
+
+			superclassOffsets[id + 1]	= superclassOffsets[id] + numberOfSuperclasses;
+
+			for(int i = 0; i < numberOfSuperclasses; ++i)
+			{
+				++subclassOffsets[currentClass.getSuperclass(i).getId() + 1];
+			}
+		}
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			subclassOffsets[id + 1]	+= subclassOffsets[id];
+		}
+
+		/* Second pass: let's fill the edges. The subclasses are the superclass edges reversed. */
+		superclassIds	= new int[superclassOffsets[numberOfClasses]];
+		subclassIds		= new int[subclassOffsets[numberOfClasses]];
+
+		int[] nextSubclass	= new int[numberOfClasses];
+
+		System.arraycopy(subclassOffsets, 0, nextSubclass, 0, numberOfClasses);
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			ClassContainer currentClass	= allClasses[id];
+			int offset					= superclassOffsets[id];
+
+			for(int i = 0, iMax = superclassOffsets[id + 1] - offset; i < iMax; ++i)
+			{
+				int superclassId	= currentClass.getSuperclass(i).getId();
+
+				superclassIds[offset + i]					= superclassId;
+				subclassIds[nextSubclass[superclassId]++]	= id;
+			}
+		}
+	}
+
+	/**
+	 * Constructor of a graph loaded from a {@link ModelSnapshot}.
+	 *
+	 * @param superclassOffsets	The start of the superclasses of every class in {@code superclassIds}.
+	 * @param superclassIds		The ids of the direct superclasses of every class.
+	 * @param subclassOffsets	The start of the subclasses of every class in {@code subclassIds}.
+	 * @param subclassIds		The ids of the direct subclasses of every class.
+	 */
+	InheritanceGraph(int[] superclassOffsets, int[] superclassIds, int[] subclassOffsets, int[] subclassIds)
+	{
+		numberOfClasses			= superclassOffsets.length - 1;
+		this.superclassOffsets	= superclassOffsets;
+		this.superclassIds		= superclassIds;
+		this.subclassOffsets	= subclassOffsets;
+		this.subclassIds		= subclassIds;
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the number of classes.
+	 *
+	 * @return	The number of classes.
+	 */
+	int getNumberOfClasses()
+	{
+		return numberOfClasses;
+	}
+
+	/**
+	 * Returns the number of direct subclasses of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The number of direct subclasses.
+	 */
+	int getNumberOfSubclasses(int id)
+	{
+		return subclassOffsets[id + 1] - subclassOffsets[id];
+	}
+
+	/**
+	 * Returns the direct superclasses of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The ids of the superclasses, in the order they were declared.
+	 */
+	int[] getSuperclasses(int id)
+	{
+		return Arrays.copyOfRange(superclassIds, superclassOffsets[id], superclassOffsets[id + 1]);
+	}
+
+	/**
+	 * Returns the direct subclasses of a class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The ids of the subclasses.
+	 */
+	int[] getSubclasses(int id)
+	{
+		return Arrays.copyOfRange(subclassIds, subclassOffsets[id], subclassOffsets[id + 1]);
+	}
+
+	/**
+	 * Computes the length of the longest path from some classes to a root of the inheritance tree (DIT).
+	 *
+	 * @param lengths	The lengths, indexed by the id of the class. The lengths of the superclasses of the classes
+	 * 					computed must be known. Modified in place.
+	 * @param ids		The ids of the classes to compute, every class after its superclasses (see
+	 * 					{@link #getClassesReachedWhile(int, boolean[], boolean, boolean)}).
+	 */
+	void computeLongestSuperclassPaths(int[] lengths, int[] ids)
+	{
+		computeLongestPaths(lengths, ids, false, superclassOffsets, superclassIds);
+	}
+
+	/**
+	 * Computes the length of the longest path from some classes to a leaf of the inheritance tree (CLD).
+	 *
+	 * @param lengths	The lengths, indexed by the id of the class. The lengths of the subclasses of the classes
+	 * 					computed must be known. Modified in place.
+	 * @param ids		The ids of the classes to compute, every class after its subclasses (see
+	 * 					{@link #getClassesReachedWhile(int, boolean[], boolean, boolean)}).
+	 */
+	void computeLongestSubclassPaths(int[] lengths, int[] ids)
+	{
+		computeLongestPaths(lengths, ids, false, subclassOffsets, subclassIds);
+	}
+
+	/**
+	 * Adds to the value of some classes the values of their direct superclasses, which were already added the values
+	 * of their own superclasses. A superclass reached through more than one path is therefore counted once per path.
+	 *
+	 * @param values	The values, indexed by id. The superclasses of the classes computed must be done already.
+	 * 					Modified in place.
+	 * @param ids		The ids of the classes to compute, every class after its superclasses.
+	 */
+	void sumOverSuperclasses(int[] values, int[] ids)
+	{
+		for(int id : ids)
+		{
+			for(int i = superclassOffsets[id], iMax = superclassOffsets[id + 1]; i < iMax; ++i)
+			{
+				values[id]	+= values[superclassIds[i]];
+			}
+		}
+	}
+
+	/**
+	 * Returns the ids of the classes in topological order, sorting them the first time.
+	 *
+	 * @return	The ids of the classes in topological order.
+	 *
+	 * @throws IllegalStateException	Thrown if the graph contains a cycle.
+	 */
+	int[] getTopologicalOrder()
+	{
+		if(null == topologicalOrder)
+		{
+			topologicalOrder	= sortTopologically();
+		}
+
+		return topologicalOrder;
+	}
+
+	/**
+	 * Computes a transitive closure. Classes are visited so that the neighbours of a class are always done before it:
+	 * the closure of a class is then the union of its neighbours and of their closures, which is computed with
+	 * word-parallel ORs in a scratch bitmap. Only the words between the first and the last id reached are read and
+	 * cleared. No class is visited more than once, whatever the number of paths leading to it.
+	 *
+	 * @param offsets		The offsets of the edges ({@code superclassOffsets} or {@code subclassOffsets}).
+	 * @param edges			The edges ({@code superclassIds} or {@code subclassIds}).
+	 * @param reverse		If true, classes are visited in reverse topological order (the edges lead to subclasses).
+	 * @param longestPaths	If not null, the length of the longest path from every class to its farthest neighbour,
+	 * 						direct or indirect, is computed in the same visit. Indexed by id, filled with zeros.
+	 *
+	 * @return	The closure of every class, indexed by id.
+	 */
+	protected ClassSet[] computeClosures(int[] offsets, int[] edges, boolean reverse, int[] longestPaths)
+	{
+		ClassSet[] closures	= new ClassSet[numberOfClasses];
+		long[] scratch		= new long[(numberOfClasses + Long.SIZE - 1) / Long.SIZE];
+		int[] order			= getTopologicalOrder();
+
+		for(int n = 0; n < numberOfClasses; ++n)
+		{
+			int id	= order[reverse ? (numberOfClasses - 1 - n) : n];
+
+			if(offsets[id] == offsets[id + 1])
+			{
+				closures[id]	= ClassSet.EMPTY;
+
+				continue;
+			}
+
+			int fromWord	= scratch.length;
+			int toWord		= 0;
+
+			for(int i = offsets[id], iMax = offsets[id + 1]; i < iMax; ++i)
+			{
+				int neighbourId		= edges[i];
+				ClassSet closure	= closures[neighbourId];
+
+				if(null != longestPaths)
+				{
+					/* +1 because the current class is one level above (or below) its neighbours. */
+					longestPaths[id]	= Math.max(longestPaths[id], longestPaths[neighbourId] + 1);
+				}
+
+				if(0 != closure.cardinality())
+				{
+					closure.orInto(scratch);
+
+					fromWord	= Math.min(fromWord, closure.getFirstWord());
+					toWord		= Math.max(toWord, closure.getEndWord());
+				}
+
+				scratch[neighbourId / Long.SIZE]	|= 1L << neighbourId;
+
+				fromWord	= Math.min(fromWord, neighbourId / Long.SIZE);
+				toWord		= Math.max(toWord, (neighbourId / Long.SIZE) + 1);
+			}
+
+			closures[id]	= ClassSet.copyOf(scratch, fromWord, toWord);
+
+			Arrays.fill(scratch, fromWord, toWord, 0);
+		}
+
+		return closures;
+	}
+
+	/**
+	 * Finds the inheritance cycles with Tarjan's algorithm: every strongly connected component of more than one class,
+	 * or of one class being its own superclass, is a cycle. Every class and every edge is visited once, and the
+	 * depth-first search uses explicit stacks instead of recursion.
+	 *
+	 * @return	The ids of the classes of every cycle. Empty if there is no cycle.
+	 */
+	int[][] findCycles()
+	{
+		ArrayList<int[]> cycles	= new ArrayList<int[]>();
+
+		/* Order in which classes are discovered (0 = not discovered yet, so it starts at 1) and smallest order
+		 * reachable from every class. */
+		int[] discoveryOrder	= new int[numberOfClasses];
+		int[] lowLink			= new int[numberOfClasses];
+		boolean[] onStack		= new boolean[numberOfClasses];
+
+		/* Classes of the components not completed yet. */
+		int[] componentStack	= new int[numberOfClasses];
+		int componentStackSize	= 0;
+
+		/* The depth-first search: the class and the next edge to follow at every level. */
+		int[] searchStack		= new int[numberOfClasses];
+		int[] nextEdge			= new int[numberOfClasses];
+		int searchStackSize		= 0;
+
+		int discovered	= 0;
+
+		for(int root = 0; root < numberOfClasses; ++root)
+		{
+			if(0 != discoveryOrder[root])
+			{
+				continue;
+			}
+
+			discoveryOrder[root]					= ++discovered;
+			lowLink[root]							= discovered;
+			onStack[root]							= true;
+			componentStack[componentStackSize++]	= root;
+			searchStack[searchStackSize]			= root;
+			nextEdge[searchStackSize++]				= superclassOffsets[root];
+
+			while(0 != searchStackSize)
+			{
+				int id		= searchStack[searchStackSize - 1];
+				int edge	= nextEdge[searchStackSize - 1];
+
+				if(edge < superclassOffsets[id + 1])
+				{
+					int superclassId	= superclassIds[edge];
+
+					++nextEdge[searchStackSize - 1];
+
+					if(0 == discoveryOrder[superclassId])
+					{
+						/* Not discovered yet: let's go down. */
+						discoveryOrder[superclassId]			= ++discovered;
+						lowLink[superclassId]					= discovered;
+						onStack[superclassId]					= true;
+						componentStack[componentStackSize++]	= superclassId;
+						searchStack[searchStackSize]			= superclassId;
+						nextEdge[searchStackSize++]				= superclassOffsets[superclassId];
+					}
+					else if(onStack[superclassId])
+					{
+						lowLink[id]	= Math.min(lowLink[id], discoveryOrder[superclassId]);
+					}
+
+					continue;
+				}
+
+				/* Every edge of the class was followed: let's go up. */
+				--searchStackSize;
+
+				if(0 != searchStackSize)
+				{
+					int parentId	= searchStack[searchStackSize - 1];
+
+					lowLink[parentId]	= Math.min(lowLink[parentId], lowLink[id]);
+				}
+
+				if(lowLink[id] != discoveryOrder[id])
+				{
+					continue;
+				}
+
+				/* The class is the root of a component: its classes are on the top of the component stack. */
+				int start	= componentStackSize;
+
+				do
+				{
+					onStack[componentStack[--start]]	= false;
+				}
+				while(componentStack[start] != id);
+
+				int size	= componentStackSize - start;
+
+				if((1 < size) || isOwnSuperclass(id))
+				{
+					int[] cycle	= new int[size];
+
+					System.arraycopy(componentStack, start, cycle, 0, size);
+
+					cycles.add(cycle);
+				}
+
+				componentStackSize	= start;
+			}
+		}
+
+		return cycles.toArray(new int[cycles.size()][]);
+	}
+
+	/**
+	 * Updates the inherited sets of all the classes (the unions of the sets of all their direct and indirect
+	 * superclasses) after the local sets of some classes changed. Classes are visited in topological order and the
+	 * inherited set of a class is only computed again if the set of one of its direct superclasses may have changed,
+	 * so the subclasses of a changed class whose inherited set stays the same stop the update of their own
+	 * subclasses.
+	 *
+	 * @param localSets		The set of every class, already updated.
+	 * @param inheritedSets	The inherited set of every class. Modified in place.
+	 * @param changedIds	The ids of the classes whose local set changed.
+	 *
+	 * @return	The ids of the classes whose inherited set changed, in topological order.
+	 */
+	int[] updateInheritedSets(int[][] localSets, int[][] inheritedSets, int[] changedIds)
+	{
+		/* A class is dirty when its own set or its inherited set changed. */
+		boolean[] dirty	= new boolean[numberOfClasses];
+		int[] updated	= new int[numberOfClasses];
+		int n			= 0;
+
+		for(int id : changedIds)
+		{
+			dirty[id]	= true;
+		}
+
+		for(int id : getTopologicalOrder())
+		{
+			boolean superclassDirty	= false;
+
+			for(int i = superclassOffsets[id], iMax = superclassOffsets[id + 1]; !superclassDirty && (i < iMax); ++i)
+			{
+				superclassDirty	= dirty[superclassIds[i]];
+			}
+
+			if(!superclassDirty)
+			{
+				continue;
+			}
+
+			int[] inheritedSet	= computeInheritedSet(localSets, inheritedSets, id);
+
+			if(!Arrays.equals(inheritedSet, inheritedSets[id]))
+			{
+				inheritedSets[id]	= inheritedSet;
+				dirty[id]			= true;
+				updated[n++]		= id;
+			}
+		}
+
+		return Arrays.copyOf(updated, n);
+	}
+
+	/**
+	 * Computes the inherited sets of some classes: the unions of the sets of all their direct and indirect
+	 * superclasses. Sets are shared whenever possible, so they must never be modified.
+	 *
+	 * @param localSets		The set of every class.
+	 * @param inheritedSets	The inherited set of every class. The sets of the superclasses of the classes computed
+	 * 						must be known. Modified in place.
+	 * @param ids			The ids of the classes to compute, every class after its superclasses.
+	 */
+	void computeInheritedSets(int[][] localSets, int[][] inheritedSets, int[] ids)
+	{
+		for(int id : ids)
+		{
+			inheritedSets[id]	= computeInheritedSet(localSets, inheritedSets, id);
+		}
+	}
+
+	/**
+	 * Returns a class and the superclasses (or subclasses) reached from it, directly or indirectly, through classes
+	 * whose flag has a given value. The search goes depth first without recursion and stops at classes whose flag
+	 * has the other value, so only the part of the graph not done yet (or done already) is visited. Not thread-safe.
+	 *
+	 * @param id				The id of the class.
+	 * @param flags				A flag for every class, indexed by id.
+	 * @param flag				The value of the flag of the classes to return.
+	 * @param towardSubclasses	If true, subclasses are searched. Otherwise, superclasses are searched.
+	 *
+	 * @return	The ids of the classes reached, every class after the superclasses (or subclasses) it reaches. Empty if
+	 * 			the flag of the class itself has the other value.
+	 */
+	int[] getClassesReachedWhile(int id, boolean[] flags, boolean flag, boolean towardSubclasses)
+	{
+		if(flag != flags[id])
+		{
+			return EMPTY_SET;
+		}
+
+		int[] offsets	= towardSubclasses ? subclassOffsets : superclassOffsets;
+		int[] edges		= towardSubclasses ? subclassIds : superclassIds;
+
+		/* Explicit stack: the class and the next edge to follow from it. */
+		int[] stack		= new int[16];
+		int[] nextEdges	= new int[16];
+		int depth		= 0;
+		int[] reached	= new int[16];
+		int n			= 0;
+		int visit		= startVisit();
+
+		visits[id]	= visit;
+
+		stack[depth]		= id;
+		nextEdges[depth++]	= offsets[id];
+
+		while(0 != depth)
+		{
+			int current	= stack[depth - 1];
+			int edge	= nextEdges[depth - 1];
+
+			if(edge == offsets[current + 1])
+			{
+				/* Every neighbour is done: the class can be added. */
+				--depth;
+
+				if(n == reached.length)
+				{
+					reached	= Arrays.copyOf(reached, 2 * n);
+				}
+
+				reached[n++]	= current;
+
+				continue;
+			}
+
+			nextEdges[depth - 1]	= edge + 1;
+
+			int neighbourId	= edges[edge];
+
+			if((flag == flags[neighbourId]) && (visit != visits[neighbourId]))
+			{
+				visits[neighbourId]	= visit;
+
+				if(depth == stack.length)
+				{
+					stack		= Arrays.copyOf(stack, 2 * depth);
+					nextEdges	= Arrays.copyOf(nextEdges, 2 * depth);
+				}
+
+				stack[depth]		= neighbourId;
+				nextEdges[depth++]	= offsets[neighbourId];
+			}
+		}
+
+		return Arrays.copyOf(reached, n);
+	}
+
+	/**
+	 * Counts the direct and indirect subclasses of one class with a breadth-first search, without computing the
+	 * closures of every class. Not thread-safe.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The number of subclasses (NOD).
+	 */
+	int countAllSubclasses(int id)
+	{
+		int[] queue	= new int[16];
+		int end		= 0;
+		int visit	= startVisit();
+
+		queue[end++]	= id;
+
+		for(int start = 0; start < end; ++start)
+		{
+			int current	= queue[start];
+
+			for(int i = subclassOffsets[current], iMax = subclassOffsets[current + 1]; i < iMax; ++i)
+			{
+				int subclassId	= subclassIds[i];
+
+				if(visit != visits[subclassId])
+				{
+					visits[subclassId]	= visit;
+
+					if(end == queue.length)
+					{
+						queue	= Arrays.copyOf(queue, 2 * end);
+					}
+
+					queue[end++]	= subclassId;
+				}
+			}
+		}
+
+		return end - 1;
+	}
+
+	/**
+	 * Returns the direct and indirect superclasses of every class.
+	 *
+	 * @return	The superclasses, indexed by the id of the class.
+	 */
+	ClassSet[] getAllSuperclasses()
+	{
+		return computeClosures(superclassOffsets, superclassIds, false, null);
+	}
+
+	/**
+	 * Returns the direct and indirect subclasses of every class.
+	 *
+	 * @return	The subclasses, indexed by the id of the class.
+	 */
+	ClassSet[] getAllSubclasses()
+	{
+		return computeClosures(subclassOffsets, subclassIds, true, null);
+	}
+
+	/**
+	 * Returns the direct and indirect subclasses of every class and computes, in the same visit, the length of the
+	 * longest path from every class to a leaf of the inheritance tree (CLD).
+	 *
+	 * @param longestPaths	The lengths, indexed by the id of the class. Filled with zeros. Modified in place.
+	 *
+	 * @return	The subclasses, indexed by the id of the class.
+	 */
+	ClassSet[] getAllSubclasses(int[] longestPaths)
+	{
+		return computeClosures(subclassOffsets, subclassIds, true, longestPaths);
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Computes the length of the longest path from some classes to their farthest neighbour (superclass or
+	 * subclass), direct or indirect.
+	 *
+	 * @param lengths	The lengths, indexed by the id of the class. Modified in place.
+	 * @param ids		The ids of the classes to compute, every class after its neighbours unless {@code reverse}.
+	 * @param reverse	If true, {@code ids} are read from the end.
+	 * @param offsets	The offsets of the edges ({@code superclassOffsets} or {@code subclassOffsets}).
+	 * @param edges		The edges ({@code superclassIds} or {@code subclassIds}).
+	 */
+	protected void computeLongestPaths(int[] lengths, int[] ids, boolean reverse, int[] offsets, int[] edges)
+	{
+		for(int n = 0, nMax = ids.length; n < nMax; ++n)
+		{
+			int id				= ids[reverse ? (nMax - 1 - n) : n];
+			int longestLength	= 0;
+
+			for(int i = offsets[id], iMax = offsets[id + 1]; i < iMax; ++i)
+			{
+				/* +1 because the current class is one level below (or above) its neighbours. */
+				longestLength	= Math.max(longestLength, lengths[edges[i]] + 1);
+			}
+
+			lengths[id]	= longestLength;
+		}
+	}
+
+	/**
+	 * Starts a search: returns a number which no class of {@code visits} has yet.
+	 *
+	 * @return	The number of the search.
+	 */
+	protected int startVisit()
+	{
+		if(null == visits)
+		{
+			visits	= new int[numberOfClasses];
+		}
+
+		if(0 == ++lastVisit)
+		{
+			/* After 2^32 searches, the numbers wrap around: let's forget the old ones. */
+			Arrays.fill(visits, 0);
+
+			lastVisit	= 1;
+		}
+
+		return lastVisit;
+	}
+
+	/**
+	 * Returns the union of the sets of all the direct and indirect superclasses of a class.
+	 *
+	 * @param localSets		The set of every class.
+	 * @param inheritedSets	The inherited set of every class. The sets of the superclasses of the class must be known.
+	 * @param id			The id of the class.
+	 *
+	 * @return	The inherited set of the class.
+	 */
+	protected int[] computeInheritedSet(int[][] localSets, int[][] inheritedSets, int id)
+	{
+		int[] inheritedSet	= EMPTY_SET;
+
+		for(int i = superclassOffsets[id], iMax = superclassOffsets[id + 1]; i < iMax; ++i)
+		{
+			int superclassId	= superclassIds[i];
+
+			inheritedSet	= union(inheritedSet, union(inheritedSets[superclassId], localSets[superclassId]));
+		}
+
+		return inheritedSet;
+	}
+
+	/**
+	 * Checks whether or not a class is one of its own direct superclasses.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	True if the class is its own superclass, false otherwise.
+	 */
+	protected boolean isOwnSuperclass(int id)
+	{
+		for(int i = superclassOffsets[id], iMax = superclassOffsets[id + 1]; i < iMax; ++i)
+		{
+			if(id == superclassIds[i])
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sorts the classes topologically with Kahn's algorithm: a class is added once all its superclasses were added.
+	 *
+	 * @return	The ids of the classes in topological order.
+	 *
+	 * @throws IllegalStateException	Thrown if the graph contains a cycle.
+	 */
+	protected int[] sortTopologically()
+	{
+		int[] order					= new int[numberOfClasses];
+		int[] remainingSuperclasses	= new int[numberOfClasses];
+		int end						= 0;
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			remainingSuperclasses[id]	= superclassOffsets[id + 1] - superclassOffsets[id];
+
+			if(0 == remainingSuperclasses[id])
+			{
+				order[end++]	= id;
+			}
+		}
+
+		/* The array is its own queue: classes between 'start' and 'end' are ready but their subclasses are not
+		 * visited yet. */
+		for(int start = 0; start < end; ++start)
+		{
+			int id	= order[start];
+
+			for(int i = subclassOffsets[id], iMax = subclassOffsets[id + 1]; i < iMax; ++i)
+			{
+				int subclassId	= subclassIds[i];
+
+				if(0 == --remainingSuperclasses[subclassId])
+				{
+					order[end++]	= subclassId;
+				}
+			}
+		}
+
+		if(end < numberOfClasses)
+		{
+			/* Some classes were never ready: they are part of a cycle. */
+			throw new IllegalStateException("Inheritance cycle");
+		}
+
+		return order;
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Returns the union of two sorted arrays of ids without duplicates. If one of the arrays contains the other one,
+	 * it is returned as is.
+	 *
+	 * @param first		The first array.
+	 * @param second	The second array.
+	 *
+	 * @return	The union.
+	 */
+	protected static int[] union(int[] first, int[] second)
+	{
+		if(0 == first.length)
+		{
+			return second;
+		}
+
+		if(0 == second.length)
+		{
+			return first;
+		}
+
+		int[] union	= new int[first.length + second.length];
+		int i		= 0;
+		int j		= 0;
+		int n		= 0;
+
+		while((i < first.length) && (j < second.length))
+		{
+			if(first[i] < second[j])
+			{
+				union[n++]	= first[i++];
+			}
+			else if(first[i] > second[j])
+			{
+				union[n++]	= second[j++];
+			}
+			else
+			{
+				union[n++]	= first[i++];
+
+				++j;
+			}
+		}
+
+		while(i < first.length)
+		{
+			union[n++]	= first[i++];
+		}
+
+		while(j < second.length)
+		{
+			union[n++]	= second[j++];
+		}
+
+		if(n == first.length)
+		{
+			return first;
+		}
+
+		if(n == second.length)
+		{
+			return second;
+		}
+
+		return Arrays.copyOf(union, n);
+	}
+}
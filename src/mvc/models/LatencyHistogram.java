@@ -0,0 +1,169 @@
+package mvc.models;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a histogram of latencies, used by {@link AnalysisStatistics}. Latencies are counted in buckets of
+ * microseconds: every power of two is split into {@link #SUB_BUCKETS} buckets of the same width, so a percentile is
+ * known within 12.5 %. Every bucket is a {@link LongAdder}, so threads recording at the same time do not contend.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class LatencyHistogram
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Number of buckets per power of two.
+	 */
+	protected static final int SUB_BUCKETS		= 8;
+
+	/**
+	 * {@code log2(SUB_BUCKETS)}.
+	 */
+	protected static final int SUB_BUCKET_BITS	= 3;
+
+	/**
+	 * Latencies above {@code 2^MAX_EXPONENT} microseconds (about 12 days) are counted in the last bucket.
+	 */
+	protected static final int MAX_EXPONENT		= 40;
+
+	/**
+	 * Number of buckets.
+	 */
+	protected static final int NUMBER_OF_BUCKETS	= (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The number of latencies recorded in every bucket.
+	 */
+	protected final LongAdder[] buckets	= new LongAdder[NUMBER_OF_BUCKETS];
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 */
+	LatencyHistogram()
+	{
+		for(int i = 0; i < NUMBER_OF_BUCKETS; ++i)
+		{
+			buckets[i]	= new LongAdder();
+		}
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos	The latency, in nanoseconds.
+	 */
+	void record(long nanos)
+	{
+		buckets[getBucket(Math.max(0, nanos / 1000))].increment();
+	}
+
+	/**
+	 * Returns a percentile of the latencies recorded.
+	 *
+	 * @param percentile	The percentile, between 0 and 1 (for example, 0.99 for p99).
+	 *
+	 * @return	The upper bound, in milliseconds, of the bucket containing the percentile, or 0 if nothing was
+	 * 			recorded.
+	 */
+	double getPercentile(double percentile)
+	{
+		/* The buckets may change while we read them: let's take a copy so the total matches the counts. */
+		long[] counts	= new long[NUMBER_OF_BUCKETS];
+		long total		= 0;
+
+		for(int i = 0; i < NUMBER_OF_BUCKETS; ++i)
+		{
+			counts[i]	= buckets[i].sum();
+			total		+= counts[i];
+		}
+
+		if(0 == total)
+		{
+			return 0;
+		}
+
+		long rank	= Math.max(1, (long) Math.ceil(percentile * total));
+		long seen	= 0;
+
+		for(int i = 0; i < NUMBER_OF_BUCKETS; ++i)
+		{
+			seen	+= counts[i];
+
+			if(seen >= rank)
+			{
+				return getUpperBound(i) / 1000.0;
+			}
+		}
+
+		return getUpperBound(NUMBER_OF_BUCKETS - 1) / 1000.0;
+	}
+
+	/**
+	 * Forgets every latency recorded.
+	 */
+	void reset()
+	{
+		for(LongAdder bucket : buckets)
+		{
+			bucket.reset();
+		}
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Returns the bucket of a latency.
+	 *
+	 * @param micros	The latency, in microseconds.
+	 *
+	 * @return	The index of the bucket.
+	 */
+	protected static int getBucket(long micros)
+	{
+		if(micros < SUB_BUCKETS)
+		{
+			/* Below SUB_BUCKETS, every bucket is one microsecond wide. */
+			return (int) micros;
+		}
+
+		int exponent	= Math.min(MAX_EXPONENT, 63 - Long.numberOfLeadingZeros(micros));
+
+		if(MAX_EXPONENT == exponent)
+		{
+			return NUMBER_OF_BUCKETS - 1;
+		}
+
+		int subBucket	= (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+		return ((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS) + subBucket;
+	}
+
+	/**
+	 * Returns the first latency, in microseconds, above a bucket.
+	 *
+	 * @param bucket	The index of the bucket.
+	 *
+	 * @return	The upper bound (exclusive) of the bucket.
+	 */
+	protected static long getUpperBound(int bucket)
+	{
+		if(bucket < SUB_BUCKETS)
+		{
+			return bucket + 1;
+		}
+
+		int exponent	= (bucket / SUB_BUCKETS) + SUB_BUCKET_BITS - 1;
+		long width		= 1L << (exponent - SUB_BUCKET_BITS);
+
+		return ((SUB_BUCKETS + (bucket % SUB_BUCKETS)) * width) + width;
+	}
+}
@@ -0,0 +1,202 @@
+package mvc.models;
+
+import java.util.Arrays;
+
+import uml_parser.SymbolTable;
+
+/**
+ * This class gives dense ids, from 0, to the members of a model, used by {@link Metrics} to compare members as ints.
+ * A member is identified by one to three symbols of the {@link SymbolTable}: the name of an attribute, the name and
+ * signature of a method, or its name, signature and type.
+ *
+ * <p>Keys are found with open addressing (linear probing) in an array of ids, and stored in one array of ints, so
+ * no object is created or boxed to look up a member, and two keys are compared by comparing their symbols.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class MemberIds
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The initial number of slots. Must be a power of two.
+	 */
+	protected static final int INITIAL_CAPACITY	= 64;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The number of symbols of a key.
+	 */
+	protected final int arity;
+
+	/**
+	 * The symbols of the keys, {@code arity} per id.
+	 */
+	protected int[] keys;
+
+	/**
+	 * The slots of the hash table: the id of a key + 1, or 0 if the slot is empty. At most half of them are used.
+	 */
+	protected int[] slots;
+
+	/**
+	 * The number of ids.
+	 */
+	protected int size;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param arity	The number of symbols of a key, from 1 to 3.
+	 */
+	MemberIds(int arity)
+	{
+		this.arity	= arity;
+		keys		= new int[arity * (INITIAL_CAPACITY / 2)];
+		slots		= new int[INITIAL_CAPACITY];
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the id of a member, giving it the next id if it has none yet.
+	 *
+	 * @param first		The first symbol of the key.
+	 * @param second	The second symbol of the key, 0 if the key has less symbols.
+	 * @param third		The third symbol of the key, 0 if the key has less than three symbols.
+	 *
+	 * @return	The id.
+	 */
+	int getId(int first, int second, int third)
+	{
+		int slot	= findSlot(first, second, third);
+
+		if(0 != slots[slot])
+		{
+			return slots[slot] - 1;
+		}
+
+		if(arity * size == keys.length)
+		{
+			grow();
+
+			slot	= findSlot(first, second, third);
+		}
+
+		int offset	= arity * size;
+
+		keys[offset]	= first;
+
+		if(1 < arity)
+		{
+			keys[offset + 1]	= second;
+		}
+
+		if(2 < arity)
+		{
+			keys[offset + 2]	= third;
+		}
+
+		slots[slot]	= ++size;
+
+		return size - 1;
+	}
+
+	/**
+	 * Returns one symbol of the key of a member.
+	 *
+	 * @param id	The id of the member.
+	 * @param part	The index of the symbol in the key, from 0 to {@code arity} - 1.
+	 *
+	 * @return	The symbol.
+	 */
+	int getSymbol(int id, int part)
+	{
+		return keys[(arity * id) + part];
+	}
+
+	/**
+	 * Returns the number of ids.
+	 *
+	 * @return	The number of ids.
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Returns the slot of a key: the slot holding its id, or the empty slot where it would be added.
+	 *
+	 * @param first		The first symbol of the key.
+	 * @param second	The second symbol of the key.
+	 * @param third		The third symbol of the key.
+	 *
+	 * @return	The index of the slot.
+	 */
+	protected int findSlot(int first, int second, int third)
+	{
+		int mask	= slots.length - 1;
+		int hash	= (((first * 31) + second) * 31) + third;
+
+		/* Symbols are small consecutive ints: let's mix the bits (murmur3 finalizer) before keeping the low ones. */
+		hash	^= hash >>> 16;
+		hash	*= 0x85ebca6b;
+		hash	^= hash >>> 13;
+
+		int slot	= hash & mask;
+
+		while(0 != slots[slot])
+		{
+			if(isKey(slots[slot] - 1, first, second, third))
+			{
+				break;
+			}
+
+			slot	= (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Checks if a member has a key.
+	 *
+	 * @param id		The id of the member.
+	 * @param first		The first symbol of the key.
+	 * @param second	The second symbol of the key.
+	 * @param third		The third symbol of the key.
+	 *
+	 * @return	{@code true} if the key of the member is the one given, {@code false} otherwise.
+	 */
+	protected boolean isKey(int id, int first, int second, int third)
+	{
+		int offset	= arity * id;
+
+		return (keys[offset] == first) && ((2 > arity) || (keys[offset + 1] == second))
+				&& ((3 > arity) || (keys[offset + 2] == third));
+	}
+
+	/**
+	 * Doubles the number of slots and of keys, then puts every id back in its slot.
+	 */
+	protected void grow()
+	{
+		keys	= Arrays.copyOf(keys, 2 * keys.length);
+		slots	= new int[2 * slots.length];
+
+		for(int id = 0; id < size; ++id)
+		{
+			int offset	= arity * id;
+
+			slots[findSlot(keys[offset], (1 < arity) ? keys[offset + 1] : 0, (2 < arity) ? keys[offset + 2] : 0)]
+					= id + 1;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package mvc.models;
+
+/**
+ * A metric added to the ones of {@link Metrics} (see {@link Model#setCustomMetrics(Metric...)}). A metric declares
+ * the intermediate results it reads and the other custom metrics it depends on: {@link MetricEngine} computes every
+ * intermediate result once, whatever the number of metrics reading it, and calculates the metrics in dependency
+ * order.
+ *
+ * <p>{@link #calculate(int, MetricContext)} is called once per class, possibly from several threads at the same
+ * time, so it must not modify any shared state.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public interface Metric
+{
+	/**
+	 * The intermediate results shared by the metrics.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	public static enum INTERMEDIATES
+	{
+		/**
+		 * The direct and indirect superclasses of every class ({@link MetricContext#getAllSuperclasses(int)}).
+		 */
+		ALL_SUPERCLASSES,
+
+		/**
+		 * The direct and indirect subclasses of every class ({@link MetricContext#getAllSubclasses(int)}).
+		 */
+		ALL_SUBCLASSES,
+
+		/**
+		 * The classes appearing as the type of the arguments of the methods of every class
+		 * ({@link MetricContext#getReferencedClasses(int)}).
+		 */
+		REFERENCED_CLASSES,
+		;
+	}
+
+	/**
+	 * Returns the name of the metric, used as the name of its column. It must not be the name of another metric.
+	 *
+	 * @return	The name of the metric.
+	 */
+	public String getName();
+
+	/**
+	 * Returns the intermediate results read by the metric.
+	 *
+	 * @return	The intermediate results. Can be empty.
+	 */
+	public INTERMEDIATES[] getIntermediates();
+
+	/**
+	 * Returns the names of the custom metrics read by the metric. The metrics of {@link Metrics.METRICS} can always be
+	 * read and don't need to be declared.
+	 *
+	 * @return	The names of the metrics. Can be empty.
+	 */
+	public String[] getDependencies();
+
+	/**
+	 * Calculates the metric for one class.
+	 *
+	 * @param classId	The id of the class, between 0 and {@link MetricContext#getNumberOfClasses()} - 1.
+	 * @param context	The classes of the model, the intermediate results and the values of the other metrics.
+	 *
+	 * @return	The value of the metric. An integral value is shown without decimals.
+	 */
+	public double calculate(int classId, MetricContext context);
+}
@@ -0,0 +1,94 @@
+package mvc.models;
+
+import mvc.models.Metric.INTERMEDIATES;
+
+/**
+ * What a {@link Metric} can read while it is calculated. Classes are identified by dense ids, from 0 to
+ * {@link #getNumberOfClasses()} - 1. Arrays returned must not be modified.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public interface MetricContext
+{
+	/**
+	 * Returns the number of classes of the model.
+	 *
+	 * @return	The number of classes.
+	 */
+	public int getNumberOfClasses();
+
+	/**
+	 * Returns the name of a class.
+	 *
+	 * @param classId	The id of the class.
+	 *
+	 * @return	The name of the class.
+	 */
+	public String getClassName(int classId);
+
+	/**
+	 * Returns the direct superclasses of a class.
+	 *
+	 * @param classId	The id of the class.
+	 *
+	 * @return	The ids of the superclasses.
+	 */
+	public int[] getSuperclasses(int classId);
+
+	/**
+	 * Returns the direct subclasses of a class.
+	 *
+	 * @param classId	The id of the class.
+	 *
+	 * @return	The ids of the subclasses.
+	 */
+	public int[] getSubclasses(int classId);
+
+	/**
+	 * Returns the direct and indirect superclasses of a class.
+	 *
+	 * @param classId	The id of the class.
+	 *
+	 * @return	The sorted ids of the superclasses.
+	 *
+	 * @throws IllegalStateException	Thrown if the metric did not declare {@link INTERMEDIATES#ALL_SUPERCLASSES}.
+	 */
+	public int[] getAllSuperclasses(int classId);
+
+	/**
+	 * Returns the direct and indirect subclasses of a class.
+	 *
+	 * @param classId	The id of the class.
+	 *
+	 * @return	The sorted ids of the subclasses.
+	 *
+	 * @throws IllegalStateException	Thrown if the metric did not declare {@link INTERMEDIATES#ALL_SUBCLASSES}.
+	 */
+	public int[] getAllSubclasses(int classId);
+
+	/**
+	 * Returns the classes of the model, other than the class itself, appearing as the type of the arguments of the
+	 * methods of a class.
+	 *
+	 * @param classId	The id of the class.
+	 *
+	 * @return	The ids of the classes, once per argument.
+	 *
+	 * @throws IllegalStateException	Thrown if the metric did not declare {@link INTERMEDIATES#REFERENCED_CLASSES}.
+	 */
+	public int[] getReferencedClasses(int classId);
+
+	/**
+	 * Returns the value of a metric of {@link Metrics.METRICS} or of a custom metric already calculated.
+	 *
+	 * @param metricName	The name of the metric.
+	 * @param classId		The id of the class.
+	 *
+	 * @return	The value of the metric.
+	 *
+	 * @throws IllegalStateException	Thrown if the metric is a custom metric not declared as a dependency.
+	 * @throws IllegalArgumentException	Thrown if no metric has this name.
+	 */
+	public double getValue(String metricName, int classId);
+}
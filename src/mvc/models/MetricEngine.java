@@ -0,0 +1,528 @@
+package mvc.models;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import bnf_parser.CancellationToken;
+
+import mvc.models.Metric.INTERMEDIATES;
+import mvc.models.Metrics.METRICS;
+
+/**
+ * This class calculates the custom {@link Metric}'s of a model, after the metrics of {@link Metrics}. Metrics are
+ * scheduled in levels: a metric only depends on metrics of previous levels, so metrics of the same level could be
+ * calculated in any order. Every metric is calculated for all the classes, in parallel if asked, before the next one.
+ *
+ * <p>Every intermediate result is computed once, the first time a metric declaring it is calculated, and then shared
+ * by all the metrics. The intermediate results already kept by {@link Metrics} (subclasses of every class, referenced
+ * classes) are read directly.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class MetricEngine implements MetricContext
+{
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The custom metrics, in the order of their columns.
+	 */
+	protected final Metric[] customMetrics;
+
+	/**
+	 * The indices (in {@code customMetrics}) of the metrics of every level.
+	 */
+	protected final int[][] levels;
+
+	/**
+	 * The index of every custom metric, by name.
+	 */
+	protected final HashMap<String, Integer> indexes;
+
+	/**
+	 * The metrics of {@link Metrics.METRICS} and the intermediate results they keep. Null once frozen.
+	 */
+	protected Metrics metrics;
+
+	/**
+	 * The name of every class, indexed by id. Null once frozen.
+	 */
+	protected String[] classNames;
+
+	/**
+	 * The values of every custom metric, indexed by the id of the class. Null until the metric is calculated.
+	 */
+	protected final double[][] values;
+
+	/**
+	 * The intermediate results declared by the metric being calculated.
+	 */
+	protected boolean[] declaredIntermediates;
+
+	/**
+	 * The custom metrics declared as dependencies by the metric being calculated, indexed like
+	 * {@code customMetrics}.
+	 */
+	protected boolean[] declaredDependencies;
+
+	/**
+	 * The direct/indirect superclasses of each class. Computed when first needed.
+	 */
+	protected ClassSet[] allSuperclasses;
+
+	/**
+	 * The direct/indirect subclasses of each class. Computed when first needed, unless kept by {@link Metrics}.
+	 */
+	protected ClassSet[] allSubclasses;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor.
+	 *
+	 * @param customMetrics	The custom metrics. They must have been checked by {@link #schedule(Metric[])}.
+	 * @param metrics		The metrics of {@link Metrics.METRICS}.
+	 * @param allClasses	All the classes of the model. Every class must be at the index of its id.
+	 */
+	MetricEngine(Metric[] customMetrics, Metrics metrics, ClassContainer[] allClasses)
+	{
+		this.customMetrics	= customMetrics;
+		this.metrics		= metrics;
+		levels				= schedule(customMetrics);
+		indexes				= getIndexes(customMetrics);
+		classNames			= new String[allClasses.length];
+		values				= new double[customMetrics.length][];
+
+		for(int id = 0; id < allClasses.length; ++id)
+		{
+			classNames[id]	= allClasses[id].getName();
+		}
+	}
+
+	// PACKAGE STATIC METHODS
+
+	/**
+	 * Checks custom metrics and orders them by dependencies.
+	 *
+	 * @param customMetrics	The custom metrics.
+	 *
+	 * @return	The indices of the metrics of every level. A metric of a level only depends on metrics of previous
+	 * 			levels.
+	 *
+	 * @throws IllegalArgumentException	Thrown if a name is used twice (or by a metric of {@link Metrics.METRICS}), if
+	 * 									a dependency is unknown or if dependencies form a cycle.
+	 */
+	static int[][] schedule(Metric[] customMetrics)
+	{
+		HashMap<String, Integer> indexes	= getIndexes(customMetrics);
+		int numberOfMetrics					= customMetrics.length;
+
+		/* Kahn's algorithm: a metric is ready once all its dependencies are scheduled. */
+		int[] remainingDependencies						= new int[numberOfMetrics];
+		ArrayList<ArrayList<Integer>> dependentMetrics	= new ArrayList<ArrayList<Integer>>();
+
+		for(int i = 0; i < numberOfMetrics; ++i)
+		{
+			dependentMetrics.add(new ArrayList<Integer>());
+		}
+
+		for(int i = 0; i < numberOfMetrics; ++i)
+		{
+			for(String dependency : customMetrics[i].getDependencies())
+			{
+				if(null != getBuiltInMetric(dependency))
+				{
+					/* Always available. */
+					continue;
+				}
+
+				Integer index	= indexes.get(dependency);
+
+				if(null == index)
+				{
+					throw new IllegalArgumentException("Unknown metric " + dependency + " (dependency of "
+							+ customMetrics[i].getName() + ").");
+				}
+
+				++remainingDependencies[i];
+
+				dependentMetrics.get(index).add(i);
+			}
+		}
+
+		ArrayList<int[]> levels	= new ArrayList<int[]>();
+		int[] level				= new int[numberOfMetrics];
+		int levelSize			= 0;
+		int scheduled			= 0;
+
+		for(int i = 0; i < numberOfMetrics; ++i)
+		{
+			if(0 == remainingDependencies[i])
+			{
+				level[levelSize++]	= i;
+			}
+		}
+
+		while(0 != levelSize)
+		{
+			int[] currentLevel	= new int[levelSize];
+
+			System.arraycopy(level, 0, currentLevel, 0, levelSize);
+
+			levels.add(currentLevel);
+
+			scheduled	+= levelSize;
+			levelSize	= 0;
+
+			for(int i : currentLevel)
+			{
+				for(int dependent : dependentMetrics.get(i))
+				{
+					if(0 == --remainingDependencies[dependent])
+					{
+						level[levelSize++]	= dependent;
+					}
+				}
+			}
+		}
+
+		if(scheduled != numberOfMetrics)
+		{
+			throw new IllegalArgumentException("The dependencies of the custom metrics form a cycle.");
+		}
+
+		return levels.toArray(new int[levels.size()][]);
+	}
+
+	/**
+	 * Formats the value of a custom metric: integral values are shown without decimals.
+	 *
+	 * @param value	The value.
+	 *
+	 * @return	The formatted value.
+	 */
+	static String format(double value)
+	{
+		if((value == Math.rint(value)) && (Math.abs(value) < 1e15))
+		{
+			return String.valueOf((long) value);
+		}
+
+		return String.valueOf(value);
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Calculates all the custom metrics, level by level.
+	 *
+	 * @param parallel			If true, every metric is calculated for the classes in parallel.
+	 * @param cancellationToken	The token checked for every class. Can be null. If it is cancelled, values are left
+	 * 							incomplete.
+	 *
+	 * @return	For every class (indexed by id), whether or not the value of any custom metric changed since the
+	 * 			previous call. Always true on the first call.
+	 */
+	boolean[] calculate(boolean parallel, CancellationToken cancellationToken)
+	{
+		final int numberOfClasses	= classNames.length;
+		boolean[] changed			= new boolean[numberOfClasses];
+
+		for(int[] level : levels)
+		{
+			for(int i : level)
+			{
+				final Metric metric				= customMetrics[i];
+				final double[] currentValues	= new double[numberOfClasses];
+				double[] previousValues			= values[i];
+
+				declaredIntermediates	= getDeclaredIntermediates(metric);
+				declaredDependencies	= getDeclaredDependencies(metric);
+
+				/* Let's compute the intermediate results before the loop, so it only reads them. */
+				if(declaredIntermediates[INTERMEDIATES.ALL_SUPERCLASSES.ordinal()] && (null == allSuperclasses))
+				{
+					allSuperclasses	= metrics.graph.getAllSuperclasses();
+				}
+
+				if(declaredIntermediates[INTERMEDIATES.ALL_SUBCLASSES.ordinal()] && (null == allSubclasses))
+				{
+					allSubclasses	= (null != metrics.allSubclasses) ? metrics.allSubclasses
+							: metrics.graph.getAllSubclasses();
+				}
+
+				ParallelLoop.forEach(numberOfClasses, new ParallelLoop.Body()
+				{
+					@Override
+					public void run(int id)
+					{
+						currentValues[id]	= metric.calculate(id, MetricEngine.this);
+					}
+				}, parallel, cancellationToken);
+
+				values[i]	= currentValues;
+
+				for(int id = 0; id < numberOfClasses; ++id)
+				{
+					if((null == previousValues) || (0 != Double.compare(previousValues[id], currentValues[id])))
+					{
+						changed[id]	= true;
+					}
+				}
+			}
+		}
+
+		declaredIntermediates	= null;
+		declaredDependencies	= null;
+
+		return changed;
+	}
+
+	/**
+	 * Returns the value of a custom metric of a class.
+	 *
+	 * @param index	The index of the custom metric, in the order of their columns.
+	 * @param id	The id of the class.
+	 *
+	 * @return	The value of the metric.
+	 */
+	double getCustomValue(int index, int id)
+	{
+		return values[index][id];
+	}
+
+	/**
+	 * Estimates the heap held by the values of the custom metrics.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	long estimateHeapSize()
+	{
+		long size	= 0;
+
+		for(double[] metricValues : values)
+		{
+			if(null != metricValues)
+			{
+				size	+= ClassContainer.OBJECT_HEADER_SIZE + (8L * metricValues.length);
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * Keeps only the values of the custom metrics, for a frozen {@link Model} (see {@link Model#freeze()}): the
+	 * metrics, names of the classes and intermediate results are released, so the metrics can't be calculated again.
+	 */
+	void freeze()
+	{
+		metrics					= null;
+		classNames				= null;
+		declaredIntermediates	= null;
+		declaredDependencies	= null;
+		allSuperclasses			= null;
+		allSubclasses			= null;
+	}
+
+	// PUBLIC METHODS
+
+	@Override
+	public int getNumberOfClasses()
+	{
+		return classNames.length;
+	}
+
+	@Override
+	public String getClassName(int classId)
+	{
+		return classNames[classId];
+	}
+
+	@Override
+	public int[] getSuperclasses(int classId)
+	{
+		return metrics.graph.getSuperclasses(classId);
+	}
+
+	@Override
+	public int[] getSubclasses(int classId)
+	{
+		return metrics.graph.getSubclasses(classId);
+	}
+
+	@Override
+	public int[] getAllSuperclasses(int classId)
+	{
+		checkDeclared(INTERMEDIATES.ALL_SUPERCLASSES);
+
+		return toArray(allSuperclasses[classId]);
+	}
+
+	@Override
+	public int[] getAllSubclasses(int classId)
+	{
+		checkDeclared(INTERMEDIATES.ALL_SUBCLASSES);
+
+		return toArray(allSubclasses[classId]);
+	}
+
+	@Override
+	public int[] getReferencedClasses(int classId)
+	{
+		checkDeclared(INTERMEDIATES.REFERENCED_CLASSES);
+
+		return metrics.referencedClasses[classId];
+	}
+
+	@Override
+	public double getValue(String metricName, int classId)
+	{
+		METRICS builtInMetric	= getBuiltInMetric(metricName);
+
+		if(null != builtInMetric)
+		{
+			return metrics.getValue(builtInMetric, classId);
+		}
+
+		Integer index	= indexes.get(metricName);
+
+		if(null == index)
+		{
+			throw new IllegalArgumentException("Unknown metric " + metricName + ".");
+		}
+
+		/* Values of the previous calculation are kept until the metric is calculated again, so let's check the
+		 * declaration rather than the values: only dependencies are always calculated first. */
+		if(!declaredDependencies[index])
+		{
+			throw new IllegalStateException("Metric " + metricName + " was not declared as a dependency.");
+		}
+
+		return values[index][classId];
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Returns the index of every custom metric by name.
+	 *
+	 * @param customMetrics	The custom metrics.
+	 *
+	 * @return	The indices, by name.
+	 *
+	 * @throws IllegalArgumentException	Thrown if a name is used twice or by a metric of {@link Metrics.METRICS}.
+	 */
+	protected static HashMap<String, Integer> getIndexes(Metric[] customMetrics)
+	{
+		HashMap<String, Integer> indexes	= new HashMap<String, Integer>();
+
+		for(int i = 0; i < customMetrics.length; ++i)
+		{
+			String name	= customMetrics[i].getName();
+
+			if((null != getBuiltInMetric(name)) || (null != indexes.put(name, i)))
+			{
+				throw new IllegalArgumentException("Duplicate metric " + name + ".");
+			}
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Returns the metric of {@link Metrics.METRICS} of a name.
+	 *
+	 * @param name	The name.
+	 *
+	 * @return	The metric, or null if it is not a metric of {@link Metrics.METRICS}.
+	 */
+	protected static METRICS getBuiltInMetric(String name)
+	{
+		for(METRICS metric : METRICS.values)
+		{
+			if(metric.toString().equals(name))
+			{
+				return metric;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the intermediate results declared by a metric.
+	 *
+	 * @param metric	The metric.
+	 *
+	 * @return	Whether or not every intermediate result is declared, indexed by ordinal.
+	 */
+	protected static boolean[] getDeclaredIntermediates(Metric metric)
+	{
+		boolean[] declared	= new boolean[INTERMEDIATES.values().length];
+
+		for(INTERMEDIATES intermediate : metric.getIntermediates())
+		{
+			declared[intermediate.ordinal()]	= true;
+		}
+
+		return declared;
+	}
+
+	/**
+	 * Returns the ids of a set.
+	 *
+	 * @param set	The set.
+	 *
+	 * @return	The sorted ids.
+	 */
+	protected static int[] toArray(ClassSet set)
+	{
+		int[] ids	= new int[set.cardinality()];
+
+		set.copyTo(ids);
+
+		return ids;
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Returns the custom metrics declared as dependencies by a metric.
+	 *
+	 * @param metric	The metric.
+	 *
+	 * @return	Whether or not every custom metric is declared, indexed like {@code customMetrics}.
+	 */
+	protected boolean[] getDeclaredDependencies(Metric metric)
+	{
+		boolean[] declared	= new boolean[customMetrics.length];
+
+		for(String dependency : metric.getDependencies())
+		{
+			Integer index	= indexes.get(dependency);
+
+			if(null != index)
+			{
+				declared[index]	= true;
+			}
+		}
+
+		return declared;
+	}
+
+	/**
+	 * Throws an exception if the metric being calculated did not declare an intermediate result.
+	 *
+	 * @param intermediate	The intermediate result.
+	 *
+	 * @throws IllegalStateException	Thrown if the intermediate result was not declared.
+	 */
+	protected void checkDeclared(INTERMEDIATES intermediate)
+	{
+		if(!declaredIntermediates[intermediate.ordinal()])
+		{
+			throw new IllegalStateException("Intermediate result " + intermediate + " was not declared.");
+		}
+	}
+}
@@ -1,16 +1,25 @@
 package mvc.models;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Arrays;
 
-import uml_parser.Dataitem;
-import uml_parser.Operation;
+import bnf_parser.CancellationToken;
+
+import mvc.models.ModelException.ERRORS;
 
 /**
  * This class is used to calculate metrics for a specific file (a specific model). One instance is created per file
  * (per model). Metrics for a specific class of the model are returned via a method call on that unique instance.
  *
+ * <p>Every metric is stored in an array indexed by the id of the class (see {@link ClassContainer#getId()}), so no
+ * lookup hashes the name of a class and no value is boxed. Values are only formatted as text when they are shown or
+ * exported (see {@link #format(METRICS, int)}).</p>
+ *
+ * <p>In lazy mode, the metrics walking the inheritance graph (DIT, CLD, CAC, NOM, NOA and NOD) are only computed when
+ * the metrics of a class are first requested, for the class and the superclasses or subclasses it depends on which
+ * were not computed yet. The metrics reading the members of the classes (ANA, ITC and ETC) are always computed by the
+ * constructor, since members are unlinked once the analysis ends.</p>
+ *
  * @author Hubert Lemelin
  *
  */
@@ -67,476 +76,853 @@ public class Metrics
 		}
 	}
 
+	// PROTECTED PROPERTIES
+
 	/**
-	 * HashMap containing the number of times other classes appear as the type of the attributes of the methods of the
-	 * current class being analyzed. The key is the name of the class.
+	 * The number of times other classes appear as the type of the attributes of the methods of each class.
 	 */
-	protected HashMap<String, Integer> ITC;
+	protected int[] ITC;
 
 	/**
-	 * HashMap containing the number of times the current class being analyzed apears as the type of the attributes
-	 * of the methods of other classes. The key is the name of the class. We use {@link AtomicInteger} to directly
-	 * increment the value so we don't have to extract the value from the HashMap, increment it, and store it back.
+	 * The number of times each class appears as the type of the attributes of the methods of other classes.
 	 */
-	protected HashMap<String, AtomicInteger> ETC;
+	protected int[] ETC;
 
 	/**
-	 * HashMap containing the length of the longest path from the current class being analyzed to a superclass (the root
-	 * of the inheritance tree). The key is the name of the class.
+	 * The length of the longest path from each class to a superclass (the root of the inheritance tree).
 	 */
-	protected HashMap<String, Integer> DIT;
+	protected int[] DIT;
 
 	/**
-	 * HashMap containing the length of the longest path from the current class being analyzed to a subclass (the leaf
-	 * of the inheritane tree). The key is the name of the class.
+	 * The length of the longest path from each class to a subclass (the leaf of the inheritance tree).
 	 */
-	protected HashMap<String, Integer> CLD;
+	protected int[] CLD;
 
 	/**
-	 * HashMap containing the number of local/inherited associations/aggregations of the current class being analyzed.
-	 * The key is the name of the class.
+	 * The number of local/inherited associations/aggregations of each class.
 	 */
-	protected HashMap<String, Integer> CAC;
-
-	// PACKAGE CONSTRUCTOR
+	protected int[] CAC;
 
 	/**
-	 * Constructor.
-	 *
-	 * @param classContainer	The {@link ClassContainer} for which metrics must be calculated.
+	 * The average number of arguments of the local methods of each class.
 	 */
-	Metrics(ClassContainer[] allClasses)
-	{
-		/* We store the name of the classes to distinguish between primitive type (ex. Integer) and types that refer to
-		 * classes in the model. Notice that we don't check the validity of the types if it is not a class and if it
-		 * not a "valid" primitive. */
-		HashMap<String, ClassContainer> classNames	= new HashMap<String, ClassContainer>();
+	protected float[] ANA;
 
-		ITC	= new HashMap<String, Integer>();
+	/**
+	 * The number of local/inherited methods of each class.
+	 */
+	protected int[] NOM;
 
-		ETC	= new HashMap<String, AtomicInteger>();
+	/**
+	 * The number of local/inherited attributes of each class.
+	 */
+	protected int[] NOA;
 
-		DIT	= new HashMap<String, Integer>();
+	/**
+	 * The direct/indirect subclasses of each class. Null in lazy mode.
+	 */
+	protected ClassSet[] allSubclasses;
 
-		CLD	= new HashMap<String, Integer>();
+	/**
+	 * The number of direct/indirect subclasses of each class, in lazy mode only.
+	 */
+	protected int[] NOD;
 
-		CAC	= new HashMap<String, Integer>();
+	/**
+	 * In lazy mode, whether or not DIT was computed for each class. Null otherwise (everything is computed).
+	 */
+	protected boolean[] computedDIT;
 
-		for(ClassContainer currentClass : allClasses)
-		{
-			String className	= currentClass.getName();
+	/**
+	 * In lazy mode, whether or not CLD was computed for each class.
+	 */
+	protected boolean[] computedCLD;
 
-			classNames.put(className, currentClass);
+	/**
+	 * In lazy mode, whether or not CAC was computed for each class.
+	 */
+	protected boolean[] computedCAC;
 
-			ETC.put(className, new AtomicInteger());
+	/**
+	 * In lazy mode, whether or not the inherited members, NOM and NOA were computed for each class.
+	 */
+	protected boolean[] computedMembers;
 
-			/* Let's calculate the longest path in the inheritance tree towards the root. */
-			calculateLongestSuperclassPath(currentClass);
+	/**
+	 * In lazy mode, whether or not NOD was computed for each class.
+	 */
+	protected boolean[] computedNOD;
 
-			/* Let's calculate the longest path in the inheritance tree towards the leaves. */
-			calculateLongestSubclassPath(currentClass);
+	/**
+	 * The inheritance graph of the model.
+	 */
+	protected final InheritanceGraph graph;
 
-			/* Let's calculate the number of associations/aggregations of current class. */
-			calculateNumberOfAssociationsAndAggregations(currentClass);
-		}
+	/**
+	 * The ids of the classes appearing as the type of the arguments of the methods of each class, once per argument.
+	 * Kept so {@link #update(ClassContainer[], TypeLinks)} can take back the contribution of a class to ETC.
+	 */
+	protected int[][] referencedClasses;
 
-		for(ClassContainer currentClass : allClasses)
-		{
-			/* Here we'll loop through all the methods of the model to defined ITC and ETC. */
+	/**
+	 * The id of every attribute name, by symbol.
+	 */
+	protected MemberIds attributeIds;
 
-			String currentClassName	= currentClass.getName();
-			int currentClassITC		= 0;
+	/**
+	 * The id of every method, by symbols of its name, signature and type.
+	 */
+	protected MemberIds methodIds;
 
-			OperationContainer[] operations	= currentClass.getOperationContainers();
+	/**
+	 * The id of every method name and signature, by symbols.
+	 */
+	protected MemberIds signatureIds;
 
-			for(OperationContainer currentOperation : operations)
-			{
-				Dataitem[] attributes	= currentOperation.getAttributes();
+	/**
+	 * The id of the name/signature of every method, indexed by method id. Two methods with the same name and
+	 * signature but different types have different ids but the same signature id.
+	 */
+	protected int[] signatureIdOfMethod;
 
-				for(Dataitem currentAttribute : attributes)
-				{
-					String type	= currentAttribute.getType();
+	/**
+	 * The sorted ids of the attributes of each class.
+	 */
+	protected int[][] localAttributes;
 
-					if(!type.equals(currentClassName) && classNames.containsKey(type))
-					{
-						/* Current type is a class of the model. We can update ITC and ETC. */
+	/**
+	 * The sorted ids of the methods of each class.
+	 */
+	protected int[][] localMethods;
 
-						++currentClassITC;
+	/**
+	 * The sorted signature ids of the methods of each class.
+	 */
+	protected int[][] localSignatures;
 
-						/* ETC refers to other classes. We use an AtomicInteger to simplify to increment process. */
-						ETC.get(type).incrementAndGet();
-					}
-				}
-			}
+	/**
+	 * The sorted ids of the attributes of all the superclasses of each class.
+	 */
+	protected int[][] inheritedAttributes;
 
-			/* ITC refers only to current class, so let's finally store it. */
-			ITC.put(currentClassName, currentClassITC);
-		}
-	}
+	/**
+	 * The sorted ids of the methods of all the superclasses of each class.
+	 */
+	protected int[][] inheritedMethods;
 
-	// PACKAGE METHODS
+	// PACKAGE CONSTRUCTOR
 
 	/**
-	 * Calculates all metrics and build caches.
+	 * Constructor.
+	 *
+	 * @param allClasses			All the classes of the model. Every class must be at the index of its id.
+	 * @param graph					The inheritance graph of {@code allClasses}. It must not contain any cycle.
+	 * @param typeLinks				The links of the types of {@code allClasses}. Every class must be linked.
+	 * @param parallel				If true, the work done independently for every class is split between the
+	 * 								threads of the common {@link java.util.concurrent.ForkJoinPool}.
+	 * @param lazy					If true, the metrics walking the inheritance graph are computed on demand by
+	 * 								{@link #getValue(METRICS, int)}.
+	 * @param cancellationToken		The token checked for every class. Can be null.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the token is cancelled.
 	 */
-	String[][] getMetrics(ClassContainer classContainer)
+	Metrics(ClassContainer[] allClasses, InheritanceGraph graph, TypeLinks typeLinks, boolean parallel, boolean lazy,
+			CancellationToken cancellationToken) throws ModelException
 	{
-		if(null == classContainer)
-		{
-			return null;
-		}
-
-		ArrayList<String[]> metrics	= new ArrayList<String[]>();
-
-		String className	= classContainer.getName();
+		int numberOfClasses	= allClasses.length;
 
-		OperationAttributeNumberContainer NOMandNOA = calculateNOMandNOA(classContainer);
+		this.graph	= graph;
 
-		/* Average number of arguments of local methods. */
-		metrics.add(new String[] {"ANA", String.valueOf(calculateANA(classContainer))});
+		ITC	= new int[numberOfClasses];
+		ETC	= new int[numberOfClasses];
+		CAC	= new int[numberOfClasses];
+		ANA	= new float[numberOfClasses];
+		DIT	= new int[numberOfClasses];
+		CLD	= new int[numberOfClasses];
+		NOM	= new int[numberOfClasses];
+		NOA	= new int[numberOfClasses];
 
-		/* Number of local/inherited methods. */
-		metrics.add(new String[] {"NOM", String.valueOf(NOMandNOA.numberOfLocalAndInheritedMethods)});
+		referencedClasses	= new int[numberOfClasses][];
 
-		/* Number of local/inherited attributes. */
-		metrics.add(new String[] {"NOA", String.valueOf(NOMandNOA.numberOfLocalAndInheritedAttributes)});
+		attributeIds		= new MemberIds(1);
+		methodIds			= new MemberIds(3);
+		signatureIds		= new MemberIds(2);
+		signatureIdOfMethod	= new int[16];
 
-		/* Number of times other classes appear as type of arguments of current class's methods. */
-		metrics.add(new String[] {"ITC", String.valueOf(ITC.get(className))});
+		localAttributes		= new int[numberOfClasses][];
+		localMethods		= new int[numberOfClasses][];
+		localSignatures		= new int[numberOfClasses][];
+		inheritedAttributes	= new int[numberOfClasses][];
+		inheritedMethods	= new int[numberOfClasses][];
 
-		/* Number of times current class appears as type of other classes' attributes. */
-		metrics.add(new String[] {"ETC", String.valueOf(ETC.get(className))});
+		/* First pass, over the members of every class: ANA, ITC, ETC, local CAC and the ids of the members. */
+		calculateLocalMetrics(allClasses, typeLinks, parallel, cancellationToken);
 
-		/* Number of local/inherited associations/aggregations. */
-		metrics.add(new String[] {"CAC", String.valueOf(CAC.get(className))});
+		if(lazy)
+		{
+			/* Everything else is computed on demand, see computeClass(). */
+			NOD	= new int[numberOfClasses];
 
-		/* Longest path length to superclasses. */
-		metrics.add(new String[] {"DIT", String.valueOf(DIT.get(className))});
+			computedDIT		= new boolean[numberOfClasses];
+			computedCLD		= new boolean[numberOfClasses];
+			computedCAC		= new boolean[numberOfClasses];
+			computedMembers	= new boolean[numberOfClasses];
+			computedNOD		= new boolean[numberOfClasses];
 
-		/* Longest path length to subclases. */
-		metrics.add(new String[] {"CLD", String.valueOf(CLD.get(className))});
+			return;
+		}
 
-		/* Number of direct subclasses. */
-		metrics.add(new String[] {"NOC", String.valueOf(calculateNOC(classContainer))});
+		/* Second pass, over the inheritance graph from the roots: DIT, CAC, NOM and NOA. */
+		calculateInheritedMetrics(cancellationToken);
 
-		/* Number of direct/indirect subclasses. */
-		metrics.add(new String[] {"NOD", String.valueOf(calculateNOD(classContainer))});
+		/* Third pass, from the leaves: CLD, along with the transitive closure used by NOD. */
+		allSubclasses	= graph.getAllSubclasses(CLD);
+	}
 
-		return metrics.toArray(new String[metrics.size()][2]);
+	/**
+	 * Constructor of metrics loaded from a {@link ModelSnapshot}. The snapshot sets the values and the local members,
+	 * then calls {@link #restoreUpdateState()}.
+	 *
+	 * @param graph	The inheritance graph of the model.
+	 */
+	Metrics(InheritanceGraph graph)
+	{
+		this.graph	= graph;
 	}
 
-	// PROTECTED METHODS
+	// PACKAGE METHODS
 
 	/**
-	 * Calculates the length of the longest path from the current class to the root in the inheritance tree. It is a
-	 * recursive process which uses caches to speed things up.
+	 * Updates the metrics after the attributes and operations of some classes changed. Only the metrics depending on
+	 * the members of a class are updated:
+	 * <ul>
+	 * <li>ANA and ITC of the changed classes;</li>
+	 * <li>ETC of the classes appearing, before or after the change, as the type of an argument of their methods;</li>
+	 * <li>NOM and NOA of the changed classes and of the subclasses whose inherited members changed.</li>
+	 * </ul>
+	 * CAC, DIT, CLD, NOC and NOD only depend on the generalizations, associations and aggregations, which do not
+	 * change.
 	 *
-	 * @param startingClass	The class from which we start.
+	 * @param changedClasses	The changed classes. Their new members must be set and their caches not built yet.
+	 * @param typeLinks			The links of the types of the classes. The changed classes must be linked again.
 	 *
-	 * @return	The length of the longest path.
+	 * @return	The sorted ids of the classes whose metrics may have changed. In lazy mode, they are computed again
+	 * 			when requested with {@link #getValue(METRICS, int)}.
 	 */
-	protected int calculateLongestSuperclassPath(ClassContainer startingClass)
+	synchronized int[] update(ClassContainer[] changedClasses, TypeLinks typeLinks)
 	{
-		String className			= startingClass.getName();
+		int numberOfClasses	= ITC.length;
+		boolean[] affected	= new boolean[numberOfClasses];
+		int[] changedIds	= new int[changedClasses.length];
 
-		if(DIT.containsKey(className))
+		for(int i = 0; i < changedClasses.length; ++i)
 		{
-			/* If already calculated, let's simply return it. */
+			ClassContainer currentClass	= changedClasses[i];
+			int id						= currentClass.getId();
 
-			return DIT.get(className);
-		}
+			changedIds[i]	= id;
+			affected[id]	= true;
 
-		ClassContainer[] superclasses	= startingClass.getSuperclasses();
+			/* Let's take back the arguments counted before the change and count the new ones. */
+			for(int typeId : referencedClasses[id])
+			{
+				--ETC[typeId];
 
-		if((null == superclasses) || (0 == superclasses.length))
-		{
-			/* No superclases = length of 0. */
+				affected[typeId]	= true;
+			}
 
-			DIT.put(className, 0);
+			referencedClasses[id]	= scanArguments(id, typeLinks);
+			ITC[id]					= referencedClasses[id].length;
 
-			return 0;
-		}
+			for(int typeId : referencedClasses[id])
+			{
+				++ETC[typeId];
+
+				affected[typeId]	= true;
+			}
 
-		int longestSuperclassPath	= 0;
+			setLocalMembers(currentClass);
+		}
 
-		for(ClassContainer superclass : superclasses)
+		if(null != computedMembers)
+		{
+			/* Lazy mode: the changed classes and their subclasses computed so far are simply computed again when
+			 * requested. A class is only computed after all its superclasses, so they are all reached through
+			 * computed classes. */
+			for(int changedId : changedIds)
+			{
+				for(int id : graph.getClassesReachedWhile(changedId, computedMembers, true, true))
+				{
+					computedMembers[id]		= false;
+					inheritedAttributes[id]	= null;
+					inheritedMethods[id]	= null;
+					affected[id]			= true;
+				}
+			}
+		}
+		else
 		{
-			/* Selects the longest path from direct superclasses. Recursion occurs here. */
+			/* Only the subclasses whose inherited members really changed are updated. */
+			int[] updatedAttributes	= graph.updateInheritedSets(localAttributes, inheritedAttributes, changedIds);
+			int[] updatedMethods	= graph.updateInheritedSets(localMethods, inheritedMethods, changedIds);
 
-			int currentLength	= calculateLongestSuperclassPath(superclass);
+			for(int id : updatedAttributes)
+			{
+				affected[id]	= true;
+			}
 
-			longestSuperclassPath	= Math.max(currentLength, longestSuperclassPath);
+			for(int id : updatedMethods)
+			{
+				affected[id]	= true;
+			}
 		}
 
-		/* +1 because the current class is one level below its superclasses. */
-		++longestSuperclassPath;
+		int[] affectedIds	= new int[numberOfClasses];
+		int n				= 0;
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			if(affected[id])
+			{
+				if(null == computedMembers)
+				{
+					/* Counting the members of a class whose members did not change gives the same result. */
+					countMembers(id);
+				}
+
+				affectedIds[n++]	= id;
+			}
+		}
 
-		DIT.put(className, longestSuperclassPath);
+		return Arrays.copyOf(affectedIds, n);
+	}
 
-		return longestSuperclassPath;
+	/**
+	 * In lazy mode, computes the metrics of every class not computed yet. Does nothing otherwise.
+	 */
+	void computeAll()
+	{
+		if(null != computedDIT)
+		{
+			for(int id = 0; id < ITC.length; ++id)
+			{
+				computeClass(id);
+			}
+		}
 	}
 
 	/**
-	 * Calculates the length of the longest path from the current class to the leaves in the inheritance tree. It is a
-	 * recursive process which uses caches to speed things up.
-	 *
-	 * @param startingClass	The class from which we start.
+	 * Returns metrics holding only the values, for a frozen {@link Model} (see {@link Model#freeze()}): in lazy mode,
+	 * every metric is computed first, then NOD is kept as a column instead of the subclass closures. What is kept to
+	 * update the metrics is left out, so the returned metrics can't be updated. This instance keeps its values, which
+	 * are shared with the returned metrics, and can still be used (for example by other models, through the cache).
 	 *
-	 * @return	The length of the longest path.
+	 * @return	The metrics holding only the values.
 	 */
-	protected int calculateLongestSubclassPath(ClassContainer startingClass)
+	Metrics freeze()
 	{
-		String className	= startingClass.getName();
+		computeAll();
 
-		if(CLD.containsKey(className))
-		{
-			/* If already calculated, let's simply return it. */
+		Metrics frozen	= new Metrics(graph);
 
-			return CLD.get(className);
-		}
+		frozen.ITC	= ITC;
+		frozen.ETC	= ETC;
+		frozen.DIT	= DIT;
+		frozen.CLD	= CLD;
+		frozen.CAC	= CAC;
+		frozen.ANA	= ANA;
+		frozen.NOM	= NOM;
+		frozen.NOA	= NOA;
+		frozen.NOD	= NOD;
 
-		ClassContainer[] subclasses	= startingClass.getSubclasses();
-
-		if((null == subclasses) || (0 == subclasses.length))
+		if(null == NOD)
 		{
-			/* No subclasses = length of 0. */
-
-			CLD.put(className, 0);
+			frozen.NOD	= new int[ITC.length];
 
-			return 0;
+			for(int id = 0; id < ITC.length; ++id)
+			{
+				frozen.NOD[id]	= calculateNOD(id);
+			}
 		}
 
-		int longestLength	= 0;
-
-		for(ClassContainer subclass : subclasses)
-		{
-			/* Selects the longest path from direct subclasses. Recursion occurs here. */
-
-			int currentLength	= calculateLongestSubclassPath(subclass);
+		return frozen;
+	}
 
-			longestLength	= Math.max(currentLength, longestLength);
-		}
+	/**
+	 * Computes, for metrics loaded from a {@link ModelSnapshot}, what {@link #update(ClassContainer[], TypeLinks)}
+	 * reads and the snapshot does not store: the inherited members of every class and the subclass closures used by
+	 * NOD. They only depend on the local members and the inheritance graph.
+	 */
+	void restoreUpdateState()
+	{
+		int numberOfClasses	= ITC.length;
+		int[] order			= graph.getTopologicalOrder();
 
-		/* +1 because the current class is one level above its subclasses. */
-		++longestLength;
+		inheritedAttributes	= new int[numberOfClasses][];
+		inheritedMethods	= new int[numberOfClasses][];
 
-		CLD.put(className, longestLength);
+		graph.computeInheritedSets(localAttributes, inheritedAttributes, order);
+		graph.computeInheritedSets(localMethods, inheritedMethods, order);
 
-		return longestLength;
+		allSubclasses	= graph.getAllSubclasses();
 	}
 
 	/**
-	 * Calculates the nuber of local/inherited associations and aggregations. Simply adds things up.
+	 * Returns the value of one metric of a class.
 	 *
-	 * @param startingClass	The class from which we start.
+	 * @param metric	The metric.
+	 * @param id		The id of the class.
 	 *
-	 * @return	The number of local/inherited associations and aggregations.
+	 * @return	The value of the metric.
 	 */
-	protected int calculateNumberOfAssociationsAndAggregations(ClassContainer startingClass)
+	double getValue(METRICS metric, int id)
 	{
-		String className			= startingClass.getName();
+		if(null != computedDIT)
+		{
+			computeClass(id);
+		}
 
-		if(CAC.containsKey(className))
+		switch(metric)
 		{
-			/* If already calculated, let's simply return it. */
+			case ANA:
+				return ANA[id];
 
-			return CAC.get(className);
-		}
+			case NOM:
+				return NOM[id];
 
-		/* First we use the number of associations and aggregations of the current class. */
-		int numberOfAssociationsAndAggregations= startingClass.getNumberOfAggregations() + startingClass.getNumberOfAssocitions();
+			case NOA:
+				return NOA[id];
 
-		ClassContainer[] superclasses	= startingClass.getSuperclasses();
+			case ITC:
+				return ITC[id];
 
-		if((null == superclasses) || (0 == superclasses.length))
-		{
-			/* No superclasses = no recursion needed. */
+			case ETC:
+				return ETC[id];
 
-			CAC.put(className, numberOfAssociationsAndAggregations);
+			case CAC:
+				return CAC[id];
 
-			return numberOfAssociationsAndAggregations;
-		}
+			case DIT:
+				return DIT[id];
 
-		for(ClassContainer superclass : superclasses)
-		{
-			/* Let's simply increment the value with the value of each superclass. Recursion occurs here.*/
+			case CLD:
+				return CLD[id];
+
+			case NOC:
+				return calculateNOC(id);
 
-			numberOfAssociationsAndAggregations	+= calculateNumberOfAssociationsAndAggregations(superclass);
+			default:
+				/* NOD. */
+				return calculateNOD(id);
 		}
+	}
 
-		CAC.put(className, numberOfAssociationsAndAggregations);
+	/**
+	 * Returns the value of one metric of a class as shown to the user and exported. Values are only formatted when
+	 * they are shown or exported, never stored as text.
+	 *
+	 * @param metric	The metric.
+	 * @param id		The id of the class.
+	 *
+	 * @return	The value of the metric.
+	 */
+	String format(METRICS metric, int id)
+	{
+		if(METRICS.ANA == metric)
+		{
+			/* The only metric which is not an integer. */
+			return String.valueOf(ANA[id]);
+		}
 
-		return numberOfAssociationsAndAggregations;
+		return String.valueOf((int) getValue(metric, id));
 	}
 
 	/**
-	 * Calculates the average number of arguments of local methods.
+	 * Estimates the heap held by the values of the metrics. The structures kept to update them are not counted.
 	 *
-	 * @param classContainer	The class in which the calculation has to be made.
+	 * @return	The estimated number of bytes.
+	 */
+	long estimateHeapSize()
+	{
+		/* ITC, ETC, DIT, CLD, CAC, ANA, NOM and NOA, plus NOD in lazy mode or once frozen. */
+		int numberOfColumns	= (null == NOD) ? 8 : 9;
+
+		return numberOfColumns * (ClassContainer.OBJECT_HEADER_SIZE + (4L * ITC.length));
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * In lazy mode, computes the metrics of a class walking the inheritance graph, if they were not computed yet.
+	 * Every metric first computes the superclasses (or subclasses) it depends on which were not computed yet, so a
+	 * class is never computed twice. Synchronized since the view and an export may ask for metrics at the same
+	 * time.
 	 *
-	 * @return	The average number of attributes of the methods.
+	 * @param id	The id of the class.
 	 */
-	protected float calculateANA(ClassContainer classContainer)
+	protected synchronized void computeClass(int id)
 	{
-		float averageNumberOfArguments	= 0;
+		graph.computeLongestSuperclassPaths(DIT, getClassesToCompute(id, computedDIT, false));
 
-		Operation[] operations	= classContainer.getOperations();
+		graph.computeLongestSubclassPaths(CLD, getClassesToCompute(id, computedCLD, true));
 
-		/* Total number of operations. */
-		int nOperations	= 0;
+		graph.sumOverSuperclasses(CAC, getClassesToCompute(id, computedCAC, false));
 
-		/* Total number of arguments. */
-		int nArguments	= 0;
+		int[] ids	= getClassesToCompute(id, computedMembers, false);
 
-		for(Operation operation : operations)
-		{
-			++nOperations;
+		graph.computeInheritedSets(localAttributes, inheritedAttributes, ids);
+		graph.computeInheritedSets(localMethods, inheritedMethods, ids);
 
-			nArguments	+= operation.getAttributes().length;
+		for(int currentId : ids)
+		{
+			countMembers(currentId);
 		}
 
-		if(0 != nOperations)
+		if(!computedNOD[id])
 		{
-			/* To avoid division by zero. */
+			NOD[id]			= graph.countAllSubclasses(id);
+			computedNOD[id]	= true;
+		}
+	}
+
+	/**
+	 * Returns a class and the superclasses (or subclasses) it depends on which were not computed yet, and marks them
+	 * as computed.
+	 *
+	 * @param id				The id of the class.
+	 * @param computed			Whether or not every class was computed. Modified in place.
+	 * @param towardSubclasses	If true, the class depends on its subclasses. Otherwise, on its superclasses.
+	 *
+	 * @return	The ids of the classes to compute, every class after the ones it depends on.
+	 */
+	protected int[] getClassesToCompute(int id, boolean[] computed, boolean towardSubclasses)
+	{
+		int[] ids	= graph.getClassesReachedWhile(id, computed, false, towardSubclasses);
 
-			averageNumberOfArguments	= (nArguments + 0.0f) / nOperations;
+		for(int currentId : ids)
+		{
+			computed[currentId]	= true;
 		}
 
-		return averageNumberOfArguments;
+		return ids;
 	}
 
 	/**
-	 * Calculates the number of local and inherited methods.
+	 * Throws an exception if the analysis was cancelled.
 	 *
-	 * @param classContainer	The class in which calculation has to be made.
+	 * @param cancellationToken	The token. Can be null.
 	 *
-	 * @return	And instance of {@link OperationAttributeNumberContainer} which is a simple container.
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the token is cancelled.
 	 */
-	protected OperationAttributeNumberContainer calculateNOMandNOA(ClassContainer classContainer)
+	protected void checkCancelled(CancellationToken cancellationToken) throws ModelException
 	{
-		/* This code allows multiple inheritance, meaning that a class can extends two or more classes. This exists
-		 * in some languages like C++. One question arises: what happens if a method exists in two or more superclasses?
-		 * According to http://www.cprogramming.com/tutorial/multiple_inheritance.html it is allowed and explicit
-		 * casting has to be done to access that method in a specific superclass. So we won't throw an error if a
-		 * method is defined in more than one superclass. For simplicity, if two superclasses define the same method,
-		 * we'll only count it once. */
+		if((null != cancellationToken) && cancellationToken.isCancelled())
+		{
+			throw new ModelException(ERRORS.ANALYSIS_CANCELLED);
+		}
+	}
 
-		OperationAttributeNumberContainer container	= new OperationAttributeNumberContainer();
+	/**
+	 * Calculates the metrics reading the members of every class in one pass over the classes: ANA, ITC, ETC, the
+	 * number of local associations/aggregations (CAC before the inherited ones are added) and the ids of the local
+	 * members. The types of the arguments are read from their links (see {@link #scanArguments(int, TypeLinks)}).
+	 *
+	 * @param allClasses			All the classes of the model, indexed by id.
+	 * @param typeLinks				The links of the types of the classes.
+	 * @param parallel				If true, classes are done in parallel. The ids of the members are then given
+	 * 								first, in the current thread.
+	 * @param cancellationToken		The token checked for every class. Can be null.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the token is cancelled.
+	 */
+	protected void calculateLocalMetrics(final ClassContainer[] allClasses, final TypeLinks typeLinks,
+			final boolean parallel, CancellationToken cancellationToken) throws ModelException
+	{
+		final int numberOfClasses	= allClasses.length;
 
-		ClassContainer[] superclasses	= classContainer.getAllSuperclasses();
+		if(parallel)
+		{
+			/* Ids are given from tables which can't be shared between threads. */
+			for(int id = 0; id < numberOfClasses; ++id)
+			{
+				checkCancelled(cancellationToken);
 
-		String[] myAttributes	= classContainer.getAttributeNames();
+				setLocalMembers(allClasses[id]);
+			}
+		}
 
-		int numberOfLocalAndInheritedAttributes	= myAttributes.length;
+		/* In parallel, ETC of a class is incremented while scanning other classes from other threads. Every thread
+		 * counts in its own array and the arrays are added up at the end. */
+		final ArrayList<int[]> threadETCs	= new ArrayList<int[]>();
 
-		/* Let's get the methods from the class. */
-		OperationContainer[] myOperations	= classContainer.getOperationContainers();
+		final ThreadLocal<int[]> threadETC	= new ThreadLocal<int[]>()
+		{
+			@Override
+			protected int[] initialValue()
+			{
+				int[] counts	= new int[numberOfClasses];
 
-		/* At first, the number of methods is equal to the number of methods of the class. */
-		int numberOfLocalAndInheritedMethods	= myOperations.length;
+				synchronized(threadETCs)
+				{
+					threadETCs.add(counts);
+				}
 
-		/* Let's get the superclasses of the class. Since we allow multiple inheritance, there might be more than one
-		 * immediate superclass. */
-		//ClassContainer[] superClassesFromClass	= classContainer.getSuperclasses();
+				return counts;
+			}
+		};
 
-		if((null != superclasses) && (0 < superclasses.length))
+		ParallelLoop.forEach(numberOfClasses, new ParallelLoop.Body()
 		{
-			/* We'll use a HashMap to store the inherited methods. This will be useful in cases such a the following:
-			 *     - Class C extends class B
-			 *     - Class B extends class A
-			 *     - B has a method x()
-			 *     - A has a method x()
-			 *     - Starting from C, we count its number of methods.
-			 *     - Then we go to B and detect method x(). We check if it exists in C. If it does, we don't count it since
-			 *     it was already counted. Otherwise, we increment the number of operations by 1. Here it doesn't, so +1.
-			 *     - Then we go to A and detect method x(). We check if it exists in C.  (same as above) It doesn't exist
-			 *     in C so we increment by 1.
-			 *     - We incremented twice for method x() which class C inherited from class B.
-			 *     - We wrongly counted the method x() twice. It should have been counted only once.
-			 *
-			 *     By checking the presence of a method, we avoid counting it twice. We use a HashMap because checking the
-			 *     presence of a key is around O(1) (sometimes more than O(1) but always less than O(n)). */
-			HashMap<String, Boolean> inheritedMethods	= new HashMap<String, Boolean>();
-
-			HashMap<String, Boolean> inheritedAttributes	= new HashMap<String, Boolean>();
-
-			for(ClassContainer currentClass : superclasses)
+			@Override
+			public void run(int id)
 			{
-				String[] yourAttributes	= currentClass.getAttributeNames();
+				ClassContainer currentClass	= allClasses[id];
 
-				for(String yourAttribute : yourAttributes)
+				if(!parallel)
 				{
-					if(!classContainer.containsAttribute(yourAttribute) && !inheritedAttributes.containsKey(yourAttribute))
-					{
-						++numberOfLocalAndInheritedAttributes;
-
-						inheritedAttributes.put(yourAttribute, true);
-					}
+					setLocalMembers(currentClass);
 				}
 
-				OperationContainer[] yourOperations	= currentClass.getOperationContainers();
+				/* First we use the number of associations and aggregations of the current class. Inherited ones are
+				 * added by calculateInheritedMetrics(). */
+				CAC[id]	= currentClass.getNumberOfAggregations() + currentClass.getNumberOfAssocitions();
 
-				/* Let's loop through the superclass's methods. */
-				for(OperationContainer yourOperation : yourOperations)
+				/* Here we'll loop through all the methods of the class to defined ANA, ITC and ETC. */
+				int[] classes	= scanArguments(id, typeLinks);
+
+				if(0 != classes.length)
 				{
-					/* We know that identifiers can't contain '::'... */
-					String key	= yourOperation.getName() + "::" + yourOperation.getSignature() + "::"
-							+ yourOperation.getType();
+					int[] counts	= parallel ? threadETC.get() : ETC;
 
-					if(!classContainer.containsMethod(yourOperation.getName(), yourOperation.getSignature())
-							&& !inheritedMethods.containsKey(key))
+					for(int typeId : classes)
 					{
-						/* Method exists in superclass but not in the (sub) class and was not already inherited. Let's
-						 * count it. */
-						++numberOfLocalAndInheritedMethods;
-
-						/* Addind to the HashMap to avoid counting twice. */
-						inheritedMethods.put(key, true);
+						++counts[typeId];
 					}
 				}
 
+				/* ITC refers only to current class, so let's finally store it. */
+				referencedClasses[id]	= classes;
+				ITC[id]					= classes.length;
+			}
+		}, parallel, cancellationToken);
+
+		checkCancelled(cancellationToken);
+
+		for(int[] counts : threadETCs)
+		{
+			for(int id = 0; id < numberOfClasses; ++id)
+			{
+				ETC[id]	+= counts[id];
+			}
+		}
+	}
+
+	/**
+	 * Calculates the metrics inherited from the superclasses in one pass over the inheritance graph, in topological
+	 * order: every class is done once all its direct superclasses are, from their values only. For every class, in
+	 * the same visit:
+	 * <ul>
+	 * <li>DIT is the longest DIT of its direct superclasses, plus one;</li>
+	 * <li>CAC adds up the totals of its direct superclasses, so a superclass reached through more than one path is
+	 * counted once per path;</li>
+	 * <li>the members inherited are the union of the local and inherited members of its direct superclasses, and
+	 * NOM and NOA are counted right away, while the sets are in the cache.</li>
+	 * </ul>
+	 *
+	 * <p>This code allows multiple inheritance, meaning that a class can extends two or more classes. This exists in
+	 * some languages like C++. One question arises: what happens if a method exists in two or more superclasses?
+	 * According to http://www.cprogramming.com/tutorial/multiple_inheritance.html it is allowed and explicit casting
+	 * has to be done to access that method in a specific superclass. So we won't throw an error if a method is
+	 * defined in more than one superclass. For simplicity, if two superclasses define the same method, we'll only
+	 * count it once. Likewise, an attribute name is only counted once, and an inherited member is not counted if the
+	 * class itself defines an attribute of the same name or a method of the same name and signature.</p>
+	 *
+	 * @param cancellationToken	The token checked for every class. Can be null.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the token is cancelled.
+	 */
+	protected void calculateInheritedMetrics(CancellationToken cancellationToken) throws ModelException
+	{
+		int[] superclassOffsets	= graph.superclassOffsets;
+		int[] superclassIds		= graph.superclassIds;
+		int numberOfClasses		= DIT.length;
+
+		/* For every class, its local and inherited members together, read by its subclasses. */
+		int[][] allAttributes	= new int[numberOfClasses][];
+		int[][] allMethods		= new int[numberOfClasses][];
+
+		for(int id : graph.getTopologicalOrder())
+		{
+			checkCancelled(cancellationToken);
+
+			int longestPath		= 0;
+			int[] attributes	= InheritanceGraph.EMPTY_SET;
+			int[] methods		= InheritanceGraph.EMPTY_SET;
+
+			for(int i = superclassOffsets[id], iMax = superclassOffsets[id + 1]; i < iMax; ++i)
+			{
+				int superclassId	= superclassIds[i];
+
+				/* +1 because the current class is one level below its superclasses. */
+				longestPath	= Math.max(longestPath, DIT[superclassId] + 1);
+				CAC[id]		+= CAC[superclassId];
+				attributes	= InheritanceGraph.union(attributes, allAttributes[superclassId]);
+				methods		= InheritanceGraph.union(methods, allMethods[superclassId]);
 			}
+
+			DIT[id]					= longestPath;
+			inheritedAttributes[id]	= attributes;
+			inheritedMethods[id]	= methods;
+			allAttributes[id]		= InheritanceGraph.union(attributes, localAttributes[id]);
+			allMethods[id]			= InheritanceGraph.union(methods, localMethods[id]);
+
+			countMembers(id);
 		}
+	}
+
+	/**
+	 * Gives ids to the attributes and methods of a class and stores them in {@code localAttributes},
+	 * {@code localMethods} and {@code localSignatures}.
+	 *
+	 * @param currentClass	The class. Its members must not be cached yet.
+	 */
+	protected void setLocalMembers(ClassContainer currentClass)
+	{
+		int id							= currentClass.getId();
+		OperationContainer[] operations	= currentClass.getOperationContainers();
 
-		container.numberOfLocalAndInheritedAttributes	= numberOfLocalAndInheritedAttributes;
-		container.numberOfLocalAndInheritedMethods		= numberOfLocalAndInheritedMethods;
+		int[] attributeSymbols	= currentClass.getAttributeSymbols();
+		int[] attributes		= new int[attributeSymbols.length];
 
-		return container;
+		for(int i = 0; i < attributeSymbols.length; ++i)
+		{
+			attributes[i]	= attributeIds.getId(attributeSymbols[i], 0, 0);
+		}
+
+		int[] methods		= new int[operations.length];
+		int[] signatures	= new int[operations.length];
+
+		for(int i = 0; i < operations.length; ++i)
+		{
+			OperationContainer operation	= operations[i];
+
+			/* The keys are the symbols of the operation, interned by the parser, so no string is hashed again. */
+			signatures[i]	= signatureIds.getId(operation.getNameSymbol(), operation.getSignatureSymbol(), 0);
+			methods[i]		= methodIds.getId(operation.getNameSymbol(), operation.getSignatureSymbol(),
+					operation.getTypeSymbol());
+
+			if(methods[i] >= signatureIdOfMethod.length)
+			{
+				signatureIdOfMethod	= Arrays.copyOf(signatureIdOfMethod, 2 * signatureIdOfMethod.length);
+			}
+
+			signatureIdOfMethod[methods[i]]	= signatures[i];
+		}
+
+		/* Names are unique in a class and methods are unique by name/signature, so there are no duplicates. */
+		Arrays.sort(attributes);
+		Arrays.sort(methods);
+		Arrays.sort(signatures);
+
+		localAttributes[id]	= attributes;
+		localMethods[id]	= methods;
+		localSignatures[id]	= signatures;
 	}
 
 	/**
-	 * Returns the number of direct subclasses.
+	 * Counts the local and inherited attributes and methods of a class (NOA and NOM) from its local and inherited
+	 * sets.
+	 *
+	 * @param id	The id of the class.
+	 */
+	protected void countMembers(int id)
+	{
+		int numberOfLocalAndInheritedAttributes	= localAttributes[id].length;
+
+		for(int attribute : inheritedAttributes[id])
+		{
+			/* Inherited attribute, unless the class defines an attribute of the same name. */
+			if(0 > Arrays.binarySearch(localAttributes[id], attribute))
+			{
+				++numberOfLocalAndInheritedAttributes;
+			}
+		}
+
+		int numberOfLocalAndInheritedMethods	= localMethods[id].length;
+
+		for(int method : inheritedMethods[id])
+		{
+			/* Inherited method, unless the class defines a method of the same name and signature. */
+			if(0 > Arrays.binarySearch(localSignatures[id], signatureIdOfMethod[method]))
+			{
+				++numberOfLocalAndInheritedMethods;
+			}
+		}
+
+		NOA[id]	= numberOfLocalAndInheritedAttributes;
+		NOM[id]	= numberOfLocalAndInheritedMethods;
+	}
+
+	/**
+	 * Reads the links of the types of the arguments of the methods of a class: calculates the average number of
+	 * arguments of its methods (ANA) and returns the classes of the model appearing as the type of these arguments,
+	 * other than the class itself.
 	 *
-	 * @param classContainer	The current class.
+	 * @param id			The id of the class.
+	 * @param typeLinks		The links of the types of the classes. The class must be linked.
 	 *
-	 * @return	The number of direct subclasses.
+	 * @return	The ids of the classes, once per argument.
 	 */
-	protected int calculateNOC(ClassContainer classContainer)
+	protected int[] scanArguments(int id, TypeLinks typeLinks)
 	{
-		return classContainer.getSubclasses().length;
+		int[] argumentTypes		= typeLinks.getArgumentTypes(id);
+		int numberOfOperations	= typeLinks.getNumberOfOperations(id);
+		int[] classes			= new int[argumentTypes.length];
+		int n					= 0;
+
+		for(int typeId : argumentTypes)
+		{
+			/* Primitive types (ex. Integer) and types outside of the model are not linked. Notice that we don't check
+			 * the validity of the types if it is not a class and if it not a "valid" primitive. */
+			if((TypeLinks.EXTERNAL != typeId) && (id != typeId))
+			{
+				classes[n++]	= typeId;
+			}
+		}
+
+		/* To avoid division by zero. */
+		ANA[id]	= (0 == numberOfOperations) ? 0 : ((argumentTypes.length + 0.0f) / numberOfOperations);
+
+		return (n == classes.length) ? classes : Arrays.copyOf(classes, n);
 	}
 
 	/**
-	 * Returns the number of direct/indirect subclasss.
+	 * Returns the number of direct subclasses.
 	 *
-	 * @param classContainer	The current class.
+	 * @param id	The id of the current class.
 	 *
-	 * @return	The number of direct/indirect classes.
+	 * @return	The number of direct subclasses.
 	 */
-	protected int calculateNOD(ClassContainer classContainer)
+	protected int calculateNOC(int id)
 	{
-		return classContainer.getAllSubclasses().length;
+		return graph.getNumberOfSubclasses(id);
 	}
 
 	/**
-	 * A simple container for 2 integers returned by one method.
+	 * Returns the number of direct/indirect subclasss.
 	 *
-	 * @author Hubert Lemelin
+	 * @param id	The id of the current class.
 	 *
+	 * @return	The number of direct/indirect classes.
 	 */
-	protected class OperationAttributeNumberContainer
+	protected int calculateNOD(int id)
 	{
-		int numberOfLocalAndInheritedMethods;
-		int numberOfLocalAndInheritedAttributes;
+		if(null == allSubclasses)
+		{
+			/* Lazy mode (computed by computeClass()) or frozen metrics. */
+			return NOD[id];
+		}
+
+		return allSubclasses[id].cardinality();
 	}
 }
@@ -0,0 +1,706 @@
+package mvc.models;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import mvc.models.Metrics.METRICS;
+
+/**
+ * This class writes the metrics of an analysed {@link Model} in a compact binary columnar file and reads such a file
+ * back. A file is opened by mapping it in memory: opening only checks its header, whatever the number of classes, and
+ * every value, class name or metric name is then read directly from the mapping.
+ *
+ * <p>Layout of a file (big-endian):</p>
+ * <ol>
+ * <li>Header (16 bytes): {@link #MAGIC}, {@link #VERSION}, number of classes, number of metrics.</li>
+ * <li>Metric table (16 bytes per metric, in the order of {@link Model#getMetricNames()}): type of the column (index
+ *     of {@link COLUMN_TYPES}), 0, offset of the column in the file (long).</li>
+ * <li>String dictionary: number of metrics + number of classes + 1 offsets (int), relative to the first byte
+ *     following them, then the names of the metrics and the names of the classes, in UTF-8. The string {@code i}
+ *     goes from offset {@code i} to offset {@code i + 1}. Classes are sorted by name, like in
+ *     {@link Model#getMetrics()}.</li>
+ * <li>Columns, one per metric, each starting on a multiple of 8 bytes: the value of the metric for every class, in
+ *     the order of the dictionary, on the fixed width of its type.</li>
+ * </ol>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class MetricsBinaryFile
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * The first four bytes of a file ("UMLM").
+	 */
+	public static final int MAGIC		= 0x554D4C4D;
+
+	/**
+	 * The version of the layout.
+	 */
+	public static final int VERSION	= 1;
+
+	/**
+	 * The type of the values of a column.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	public static enum COLUMN_TYPES
+	{
+		/**
+		 * 32-bit integer, for the integral metrics of {@link Metrics.METRICS}.
+		 */
+		INT(4),
+
+		/**
+		 * 32-bit float, for {@link Metrics.METRICS#ANA}.
+		 */
+		FLOAT(4),
+
+		/**
+		 * 64-bit float, for the custom metrics (see {@link Metric}).
+		 */
+		DOUBLE(8),
+		;
+
+		/**
+		 * The number of bytes of a value.
+		 */
+		protected final int width;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param width	The number of bytes of a value.
+		 */
+		private COLUMN_TYPES(int width)
+		{
+			this.width	= width;
+		}
+
+		/**
+		 * Returns the number of bytes of a value.
+		 *
+		 * @return	The number of bytes.
+		 */
+		public int getWidth()
+		{
+			return width;
+		}
+	}
+
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The number of bytes of the header.
+	 */
+	protected static final int HEADER_SIZE			= 16;
+
+	/**
+	 * The number of bytes of an entry of the metric table.
+	 */
+	protected static final int METRIC_ENTRY_SIZE	= 16;
+
+	/**
+	 * The charset of the names.
+	 */
+	protected static final Charset UTF_8			= Charset.forName("UTF-8");
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The mapped file.
+	 */
+	protected final ByteBuffer buffer;
+
+	/**
+	 * The number of classes.
+	 */
+	protected final int numberOfClasses;
+
+	/**
+	 * The number of metrics.
+	 */
+	protected final int numberOfMetrics;
+
+	/**
+	 * The offset of the offsets of the string dictionary.
+	 */
+	protected final int stringOffsetsOffset;
+
+	/**
+	 * The offset of the first byte of the strings of the dictionary.
+	 */
+	protected final int stringDataOffset;
+
+	/**
+	 * The type of every column.
+	 */
+	protected final COLUMN_TYPES[] columnTypes;
+
+	/**
+	 * The offset of every column.
+	 */
+	protected final int[] columnOffsets;
+
+	// PROTECTED CONSTRUCTOR
+
+	/**
+	 * Constructor. Reads and checks the header and the metric table.
+	 *
+	 * @param buffer	The content of a file.
+	 *
+	 * @throws IOException	Thrown if the content is not a valid file.
+	 */
+	protected MetricsBinaryFile(ByteBuffer buffer) throws IOException
+	{
+		if((HEADER_SIZE > buffer.capacity()) || (MAGIC != buffer.getInt(0)))
+		{
+			throw new IOException("Not a metrics file.");
+		}
+
+		if(VERSION != buffer.getInt(4))
+		{
+			throw new IOException("Unsupported metrics file version: " + buffer.getInt(4) + ".");
+		}
+
+		this.buffer		= buffer;
+		numberOfClasses	= buffer.getInt(8);
+		numberOfMetrics	= buffer.getInt(12);
+
+		/* Longs, so a corrupted count can't overflow the computation of the offsets. */
+		long stringOffsets	= HEADER_SIZE + ((long) METRIC_ENTRY_SIZE * numberOfMetrics);
+		long stringData		= stringOffsets + (4L * ((long) numberOfMetrics + numberOfClasses + 1));
+
+		if((0 > numberOfClasses) || (0 > numberOfMetrics) || (stringData > buffer.capacity()))
+		{
+			throw new IOException("Truncated metrics file.");
+		}
+
+		stringOffsetsOffset	= (int) stringOffsets;
+		stringDataOffset	= (int) stringData;
+		columnTypes			= new COLUMN_TYPES[numberOfMetrics];
+		columnOffsets		= new int[numberOfMetrics];
+
+		COLUMN_TYPES[] types	= COLUMN_TYPES.values();
+
+		for(int i = 0; i < numberOfMetrics; ++i)
+		{
+			int entry	= HEADER_SIZE + (METRIC_ENTRY_SIZE * i);
+			int type	= buffer.getInt(entry);
+			long offset	= buffer.getLong(entry + 8);
+
+			if((0 > type) || (types.length <= type) || (0 > offset)
+					|| ((offset + ((long) types[type].width * numberOfClasses)) > buffer.capacity()))
+			{
+				throw new IOException("Invalid column in metrics file: " + i + ".");
+			}
+
+			columnTypes[i]		= types[type];
+			columnOffsets[i]	= (int) offset;
+		}
+	}
+
+	// PUBLIC STATIC METHODS
+
+	/**
+	 * Writes the metrics of a model to a file, replacing it if it exists. The file is only complete if no exception
+	 * is thrown.
+	 *
+	 * @param model		The analysed model.
+	 * @param filename	The name of the file.
+	 *
+	 * @return	The number of bytes written.
+	 *
+	 * @throws IOException				Thrown if the file can't be created, written or closed.
+	 * @throws IllegalStateException	Thrown if no file was analysed by the model.
+	 */
+	public static long write(Model model, String filename) throws IOException
+	{
+		/* Checked before the file is created. */
+		if(!model.isAnalysed())
+		{
+			throw new IllegalStateException("No file was analysed.");
+		}
+
+		FileOutputStream fileOutputStream	= new FileOutputStream(filename);
+
+		try
+		{
+			long size	= write(model, fileOutputStream.getChannel());
+
+			/* Closed here, and not only in 'finally', so an error while closing is not ignored. */
+			fileOutputStream.close();
+
+			fileOutputStream	= null;
+
+			return size;
+		}
+		finally
+		{
+			if(null != fileOutputStream)
+			{
+				try
+				{
+					fileOutputStream.close();
+				}
+				catch (IOException e)
+				{
+					/* The first exception is the one thrown. */
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the metrics of a model to a channel, through a fixed-size buffer. The channel is not closed.
+	 *
+	 * @param model		The analysed model.
+	 * @param channel	The channel.
+	 *
+	 * @return	The number of bytes written.
+	 *
+	 * @throws IOException				Thrown if the channel can't be written or if the file would be larger than
+	 * 									2 GB.
+	 * @throws IllegalStateException	Thrown if no file was analysed by the model.
+	 */
+	public static long write(Model model, WritableByteChannel channel) throws IOException
+	{
+		if(!model.isAnalysed())
+		{
+			throw new IllegalStateException("No file was analysed.");
+		}
+
+		String[] metricNames	= model.getMetricNames();
+		int nMetrics			= metricNames.length;
+		int nBuiltInMetrics		= METRICS.getNumberOfMetrics();
+
+		/* Ids of the classes, in the order of their names. */
+		int[] ids			= model.getSortedIds();
+		String[] classNames	= model.getSortedClassNames();
+		int nClasses		= ids.length;
+
+		/* Offsets of the strings: names of the metrics, then names of the classes. The names are encoded again when
+		 * written, so only their lengths are kept. */
+		int nStrings			= nMetrics + nClasses;
+		int[] stringOffsets		= new int[nStrings + 1];
+		long stringDataSize		= 0;
+
+		for(int i = 0; i < nStrings; ++i)
+		{
+			String name	= (i < nMetrics) ? metricNames[i] : classNames[i - nMetrics];
+
+			stringDataSize	+= name.getBytes(UTF_8).length;
+
+			if(Integer.MAX_VALUE < stringDataSize)
+			{
+				throw new IOException("Metrics file too large.");
+			}
+
+			stringOffsets[i + 1]	= (int) stringDataSize;
+		}
+
+		/* Types and offsets of the columns. */
+		COLUMN_TYPES[] types	= new COLUMN_TYPES[nMetrics];
+		long[] columnOffsets	= new long[nMetrics];
+		long offset				= HEADER_SIZE + ((long) METRIC_ENTRY_SIZE * nMetrics) + (4L * (nStrings + 1))
+				+ stringDataSize;
+
+		for(int i = 0; i < nMetrics; ++i)
+		{
+			if(i >= nBuiltInMetrics)
+			{
+				types[i]	= COLUMN_TYPES.DOUBLE;
+			}
+			else
+			{
+				types[i]	= (METRICS.ANA == METRICS.getMetricFromIndex(i)) ? COLUMN_TYPES.FLOAT : COLUMN_TYPES.INT;
+			}
+
+			offset				= align(offset);
+			columnOffsets[i]	= offset;
+			offset				+= (long) types[i].width * nClasses;
+		}
+
+		/* The reader maps the file in one buffer. */
+		if(Integer.MAX_VALUE < offset)
+		{
+			throw new IOException("Metrics file too large.");
+		}
+
+		ChannelOutput output	= new ChannelOutput(channel);
+
+		/* Header and metric table */
+
+		output.putInt(MAGIC);
+		output.putInt(VERSION);
+		output.putInt(nClasses);
+		output.putInt(nMetrics);
+
+		for(int i = 0; i < nMetrics; ++i)
+		{
+			output.putInt(types[i].ordinal());
+			output.putInt(0);
+			output.putLong(columnOffsets[i]);
+		}
+
+		/* String dictionary */
+
+		for(int stringOffset : stringOffsets)
+		{
+			output.putInt(stringOffset);
+		}
+
+		for(int i = 0; i < nStrings; ++i)
+		{
+			output.put(((i < nMetrics) ? metricNames[i] : classNames[i - nMetrics]).getBytes(UTF_8));
+		}
+
+		/* Columns, read from the metric columns of the model. */
+
+		for(int i = 0; i < nMetrics; ++i)
+		{
+			output.padTo(columnOffsets[i]);
+
+			for(int j = 0; j < nClasses; ++j)
+			{
+				double value	= model.getMetricValue(i, ids[j]);
+
+				switch(types[i])
+				{
+					case INT:
+						output.putInt((int) value);
+
+						break;
+
+					case FLOAT:
+						output.putFloat((float) value);
+
+						break;
+
+					default:
+						output.putDouble(value);
+
+						break;
+				}
+			}
+		}
+
+		output.flush();
+
+		return output.getSize();
+	}
+
+	/**
+	 * Opens a file by mapping it in memory. Only the header and the metric table are read.
+	 *
+	 * @param filename	The name of the file.
+	 *
+	 * @return	The file.
+	 *
+	 * @throws IOException	Thrown if the file can't be read or is not a valid metrics file.
+	 */
+	public static MetricsBinaryFile open(String filename) throws IOException
+	{
+		RandomAccessFile file	= new RandomAccessFile(filename, "r");
+
+		try
+		{
+			FileChannel fileChannel	= file.getChannel();
+
+			if(Integer.MAX_VALUE < fileChannel.size())
+			{
+				throw new IOException("Metrics file too large.");
+			}
+
+			/* The mapping stays valid once the file is closed. */
+			MappedByteBuffer mappedBuffer	= fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+
+			return new MetricsBinaryFile(mappedBuffer);
+		}
+		finally
+		{
+			file.close();
+		}
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the number of classes.
+	 *
+	 * @return	The number of classes.
+	 */
+	public int getNumberOfClasses()
+	{
+		return numberOfClasses;
+	}
+
+	/**
+	 * Returns the number of metrics.
+	 *
+	 * @return	The number of metrics.
+	 */
+	public int getNumberOfMetrics()
+	{
+		return numberOfMetrics;
+	}
+
+	/**
+	 * Returns the name of a metric.
+	 *
+	 * @param metricIndex	The index of the metric, between 0 and {@link #getNumberOfMetrics()} - 1.
+	 *
+	 * @return	The name of the metric.
+	 */
+	public String getMetricName(int metricIndex)
+	{
+		checkIndex(metricIndex, numberOfMetrics);
+
+		return getString(metricIndex);
+	}
+
+	/**
+	 * Returns the index of a metric.
+	 *
+	 * @param metricName	The name of the metric.
+	 *
+	 * @return	The index of the metric, or -1 if the file has no such metric.
+	 */
+	public int getMetricIndex(String metricName)
+	{
+		for(int i = 0; i < numberOfMetrics; ++i)
+		{
+			if(getString(i).equals(metricName))
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the type of the values of a metric.
+	 *
+	 * @param metricIndex	The index of the metric.
+	 *
+	 * @return	The type of the values.
+	 */
+	public COLUMN_TYPES getColumnType(int metricIndex)
+	{
+		checkIndex(metricIndex, numberOfMetrics);
+
+		return columnTypes[metricIndex];
+	}
+
+	/**
+	 * Returns the name of a class.
+	 *
+	 * @param classIndex	The index of the class, between 0 and {@link #getNumberOfClasses()} - 1.
+	 *
+	 * @return	The name of the class.
+	 */
+	public String getClassName(int classIndex)
+	{
+		checkIndex(classIndex, numberOfClasses);
+
+		return getString(numberOfMetrics + classIndex);
+	}
+
+	/**
+	 * Returns the index of a class. Classes are sorted by name, so it is found by a binary search.
+	 *
+	 * @param className	The name of the class.
+	 *
+	 * @return	The index of the class, or -1 if the file has no such class.
+	 */
+	public int getClassIndex(String className)
+	{
+		int low		= 0;
+		int high	= numberOfClasses - 1;
+
+		while(low <= high)
+		{
+			int middle		= (low + high) >>> 1;
+			int comparison	= getString(numberOfMetrics + middle).compareTo(className);
+
+			if(0 > comparison)
+			{
+				low	= middle + 1;
+			}
+			else if(0 < comparison)
+			{
+				high	= middle - 1;
+			}
+			else
+			{
+				return middle;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the value of a metric of a class.
+	 *
+	 * @param classIndex	The index of the class.
+	 * @param metricIndex	The index of the metric.
+	 *
+	 * @return	The value of the metric.
+	 */
+	public double getValue(int classIndex, int metricIndex)
+	{
+		checkIndex(classIndex, numberOfClasses);
+		checkIndex(metricIndex, numberOfMetrics);
+
+		int offset	= columnOffsets[metricIndex] + (columnTypes[metricIndex].width * classIndex);
+
+		switch(columnTypes[metricIndex])
+		{
+			case INT:
+				return buffer.getInt(offset);
+
+			case FLOAT:
+				return buffer.getFloat(offset);
+
+			default:
+				return buffer.getDouble(offset);
+		}
+	}
+
+	/**
+	 * Returns the value of a metric of a class, by names.
+	 *
+	 * @param className		The name of the class.
+	 * @param metricName	The name of the metric.
+	 *
+	 * @return	The value of the metric.
+	 *
+	 * @throws IllegalArgumentException	Thrown if the file has no such class or metric.
+	 */
+	public double getValue(String className, String metricName)
+	{
+		int classIndex	= getClassIndex(className);
+		int metricIndex	= getMetricIndex(metricName);
+
+		if((0 > classIndex) || (0 > metricIndex))
+		{
+			throw new IllegalArgumentException("Unknown class or metric: " + className + ", " + metricName + ".");
+		}
+
+		return getValue(classIndex, metricIndex);
+	}
+
+	/**
+	 * Returns the value of a metric of a class as text, like in {@link Model#getMetrics()}.
+	 *
+	 * @param classIndex	The index of the class.
+	 * @param metricIndex	The index of the metric.
+	 *
+	 * @return	The formatted value of the metric.
+	 */
+	public String format(int classIndex, int metricIndex)
+	{
+		double value	= getValue(classIndex, metricIndex);
+
+		switch(columnTypes[metricIndex])
+		{
+			case INT:
+				return String.valueOf((int) value);
+
+			case FLOAT:
+				return String.valueOf((float) value);
+
+			default:
+				return MetricEngine.format(value);
+		}
+	}
+
+	/**
+	 * Returns all the metrics of the file, in the form of {@link Model#getMetrics()}.
+	 *
+	 * @return	One line per class: the name of the class followed by the values of the metrics.
+	 */
+	public String[][] getMetrics()
+	{
+		String[][] metrics	= new String[numberOfClasses][];
+
+		for(int i = 0; i < numberOfClasses; ++i)
+		{
+			String[] currentLine	= new String[1 + numberOfMetrics];
+
+			currentLine[0]	= getClassName(i);
+
+			for(int j = 0; j < numberOfMetrics; ++j)
+			{
+				currentLine[j + 1]	= format(i, j);
+			}
+
+			metrics[i]	= currentLine;
+		}
+
+		return metrics;
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Rounds an offset up to a multiple of 8.
+	 *
+	 * @param offset	The offset.
+	 *
+	 * @return	The aligned offset.
+	 */
+	protected static long align(long offset)
+	{
+		return (offset + 7) & ~7L;
+	}
+
+	/**
+	 * Checks an index.
+	 *
+	 * @param index	The index.
+	 * @param size	The number of elements.
+	 *
+	 * @throws IndexOutOfBoundsException	Thrown if the index is not between 0 and {@code size} - 1.
+	 */
+	protected static void checkIndex(int index, int size)
+	{
+		if((0 > index) || (size <= index))
+		{
+			throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size + ".");
+		}
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Returns a string of the dictionary.
+	 *
+	 * @param index	The index of the string: the index of a metric, or the number of metrics + the index of a class.
+	 *
+	 * @return	The string.
+	 */
+	protected String getString(int index)
+	{
+		int start	= buffer.getInt(stringOffsetsOffset + (4 * index));
+		int end		= buffer.getInt(stringOffsetsOffset + (4 * (index + 1)));
+
+		/* A duplicate, so the mapping can be read from several threads at the same time. */
+		ByteBuffer bytes	= buffer.duplicate();
+
+		bytes.limit(stringDataOffset + end);
+		bytes.position(stringDataOffset + start);
+
+		return UTF_8.decode(bytes).toString();
+	}
+}
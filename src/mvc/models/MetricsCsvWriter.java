@@ -0,0 +1,313 @@
+package mvc.models;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * This class writes the metrics of an analysed {@link Model} as a CSV file: a header line with the names of the
+ * metrics ({@link Model#getMetricNames()}), then one line per class with its name and the values of its metrics, all
+ * between quotes. Lines are formatted one at a time from the metric columns and encoded into a fixed-size buffer
+ * which is written to the channel every time it is full, so the memory used does not depend on the number of
+ * classes.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class MetricsCsvWriter
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * The charset of the file.
+	 */
+	public static final String CHARSET				= "ISO-8859-1";
+
+	/**
+	 * Default size, in bytes, of the buffer written to the channel.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE	= 64 * 1024;
+
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Minimum size, in bytes, of the buffer.
+	 */
+	protected static final int MIN_BUFFER_SIZE	= 16;
+
+	/**
+	 * End of every line.
+	 */
+	protected static final String LINE_SEPARATOR	= "\r\n";
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The analysed model.
+	 */
+	protected final Model model;
+
+	/**
+	 * The size, in bytes, of the buffer.
+	 */
+	protected final int bufferSize;
+
+	/**
+	 * The number of classes written by the last call to {@link #write(WritableByteChannel)}.
+	 */
+	protected int classCount;
+
+	// PUBLIC CONSTRUCTORS
+
+	/**
+	 * Constructor using a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes.
+	 *
+	 * @param model	The analysed model.
+	 */
+	public MetricsCsvWriter(Model model)
+	{
+		this(model, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param model			The analysed model.
+	 * @param bufferSize	The size, in bytes, of the buffer written to the channel.
+	 *
+	 * @throws IllegalArgumentException	Thrown if the buffer is smaller than {@link #MIN_BUFFER_SIZE} bytes.
+	 */
+	public MetricsCsvWriter(Model model, int bufferSize)
+	{
+		if(MIN_BUFFER_SIZE > bufferSize)
+		{
+			throw new IllegalArgumentException("The buffer must have at least " + MIN_BUFFER_SIZE + " bytes.");
+		}
+
+		this.model		= model;
+		this.bufferSize	= bufferSize;
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Writes the metrics to a file, replacing it if it exists. The file is only complete if no exception is thrown.
+	 *
+	 * @param filename	The name of the file.
+	 *
+	 * @return	The number of bytes written.
+	 *
+	 * @throws IOException				Thrown if the file can't be created, written or closed.
+	 * @throws IllegalStateException	Thrown if no file was analysed by the model.
+	 */
+	public long write(String filename) throws IOException
+	{
+		/* Checked before the file is created. */
+		checkAnalysed();
+
+		FileOutputStream fileOutputStream	= new FileOutputStream(filename);
+
+		try
+		{
+			long size	= write(fileOutputStream.getChannel());
+
+			/* Closed here, and not only in 'finally', so an error while closing is not ignored. */
+			fileOutputStream.close();
+
+			fileOutputStream	= null;
+
+			return size;
+		}
+		finally
+		{
+			if(null != fileOutputStream)
+			{
+				try
+				{
+					fileOutputStream.close();
+				}
+				catch (IOException e)
+				{
+					/* The first exception is the one thrown. */
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the metrics to a channel. The channel is not closed.
+	 *
+	 * @param channel	The channel.
+	 *
+	 * @return	The number of bytes written.
+	 *
+	 * @throws IOException				Thrown if the channel can't be written.
+	 * @throws IllegalStateException	Thrown if no file was analysed by the model.
+	 */
+	public long write(WritableByteChannel channel) throws IOException
+	{
+		checkAnalysed();
+
+		/* Like a PrintWriter, characters which can't be encoded are replaced by '?'. */
+		CharsetEncoder encoder	= Charset.forName(CHARSET).newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		ByteBuffer buffer		= ByteBuffer.allocateDirect(bufferSize);
+		StringBuilder line		= new StringBuilder();
+		String[] metricNames	= model.getMetricNames();
+		int nMetrics			= metricNames.length;
+		long size				= 0;
+
+		classCount	= 0;
+
+		/* Header line */
+
+		appendQuoted(line, "Class");
+
+		for(int i = 0; i < nMetrics; ++i)
+		{
+			line.append(',');
+
+			appendQuoted(line, metricNames[i]);
+		}
+
+		size	+= encode(line, encoder, buffer, channel);
+
+		/* Class name + metric values, one line per class. */
+
+		int[] sortedIds		= model.getSortedIds();
+		String[] classNames	= model.getSortedClassNames();
+
+		for(int n = 0; n < sortedIds.length; ++n)
+		{
+			line.setLength(0);
+
+			appendQuoted(line, classNames[n]);
+
+			for(int i = 0; i < nMetrics; ++i)
+			{
+				line.append(',');
+
+				appendQuoted(line, model.formatMetric(i, sortedIds[n]));
+			}
+
+			size	+= encode(line, encoder, buffer, channel);
+
+			++classCount;
+		}
+
+		/* End of input: the encoder may still have bytes to give. */
+
+		line.setLength(0);
+
+		encoder.encode(CharBuffer.wrap(line), buffer, true);
+
+		while(encoder.flush(buffer).isOverflow())
+		{
+			size	+= drain(buffer, channel);
+		}
+
+		size	+= drain(buffer, channel);
+
+		return size;
+	}
+
+	/**
+	 * Returns the number of classes written by the last call to {@link #write(WritableByteChannel)} (or
+	 * {@link #write(String)}).
+	 *
+	 * @return	The number of classes.
+	 */
+	public int getClassCount()
+	{
+		return classCount;
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Checks that the model analysed a file.
+	 *
+	 * @throws IllegalStateException	Thrown if no file was analysed by the model.
+	 */
+	protected void checkAnalysed()
+	{
+		if(!model.isAnalysed())
+		{
+			throw new IllegalStateException("No file was analysed.");
+		}
+	}
+
+	/**
+	 * Appends a value between quotes.
+	 *
+	 * @param line	The line.
+	 * @param value	The value. It is assumed that it does not contain quotes.
+	 */
+	protected void appendQuoted(StringBuilder line, String value)
+	{
+		line.append('"').append(value).append('"');
+	}
+
+	/**
+	 * Ends a line and encodes it into the buffer. Every time the buffer is full, it is written to the channel.
+	 *
+	 * @param line		The line, without its end.
+	 * @param encoder	The encoder.
+	 * @param buffer	The buffer, in write mode.
+	 * @param channel	The channel.
+	 *
+	 * @return	The number of bytes written to the channel.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	protected long encode(StringBuilder line, CharsetEncoder encoder, ByteBuffer buffer, WritableByteChannel channel)
+			throws IOException
+	{
+		line.append(LINE_SEPARATOR);
+
+		CharBuffer chars	= CharBuffer.wrap(line);
+		long size			= 0;
+
+		/* With CodingErrorAction.REPLACE, the result is either an overflow (buffer full) or an underflow (done). */
+		while(encoder.encode(chars, buffer, false).isOverflow())
+		{
+			size	+= drain(buffer, channel);
+		}
+
+		return size;
+	}
+
+	/**
+	 * Writes the whole content of the buffer to the channel and clears it.
+	 *
+	 * @param buffer	The buffer, in write mode.
+	 * @param channel	The channel.
+	 *
+	 * @return	The number of bytes written.
+	 *
+	 * @throws IOException	Thrown if the channel can't be written.
+	 */
+	protected long drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException
+	{
+		long size	= 0;
+
+		buffer.flip();
+
+		/* A channel may write fewer bytes than asked. */
+		while(buffer.hasRemaining())
+		{
+			size	+= channel.write(buffer);
+		}
+
+		buffer.clear();
+
+		return size;
+	}
+}
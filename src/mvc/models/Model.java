@@ -1,9 +1,11 @@
 package mvc.models;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Observable;
@@ -12,6 +14,7 @@ import mvc.Controller;
 import mvc.models.Metrics.METRICS;
 import mvc.models.ModelException.ATTRIBUTES;
 import mvc.models.ModelException.ERRORS;
+import mvc.models.ProgressListener.PHASES;
 import mvc.views.MainWindow;
 import uml_parser.Aggregation;
 import uml_parser.Association;
@@ -19,7 +22,13 @@ import uml_parser.ClassContent;
 import uml_parser.Generalization;
 import uml_parser.ParsingFailedException;
 import uml_parser.Role;
+import uml_parser.SymbolTable;
 import uml_parser.UmlParser;
+import bnf_parser.CancellationToken;
+import bnf_parser.ParseBudget;
+import bnf_parser.ParseBudgetExceededException;
+import bnf_parser.ParsingAbortedException;
+import bnf_parser.ParsingCancelledException;
 
 
 /**
@@ -35,10 +44,26 @@ import uml_parser.UmlParser;
  */
 public class Model extends Observable
 {
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * During the validation and metrics phases, the {@link ProgressListener} is notified once every this number of
+	 * steps.
+	 */
+	protected static final int PROGRESS_INTERVAL	= 256;
+
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * Default number of classes from which metrics are calculated in parallel.
+	 */
+	public static final int DEFAULT_PARALLEL_METRICS_THRESHOLD	= 10000;
+
 	// PROTECTED PROPERTIES
 
 	/**
-	 * The {@link UmlParser} used to analyse the file provided by the user.
+	 * The {@link UmlParser} used to analyse the file provided by the user. Every model has its own, so models used from
+	 * several threads (for example through a shared {@link AnalysisCache}) parse their files at the same time.
 	 */
 	protected UmlParser umlParser;
 
@@ -47,6 +72,14 @@ public class Model extends Observable
 	 */
 	protected uml_parser.Model umlModel;
 
+	/**
+	 * The table of the symbols of the analysed file, created by its parse (see
+	 * {@link uml_parser.Model#getSymbolTable()}). The classes and members are resolved in it, and it is kept with the
+	 * classes, so the classes changed by {@link #applyChanges(ModelChangeSet)} are resolved in it too. It is released
+	 * with the model.
+	 */
+	protected SymbolTable symbolTable;
+
 	/**
 	 * A HashMap that contains all the {@code ClassContainer}'s by using their name as the key.
 	 */
@@ -70,6 +103,101 @@ public class Model extends Observable
 	 */
 	protected Boolean allowMultipleInheritance	= true;
 
+	/**
+	 * The limits of the parsing of a file. If null, parsing is unlimited.
+	 */
+	protected ParseBudget parseBudget;
+
+	/**
+	 * The listener notified of the progress of the analysis. Can be null.
+	 */
+	protected ProgressListener progressListener;
+
+	/**
+	 * The token of the analysis in progress. Can be null.
+	 */
+	protected CancellationToken cancellationToken;
+
+	/**
+	 * The filename of the file being analysed, reported in {@link AnalysisPhaseEvent}'s.
+	 */
+	protected String analysedFilename;
+
+	/**
+	 * The number of steps of the validation phase done so far.
+	 */
+	protected int validationStepsDone;
+
+	/**
+	 * The total number of steps of the validation phase.
+	 */
+	protected int validationStepsTotal;
+
+	/**
+	 * Number of classes from which metrics are calculated in parallel.
+	 */
+	protected int parallelMetricsThreshold	= DEFAULT_PARALLEL_METRICS_THRESHOLD;
+
+	/**
+	 * If true, the metrics of a class are only computed when first requested.
+	 */
+	protected boolean lazyMetrics	= false;
+
+	/**
+	 * The inheritance graph of the classes, built when checking generalizations and reused by {@link Metrics}.
+	 */
+	protected InheritanceGraph inheritanceGraph;
+
+	/**
+	 * The links of the types of the arguments to the classes, created after the classes are checked. Only the names of
+	 * the classes are kept once the metrics are calculated, so {@link #applyChanges(ModelChangeSet)} links the changed
+	 * classes again. Null until then if the analysis was loaded from a snapshot or the cache.
+	 */
+	protected TypeLinks typeLinks;
+
+	/**
+	 * The metrics of the analysed file, kept so {@link #applyChanges(ModelChangeSet)} only updates the metrics of the
+	 * classes affected by a change.
+	 */
+	protected Metrics metrics;
+
+	/**
+	 * The custom metrics calculated after the ones of {@link Metrics}, in the order of their columns.
+	 */
+	protected Metric[] customMetrics	= new Metric[0];
+
+	/**
+	 * The custom metrics of the analysed file. Null if there are none.
+	 */
+	protected MetricEngine metricEngine;
+
+	/**
+	 * The statistics of all the analyses, exposed through JMX.
+	 */
+	protected AnalysisStatistics statistics;
+
+	/**
+	 * The directory where a snapshot of every file analysed is kept. If null, files are always parsed.
+	 */
+	protected File snapshotDirectory;
+
+	/**
+	 * The cache of the analyses, shared with other models. If null, files are always analysed.
+	 */
+	protected AnalysisCache analysisCache;
+
+	/**
+	 * Whether or not the classes and metrics are shared with other models through {@link #analysisCache}, so they must
+	 * be copied before being changed.
+	 */
+	protected boolean sharedAnalysis	= false;
+
+	/**
+	 * The classes of the analysed file once frozen (see {@link #freeze()}), replacing {@link #classes} and
+	 * {@link #sortedClassNames}. Null otherwise.
+	 */
+	protected FrozenModel frozenModel;
+
 	// PUBLIC CONSTRUCTOR
 
 	/**
@@ -77,7 +205,8 @@ public class Model extends Observable
 	 */
 	public Model()
 	{
-		umlParser	= UmlParser.getInstance();
+		umlParser	= new UmlParser();
+		statistics	= AnalysisStatistics.getInstance();
 	}
 
 	/**
@@ -88,28 +217,42 @@ public class Model extends Observable
 	 */
 	public void analyseFile(String filename) throws ModelException
 	{
-		try
-		{
-			/* First, let's parse the UML model using UmlParser. It will convert the file to a bunch of classes with
-			 * their attributes, methods, etc. which will be contained in a class (here, a class extending Collection)
-			 * which will implements the uml_parser.Model interface. If it fails, it throws a ParsingFailedException. */
-			umlModel	= umlParser.parse(filename, UmlParser.UTF8_ENCODING);
+		analyseFile(filename, null);
+	}
 
-			/* This will check the contents of the parsed model. Whenever an error is detected (for example, a duplicate
-			 * method in a class) a ModelException is thrown, which the current method throws back to the caller. */
-			analyseModel();
-		}
-		catch (IOException e)
+	/**
+	 * Analyses the specified file. The analysis can be cancelled from another thread with {@code cancellationToken}:
+	 * it is checked by the parser before evaluating any rule, and then for every element validated and every class
+	 * for which metrics are calculated.
+	 *
+	 * @param filename			The filename of the model's definition file.
+	 * @param cancellationToken	The token to cancel the analysis. If null, the analysis cannot be cancelled.
+	 * @throws ModelException	Thrown when a specific error occurs ({@code ANALYSIS_CANCELLED} if cancelled).
+	 */
+	public void analyseFile(String filename, CancellationToken cancellationToken) throws ModelException
+	{
+		try
 		{
-			throw resetAndReturnException(ERRORS.INVALID_FILE);
+			parseAndAnalyseFile(filename, cancellationToken);
 		}
-		catch (ParsingFailedException e)
+		catch(ModelException e)
 		{
-			throw resetAndReturnException(ERRORS.PARSING_FAILED);
+			statistics.recordFailure(e.getError());
+
+			throw e;
 		}
 
-		this.filename	= filename;
-		charset			= UmlParser.UTF8_ENCODING; // TODO hardcoded
+		statistics.recordAnalysis(this, (null == classes) ? 0 : classes.size(), estimateHeapSize());
+	}
+
+	/**
+	 * Returns the statistics of all the analyses done by the {@link Model}'s of the JVM.
+	 *
+	 * @return	The statistics.
+	 */
+	public AnalysisStatistics getStatistics()
+	{
+		return statistics;
 	}
 
 	/**
@@ -122,6 +265,154 @@ public class Model extends Observable
 		allowMultipleInheritance	= val;
 	}
 
+	/**
+	 * Sets the limits of the parsing of the next files analysed. A shared service should always set one so a single
+	 * malformed file cannot keep the parser busy indefinitely.
+	 *
+	 * @param budget	The budget. If null, parsing is unlimited.
+	 */
+	public void setParseBudget(ParseBudget budget)
+	{
+		parseBudget	= budget;
+	}
+
+	/**
+	 * Sets the number of classes from which the metrics of a model are calculated in parallel, using the threads of
+	 * the common {@link java.util.concurrent.ForkJoinPool}. Below it, they are calculated in the thread running the
+	 * analysis, which is faster for small models.
+	 *
+	 * @param threshold	The number of classes. {@code Integer.MAX_VALUE} never calculates metrics in parallel.
+	 */
+	public void setParallelMetricsThreshold(int threshold)
+	{
+		parallelMetricsThreshold	= threshold;
+	}
+
+	/**
+	 * Enables or disables lazy metrics. When enabled, the analysis only computes the metrics reading the members of
+	 * the classes: the ones walking the inheritance graph are computed, and kept, the first time the metrics of a
+	 * class are requested by {@link #sendClassInfo(String)}, {@link #getMetrics()} or {@link #getMetricValues(int)}.
+	 * A large model is then ready to be browsed sooner. Takes effect at the next analysis.
+	 *
+	 * @param lazy	{@code true} to compute metrics on demand, {@code false} to compute them during the analysis.
+	 */
+	public void setLazyMetrics(boolean lazy)
+	{
+		lazyMetrics	= lazy;
+	}
+
+	/**
+	 * Sets the custom metrics calculated, after the ones of {@link Metrics.METRICS}, for the next files analysed. Their
+	 * values follow the ones of {@link Metrics.METRICS} in the metrics of every class and in {@link #getMetrics()}.
+	 * They are calculated during the analysis, even with lazy metrics, and again by
+	 * {@link #applyChanges(ModelChangeSet)}.
+	 *
+	 * @param metrics	The custom metrics, in the order of their columns. Can be empty.
+	 *
+	 * @throws IllegalArgumentException	Thrown if a name is used twice (or by a metric of {@link Metrics.METRICS}), if
+	 * 									a dependency is unknown or if dependencies form a cycle.
+	 */
+	public void setCustomMetrics(Metric... metrics)
+	{
+		MetricEngine.schedule(metrics);
+
+		customMetrics	= metrics.clone();
+	}
+
+	/**
+	 * Returns the names of the metrics of the analysed file: the ones of {@link Metrics.METRICS} followed by the custom
+	 * metrics, in the order of the values of {@link #getMetrics()}.
+	 *
+	 * @return	The names of the metrics.
+	 */
+	public String[] getMetricNames()
+	{
+		int nMetrics		= METRICS.getNumberOfMetrics();
+		int nCustomMetrics	= (null == metricEngine) ? 0 : metricEngine.customMetrics.length;
+		String[] names		= new String[nMetrics + nCustomMetrics];
+
+		for(int i = 0; i < nMetrics; ++i)
+		{
+			names[i]	= METRICS.getMetricFromIndex(i).toString();
+		}
+
+		for(int i = 0; i < nCustomMetrics; ++i)
+		{
+			names[nMetrics + i]	= metricEngine.customMetrics[i].getName();
+		}
+
+		return names;
+	}
+
+	/**
+	 * Sets the listener notified of the progress of the analysis of the next files.
+	 *
+	 * @param listener	The listener. If null, nobody is notified.
+	 */
+	public void setProgressListener(ProgressListener listener)
+	{
+		progressListener	= listener;
+	}
+
+	/**
+	 * Sets the directory where a snapshot of every file analysed is kept (see {@link ModelSnapshot}). When a file is
+	 * analysed again, its snapshot is loaded instead of parsing and analysing the file, as long as the file did not
+	 * change (same path, size, modification time and content) and multiple inheritance is still allowed (or not).
+	 * Custom metrics are calculated again. In lazy mode, writing a snapshot computes every metric. Takes effect at the
+	 * next analysis.
+	 *
+	 * @param directory	The directory. It must exist. If null, files are always parsed and no snapshot is written.
+	 */
+	public void setSnapshotDirectory(File directory)
+	{
+		snapshotDirectory	= directory;
+	}
+
+	/**
+	 * Sets the cache of the analyses (see {@link AnalysisCache}). When a file whose content is in the cache is
+	 * analysed, the classes and metrics of the cache are used instead of parsing and analysing the file (or loading
+	 * its snapshot); otherwise, the analysis is added to the cache. Custom metrics are calculated again. Takes effect
+	 * at the next file analysed.
+	 *
+	 * @param cache	The cache, which can be shared by several models. If null, files are always analysed.
+	 */
+	public void setAnalysisCache(AnalysisCache cache)
+	{
+		analysisCache	= cache;
+	}
+
+	/**
+	 * Freezes the analysed file, once it won't be changed anymore: its classes are converted to a compact read-only
+	 * form (see {@link FrozenModel}) and only the values of the metrics are kept, which takes several times less
+	 * memory for a large file. The classes and metrics are still sent and exported like before, but
+	 * {@link #applyChanges(ModelChangeSet)} can't be used anymore. In lazy mode, every metric is computed first. Does
+	 * nothing if no file is analysed or if it is already frozen; the next file analysed is not frozen.
+	 */
+	public void freeze()
+	{
+		if((null != frozenModel) || !isAnalysed() || (null == metrics))
+		{
+			return;
+		}
+
+		frozenModel	= new FrozenModel(getClassesById(), classes, sortedClassNames);
+		metrics		= metrics.freeze();
+
+		if(null != metricEngine)
+		{
+			metricEngine.freeze();
+		}
+
+		/* Only dropped: they may be used by other models, through the cache. */
+		classes				= null;
+		sortedClassNames	= null;
+		typeLinks			= null;
+		symbolTable			= null;
+		sharedAnalysis		= false;
+
+		statistics.recordHeapSize(this, estimateHeapSize());
+	}
+
 	/**
 	 * Sends the main details of a class to observers (in this project, the view). Details include attributes, methods
 	 * (operations), subclasses, superclasses, associations and aggregations.
@@ -130,6 +421,13 @@ public class Model extends Observable
 	 */
 	public void sendClassInfo(String className)
 	{
+		if(null != frozenModel)
+		{
+			sendFrozenClassInfo(className);
+
+			return;
+		}
+
 		ClassContainer currentClass	= getClass(className);
 
 		if(null == currentClass)
@@ -152,7 +450,7 @@ public class Model extends Observable
 
 		sendList(ListContainer.AGGREGATION_LIST, currentClass.aggregationsCache);
 
-		sendList(ListContainer.METRIC_LIST, currentClass.metricsCache);
+		sendList(ListContainer.METRIC_LIST, formatMetrics(currentClass.getId()));
 	}
 
 	/**
@@ -165,6 +463,18 @@ public class Model extends Observable
 	 */
 	public void sendAggregationDetails(String className, int index)
 	{
+		if(null != frozenModel)
+		{
+			int id	= frozenModel.getClassId(className);
+
+			if((0 <= id) && (0 <= index) && (index < frozenModel.getNumberOfAggregations(id)))
+			{
+				sendString(umlParser.getSubstringFromFile(filename, charset, frozenModel.getAggregation(id, index)));
+			}
+
+			return;
+		}
+
 		ClassContainer currentClass	= getClass(className);
 
 		if((null == currentClass) || (index < 0) || (index > (currentClass.aggregationsCache.length - 1)))
@@ -191,6 +501,18 @@ public class Model extends Observable
 	 */
 	public void sendAssociationDetails(String className, int index)
 	{
+		if(null != frozenModel)
+		{
+			int id	= frozenModel.getClassId(className);
+
+			if((0 <= id) && (0 <= index) && (index < frozenModel.getNumberOfAssociations(id)))
+			{
+				sendString(umlParser.getSubstringFromFile(filename, charset, frozenModel.getAssociation(id, index)));
+			}
+
+			return;
+		}
+
 		ClassContainer currentClass	= getClass(className);
 
 		if((null == currentClass) || (index < 0) || (index > (currentClass.associationsCache.length - 1)))
@@ -215,47 +537,160 @@ public class Model extends Observable
 	 */
 	public String[][] getMetrics()
 	{
-		if((null == classes) || (null == sortedClassNames))
+		if(!isAnalysed())
 		{
 			return null;
 		}
 
-		int nMetrics		= METRICS.getNumberOfMetrics();
+		int nMetrics			= getMetricNames().length;
 
 		/* +1 because the first cell is the name of the class. */
-		int innerSize		= 1 + nMetrics;
-
-		String[][] metrics	= new String[classes.size()][innerSize];
+		int innerSize			= 1 + nMetrics;
 
-		int n = 0;
+		int[] sortedIds			= getSortedIds();
+		String[] classNames		= getSortedClassNames();
+		String[][] metrics		= new String[sortedIds.length][];
 
-		for(String className : sortedClassNames)
+		for(int n = 0; n < sortedIds.length; ++n)
 		{
-			ClassContainer currentClass	= getClass(className);
+			String[] currentLine	= new String[innerSize];
 
-			if(null == currentClass)
+			/* First cell in current line = name of class. */
+			currentLine[0]	= classNames[n];
+
+			for(int i = 0; i < nMetrics; ++i)
 			{
-				continue;
+				/* All other cells in current line = one specific metric value, formatted only now. */
+
+				currentLine[i + 1]	= formatMetric(i, sortedIds[n]);
 			}
 
-			String[] currentLine	= new String[innerSize];
+			metrics[n]	= currentLine;
+		}
 
-			/* First cell in current line = name of class. */
-			currentLine[0]	= className;
+		return metrics;
+	}
 
-			String[][]	classMetrics	= currentClass.metrics;
+	/**
+	 * Returns the values of one metric for all the classes contained in the currently parsed file, without formatting
+	 * them, so they can be sorted or exported as numbers.
+	 *
+	 * @param metricIndex	The index of the metric in {@link #getMetricNames()}.
+	 *
+	 * @return	The values, in the order of the lines of {@link #getMetrics()}.
+	 */
+	public double[] getMetricValues(int metricIndex)
+	{
+		if(!isAnalysed())
+		{
+			return null;
+		}
 
-			for(int i = 0; i < nMetrics; ++i)
+		int[] sortedIds	= getSortedIds();
+		double[] values	= new double[sortedIds.length];
+
+		for(int n = 0; n < sortedIds.length; ++n)
+		{
+			values[n]	= getMetricValue(metricIndex, sortedIds[n]);
+		}
+
+		return values;
+	}
+
+	/**
+	 * Applies changes to the attributes and operations of classes of the analysed file, without analysing the whole
+	 * file again. The changed classes are checked like during the analysis (no duplicate attribute name or operation
+	 * name/signature), then only the metrics affected by the changes are calculated again: the changed classes, their
+	 * subclasses whose inherited members changed and the classes appearing as the type of an argument of their
+	 * methods, before or after the change. The other classes keep their {@link ClassContainer} and metrics.
+	 *
+	 * <p>Every change is checked before any is applied: if a {@link ModelException} is thrown, the model is left as it
+	 * was (unlike {@link #analyseFile(String)}, it is not reset). Observers are not notified: a view showing a class
+	 * must ask for it again with {@link #sendClassInfo(String)}.</p>
+	 *
+	 * @param changes	The changes.
+	 *
+	 * @throws ModelException			Thrown if a changed class does not exist ({@code UNKNOWN_CLASS}), is changed
+	 * 									more than once ({@code DUPLICATE_CLASS}) or contains a duplicate attribute or
+	 * 									operation.
+	 * @throws IllegalStateException	Thrown if the model is frozen (see {@link #freeze()}).
+	 */
+	public void applyChanges(ModelChangeSet changes) throws ModelException
+	{
+		if(null != frozenModel)
+		{
+			throw new IllegalStateException("The model is frozen.");
+		}
+
+		if((null == classes) || (null == metrics) || changes.isEmpty())
+		{
+			/* No analysed file or nothing to do. */
+			return;
+		}
+
+		if(sharedAnalysis)
+		{
+			/* Other models use the classes and metrics of the cache: let's change our own copies. */
+			copySharedAnalysis();
+		}
+
+		ClassContent[] contents				= changes.getChangedClasses();
+		ClassContainer[] changedClasses		= new ClassContainer[contents.length];
+		ClassContainer[] checkedClasses		= new ClassContainer[contents.length];
+		HashSet<String> changedClassNames	= new HashSet<String>();
+
+		/* First, let's check every change without modifying anything. */
+		for(int i = 0; i < contents.length; ++i)
+		{
+			String className	= contents[i].getIdentifier();
+
+			if(null == (changedClasses[i] = getClass(className)))
 			{
-				/* All other cells in current line = one specific metric value. */
+				throw new ModelException(ERRORS.UNKNOWN_CLASS)
+					.set(ATTRIBUTES.CLASS, className);
+			}
 
-				currentLine[i + 1]	= classMetrics[i][1];
+			if(!changedClassNames.add(className))
+			{
+				throw new ModelException(ERRORS.DUPLICATE_CLASS)
+					.set(ATTRIBUTES.CLASS, className);
 			}
 
-			metrics[n++]	= currentLine;
+			/* The constructor creates and checks the attributes and operations, like during the analysis. */
+			checkedClasses[i]	= new ClassContainer(contents[i], changedClasses[i].getId(), symbolTable);
 		}
 
-		return metrics;
+		for(int i = 0; i < contents.length; ++i)
+		{
+			changedClasses[i].replaceMembers(checkedClasses[i]);
+		}
+
+		if(null == typeLinks)
+		{
+			/* Loaded from a snapshot or the cache: only the names of the classes are needed. */
+			typeLinks	= new TypeLinks(getClassesById());
+		}
+
+		for(ClassContainer changedClass : changedClasses)
+		{
+			typeLinks.link(changedClass);
+		}
+
+		/* The values of the metrics are updated in place; they are formatted again when the class is shown. */
+		metrics.update(changedClasses, typeLinks);
+
+		typeLinks.unlinkMembers();
+
+		for(ClassContainer changedClass : changedClasses)
+		{
+			changedClass.buildMemberCaches();
+		}
+
+		if(null != metricEngine)
+		{
+			/* A custom metric can read anything, so they are all calculated again. */
+			metricEngine.calculate(classes.size() >= parallelMetricsThreshold, null);
+		}
 	}
 
 	// PROTECTED METHODS
@@ -277,6 +712,335 @@ public class Model extends Observable
 		return classes.get(name);
 	}
 
+	/**
+	 * Parses and analyses the specified file. Called by {@link #analyseFile(String, CancellationToken)}, which
+	 * records the outcome in {@link AnalysisStatistics}.
+	 *
+	 * @param filename			The filename of the model's definition file.
+	 * @param cancellationToken	The token to cancel the analysis. Can be null.
+	 * @throws ModelException	Thrown when a specific error occurs.
+	 */
+	protected void parseAndAnalyseFile(String filename, CancellationToken cancellationToken) throws ModelException
+	{
+		this.cancellationToken	= cancellationToken;
+		analysedFilename		= filename;
+		frozenModel				= null;
+
+		/* Read once: the cache can be changed by another thread during the analysis. */
+		AnalysisCache cache			= analysisCache;
+		AnalysisCache.Key cacheKey	= createCacheKey(cache, filename);
+
+		/* Only set if this model must give its analysis to the cache. */
+		AnalysisCache.Key computedKey	= null;
+		ModelSnapshot snapshot			= null;
+		boolean parsed					= false;
+		boolean succeeded				= false;
+
+		try
+		{
+			if(null != cacheKey)
+			{
+				AnalysisCache.Analysis analysis	= cache.acquire(cacheKey, cancellationToken);
+
+				if(null != analysis)
+				{
+					loadCachedAnalysis(analysis);
+
+					this.filename	= filename;
+					charset			= UmlParser.UTF8_ENCODING;
+
+					return;
+				}
+
+				computedKey	= cacheKey;
+			}
+
+			/* Computed before parsing, so a file changed while it is parsed gets a snapshot which is never valid. */
+			snapshot	= createSnapshot(filename);
+
+			if((null == snapshot) || !loadSnapshot(snapshot))
+			{
+				notifyPhaseStarted(PHASES.PARSING);
+
+				/* First, let's parse the UML model using UmlParser. It will convert the file to a bunch of classes
+				 * with their attributes, methods, etc. which will be contained in a class (here, a class extending
+				 * Collection) which will implements the uml_parser.Model interface. If it fails, it throws a
+				 * ParsingFailedException. */
+				long parseStart				= System.nanoTime();
+				AnalysisPhaseEvent event	= beginPhaseEvent();
+
+				umlModel	= null;
+
+				try
+				{
+					umlModel	= umlParser.parse(filename, UmlParser.UTF8_ENCODING, parseBudget, cancellationToken,
+							progressListener);
+				}
+				finally
+				{
+					/* The classes parsed are only counted if the event is recorded. */
+					if((null != event) && event.shouldCommit())
+					{
+						int classCount	= (null == umlModel) ? 0 : umlModel.getClasses().length;
+
+						commitPhaseEvent(event, "UmlParser.parse", classCount);
+					}
+				}
+
+				statistics.recordParsing(new File(filename).length(), System.nanoTime() - parseStart);
+
+				/* This will check the contents of the parsed model. Whenever an error is detected (for example, a
+				 * duplicate method in a class) a ModelException is thrown, which the current method throws back to the
+				 * caller. */
+				analyseModel();
+
+				parsed	= true;
+			}
+
+			succeeded	= true;
+		}
+		catch (IOException e)
+		{
+			throw resetAndReturnException(ERRORS.INVALID_FILE);
+		}
+		catch (ParsingFailedException e)
+		{
+			throw resetAndReturnException(ERRORS.PARSING_FAILED);
+		}
+		catch (ParseBudgetExceededException e)
+		{
+			/* The file is too costly to parse (probably malformed): let's tell where the parser gave up. */
+			throw resetAndReturnException(ERRORS.PARSE_BUDGET_EXCEEDED)
+				.set(ATTRIBUTES.BUDGET_LIMIT, e.getLimit().name())
+				.set(ATTRIBUTES.LINE, String.valueOf(e.getFurthestLine()))
+				.set(ATTRIBUTES.RULE_EVALUATIONS, String.valueOf(e.getRuleEvaluations()));
+		}
+		catch (ParsingCancelledException e)
+		{
+			throw resetAndReturnException(ERRORS.ANALYSIS_CANCELLED);
+		}
+		catch (ParsingAbortedException e)
+		{
+			throw resetAndReturnException(ERRORS.PARSING_FAILED);
+		}
+		finally
+		{
+			this.cancellationToken	= null;
+
+			if(!succeeded && (null != computedKey))
+			{
+				/* The models waiting for this analysis must do it themselves. */
+				cache.abandon(computedKey);
+			}
+		}
+
+		this.filename	= filename;
+		charset			= UmlParser.UTF8_ENCODING; // TODO hardcoded
+
+		if(parsed && (null != snapshot))
+		{
+			saveSnapshot(snapshot);
+		}
+
+		/* Once given to the cache, the classes and metrics can be used by other models. */
+		sharedAnalysis	= (null != computedKey);
+
+		if(null != computedKey)
+		{
+			cache.complete(computedKey, new AnalysisCache.Analysis(classes, sortedClassNames, metrics, symbolTable,
+					estimateAnalysisHeapSize()));
+		}
+	}
+
+	/**
+	 * Creates the key of a file in the cache of the analyses, if there is one. The whole file is read to hash its
+	 * content.
+	 *
+	 * @param cache		The cache. Can be null.
+	 * @param filename	The filename of the model's definition file.
+	 *
+	 * @return	The key, or null if there is no cache or the file can't be read.
+	 */
+	protected AnalysisCache.Key createCacheKey(AnalysisCache cache, String filename)
+	{
+		if(null == cache)
+		{
+			return null;
+		}
+
+		try
+		{
+			return cache.createKey(filename, allowMultipleInheritance);
+		}
+		catch (IOException e)
+		{
+			/* Parsing the file will report the error. */
+			return null;
+		}
+	}
+
+	/**
+	 * Uses the classes and metrics of an analysis of the cache. Custom metrics are calculated again, then the classes
+	 * are sent to observers like at the end of {@link #analyseModel()}.
+	 *
+	 * @param analysis	The analysis.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis is cancelled while custom metrics
+	 * 							are calculated.
+	 */
+	protected void loadCachedAnalysis(AnalysisCache.Analysis analysis) throws ModelException
+	{
+		classes				= analysis.classes;
+		sortedClassNames	= analysis.sortedClassNames;
+		metrics				= analysis.metrics;
+		symbolTable			= analysis.symbolTable;
+		metricEngine		= null;
+		sharedAnalysis		= true;
+
+		completeLoadedAnalysis();
+	}
+
+	/**
+	 * Replaces the classes and metrics shared with other models through the cache by copies, so they can be changed.
+	 * The custom metrics are kept, but read the copies.
+	 */
+	protected void copySharedAnalysis()
+	{
+		try
+		{
+			ModelSnapshot.copy(this);
+		}
+		catch (IOException e)
+		{
+			/* Should not happen: the copy is made in memory. */
+			throw new IllegalStateException(e);
+		}
+
+		if(null != metricEngine)
+		{
+			metricEngine	= new MetricEngine(metricEngine.customMetrics, metrics, getClassesById());
+		}
+
+		sharedAnalysis	= false;
+	}
+
+	/**
+	 * Creates the snapshot of a file, if snapshots are enabled. The whole file is read to hash its content.
+	 *
+	 * @param filename	The filename of the model's definition file.
+	 *
+	 * @return	The snapshot, or null if snapshots are disabled or the file can't be read.
+	 */
+	protected ModelSnapshot createSnapshot(String filename)
+	{
+		if(null == snapshotDirectory)
+		{
+			return null;
+		}
+
+		try
+		{
+			return new ModelSnapshot(filename, allowMultipleInheritance);
+		}
+		catch (IOException e)
+		{
+			/* Parsing the file will report the error. */
+			return null;
+		}
+	}
+
+	/**
+	 * Loads the snapshot of a file, if it is still valid, instead of parsing and analysing the file. Custom metrics
+	 * are calculated again, then the classes are sent to observers like at the end of {@link #analyseModel()}.
+	 *
+	 * @param snapshot	The snapshot of the file.
+	 *
+	 * @return	{@code true} if the snapshot was loaded, {@code false} if the file must be parsed.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis is cancelled while custom metrics
+	 * 							are calculated.
+	 */
+	protected boolean loadSnapshot(ModelSnapshot snapshot) throws ModelException
+	{
+		AnalysisPhaseEvent event	= beginPhaseEvent();
+
+		try
+		{
+			if(!snapshot.read(this, snapshotDirectory))
+			{
+				return false;
+			}
+		}
+		finally
+		{
+			commitPhaseEvent(event, "ModelSnapshot.read");
+		}
+
+		completeLoadedAnalysis();
+
+		return true;
+	}
+
+	/**
+	 * Ends the loading of an analysis (from a snapshot or the cache): custom metrics are calculated again, then the
+	 * classes are sent to observers like at the end of {@link #analyseModel()}.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis is cancelled while custom metrics
+	 * 							are calculated.
+	 */
+	protected void completeLoadedAnalysis() throws ModelException
+	{
+		umlModel			= null;
+		inheritanceGraph	= null;
+		typeLinks			= null;
+
+		if(0 != customMetrics.length)
+		{
+			try
+			{
+				ClassContainer[] allClasses	= getClassesById();
+
+				metricEngine	= new MetricEngine(customMetrics, metrics, allClasses);
+
+				metricEngine.calculate(allClasses.length >= parallelMetricsThreshold, cancellationToken);
+
+				checkCancelled();
+			}
+			catch(ModelException e)
+			{
+				resetModel();
+
+				throw e;
+			}
+		}
+
+		sendList(ListContainer.CLASS_LIST, sortedClassNames.toArray(new String[sortedClassNames.size()]));
+	}
+
+	/**
+	 * Writes the snapshot of the file just analysed. A snapshot is only a cache: if it can't be written, the file will
+	 * simply be parsed again next time.
+	 *
+	 * @param snapshot	The snapshot of the file.
+	 */
+	protected void saveSnapshot(ModelSnapshot snapshot)
+	{
+		AnalysisPhaseEvent event	= beginPhaseEvent();
+
+		try
+		{
+			snapshot.write(this, snapshotDirectory);
+		}
+		catch (IOException e)
+		{
+			/* Nothing to do: the analysis itself succeeded. */
+		}
+		finally
+		{
+			commitPhaseEvent(event, "ModelSnapshot.write");
+		}
+	}
+
 	/**
 	 * Transform a UML definition file into a collection of objects.
 	 *
@@ -290,8 +1054,25 @@ public class Model extends Observable
 			return;
 		}
 
-		/* This will reset the property if it previously contained data. */
-		classes	= new HashMap<String, ClassContainer>();
+		/* This will reset the properties if they previously contained data. The classes are resolved in the table of
+		 * the parse. */
+		classes		= new HashMap<String, ClassContainer>();
+		symbolTable	= umlModel.getSymbolTable();
+
+		if(null == symbolTable)
+		{
+			symbolTable	= new SymbolTable();
+		}
+
+		/* Every class, generalization, association and aggregation is a step, and so is the search for inheritance
+		 * cycles. */
+		validationStepsDone		= 0;
+		validationStepsTotal	= umlModel.getClasses().length + umlModel.getGeneralizations().length
+				+ umlModel.getAssociations().length + umlModel.getAggregations().length + 1;
+
+		notifyPhaseStarted(PHASES.VALIDATION);
+
+		long phaseStart	= System.nanoTime();
 
 		try
 		{
@@ -300,17 +1081,72 @@ public class Model extends Observable
 			 * - Duplicate class name
 			 * - Duplicate attribute name in a specific class
 			 * - Duplicate method (operation) name/signature. */
-			createAndCheckClasses();
+			AnalysisPhaseEvent event	= beginPhaseEvent();
+
+			try
+			{
+				createAndCheckClasses();
+			}
+			finally
+			{
+				commitPhaseEvent(event, "createAndCheckClasses");
+			}
+
+			/* Resolves the types of the arguments to the classes, once, so the metrics follow the links instead of
+			 * looking up the types by name. */
+			event	= beginPhaseEvent();
+
+			try
+			{
+				ClassContainer[] allClasses	= getClassesById();
+
+				typeLinks	= new TypeLinks(allClasses);
+
+				typeLinks.linkAll(allClasses, allClasses.length >= parallelMetricsThreshold, cancellationToken);
+
+				checkCancelled();
+			}
+			finally
+			{
+				commitPhaseEvent(event, "linkTypes");
+			}
 
 			/* Links superclasses with their subclasses. Throws an error if any of the classes does not exist or an
 			 * inheritance cycle is detected. */
-			createAndCheckGeneralizations();
+			event	= beginPhaseEvent();
+
+			try
+			{
+				createAndCheckGeneralizations();
+			}
+			finally
+			{
+				commitPhaseEvent(event, "createAndCheckGeneralizations");
+			}
 
 			/* Links classes through defined associations. */
-			createAndCheckAssociations();
+			event	= beginPhaseEvent();
+
+			try
+			{
+				createAndCheckAssociations();
+			}
+			finally
+			{
+				commitPhaseEvent(event, "createAndCheckAssociations");
+			}
 
 			/* Links classes through defined aggregations. */
-			createAndCheckAggregations();
+			event	= beginPhaseEvent();
+
+			try
+			{
+				createAndCheckAggregations();
+			}
+			finally
+			{
+				commitPhaseEvent(event, "createAndCheckAggregations");
+			}
 		}
 		catch(ModelException e)
 		{
@@ -319,27 +1155,73 @@ public class Model extends Observable
 			throw e;
 		}
 
+		statistics.recordValidation(System.nanoTime() - phaseStart);
+
 		/* Below: let's loop through all classes and build caches and add their name to an ArrayList so we can sort them
 		 * and send them to observers (the view). */
 
+		notifyPhaseStarted(PHASES.METRICS);
+
+		phaseStart	= System.nanoTime();
+
+		try
 		{
-			ClassContainer[] allClasses	= classes.values().toArray(new ClassContainer[classes.size()]);
+			ClassContainer[] allClasses	= getClassesById();
+			boolean parallel			= allClasses.length >= parallelMetricsThreshold;
 
-			Metrics metrics	= new Metrics(allClasses);
+			AnalysisPhaseEvent event	= beginPhaseEvent();
 
-			Iterator<Entry<String, ClassContainer>>	iterator	= getClassIterator();
+			try
+			{
+				metrics	= new Metrics(allClasses, inheritanceGraph, typeLinks, parallel, lazyMetrics,
+						cancellationToken);
+			}
+			finally
+			{
+				commitPhaseEvent(event, "Metrics");
+			}
 
-			while(iterator.hasNext())
+			metricEngine	= null;
+
+			if(0 != customMetrics.length)
 			{
-				ClassContainer classContainer = getClassContainerFromIterator(iterator);
+				event	= beginPhaseEvent();
 
-				classContainer.setMetrics(metrics.getMetrics(classContainer));
+				try
+				{
+					metricEngine	= new MetricEngine(customMetrics, metrics, allClasses);
+
+					metricEngine.calculate(parallel, cancellationToken);
+
+					checkCancelled();
+				}
+				finally
+				{
+					commitPhaseEvent(event, "MetricEngine");
+				}
 			}
+
+			/* Not needed anymore: the metrics keep their own reference. */
+			inheritanceGraph	= null;
+
+			typeLinks.unlinkMembers();
+
+			/* Values are kept in the columns of the metrics and only formatted when shown or exported. */
+			notifyPhaseProgress(PHASES.METRICS, allClasses.length, allClasses.length);
+		}
+		catch(ModelException e)
+		{
+			resetModel();
+
+			throw e;
 		}
 
+		statistics.recordMetrics(System.nanoTime() - phaseStart);
+
 		{
 			sortedClassNames									= new ArrayList<String>();
 			Iterator<Entry<String, ClassContainer>>	iterator	= getClassIterator();
+			AnalysisPhaseEvent event							= beginPhaseEvent();
 
 			while(iterator.hasNext())
 			{
@@ -350,6 +1232,8 @@ public class Model extends Observable
 				sortedClassNames.add(classContainer.getName());
 			}
 
+			commitPhaseEvent(event, "ClassContainer.buildCaches");
+
 			Collections.sort(sortedClassNames);
 
 			sendList(ListContainer.CLASS_LIST, sortedClassNames.toArray(new String[sortedClassNames.size()]));
@@ -371,6 +1255,8 @@ public class Model extends Observable
 		/* Let's loop through all the ClassContent's stored in umlModel. */
 		for(ClassContent currentClass : umlModel.getClasses())
 		{
+			validationStep();
+
 			String className	= currentClass.getIdentifier();
 
 			if(null != getClass(className))
@@ -383,7 +1269,7 @@ public class Model extends Observable
 
 			/* Let's add a ClassContainer to the classes map. The constructor of ClassContainer is responsible to create
 			 * and check attributes and methods (operations). If an error occurs, a ModelException is thrown. */
-			classes.put(className, new ClassContainer(currentClass));
+			classes.put(className, new ClassContainer(currentClass, classes.size(), symbolTable));
 		}
 	}
 
@@ -397,6 +1283,8 @@ public class Model extends Observable
 		/* Let's loop through the generalizations contained in the model. */
 		for(Generalization generalization : umlModel.getGeneralizations())
 		{
+			validationStep();
+
 			String superclassName	= generalization.getSuperclassName();
 
 			ClassContainer superClass	= null;
@@ -433,78 +1321,62 @@ public class Model extends Observable
 			}
 		}
 
-		/* Let's iterate through all the classes and check, for each, if an inheritance cycle exists. */
+		/* Let's look for inheritance cycles in a single pass over the whole inheritance graph. */
+		validationStep();
+
+		ClassContainer[] allClasses	= getClassesById();
 
-		Iterator<Entry<String, ClassContainer>>	iterator = getClassIterator();
+		inheritanceGraph	= new InheritanceGraph(allClasses);
 
-		while(iterator.hasNext())
+		int[][] cycles	= inheritanceGraph.findCycles();
+
+		if(0 != cycles.length)
 		{
-			if(classContainsInheritanceCycle(getClassContainerFromIterator(iterator)))
-			{
-				/* Inheritance cycle detected, let's throw an exception. */
+			/* Inheritance cycle detected, let's throw an exception. The names must be formatted before the model is
+			 * reset. */
+			String cycleClasses	= formatCycles(cycles, allClasses);
 
-				throw resetAndReturnException(ERRORS.INHERITANCE_CYCLE);
-			}
+			throw resetAndReturnException(ERRORS.INHERITANCE_CYCLE)
+				.set(ATTRIBUTES.CYCLE_CLASSES, cycleClasses);
 		}
 	}
 
 	/**
-	 * Checks whether or not a cycle exists in a class inheritance.
+	 * Formats inheritance cycles for {@link ATTRIBUTES#CYCLE_CLASSES}: the names of the classes of each cycle, sorted
+	 * and separated by commas, cycles being separated by semicolons.
 	 *
-	 * @param startingClass	The class to start from.
+	 * @param cycles		The ids of the classes of every cycle.
+	 * @param allClasses	All the classes, indexed by id.
 	 *
-	 * @return	True if there is a cycle, false otherwise.
+	 * @return	The formatted cycles.
 	 */
-	protected boolean classContainsInheritanceCycle(ClassContainer startingClass)
+	protected String formatCycles(int[][] cycles, ClassContainer[] allClasses)
 	{
-		/* Let's use a "helper" method to which we'll pass an empty HashMap which will contain, as keys, all the visited
-		 * classes. This is a recursive process. For every class, there's a new call with each of its superclasses with
-		 * a copy (a clone) of the HashMap to mark visited classes on that path without affecting marked classes
-		 * of other paths. */
-		if(inheritancePathContainsCycle(startingClass, new HashMap<String, Boolean>()))
-		{
-			/* A cycle was detected by visiting one of the class's superclass paths. */
+		StringBuilder sb	= new StringBuilder();
 
-			return true;
-		}
-
-		/* No cycle detected. */
+		for(int[] cycle : cycles)
+		{
+			ArrayList<String> names	= new ArrayList<String>();
 
-		return false;
-	}
+			for(int id : cycle)
+			{
+				names.add(allClasses[id].getName());
+			}
 
-	/**
-	 * Checks, for every supeclass of a class, if going on that inheritance path a cycle exists. For every superclass,
-	 * it calls this method again by adding the currentc class to a list of visited classes. If a superclass is
-	 * already marked as visited or visiting that class's inheritance path returns true, then a cycle exists.
-	 *
-	 * @param startingClass		The class to start from.
-	 * @param visitedClasses	A HashMap of classes already visited (keys are the names of classes).
-	 *
-	 * @return	True if a cycle exists, false otherwise.
-	 */
-	protected boolean inheritancePathContainsCycle(ClassContainer startingClass, HashMap<String, Boolean> visitedClasses)
-	{
-		/* Let's clone the HashMap. Otherwise it would always use the same object and a class could be mistakingly
-		 * marked as visited (for example, in diamond inheritance with the two paths having a different length. */
-		HashMap<String, Boolean> visitedClassesClone	= new HashMap<String, Boolean>(visitedClasses);
+			Collections.sort(names);
 
-		/* Let's mark the current class (startingClass) as visited by adding is to the HashMap. */
-		visitedClassesClone.put(startingClass.getName(), true);
+			if(0 != sb.length())
+			{
+				sb.append("; ");
+			}
 
-		for(ClassContainer superclass : startingClass.getSuperclasses())
-		{
-			/* If a superclass is already marked as visited or its inheritance contains a cycle, let's return true, a
-			 * cycle does exist. */
-			if(visitedClassesClone.containsKey(superclass.getName()) || inheritancePathContainsCycle(superclass, visitedClassesClone))
+			for(int i = 0; i < names.size(); ++i)
 			{
-				return true;
+				sb.append((0 == i) ? "" : ", ").append(names.get(i));
 			}
 		}
 
-		/* At this point, no cycle detected, let's return false. */
-
-		return false;
+		return sb.toString();
 	}
 
 	/**
@@ -518,6 +1390,8 @@ public class Model extends Observable
 		/* Let's loop through the associations contained in the model. */
 		for(Association association : umlModel.getAssociations())
 		{
+			validationStep();
+
 			ClassContainer firstClass		= null;
 			ClassContainer secondClass		= null;
 			ModelException modelException	= null;
@@ -597,6 +1471,8 @@ public class Model extends Observable
 		/* Let's loop through the aggregations contained in the model. */
 		for(Aggregation aggregation : umlModel.getAggregations())
 		{
+			validationStep();
+
 			String containerName			= aggregation.getRole().getIdentifier();
 			ClassContainer containerClass	= null;
 
@@ -645,6 +1521,336 @@ public class Model extends Observable
 		}
 	}
 
+	/**
+	 * Counts a step of the validation phase: checks whether or not the analysis was cancelled and notifies the
+	 * {@link ProgressListener} if needed.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis was cancelled.
+	 */
+	protected void validationStep() throws ModelException
+	{
+		checkCancelled();
+
+		notifyPhaseProgress(PHASES.VALIDATION, ++validationStepsDone, validationStepsTotal);
+	}
+
+	/**
+	 * Creates and starts an {@link AnalysisPhaseEvent}. Java Flight Recorder events are very cheap when no recording
+	 * is running.
+	 *
+	 * @return	The event, or null if the Java Flight Recorder API is not present (see {@link FlightRecorderSupport}).
+	 */
+	protected AnalysisPhaseEvent beginPhaseEvent()
+	{
+		if(!FlightRecorderSupport.isAvailable())
+		{
+			return null;
+		}
+
+		AnalysisPhaseEvent event	= new AnalysisPhaseEvent();
+
+		event.begin();
+
+		return event;
+	}
+
+	/**
+	 * Ends an {@link AnalysisPhaseEvent} and commits it if a recording is running.
+	 *
+	 * @param event	The event. Can be null.
+	 * @param phase	The name of the phase.
+	 */
+	protected void commitPhaseEvent(AnalysisPhaseEvent event, String phase)
+	{
+		if((null != event) && event.shouldCommit())
+		{
+			commitPhaseEvent(event, phase, (null == classes) ? 0 : classes.size());
+		}
+	}
+
+	/**
+	 * Ends an {@link AnalysisPhaseEvent} and commits it if a recording is running.
+	 *
+	 * @param event			The event. Can be null.
+	 * @param phase			The name of the phase.
+	 * @param classCount	The number of classes of the model.
+	 */
+	protected void commitPhaseEvent(AnalysisPhaseEvent event, String phase, int classCount)
+	{
+		if((null != event) && event.shouldCommit())
+		{
+			event.phase			= phase;
+			event.fileName		= analysedFilename;
+			event.fileSize		= new File(analysedFilename).length();
+			event.classCount	= classCount;
+
+			event.commit();
+		}
+	}
+
+	/**
+	 * Estimates the heap held by the analysed file: the {@link ClassContainer}'s, the structures holding them and the
+	 * values of the metrics.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	protected long estimateHeapSize()
+	{
+		long size	= estimateAnalysisHeapSize();
+
+		if(null != metricEngine)
+		{
+			size	+= metricEngine.estimateHeapSize();
+		}
+
+		return size;
+	}
+
+	/**
+	 * Estimates the heap held by what {@link AnalysisCache} keeps of the analysed file: like
+	 * {@link #estimateHeapSize()}, without the custom metrics.
+	 *
+	 * @return	The estimated number of bytes.
+	 */
+	protected long estimateAnalysisHeapSize()
+	{
+		if(null != frozenModel)
+		{
+			return frozenModel.estimateHeapSize() + metrics.estimateHeapSize();
+		}
+
+		if(null == classes)
+		{
+			return 0;
+		}
+
+		/* Every class is referenced by an entry of the HashMap and its name by sortedClassNames. */
+		long entrySize	= ClassContainer.OBJECT_HEADER_SIZE + (6 * ClassContainer.REFERENCE_SIZE);
+		long size		= classes.size() * entrySize;
+
+		for(ClassContainer classContainer : classes.values())
+		{
+			size	+= classContainer.estimateHeapSize();
+		}
+
+		if(null != metrics)
+		{
+			size	+= metrics.estimateHeapSize();
+		}
+
+		return size + ClassContainer.estimateHeapSize(symbolTable);
+	}
+
+	/**
+	 * Returns the value of one metric of a class.
+	 *
+	 * @param metricIndex	The index of the metric in {@link #getMetricNames()}.
+	 * @param id			The id of the class.
+	 *
+	 * @return	The value of the metric.
+	 */
+	protected double getMetricValue(int metricIndex, int id)
+	{
+		int nMetrics	= METRICS.getNumberOfMetrics();
+
+		if(metricIndex < nMetrics)
+		{
+			return metrics.getValue(METRICS.getMetricFromIndex(metricIndex), id);
+		}
+
+		return metricEngine.getCustomValue(metricIndex - nMetrics, id);
+	}
+
+	/**
+	 * Returns the value of one metric of a class as text.
+	 *
+	 * @param metricIndex	The index of the metric in {@link #getMetricNames()}.
+	 * @param id			The id of the class.
+	 *
+	 * @return	The formatted value of the metric.
+	 */
+	protected String formatMetric(int metricIndex, int id)
+	{
+		int nMetrics	= METRICS.getNumberOfMetrics();
+
+		if(metricIndex < nMetrics)
+		{
+			return metrics.format(METRICS.getMetricFromIndex(metricIndex), id);
+		}
+
+		return MetricEngine.format(metricEngine.getCustomValue(metricIndex - nMetrics, id));
+	}
+
+	/**
+	 * Returns the metrics of a class as shown to the user, one "name : value" line per metric.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The metrics of the class, or null if they are not known.
+	 */
+	protected String[] formatMetrics(int id)
+	{
+		if(null == metrics)
+		{
+			return null;
+		}
+
+		String[] names	= getMetricNames();
+		String[] lines	= new String[names.length];
+
+		for(int i = 0; i < names.length; ++i)
+		{
+			lines[i]	= names[i] + " : " + formatMetric(i, id);
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Returns whether or not a file is analysed, frozen or not.
+	 *
+	 * @return	{@code true} if a file is analysed, {@code false} otherwise.
+	 */
+	protected boolean isAnalysed()
+	{
+		return (null != frozenModel) || ((null != classes) && (null != sortedClassNames));
+	}
+
+	/**
+	 * Returns the ids of the classes of the analysed file, sorted by name.
+	 *
+	 * @return	The ids. Must not be modified.
+	 */
+	protected int[] getSortedIds()
+	{
+		if(null != frozenModel)
+		{
+			return frozenModel.getSortedIds();
+		}
+
+		int[] ids	= new int[sortedClassNames.size()];
+		int n		= 0;
+
+		for(String className : sortedClassNames)
+		{
+			ids[n++]	= getClass(className).getId();
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Returns the names of the classes of the analysed file, sorted.
+	 *
+	 * @return	The names, in the order of {@link #getSortedIds()}.
+	 */
+	protected String[] getSortedClassNames()
+	{
+		if(null != frozenModel)
+		{
+			int[] sortedIds		= frozenModel.getSortedIds();
+			String[] names		= new String[sortedIds.length];
+
+			for(int i = 0; i < sortedIds.length; ++i)
+			{
+				names[i]	= frozenModel.getClassName(sortedIds[i]);
+			}
+
+			return names;
+		}
+
+		return sortedClassNames.toArray(new String[sortedClassNames.size()]);
+	}
+
+	/**
+	 * Sends the main details of a class of the frozen model to observers, like {@link #sendClassInfo(String)}.
+	 *
+	 * @param className	The class name for which details must be sent.
+	 */
+	protected void sendFrozenClassInfo(String className)
+	{
+		int id	= frozenModel.getClassId(className);
+
+		if(0 > id)
+		{
+			return;
+		}
+
+		sendList(ListContainer.ATTRIBUTE_LIST, frozenModel.getAttributes(id));
+
+		sendList(ListContainer.OPERATION_LIST, frozenModel.getOperations(id));
+
+		sendList(ListContainer.SUBCLASS_LIST, frozenModel.getSubclasses(id));
+
+		sendList(ListContainer.SUPERCLASS_LIST, frozenModel.getSuperclasses(id));
+
+		sendList(ListContainer.ASSOCIATION_LIST, frozenModel.getAssociations(id));
+
+		sendList(ListContainer.AGGREGATION_LIST, frozenModel.getAggregations(id));
+
+		sendList(ListContainer.METRIC_LIST, formatMetrics(id));
+	}
+
+	/**
+	 * Returns all the classes in an array, each class being at the index of its id. Classes are numbered from 0 when
+	 * created, so the array has no hole.
+	 *
+	 * @return	All the classes, indexed by id.
+	 */
+	protected ClassContainer[] getClassesById()
+	{
+		ClassContainer[] allClasses	= new ClassContainer[classes.size()];
+
+		for(ClassContainer classContainer : classes.values())
+		{
+			allClasses[classContainer.getId()]	= classContainer;
+		}
+
+		return allClasses;
+	}
+
+	/**
+	 * Throws an exception if the analysis was cancelled.
+	 *
+	 * @throws ModelException	Thrown ({@code ANALYSIS_CANCELLED}) if the analysis was cancelled.
+	 */
+	protected void checkCancelled() throws ModelException
+	{
+		if((null != cancellationToken) && cancellationToken.isCancelled())
+		{
+			throw resetAndReturnException(ERRORS.ANALYSIS_CANCELLED);
+		}
+	}
+
+	/**
+	 * Notifies the {@link ProgressListener}, if any, that a phase started.
+	 *
+	 * @param phase	The phase.
+	 */
+	protected void notifyPhaseStarted(PHASES phase)
+	{
+		if(null != progressListener)
+		{
+			progressListener.phaseStarted(phase);
+		}
+	}
+
+	/**
+	 * Notifies the {@link ProgressListener}, if any, of the progress of a phase. To keep the cost low, it is only
+	 * notified once every {@link #PROGRESS_INTERVAL} steps and at the last step.
+	 *
+	 * @param phase	The phase.
+	 * @param done	The number of steps done.
+	 * @param total	The total number of steps.
+	 */
+	protected void notifyPhaseProgress(PHASES phase, int done, int total)
+	{
+		if((null != progressListener) && ((0 == (done % PROGRESS_INTERVAL)) || (done == total)))
+		{
+			progressListener.phaseProgress(phase, done, total);
+		}
+	}
+
 	/**
 	 * Returns an {@link Iterable} that iterates over the entry set of {@code classes}.
 	 *
@@ -711,15 +1917,28 @@ public class Model extends Observable
 	 */
 	protected void resetModel()
 	{
-		umlModel	= null;
+		statistics.modelUnloaded(this);
+
+		umlModel			= null;
+		symbolTable			= null;
+		inheritanceGraph	= null;
+		typeLinks			= null;
+		metrics				= null;
+		metricEngine		= null;
+		frozenModel			= null;
 
 		if(null == classes)
 		{
 			return;
 		}
 
-		classes.clear();
+		/* The classes of the cache may be used by other models: they are only dropped. */
+		if(!sharedAnalysis)
+		{
+			classes.clear();
+		}
 
-		classes		= null;
+		classes			= null;
+		sharedAnalysis	= false;
 	}
 }
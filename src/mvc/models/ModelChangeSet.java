@@ -0,0 +1,62 @@
+package mvc.models;
+
+import java.util.ArrayList;
+
+import uml_parser.ClassContent;
+
+/**
+ * This class lists changes to apply to an analysed {@link Model} with {@link Model#applyChanges(ModelChangeSet)}: new
+ * definitions (attributes and operations) of existing classes. Generalizations, associations and aggregations can't
+ * be changed this way; the file must be analysed again.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class ModelChangeSet
+{
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The new definitions of the changed classes, in the order they were added.
+	 */
+	protected final ArrayList<ClassContent> changedClasses	= new ArrayList<ClassContent>();
+
+	// PUBLIC METHODS
+
+	/**
+	 * Adds the new definition of a class. The class is identified by {@link ClassContent#getIdentifier()}, which must
+	 * be the name of a class of the model.
+	 *
+	 * @param classContent	The new definition of the class.
+	 *
+	 * @return	The current instance, so calls can be chained.
+	 */
+	public ModelChangeSet changeClass(ClassContent classContent)
+	{
+		changedClasses.add(classContent);
+
+		return this;
+	}
+
+	/**
+	 * Checks whether or not the change set contains any change.
+	 *
+	 * @return	{@code true} if no class was changed, {@code false} otherwise.
+	 */
+	public boolean isEmpty()
+	{
+		return changedClasses.isEmpty();
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the new definitions of the changed classes.
+	 *
+	 * @return	The new definitions, in the order they were added.
+	 */
+	ClassContent[] getChangedClasses()
+	{
+		return changedClasses.toArray(new ClassContent[changedClasses.size()]);
+	}
+}
@@ -20,6 +20,7 @@ public class ModelException extends Exception
 	 */
 	public static enum ERRORS
 	{
+		ANALYSIS_CANCELLED,
 		DUPLICATE_ASSOCIATION,
 		DUPLICATE_ATTRIBUTE,
 		DUPLICATE_CLASS,
@@ -27,10 +28,12 @@ public class ModelException extends Exception
 		INHERITANCE_CYCLE,
 		INVALID_FILE,
 		MULTIPLE_INHERITANCE_NOT_ALLOWED,
+		PARSE_BUDGET_EXCEEDED,
 		PARSING_FAILED,
 		UNKNOWN_AGGREGATION_CONTAINER_CLASS,
 		UNKNOWN_AGGREGATION_PART_CLASS,
 		UNKNOWN_ASSOCIATION_CLASS,
+		UNKNOWN_CLASS,
 		UNKNOWN_GENERALIZATION_SUBCLASS,
 		UNKNOWN_GENERALIZATION_SUPERCLASS,
 		;
@@ -46,14 +49,18 @@ public class ModelException extends Exception
 	{
 		ASSOCIATION,
 		ATTRIBUTE,
+		BUDGET_LIMIT,
 		CLASS,
 		CONTAINER_CLASS,
+		CYCLE_CLASSES,
 		FIRST_CLASS,
+		LINE,
 		SECOND_CLASS,
 		OPERATION_NAME,
 		OPERATION_SIGNATURE,
 		OPERATION_TYPE,
 		PART_CLASS,
+		RULE_EVALUATIONS,
 		SUBCLASS,
 		SUPERCLASS,
 		;
@@ -0,0 +1,945 @@
+package mvc.models;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import bnf_parser.collectors.Collector;
+import uml_parser.SymbolTable;
+import uml_parser.collectors.AggregationCollector;
+import uml_parser.collectors.AssociationCollector;
+
+/**
+ * This class stores an analysed {@link Model} on disk so the same file can be opened again without being parsed and
+ * analysed: the classes with their caches (what the view shows), the offsets in the file of their associations and
+ * aggregations (for {@link Model#sendAssociationDetails(String, int)}), the values of the metrics and what
+ * {@link Metrics} keeps to update them. The custom metrics are not stored since they are code: they are calculated
+ * again when a snapshot is loaded.
+ *
+ * <p>A snapshot is only valid for the file it was made from: it is keyed by the canonical path of the file, its size,
+ * its last modification time and the SHA-256 hash of its content, along with the options changing the outcome of the
+ * analysis. The name of the snapshot file is the hash of the path, so a directory holds one snapshot per file.</p>
+ *
+ * <p>Layout of a snapshot (big-endian, strings as their number of bytes then UTF-8 bytes, arrays as their length then
+ * their elements):</p>
+ * <ol>
+ * <li>Key: {@link #MAGIC}, {@link #VERSION}, path, size, last modification time, hash, multiple inheritance allowed
+ *     (byte).</li>
+ * <li>Classes, by id: name, attributes and operations (as shown), ids of the subclasses and superclasses, then the
+ *     associations and aggregations (as shown, start and end offsets).</li>
+ * <li>Ids of the classes sorted by name.</li>
+ * <li>Inheritance graph: offsets and ids of the superclasses, then of the subclasses.</li>
+ * <li>Metrics: ITC, ETC, DIT, CLD, CAC, NOM, NOA and ANA of every class, the classes referenced by the methods of every
+ *     class, the attribute names, methods (name, signature, type) and signatures (name, signature) by id, the
+ *     signature of every method, then the local attributes, methods and signatures of every class.</li>
+ * <li>Checksum: the SHA-256 hash of everything after the key, so a snapshot whose bytes were changed is not loaded.
+ *     </li>
+ * </ol>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class ModelSnapshot
+{
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The first four bytes of a snapshot ("UMLS").
+	 */
+	protected static final int MAGIC				= 0x554D4C53;
+
+	/**
+	 * The version of the layout.
+	 */
+	protected static final int VERSION				= 2;
+
+	/**
+	 * The algorithm hashing the content of the file and its path.
+	 */
+	protected static final String HASH_ALGORITHM	= "SHA-256";
+
+	/**
+	 * The extension of the snapshot files.
+	 */
+	protected static final String EXTENSION			= ".snapshot";
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The canonical path of the file.
+	 */
+	protected final String path;
+
+	/**
+	 * The size of the file, in bytes.
+	 */
+	protected final long size;
+
+	/**
+	 * The last modification time of the file.
+	 */
+	protected final long lastModified;
+
+	/**
+	 * The hash of the content of the file.
+	 */
+	protected final byte[] hash;
+
+	/**
+	 * Whether or not multiple inheritance was allowed: a file may only be valid when it is.
+	 */
+	protected final boolean allowMultipleInheritance;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor. Reads the whole file to hash its content.
+	 *
+	 * @param filename					The filename of the model's definition file.
+	 * @param allowMultipleInheritance	Whether or not multiple inheritance is allowed.
+	 *
+	 * @throws IOException	Thrown if the file can't be read.
+	 */
+	ModelSnapshot(String filename, boolean allowMultipleInheritance) throws IOException
+	{
+		File file	= new File(filename);
+
+		path							= file.getCanonicalPath();
+		size							= file.length();
+		lastModified					= file.lastModified();
+		this.allowMultipleInheritance	= allowMultipleInheritance;
+
+		MessageDigest digest	= createDigest();
+		FileInputStream input	= new FileInputStream(file);
+
+		try
+		{
+			FileChannel fileChannel	= input.getChannel();
+			ByteBuffer buffer		= ByteBuffer.allocateDirect(ChannelOutput.BUFFER_SIZE);
+
+			while(0 <= fileChannel.read(buffer))
+			{
+				buffer.flip();
+
+				digest.update(buffer);
+
+				buffer.clear();
+			}
+		}
+		finally
+		{
+			input.close();
+		}
+
+		hash	= digest.digest();
+	}
+
+	// PACKAGE STATIC METHODS
+
+	/**
+	 * Replaces the classes, sorted class names and metrics of an analysed model by copies, made through a snapshot
+	 * kept in memory, so they can be changed without changing the ones of other models (see {@link AnalysisCache}).
+	 * The copies are resolved in a new {@link SymbolTable}, so the table shared with the other models is not changed
+	 * either. The custom metrics are not copied.
+	 *
+	 * @param model	The model. Its metrics must not be updated at the same time.
+	 *
+	 * @throws IOException	Thrown if the copy can't be read back (should not happen).
+	 */
+	static void copy(Model model) throws IOException
+	{
+		ByteArrayOutputStream bytes	= new ByteArrayOutputStream();
+		ChannelOutput output		= new ChannelOutput(Channels.newChannel(bytes));
+
+		writeClasses(output, model);
+		writeMetrics(output, model.metrics, model.symbolTable);
+
+		output.flush();
+
+		if(!readAnalysis(new Input(ByteBuffer.wrap(bytes.toByteArray())), model))
+		{
+			throw new IOException("Invalid copy.");
+		}
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Returns the snapshot file of the file in a directory.
+	 *
+	 * @param directory	The directory of the snapshots.
+	 *
+	 * @return	The snapshot file. It may not exist.
+	 */
+	File getFile(File directory)
+	{
+		byte[] pathHash		= createDigest().digest(path.getBytes(ChannelOutput.UTF_8));
+		StringBuilder sb	= new StringBuilder();
+
+		for(byte b : pathHash)
+		{
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+
+		return new File(directory, sb.append(EXTENSION).toString());
+	}
+
+	/**
+	 * Loads the snapshot of the file into a model, if it exists and is still valid. The model is only modified if the
+	 * snapshot is loaded: its classes, sorted class names, metrics and custom metrics are replaced.
+	 *
+	 * @param model		The model.
+	 * @param directory	The directory of the snapshots.
+	 *
+	 * @return	{@code true} if the snapshot was loaded, {@code false} if it does not exist, was made from another
+	 * 			version of the file, is corrupted (see {@link #checkBody(ByteBuffer)}) or can't be read.
+	 */
+	boolean read(Model model, File directory)
+	{
+		File file	= getFile(directory);
+
+		if(!file.isFile())
+		{
+			return false;
+		}
+
+		try
+		{
+			Input input	= new Input(map(file));
+
+			if(!readKey(input) || !checkBody(input.buffer) || !readAnalysis(input, model))
+			{
+				return false;
+			}
+
+			model.metricEngine	= null;
+
+			return true;
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+		catch (RuntimeException e)
+		{
+			/* Not expected once the checksum matches, but a snapshot which can't be read (BufferUnderflowException,
+			 * id out of bounds, ...) only means the file will be parsed. */
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the snapshot of an analysed model, replacing the previous one. It is written to a temporary file first,
+	 * then renamed, so a snapshot being written is never read.
+	 *
+	 * @param model		The model. Its metrics must not be updated at the same time.
+	 * @param directory	The directory of the snapshots.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	void write(Model model, File directory) throws IOException
+	{
+		File file		= getFile(directory);
+		File temporary	= File.createTempFile(file.getName(), ".tmp", directory);
+
+		try
+		{
+			FileOutputStream fileOutputStream	= new FileOutputStream(temporary);
+
+			try
+			{
+				ChannelOutput output	= new ChannelOutput(fileOutputStream.getChannel());
+
+				writeKey(output);
+
+				/* Everything after the key is hashed, so the snapshot can be checked when it is read. */
+				output.startDigest(createDigest());
+
+				writeClasses(output, model);
+				writeMetrics(output, model.metrics, model.symbolTable);
+
+				output.put(output.endDigest());
+				output.flush();
+			}
+			finally
+			{
+				fileOutputStream.close();
+			}
+
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally
+		{
+			/* Only exists if something failed. */
+			temporary.delete();
+		}
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Creates the digest hashing the content of the files and their paths.
+	 *
+	 * @return	The digest.
+	 */
+	protected static MessageDigest createDigest()
+	{
+		try
+		{
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			/* Should never happen: every Java platform must support SHA-256. */
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Maps a whole file in memory.
+	 *
+	 * @param file	The file.
+	 *
+	 * @return	The content of the file.
+	 *
+	 * @throws IOException	Thrown if the file can't be read or is larger than 2 GB.
+	 */
+	protected static ByteBuffer map(File file) throws IOException
+	{
+		RandomAccessFile randomAccessFile	= new RandomAccessFile(file, "r");
+
+		try
+		{
+			FileChannel fileChannel	= randomAccessFile.getChannel();
+
+			if(Integer.MAX_VALUE < fileChannel.size())
+			{
+				throw new IOException("Snapshot too large.");
+			}
+
+			/* The mapping stays valid once the file is closed. */
+			return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+		}
+		finally
+		{
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Checks the body of a snapshot, after its key, against the checksum ending it. On success, the checksum is
+	 * excluded from the buffer, so the body ends at the limit of the buffer.
+	 *
+	 * @param buffer	The buffer, at the start of the body.
+	 *
+	 * @return	{@code true} if the hash of the body is the checksum, {@code false} otherwise.
+	 */
+	protected static boolean checkBody(ByteBuffer buffer)
+	{
+		MessageDigest digest	= createDigest();
+		int end					= buffer.limit() - digest.getDigestLength();
+
+		if(end < buffer.position())
+		{
+			return false;
+		}
+
+		byte[] checksum	= new byte[digest.getDigestLength()];
+		ByteBuffer body	= buffer.duplicate();
+
+		body.position(end);
+		body.get(checksum);
+
+		body.limit(end).position(buffer.position());
+
+		digest.update(body);
+
+		if(!MessageDigest.isEqual(checksum, digest.digest()))
+		{
+			return false;
+		}
+
+		buffer.limit(end);
+
+		return true;
+	}
+
+	/**
+	 * Returns the names of classes.
+	 *
+	 * @param ids			The ids of the classes.
+	 * @param allClasses	All the classes, indexed by id.
+	 *
+	 * @return	The names of the classes.
+	 */
+	protected static String[] getNames(int[] ids, ClassContainer[] allClasses)
+	{
+		String[] names	= new String[ids.length];
+
+		for(int i = 0; i < ids.length; ++i)
+		{
+			names[i]	= allClasses[ids[i]].getName();
+		}
+
+		return names;
+	}
+
+	/**
+	 * Returns the ids of classes.
+	 *
+	 * @param names		The names of the classes.
+	 * @param classes	All the classes, by name.
+	 *
+	 * @return	The ids of the classes.
+	 */
+	protected static int[] getIds(String[] names, HashMap<String, ClassContainer> classes)
+	{
+		int[] ids	= new int[names.length];
+
+		for(int i = 0; i < names.length; ++i)
+		{
+			ids[i]	= classes.get(names[i]).getId();
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Writes the keys of members by id, preceded by their number. Every key is written as the strings of its
+	 * symbols, since symbols are only valid in the table of the model.
+	 *
+	 * @param output	The output.
+	 * @param ids		The ids of the members.
+	 * @param symbols	The table of the model.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	protected static void putMemberKeys(ChannelOutput output, MemberIds ids, SymbolTable symbols) throws IOException
+	{
+		output.putInt(ids.size());
+
+		for(int id = 0; id < ids.size(); ++id)
+		{
+			for(int part = 0; part < ids.arity; ++part)
+			{
+				output.putString(symbols.getString(ids.getSymbol(id, part)));
+			}
+		}
+	}
+
+	/**
+	 * Reads the keys of members written by {@link #putMemberKeys(ChannelOutput, MemberIds, SymbolTable)}: their
+	 * strings are interned and the members are given their ids again, in the same order.
+	 *
+	 * @param input		The input.
+	 * @param arity		The number of symbols of a key.
+	 * @param symbols	The table of the model read.
+	 *
+	 * @return	The ids of the members.
+	 */
+	protected static MemberIds readMemberKeys(Input input, int arity, SymbolTable symbols)
+	{
+		MemberIds ids	= new MemberIds(arity);
+		int[] key		= new int[3];
+
+		/* Every string takes at least 4 bytes. */
+		for(int i = 0, iMax = input.getLength(4 * arity); i < iMax; ++i)
+		{
+			for(int part = 0; part < arity; ++part)
+			{
+				key[part]	= symbols.intern(input.getString());
+			}
+
+			ids.getId(key[0], key[1], key[2]);
+		}
+
+		return ids;
+	}
+
+	/**
+	 * Writes the offsets of an association or aggregation in the file, or -1 if they are not known.
+	 *
+	 * @param output	The output.
+	 * @param object	The {@link uml_parser.Association} or {@link uml_parser.Aggregation}.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	protected static void writeOffsets(ChannelOutput output, Object object) throws IOException
+	{
+		if(object instanceof Collector)
+		{
+			output.putInt(((Collector) object).getStartOffset());
+			output.putInt(((Collector) object).getEndOffset());
+		}
+		else
+		{
+			output.putInt(-1);
+			output.putInt(-1);
+		}
+	}
+
+	/**
+	 * Writes the classes of the model and their sorted ids.
+	 *
+	 * @param output	The output.
+	 * @param model		The model.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	protected static void writeClasses(ChannelOutput output, Model model) throws IOException
+	{
+		ClassContainer[] allClasses	= model.getClassesById();
+
+		output.putInt(allClasses.length);
+
+		for(ClassContainer currentClass : allClasses)
+		{
+			output.putString(currentClass.getName());
+
+			putStrings(output, currentClass.attributesCache);
+			putStrings(output, currentClass.operationsCache);
+
+			output.putInts(getIds(currentClass.subclassesCache, model.classes));
+			output.putInts(getIds(currentClass.superclassesCache, model.classes));
+			output.putInt(currentClass.associationsCache.length);
+
+			for(AssociationContainer associationContainer : currentClass.associationsCache)
+			{
+				output.putString(associationContainer.string);
+
+				writeOffsets(output, associationContainer.association);
+			}
+
+			output.putInt(currentClass.aggregationsCache.length);
+
+			for(AggregationContainer aggregationContainer : currentClass.aggregationsCache)
+			{
+				output.putString(aggregationContainer.string);
+
+				writeOffsets(output, aggregationContainer.aggregation);
+			}
+		}
+
+		output.putInts(getIds(model.sortedClassNames.toArray(new String[model.sortedClassNames.size()]),
+				model.classes));
+	}
+
+	/**
+	 * Writes the metrics and what is kept to update them.
+	 *
+	 * @param output	The output.
+	 * @param metrics	The metrics.
+	 * @param symbols	The table the members are resolved in.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	protected static void writeMetrics(ChannelOutput output, Metrics metrics, SymbolTable symbols) throws IOException
+	{
+		/* In lazy mode, the metrics not requested yet are computed now, so a snapshot always holds every value. */
+		metrics.computeAll();
+
+		InheritanceGraph graph	= metrics.graph;
+
+		output.putInts(graph.superclassOffsets);
+		output.putInts(graph.superclassIds);
+		output.putInts(graph.subclassOffsets);
+		output.putInts(graph.subclassIds);
+
+		output.putInts(metrics.ITC);
+		output.putInts(metrics.ETC);
+		output.putInts(metrics.DIT);
+		output.putInts(metrics.CLD);
+		output.putInts(metrics.CAC);
+		output.putInts(metrics.NOM);
+		output.putInts(metrics.NOA);
+
+		for(float value : metrics.ANA)
+		{
+			output.putFloat(value);
+		}
+
+		for(int[] classes : metrics.referencedClasses)
+		{
+			output.putInts(classes);
+		}
+
+		putMemberKeys(output, metrics.attributeIds, symbols);
+		putMemberKeys(output, metrics.methodIds, symbols);
+		putMemberKeys(output, metrics.signatureIds, symbols);
+
+		output.putInts(Arrays.copyOf(metrics.signatureIdOfMethod, metrics.methodIds.size()));
+
+		for(int id = 0; id < metrics.ITC.length; ++id)
+		{
+			output.putInts(metrics.localAttributes[id]);
+			output.putInts(metrics.localMethods[id]);
+			output.putInts(metrics.localSignatures[id]);
+		}
+	}
+
+	/**
+	 * Reads the classes, their sorted ids and the metrics into a model, resolved in a new {@link SymbolTable}. The
+	 * model is only modified if they are read up to the end of the input.
+	 *
+	 * @param input	The input.
+	 * @param model	The model.
+	 *
+	 * @return	{@code true} if they were read, {@code false} if the input has more bytes.
+	 */
+	protected static boolean readAnalysis(Input input, Model model)
+	{
+		/* Classes, by id. */
+		int numberOfClasses			= input.getLength(4);
+		ClassContainer[] allClasses	= new ClassContainer[numberOfClasses];
+		int[][] subclassIds			= new int[numberOfClasses][];
+		int[][] superclassIds		= new int[numberOfClasses][];
+		SymbolTable symbols			= new SymbolTable();
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			ClassContainer currentClass	= new ClassContainer(id, input.getString(), symbols);
+
+			currentClass.attributesCache	= input.getStrings();
+			currentClass.operationsCache	= input.getStrings();
+			subclassIds[id]					= input.getInts();
+			superclassIds[id]				= input.getInts();
+			currentClass.associationsCache	= new AssociationContainer[input.getLength(12)];
+
+			for(int i = 0; i < currentClass.associationsCache.length; ++i)
+			{
+				String string					= input.getString();
+				AssociationCollector collector	= new AssociationCollector();
+
+				collector.setOffsets(input.getInt(), input.getInt());
+
+				currentClass.associationsCache[i]	= new AssociationContainer(collector, string);
+			}
+
+			currentClass.aggregationsCache	= new AggregationContainer[input.getLength(12)];
+
+			for(int i = 0; i < currentClass.aggregationsCache.length; ++i)
+			{
+				String string					= input.getString();
+				AggregationCollector collector	= new AggregationCollector();
+
+				collector.setOffsets(input.getInt(), input.getInt());
+
+				currentClass.aggregationsCache[i]	= new AggregationContainer(collector, string);
+			}
+
+			allClasses[id]	= currentClass;
+		}
+
+		/* The names of the subclasses and superclasses are shared with the classes. */
+		HashMap<String, ClassContainer> classes	= new HashMap<String, ClassContainer>(2 * numberOfClasses);
+
+		for(ClassContainer currentClass : allClasses)
+		{
+			currentClass.subclassesCache	= getNames(subclassIds[currentClass.getId()], allClasses);
+			currentClass.superclassesCache	= getNames(superclassIds[currentClass.getId()], allClasses);
+
+			classes.put(currentClass.getName(), currentClass);
+		}
+
+		int[] sortedIds						= input.getInts();
+		ArrayList<String> sortedClassNames	= new ArrayList<String>(sortedIds.length);
+
+		for(int id : sortedIds)
+		{
+			sortedClassNames.add(allClasses[id].getName());
+		}
+
+		Metrics metrics	= readMetrics(input, numberOfClasses, symbols);
+
+		if(input.buffer.hasRemaining())
+		{
+			return false;
+		}
+
+		model.classes			= classes;
+		model.sortedClassNames	= sortedClassNames;
+		model.metrics			= metrics;
+		model.symbolTable		= symbols;
+
+		return true;
+	}
+
+	/**
+	 * Reads the metrics and what is kept to update them.
+	 *
+	 * @param input				The input.
+	 * @param numberOfClasses	The number of classes.
+	 * @param symbols			The table of the model read.
+	 *
+	 * @return	The metrics.
+	 */
+	protected static Metrics readMetrics(Input input, int numberOfClasses, SymbolTable symbols)
+	{
+		InheritanceGraph graph	= new InheritanceGraph(input.getInts(), input.getInts(), input.getInts(),
+				input.getInts());
+
+		Metrics metrics	= new Metrics(graph);
+
+		metrics.ITC	= input.getInts();
+		metrics.ETC	= input.getInts();
+		metrics.DIT	= input.getInts();
+		metrics.CLD	= input.getInts();
+		metrics.CAC	= input.getInts();
+		metrics.NOM	= input.getInts();
+		metrics.NOA	= input.getInts();
+		metrics.ANA	= new float[numberOfClasses];
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			metrics.ANA[id]	= input.buffer.getFloat();
+		}
+
+		metrics.referencedClasses	= new int[numberOfClasses][];
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			metrics.referencedClasses[id]	= input.getInts();
+		}
+
+		metrics.attributeIds	= readMemberKeys(input, 1, symbols);
+		metrics.methodIds		= readMemberKeys(input, 3, symbols);
+		metrics.signatureIds	= readMemberKeys(input, 2, symbols);
+
+		/* At least one element, since it is grown by doubling its length. */
+		metrics.signatureIdOfMethod	= Arrays.copyOf(input.getInts(), Math.max(16, metrics.methodIds.size()));
+
+		metrics.localAttributes	= new int[numberOfClasses][];
+		metrics.localMethods	= new int[numberOfClasses][];
+		metrics.localSignatures	= new int[numberOfClasses][];
+
+		for(int id = 0; id < numberOfClasses; ++id)
+		{
+			metrics.localAttributes[id]	= input.getInts();
+			metrics.localMethods[id]	= input.getInts();
+			metrics.localSignatures[id]	= input.getInts();
+		}
+
+		metrics.restoreUpdateState();
+
+		return metrics;
+	}
+
+	/**
+	 * Writes an array of strings, preceded by its length.
+	 *
+	 * @param output	The output.
+	 * @param strings	The strings.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	protected static void putStrings(ChannelOutput output, String[] strings) throws IOException
+	{
+		output.putInt(strings.length);
+
+		for(String string : strings)
+		{
+			output.putString(string);
+		}
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Writes the key of the snapshot.
+	 *
+	 * @param output	The output.
+	 *
+	 * @throws IOException	Thrown if the snapshot can't be written.
+	 */
+	protected void writeKey(ChannelOutput output) throws IOException
+	{
+		output.putInt(MAGIC);
+		output.putInt(VERSION);
+		output.putString(path);
+		output.putLong(size);
+		output.putLong(lastModified);
+		output.putInt(hash.length);
+		output.put(hash);
+		output.putByte(allowMultipleInheritance ? (byte) 1 : (byte) 0);
+	}
+
+	/**
+	 * Reads the key of a snapshot and compares it to the one of the file.
+	 *
+	 * @param input	The input.
+	 *
+	 * @return	{@code true} if the snapshot was made from this version of the file, with the same options.
+	 */
+	protected boolean readKey(Input input)
+	{
+		if((MAGIC != input.getInt()) || (VERSION != input.getInt()) || !path.equals(input.getString())
+				|| (size != input.getLong()) || (lastModified != input.getLong()))
+		{
+			return false;
+		}
+
+		byte[] snapshotHash	= new byte[input.getLength(1)];
+
+		input.buffer.get(snapshotHash);
+
+		return Arrays.equals(hash, snapshotHash) && (allowMultipleInheritance == (0 != input.buffer.get()));
+	}
+
+	// PROTECTED STATIC CLASSES
+
+	/**
+	 * Reads the values written by {@link ChannelOutput} from a buffer.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	protected static class Input
+	{
+		/**
+		 * The buffer, at the position of the next value.
+		 */
+		protected final ByteBuffer buffer;
+
+		/**
+		 * The bytes of the last string read, kept so a new array is not allocated for every string.
+		 */
+		protected byte[] bytes	= new byte[256];
+
+		/**
+		 * Constructor.
+		 *
+		 * @param buffer	The buffer.
+		 */
+		protected Input(ByteBuffer buffer)
+		{
+			this.buffer	= buffer;
+		}
+
+		/**
+		 * Reads an int.
+		 *
+		 * @return	The value.
+		 */
+		protected int getInt()
+		{
+			return buffer.getInt();
+		}
+
+		/**
+		 * Reads a long.
+		 *
+		 * @return	The value.
+		 */
+		protected long getLong()
+		{
+			return buffer.getLong();
+		}
+
+		/**
+		 * Reads a string.
+		 *
+		 * @return	The string. Can be null.
+		 */
+		protected String getString()
+		{
+			int length	= buffer.getInt();
+
+			if(0 > length)
+			{
+				return null;
+			}
+
+			if(length > buffer.remaining())
+			{
+				throw new BufferUnderflowException();
+			}
+
+			if(length > bytes.length)
+			{
+				bytes	= new byte[Math.max(length, 2 * bytes.length)];
+			}
+
+			buffer.get(bytes, 0, length);
+
+			return new String(bytes, 0, length, ChannelOutput.UTF_8);
+		}
+
+		/**
+		 * Reads an array of strings.
+		 *
+		 * @return	The strings.
+		 */
+		protected String[] getStrings()
+		{
+			/* Every string takes at least 4 bytes. */
+			String[] strings	= new String[getLength(4)];
+
+			for(int i = 0; i < strings.length; ++i)
+			{
+				strings[i]	= getString();
+			}
+
+			return strings;
+		}
+
+		/**
+		 * Reads an array of ints.
+		 *
+		 * @return	The values.
+		 */
+		protected int[] getInts()
+		{
+			int length	= getLength(4);
+
+			if(0 == length)
+			{
+				/* Never modified, so it can be shared. */
+				return InheritanceGraph.EMPTY_SET;
+			}
+
+			int[] values	= new int[length];
+
+			buffer.asIntBuffer().get(values);
+
+			buffer.position(buffer.position() + (4 * values.length));
+
+			return values;
+		}
+
+		/**
+		 * Reads the length of an array, checking that the buffer is long enough to hold it, so a corrupted length
+		 * never allocates a huge array.
+		 *
+		 * @param elementSize	The minimum number of bytes of an element.
+		 *
+		 * @return	The length.
+		 *
+		 * @throws BufferUnderflowException	Thrown if the buffer is too short.
+		 */
+		protected int getLength(int elementSize)
+		{
+			int length	= buffer.getInt();
+
+			if((0 > length) || (((long) length * elementSize) > buffer.remaining()))
+			{
+				throw new BufferUnderflowException();
+			}
+
+			return length;
+		}
+	}
+}
@@ -2,6 +2,7 @@ package mvc.models;
 
 import uml_parser.Dataitem;
 import uml_parser.Operation;
+import uml_parser.SymbolTable;
 
 /**
  * This class stored information about one operation.
@@ -23,6 +24,27 @@ class OperationContainer
 	 */
 	protected final String signature;
 
+	/**
+	 * The symbol of the name of the operation in the {@link SymbolTable} of the model.
+	 */
+	protected final int nameSymbol;
+
+	/**
+	 * The symbol of the type of the operation in the {@link SymbolTable} of the model.
+	 */
+	protected final int typeSymbol;
+
+	/**
+	 * The symbol of the signature in the {@link SymbolTable} of the model: operations with the same signature share
+	 * it, and the instance of {@code signature}.
+	 */
+	protected final int signatureSymbol;
+
+	/**
+	 * The symbols of the types of the attributes of the operation in the {@link SymbolTable} of the model.
+	 */
+	protected final int[] attributeTypeSymbols;
+
 	// STATIC METHODS
 
 	/**
@@ -57,13 +79,29 @@ class OperationContainer
 	/**
 	 * Constructor.
 	 *
-	 * @param operation	The reference to the instance of {@link Operation}.
+	 * @param operation			The reference to the instance of {@link Operation}.
+	 * @param symbols			The table of the model.
+	 * @param contentSymbols	The table the symbols of {@code operation} are in (see
+	 * 							{@link uml_parser.ClassContent#getSymbolTable()}). If it is not {@code symbols}, the
+	 * 							strings are interned again.
 	 */
-	OperationContainer(Operation operation)
+	OperationContainer(Operation operation, SymbolTable symbols, SymbolTable contentSymbols)
 	{
-		this.operation	= operation;
+		Dataitem[] attributes	= operation.getAttributes();
+
+		this.operation			= operation;
+		nameSymbol				= symbols.intern(operation.getIdentifier(), operation.getIdentifierSymbol(),
+				contentSymbols);
+		typeSymbol				= symbols.intern(operation.getType(), operation.getTypeSymbol(), contentSymbols);
+		signatureSymbol			= symbols.intern(formatSignature(operation));
+		signature				= symbols.getString(signatureSymbol);
+		attributeTypeSymbols	= new int[attributes.length];
 
-		signature	= formatSignature(operation);
+		for(int i = 0; i < attributes.length; ++i)
+		{
+			attributeTypeSymbols[i]	= symbols.intern(attributes[i].getType(), attributes[i].getTypeSymbol(),
+					contentSymbols);
+		}
 	}
 
 	// PACKAGE METHODS
@@ -98,6 +136,46 @@ class OperationContainer
 		return signature;
 	}
 
+	/**
+	 * Returns the symbol of the name of the operation.
+	 *
+	 * @return	The symbol.
+	 */
+	int getNameSymbol()
+	{
+		return nameSymbol;
+	}
+
+	/**
+	 * Returns the symbol of the type of the operation.
+	 *
+	 * @return	The symbol.
+	 */
+	int getTypeSymbol()
+	{
+		return typeSymbol;
+	}
+
+	/**
+	 * Returns the symbol of the signature of the operation.
+	 *
+	 * @return	The symbol.
+	 */
+	int getSignatureSymbol()
+	{
+		return signatureSymbol;
+	}
+
+	/**
+	 * Returns the symbols of the types of the attributes of the operation.
+	 *
+	 * @return	The symbols, one per attribute.
+	 */
+	int[] getAttributeTypeSymbols()
+	{
+		return attributeTypeSymbols;
+	}
+
 	/**
 	 * Returns all the attributes of the operation.
 	 *
@@ -127,7 +205,7 @@ class OperationContainer
 	 */
 	boolean isSignatureIdentical(OperationContainer oc)
 	{
-		return signature.equals(oc.signature);
+		return signatureSymbol == oc.signatureSymbol;
 	}
 
 	/**
@@ -140,6 +218,6 @@ class OperationContainer
 	 */
 	boolean equals(OperationContainer oc)
 	{
-		return operation.getIdentifier().equals(oc.operation.getIdentifier()) && isSignatureIdentical(oc);
+		return (nameSymbol == oc.nameSymbol) && isSignatureIdentical(oc);
 	}
 }
@@ -0,0 +1,166 @@
+package mvc.models;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import bnf_parser.CancellationToken;
+
+/**
+ * This class runs a loop over the indices {@code 0} to {@code size - 1}, either in the current thread or split into
+ * tasks run by the common {@link ForkJoinPool}. It is used by {@link Metrics} and {@link MetricEngine} for the work
+ * done independently for every class.
+ *
+ * <p>A loop stops early when its {@link CancellationToken} is cancelled: the caller must check the token after the
+ * loop to know whether or not every index was done.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class ParallelLoop
+{
+	// PACKAGE INTERFACES
+
+	/**
+	 * The body of a loop. In a parallel loop, it is called from several threads at the same time, so it must only
+	 * write data owned by its index (or thread-safe data).
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	static interface Body
+	{
+		/**
+		 * Does the work of one index.
+		 *
+		 * @param index	The index.
+		 */
+		public void run(int index);
+	}
+
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * Number of indices below which a task is not split anymore.
+	 */
+	protected static final int GRAIN_SIZE	= 256;
+
+	// PRIVATE CONSTRUCTOR
+
+	/**
+	 * Only static methods.
+	 */
+	private ParallelLoop()
+	{
+
+	}
+
+	// PACKAGE STATIC METHODS
+
+	/**
+	 * Runs a loop.
+	 *
+	 * @param size				The number of indices.
+	 * @param body				The body of the loop.
+	 * @param parallel			If true, the loop is split into tasks run by the common {@link ForkJoinPool}.
+	 * 							Otherwise, indices are done in order in the current thread.
+	 * @param cancellationToken	The token checked before every index (sequential) or every task (parallel). Can be
+	 * 							null.
+	 */
+	static void forEach(int size, Body body, boolean parallel, CancellationToken cancellationToken)
+	{
+		if(!parallel || (size <= GRAIN_SIZE))
+		{
+			run(0, size, body, cancellationToken);
+
+			return;
+		}
+
+		ForkJoinPool.commonPool().invoke(new LoopTask(0, size, body, cancellationToken));
+	}
+
+	// PROTECTED STATIC METHODS
+
+	/**
+	 * Does the indices of a range in the current thread.
+	 *
+	 * @param from				The first index.
+	 * @param to				The index after the last index.
+	 * @param body				The body of the loop.
+	 * @param cancellationToken	The token. Can be null.
+	 */
+	protected static void run(int from, int to, Body body, CancellationToken cancellationToken)
+	{
+		for(int index = from; index < to; ++index)
+		{
+			if((null != cancellationToken) && cancellationToken.isCancelled())
+			{
+				return;
+			}
+
+			body.run(index);
+		}
+	}
+
+	// PROTECTED STATIC CLASSES
+
+	/**
+	 * A task doing a range of indices, split in two halves until it is small enough.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	protected static class LoopTask extends RecursiveAction
+	{
+		/**
+		 * The first index.
+		 */
+		protected final int from;
+
+		/**
+		 * The index after the last index.
+		 */
+		protected final int to;
+
+		/**
+		 * The body of the loop.
+		 */
+		protected final Body body;
+
+		/**
+		 * The token. Can be null.
+		 */
+		protected final CancellationToken cancellationToken;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param from				The first index.
+		 * @param to				The index after the last index.
+		 * @param body				The body of the loop.
+		 * @param cancellationToken	The token. Can be null.
+		 */
+		protected LoopTask(int from, int to, Body body, CancellationToken cancellationToken)
+		{
+			this.from				= from;
+			this.to					= to;
+			this.body				= body;
+			this.cancellationToken	= cancellationToken;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if((to - from) <= GRAIN_SIZE)
+			{
+				run(from, to, body, cancellationToken);
+
+				return;
+			}
+
+			int middle	= (from + to) >>> 1;
+
+			invokeAll(new LoopTask(from, middle, body, cancellationToken),
+					new LoopTask(middle, to, body, cancellationToken));
+		}
+	}
+}
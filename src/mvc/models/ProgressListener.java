@@ -0,0 +1,45 @@
+package mvc.models;
+
+import uml_parser.ParsingListener;
+
+/**
+ * Interface of the objects notified of the progress of {@link Model#analyseFile(String, bnf_parser.CancellationToken)}.
+ * The analysis of a file goes through three phases: the file is parsed (progress is reported by
+ * {@link ParsingListener#parsingProgress(long, long, int)}), then the model is validated and finally the metrics are
+ * calculated. All methods are called in the thread running the analysis.
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public interface ProgressListener extends ParsingListener
+{
+	/**
+	 * The phases of the analysis of a file, in order.
+	 *
+	 * @author Hubert Lemelin
+	 *
+	 */
+	public static enum PHASES
+	{
+		PARSING,
+		VALIDATION,
+		METRICS,
+		;
+	}
+
+	/**
+	 * Called when a phase starts.
+	 *
+	 * @param phase	The phase.
+	 */
+	public void phaseStarted(PHASES phase);
+
+	/**
+	 * Called regularly during the validation and metrics phases, and once at the end of each.
+	 *
+	 * @param phase	The phase.
+	 * @param done	The number of steps done.
+	 * @param total	The total number of steps of the phase.
+	 */
+	public void phaseProgress(PHASES phase, int done, int total);
+}
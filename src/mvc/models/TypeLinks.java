@@ -0,0 +1,181 @@
+package mvc.models;
+
+import java.util.Arrays;
+
+import bnf_parser.CancellationToken;
+
+/**
+ * This class links the types of the arguments of the operations of the classes of a model to the classes: every
+ * argument type is resolved once to the id of a class of the model (see {@link ClassContainer#getId()}), or to
+ * {@link #EXTERNAL} for a primitive or a type outside of the model. {@link Metrics} then reads the ids instead of
+ * looking up every type by name. Only what {@link Metrics} reads is kept: the argument links and the number of
+ * operations of every class.
+ *
+ * <p>Types are resolved by symbol, in the {@link uml_parser.SymbolTable} of the model: an array indexed by symbol
+ * gives the id of the class of that name, so no string is hashed. The links of the arguments of all the operations of
+ * a class are stored in one array of ints, in the order of {@link ClassContainer#getOperationContainers()}.</p>
+ *
+ * <p>Only the classes whose members are not cached yet can be linked: the links are released with
+ * {@link #unlinkMembers()} once the metrics are calculated, and the classes changed later are linked again.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+class TypeLinks
+{
+	// PACKAGE STATIC CONSTANTS
+
+	/**
+	 * The link of a type which is not a class of the model.
+	 */
+	static final int EXTERNAL	= -1;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The id of the class named by every symbol of the table of the model + 1, or 0 if the symbol is not the name of a
+	 * class. It ends at the largest symbol of a class name, so it is never longer than the table of the model; symbols
+	 * past the end, such as the ones of types interned later by a change, are not names of classes.
+	 */
+	protected final int[] classIds;
+
+	/**
+	 * The number of operations of each class, set when the class is linked.
+	 */
+	protected final int[] operationCounts;
+
+	/**
+	 * The links of the types of the arguments of all the operations of each class. Null if the class is not linked.
+	 */
+	protected final int[][] argumentTypes;
+
+	// PACKAGE CONSTRUCTOR
+
+	/**
+	 * Constructor. No class is linked yet.
+	 *
+	 * @param allClasses	All the classes of the model. Every class must be at the index of its id, and the symbols of
+	 * 						their names must be in the same table.
+	 */
+	TypeLinks(ClassContainer[] allClasses)
+	{
+		int numberOfClasses	= allClasses.length;
+		int maxSymbol		= -1;
+
+		for(ClassContainer currentClass : allClasses)
+		{
+			maxSymbol	= Math.max(maxSymbol, currentClass.getNameSymbol());
+		}
+
+		classIds		= new int[maxSymbol + 1];
+		operationCounts	= new int[numberOfClasses];
+		argumentTypes	= new int[numberOfClasses][];
+
+		for(ClassContainer currentClass : allClasses)
+		{
+			classIds[currentClass.getNameSymbol()]	= currentClass.getId() + 1;
+		}
+	}
+
+	// PACKAGE METHODS
+
+	/**
+	 * Links every class. Every class only writes its own links, so they can be done in parallel.
+	 *
+	 * @param allClasses			All the classes of the model, indexed by id. Their members must not be cached.
+	 * @param parallel				If true, the classes are split between the threads of the common
+	 * 								{@link java.util.concurrent.ForkJoinPool}.
+	 * @param cancellationToken		The token checked for every class. Can be null. If it is cancelled, the
+	 * 								remaining classes are not linked.
+	 */
+	void linkAll(final ClassContainer[] allClasses, boolean parallel, CancellationToken cancellationToken)
+	{
+		ParallelLoop.forEach(allClasses.length, new ParallelLoop.Body()
+		{
+			@Override
+			public void run(int id)
+			{
+				link(allClasses[id]);
+			}
+		}, parallel, cancellationToken);
+	}
+
+	/**
+	 * Links the types of the arguments of the operations of a class, replacing its previous links.
+	 *
+	 * @param currentClass	The class. Its members must not be cached yet.
+	 */
+	void link(ClassContainer currentClass)
+	{
+		OperationContainer[] operations	= currentClass.getOperationContainers();
+		int numberOfArguments			= 0;
+
+		for(OperationContainer operation : operations)
+		{
+			numberOfArguments	+= operation.getAttributeTypeSymbols().length;
+		}
+
+		int[] argumentLinks	= new int[numberOfArguments];
+		int offset			= 0;
+
+		for(OperationContainer operation : operations)
+		{
+			for(int symbol : operation.getAttributeTypeSymbols())
+			{
+				argumentLinks[offset++]	= getClassId(symbol);
+			}
+		}
+
+		operationCounts[currentClass.getId()]	= operations.length;
+		argumentTypes[currentClass.getId()]		= argumentLinks;
+	}
+
+	/**
+	 * Releases the links of every class. The names of the classes are kept, so classes can be linked again.
+	 */
+	void unlinkMembers()
+	{
+		Arrays.fill(argumentTypes, null);
+	}
+
+	/**
+	 * Returns the class named by a symbol.
+	 *
+	 * @param symbol	The symbol.
+	 *
+	 * @return	The id of the class, or {@link #EXTERNAL} if no class of the model has that name.
+	 */
+	int getClassId(int symbol)
+	{
+		if((0 > symbol) || (symbol >= classIds.length))
+		{
+			return EXTERNAL;
+		}
+
+		return classIds[symbol] - 1;
+	}
+
+	/**
+	 * Returns the number of operations of a linked class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The number of operations.
+	 */
+	int getNumberOfOperations(int id)
+	{
+		return operationCounts[id];
+	}
+
+	/**
+	 * Returns the links of the types of the arguments of all the operations of a linked class.
+	 *
+	 * @param id	The id of the class.
+	 *
+	 * @return	The ids of the classes or {@link #EXTERNAL}, one per argument.
+	 */
+	int[] getArgumentTypes(int id)
+	{
+		return argumentTypes[id];
+	}
+}
@@ -16,6 +16,21 @@ public interface ClassContent
 	 */
 	public String getIdentifier();
 
+	/**
+	 * Returns the symbol of the {@code identifier} in the table of {@link #getSymbolTable()}.
+	 *
+	 * @return	The symbol, or {@link SymbolTable#NO_SYMBOL} if the class has no table.
+	 */
+	public int getIdentifierSymbol();
+
+	/**
+	 * Returns the {@link SymbolTable} of the symbols of the class, of its attributes and of its operations: the table
+	 * of the {@link Model} declaring it.
+	 *
+	 * @return	The table, or null if the identifiers are not interned.
+	 */
+	public SymbolTable getSymbolTable();
+
 	/**
 	 * Returns an array of all attributes (as {@link Dataitem} of the class.
 	 *
@@ -24,6 +24,22 @@ public interface Dataitem
 	 */
 	public String getType();
 
+	/**
+	 * Returns the symbol of the {@code identifier} in the {@link SymbolTable} of the class declaring it (see
+	 * {@link ClassContent#getSymbolTable()}).
+	 *
+	 * @return	The symbol, or {@link SymbolTable#NO_SYMBOL} if the class has no table.
+	 */
+	public int getIdentifierSymbol();
+
+	/**
+	 * Returns the symbol of the {@code type} in the {@link SymbolTable} of the class declaring it (see
+	 * {@link ClassContent#getSymbolTable()}).
+	 *
+	 * @return	The symbol, or {@link SymbolTable#NO_SYMBOL} if the class has no table.
+	 */
+	public int getTypeSymbol();
+
 	/**
 	 * Used to simply display the contents of a {@code Dataitem}.
 	 * @return	The object as a String.
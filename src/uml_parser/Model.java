@@ -46,6 +46,14 @@ public interface Model
 	 */
 	public Aggregation[] getAggregations();
 
+	/**
+	 * Returns the {@link SymbolTable} of the model: the identifiers and types of all its declarations are interned in
+	 * it, and the symbols of its classes, attributes and operations are symbols of this table.
+	 *
+	 * @return	The table.
+	 */
+	public SymbolTable getSymbolTable();
+
 	/**
 	 * Used to simply display the contents of an {@code Model}.
 	 *
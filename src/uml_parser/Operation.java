@@ -23,6 +23,22 @@ public interface Operation
 	 */
 	public String getType();
 
+	/**
+	 * Returns the symbol of the {@code identifier} in the {@link SymbolTable} of the class declaring it (see
+	 * {@link ClassContent#getSymbolTable()}).
+	 *
+	 * @return	The symbol, or {@link SymbolTable#NO_SYMBOL} if the class has no table.
+	 */
+	public int getIdentifierSymbol();
+
+	/**
+	 * Returns the symbol of the {@code type} in the {@link SymbolTable} of the class declaring it (see
+	 * {@link ClassContent#getSymbolTable()}).
+	 *
+	 * @return	The symbol, or {@link SymbolTable#NO_SYMBOL} if the class has no table.
+	 */
+	public int getTypeSymbol();
+
 	/**
 	 * Returns an array of all the operation attributes (as {@link Dataitem}.
 	 * @return	An array of the operation attributes.
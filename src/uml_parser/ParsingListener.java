@@ -0,0 +1,20 @@
+package uml_parser;
+
+/**
+ * Interface of the objects notified of the progress of {@link UmlParser}. It is called every time a declaration (a
+ * class, an association, a generalization or an aggregation) is parsed, so a user interface can show a progress bar
+ * and the throughput of the parser.
+ *
+ * @author Hubert Lemelin
+ */
+public interface ParsingListener
+{
+	/**
+	 * Called every time a declaration is parsed.
+	 *
+	 * @param bytesConsumed			The number of bytes of the file parsed so far.
+	 * @param fileSize				The size of the file in bytes.
+	 * @param declarationsParsed	The number of declarations parsed so far.
+	 */
+	public void parsingProgress(long bytesConsumed, long fileSize, int declarationsParsed);
+}
@@ -0,0 +1,200 @@
+package uml_parser;
+
+/**
+ * This class interns the identifiers and types of one parsed model: every distinct string is given an int, its symbol,
+ * and is stored once. The collectors keep the symbol and the stored instance of every identifier, so a type like
+ * {@code String} repeated in thousands of declarations is one {@link String}, and two identifiers of the model are
+ * equal if and only if their symbols are.
+ *
+ * <p>Every parse has its own table: the {@link uml_parser.collectors.ModelCollector} creates it and hands it to the
+ * collectors of every declaration as they are parsed (see {@link Model#getSymbolTable()}). It is released with the
+ * model, and symbols of different tables must not be compared: {@link #intern(String, int, SymbolTable)} gives the
+ * symbol of a string coming from another table. Symbols are given from 0, in the order strings are first interned,
+ * and strings are never removed.</p>
+ *
+ * <p>Strings are found with open addressing (linear probing) in an array of symbols, using the hash cached by every
+ * {@link String}, so no object is created to intern a string already in the table. A table is not thread-safe: it is
+ * filled by one parse, then by the model owning it, and only read by the models it is shared with.</p>
+ *
+ * @author Hubert Lemelin
+ *
+ */
+public class SymbolTable
+{
+	// PUBLIC STATIC CONSTANTS
+
+	/**
+	 * The symbol of an identifier which is not interned.
+	 */
+	public static final int NO_SYMBOL	= -1;
+
+	// PROTECTED STATIC CONSTANTS
+
+	/**
+	 * The initial number of slots. Must be a power of two.
+	 */
+	protected static final int INITIAL_CAPACITY	= 1024;
+
+	// PROTECTED PROPERTIES
+
+	/**
+	 * The strings, indexed by symbol.
+	 */
+	protected String[] strings;
+
+	/**
+	 * The slots of the hash table: the symbol of a string + 1, or 0 if the slot is empty. At most half of them are
+	 * used.
+	 */
+	protected int[] slots;
+
+	/**
+	 * The number of symbols.
+	 */
+	protected int size;
+
+	// PUBLIC CONSTRUCTOR
+
+	/**
+	 * Constructor. The table is empty.
+	 */
+	public SymbolTable()
+	{
+		strings	= new String[INITIAL_CAPACITY / 2];
+		slots	= new int[INITIAL_CAPACITY];
+	}
+
+	// PUBLIC METHODS
+
+	/**
+	 * Returns the symbol of a string, giving it the next symbol if it has none yet.
+	 *
+	 * @param string	The string.
+	 *
+	 * @return	The symbol.
+	 */
+	public int intern(String string)
+	{
+		int slot	= findSlot(string);
+
+		if(0 != slots[slot])
+		{
+			return slots[slot] - 1;
+		}
+
+		if(size == strings.length)
+		{
+			grow();
+
+			slot	= findSlot(string);
+		}
+
+		strings[size]	= string;
+		slots[slot]		= ++size;
+
+		return size - 1;
+	}
+
+	/**
+	 * Interns a string and returns the stored instance, for identifiers whose symbol is not kept.
+	 *
+	 * @param string	The string.
+	 *
+	 * @return	The instance equal to {@code string} stored in the table.
+	 */
+	public String internString(String string)
+	{
+		return strings[intern(string)];
+	}
+
+	/**
+	 * Returns the symbol in this table of a string which may come from another table.
+	 *
+	 * @param string	The string.
+	 * @param symbol	The symbol of the string in {@code table}, or {@link #NO_SYMBOL}.
+	 * @param table		The table of {@code symbol}. Can be null.
+	 *
+	 * @return	{@code symbol} if {@code table} is this table, otherwise the symbol given by {@link #intern(String)}.
+	 */
+	public int intern(String string, int symbol, SymbolTable table)
+	{
+		if((this == table) && (NO_SYMBOL != symbol))
+		{
+			return symbol;
+		}
+
+		return intern(string);
+	}
+
+	/**
+	 * Returns the string of a symbol: the instance stored when the string was first interned.
+	 *
+	 * @param symbol	The symbol.
+	 *
+	 * @return	The string.
+	 */
+	public String getString(int symbol)
+	{
+		return strings[symbol];
+	}
+
+	/**
+	 * Returns the number of symbols.
+	 *
+	 * @return	The number of symbols.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	// PROTECTED METHODS
+
+	/**
+	 * Returns the slot of a string: the slot holding its symbol, or the empty slot where it would be added.
+	 *
+	 * @param string	The string.
+	 *
+	 * @return	The index of the slot.
+	 */
+	protected int findSlot(String string)
+	{
+		int mask	= slots.length - 1;
+
+		/* Let's spread the high bits, like HashMap does, since only the low ones select the slot. */
+		int hash	= string.hashCode();
+		int slot	= (hash ^ (hash >>> 16)) & mask;
+
+		while(0 != slots[slot])
+		{
+			String other	= strings[slots[slot] - 1];
+
+			if((other == string) || other.equals(string))
+			{
+				break;
+			}
+
+			slot	= (slot + 1) & mask;
+		}
+
+		return slot;
+	}
+
+	/**
+	 * Doubles the number of slots and of strings, then puts every symbol back in its slot.
+	 */
+	protected void grow()
+	{
+		String[] newStrings	= new String[2 * strings.length];
+
+		System.arraycopy(strings, 0, newStrings, 0, size);
+
+		strings	= newStrings;
+		slots	= new int[2 * slots.length];
+
+		for(int symbol = 0; symbol < size; ++symbol)
+		{
+			slots[findSlot(strings[symbol])]	= symbol + 1;
+		}
+	}
+}
@@ -20,11 +20,18 @@ import uml_parser.collectors.OperationListCollector;
 import uml_parser.collectors.RoleCollector;
 import uml_parser.collectors.RoleListCollector;
 import bnf_parser.BnfParser;
+import bnf_parser.CancellationToken;
 import bnf_parser.IncorrectCollectorException;
 import bnf_parser.NoFileSpecifiedException;
 import bnf_parser.NoSubruleDefinedException;
+import bnf_parser.ParseBudget;
+import bnf_parser.ParseBudgetExceededException;
+import bnf_parser.ParsingAbortedException;
+import bnf_parser.ParsingCancelledException;
 import bnf_parser.ParsingFailedException;
 import bnf_parser.Rule;
+import bnf_parser.RuleProfiler;
+import bnf_parser.RuleListener;
 import bnf_parser.callables.CallableContainsMoreThanOneCollectorException;
 import bnf_parser.collectors.Collector;
 
@@ -114,6 +121,9 @@ public class UmlParser
 	 * the memory used since rules used don't change, so it would be useless to define them over and over if more than
 	 * once instance of {@link UmlParser} has to be used.
 	 *
+	 * <p>A parser holds the state of the file it is parsing, so it parses one file at a time: code parsing from
+	 * several threads must create one parser per thread with {@link #UmlParser()} instead.</p>
+	 *
 	 * @return	The unique instance of {@link UmlParser}.
 	 */
 	public static UmlParser getInstance()
@@ -126,17 +136,16 @@ public class UmlParser
 		return instance;
 	}
 
-	// PRIVATE CONSTRUCTOR
+	// PUBLIC CONSTRUCTOR
 
 	/**
-	 * Private constructor.
+	 * Constructor. The parser gets its own rules and {@link BnfParser}, so it can parse a file while other parsers
+	 * parse other files in other threads. Use {@link #getInstance()} if files are only parsed one at a time.
 	 */
-	private UmlParser()
+	public UmlParser()
 	{
 		bnfParser	= new BnfParser();
 
-		/* Let's create the rules. Since this constructor will only be called once, rules will be defined only once in
-		 * the whole program. */
 		createRules();
 	}
 
@@ -156,6 +165,81 @@ public class UmlParser
 	 */
 	public Model parse(String filename, String charset) throws IOException, uml_parser.ParsingFailedException
 	{
+		try
+		{
+			return parse(filename, charset, null);
+		}
+		catch(ParsingAbortedException e)
+		{
+			/* Should not happen: without budget, the parser never stops before the end. */
+
+			throw new uml_parser.ParsingFailedException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Parses the specified UML definition file using the specified charset within the limits of a {@link ParseBudget}.
+	 *
+	 * @param filename	The filename of the UML definition file to be parsed.
+	 * @param charset	The charset of the file.
+	 * @param budget	The limits of the parsing. If null, parsing is unlimited.
+	 *
+	 * @return	An instance of {@link ModelCollector} which implements {@link Model}.
+	 *
+	 * @throws IOException							Thrown when a file error occurs (ex. file not found).
+	 *
+	 * @throws uml_parser.ParsingFailedException	Thrown when parsing fails.
+	 *
+	 * @throws ParsingAbortedException				Thrown when parsing stops before the end, for example a
+	 * 												{@link ParseBudgetExceededException} when the budget is exceeded.
+	 */
+	public Model parse(String filename, String charset, ParseBudget budget)
+			throws IOException, uml_parser.ParsingFailedException, ParsingAbortedException
+	{
+		return parse(filename, charset, budget, null, null);
+	}
+
+	/**
+	 * Parses the specified UML definition file using the specified charset within the limits of a {@link ParseBudget}.
+	 * Parsing can be cancelled from another thread with a {@link CancellationToken} and its progress can be followed
+	 * with a {@link ParsingListener}.
+	 *
+	 * @param filename			The filename of the UML definition file to be parsed.
+	 * @param charset			The charset of the file.
+	 * @param budget			The limits of the parsing. If null, parsing is unlimited.
+	 * @param cancellationToken	The token to cancel parsing. If null, parsing cannot be cancelled.
+	 * @param listener			The listener notified every time a declaration is parsed. Can be null.
+	 *
+	 * @return	An instance of {@link ModelCollector} which implements {@link Model}.
+	 *
+	 * @throws IOException							Thrown when a file error occurs (ex. file not found).
+	 *
+	 * @throws uml_parser.ParsingFailedException	Thrown when parsing fails.
+	 *
+	 * @throws ParsingAbortedException				Thrown when parsing stops before the end: a
+	 * 												{@link ParseBudgetExceededException} when the budget is exceeded
+	 * 												or a {@link ParsingCancelledException} when it is cancelled.
+	 */
+	public Model parse(String filename, String charset, ParseBudget budget, CancellationToken cancellationToken,
+			final ParsingListener listener)
+			throws IOException, uml_parser.ParsingFailedException, ParsingAbortedException
+	{
+		bnfParser.setBudget(budget);
+		bnfParser.setCancellationToken(cancellationToken);
+		bnfParser.setRuleListener((null == listener) ? null : new RuleListener()
+		{
+			/**
+			 * The number of declarations parsed so far.
+			 */
+			protected int declarationsParsed	= 0;
+
+			@Override
+			public void ruleMatched(Rule rule, long bytesConsumed, long fileSize)
+			{
+				listener.parsingProgress(bytesConsumed, fileSize, ++declarationsParsed);
+			}
+		});
+
 		bnfParser.open(filename, charset);
 
 		Collector parsedModel	= null;
@@ -203,6 +287,27 @@ public class UmlParser
 		return (Model) parsedModel;
 	}
 
+	/**
+	 * Sets the {@link RuleProfiler} recording statistics for every rule evaluated during the next parsings. After
+	 * {@link #parse(String, String)}, {@link RuleProfiler#getReport()} tells which rules of the grammar cost the most.
+	 *
+	 * @param profiler	The profiler. If null, profiling is disabled.
+	 */
+	public void setProfiler(RuleProfiler profiler)
+	{
+		bnfParser.setProfiler(profiler);
+	}
+
+	/**
+	 * Returns the {@link RuleProfiler} used during parsing.
+	 *
+	 * @return	The profiler, or null if profiling is disabled.
+	 */
+	public RuleProfiler getProfiler()
+	{
+		return bnfParser.getProfiler();
+	}
+
 	// PROTECTED METHODS
 
 	/**
@@ -213,18 +318,18 @@ public class UmlParser
 		try
 		{
 			/* Below is a set of rules which we will not explain. Please refer to "TP1". */
-			space	= bnfParser.newRule()
+			space	= bnfParser.newRule().setName("space")
 					.matchPatternWithoutCollecting("\\s+", 1, 1);
 
-			identifier = bnfParser.newRule()
+			identifier = bnfParser.newRule().setName("identifier")
 						.matchPattern("[A-Za-z_\\-0-9]+", 1, 1).overrideCollector();
 
-			type	= bnfParser.newRule()
+			type	= bnfParser.newRule().setName("type")
 					.matchRule(identifier, 1, 1).overrideCollector();
 
 			/* A dataitem corresponds to <identifier>:<multiplicity> (with/without spaces). Since 'identifier' and 'multiplicity' both
 			 * return a StringCollector, we help differentiate them by setting different indices. */
-			dataitem	= bnfParser.newRule().setCollector(DataitemCollector.class)
+			dataitem	= bnfParser.newRule().setName("dataitem").setCollector(DataitemCollector.class)
 					.matchRule(space, 0, 1)
 					.matchRule(identifier, 1, 1).setIndex(0)
 					.matchRule(space, 0, 1)
@@ -233,7 +338,7 @@ public class UmlParser
 					.matchRule(identifier, 1, 1).setIndex(1)
 					.matchRule(space, 0, 1);
 
-			dataitemOptionalRepeat	= bnfParser.newRule()
+			dataitemOptionalRepeat	= bnfParser.newRule().setName("dataitemOptionalRepeat")
 					.matchStringWithoutCollecting(",", 1, 1)
 					.matchRule(dataitem, 1, 1).overrideCollector();
 
@@ -246,11 +351,11 @@ public class UmlParser
 			 *       times an element preceeded by a come (rule "dataitemOptionalRepeat')
 			 *     - Finally, where the list is optional, like in 'operation', simply ask to match the rule
 			 *       'dataitemList' 0 or 1 time. */
-			dataitemList	= bnfParser.newRule().setCollector(DataitemListCollector.class)
+			dataitemList	= bnfParser.newRule().setName("dataitemList").setCollector(DataitemListCollector.class)
 					.matchRule(dataitem, 1, 1)
 					.matchRule(dataitemOptionalRepeat, 0, Rule.INFINITY);
 
-			operation	= bnfParser.newRule().setCollector(OperationCollector.class)
+			operation	= bnfParser.newRule().setName("operation").setCollector(OperationCollector.class)
 					.matchRule(space, 0, 1)
 					.matchRule(identifier, 1, 1).setIndex(0)
 					.matchRule(space, 0, 1)
@@ -263,20 +368,24 @@ public class UmlParser
 					.matchRule(type, 1, 1).setIndex(1)
 					.matchRule(space, 0, 1);
 
-			operationOptionalRepeat	= bnfParser.newRule()
+			operationOptionalRepeat	= bnfParser.newRule().setName("operationOptionalRepeat")
 					.matchStringWithoutCollecting(",", 1, 1)
 					.matchRule(operation, 1, 1).overrideCollector();
 
-			operationList	= bnfParser.newRule().setCollector(OperationListCollector.class)
+			operationList	= bnfParser.newRule().setName("operationList").setCollector(OperationListCollector.class)
 					.matchRule(space, 1, 1)
 					.matchRule(operation, 1, 1)
 					.matchRule(operationOptionalRepeat, 0, Rule.INFINITY);
 
-			operations	= bnfParser.newRule()
+			operations	= bnfParser.newRule().setName("operations")
 					.matchStringWithoutCollecting("OPERATIONS", 1, 1)
 					.matchRule(operationList, 0, 1).overrideCollector();
 
-			classContent	= bnfParser.newRule().setCollector(ClassContentCollector.class)
+			/* Declarations (CLASS, RELATION, GENERALIZATION, AGGREGATION) report their matches to follow the progress
+			 * of the parsing. */
+
+			classContent	= bnfParser.newRule().setName("classContent").setCollector(ClassContentCollector.class)
+					.reportMatches()
 					.matchRule(space, 0, 1)
 					.matchStringWithoutCollecting("CLASS", 1, 1)
 
@@ -306,17 +415,18 @@ public class UmlParser
 
 			/* ASSOCIATION */
 
-			multiplicity	= bnfParser.newRule()
+			multiplicity	= bnfParser.newRule().setName("multiplicity")
 					.matchPattern("ONE_OR_MANY|ONE|MANY|OPTIONALLY_ONE|UNDEFINED", 1, 1).overrideCollector();
 
-			role	= bnfParser.newRule().setCollector(RoleCollector.class)
+			role	= bnfParser.newRule().setName("role").setCollector(RoleCollector.class)
 					.matchStringWithoutCollecting("CLASS", 1, 1)
 					.matchRule(space, 1, 1)
 					.matchRule(identifier, 1, 1).setIndex(0)
 					.matchRule(space, 1, 1)
 					.matchRule(multiplicity, 1, 1).setIndex(1);
 
-			association	= bnfParser.newRule().setCollector(AssociationCollector.class)
+			association	= bnfParser.newRule().setName("association").setCollector(AssociationCollector.class)
+					.reportMatches()
 					.matchRule(space, 0, 1)
 					.matchStringWithoutCollecting("RELATION", 1, 1)
 					.matchRule(space, 1, 1)
@@ -335,18 +445,21 @@ public class UmlParser
 
 			/* GENERALIZATION */
 
-			identifierOptionalRepeat	= bnfParser.newRule()
+			identifierOptionalRepeat	= bnfParser.newRule().setName("identifierOptionalRepeat")
 					.matchStringWithoutCollecting(",", 1, 1)
 					.matchRule(space, 0, 1)
 					.matchRule(identifier, 1, 1).overrideCollector()
 					.matchRule(space, 0, 1);
 
-			identifierList	= bnfParser.newRule().setCollector(IdentifierListCollector.class)
+			identifierList	= bnfParser.newRule().setName("identifierList")
+					.setCollector(IdentifierListCollector.class)
 					.matchRule(space, 0, 1)
 					.matchRule(identifier, 1, 1)
 					.matchRule(identifierOptionalRepeat, 0, Rule.INFINITY);
 
-			generalization	= bnfParser.newRule().setCollector(GeneralizationCollector.class)
+			generalization	= bnfParser.newRule().setName("generalization")
+					.setCollector(GeneralizationCollector.class)
+					.reportMatches()
 					.matchRule(space, 0, 1)
 					.matchStringWithoutCollecting("GENERALIZATION", 1, 1)
 					.matchRule(space,  1, 1)
@@ -361,17 +474,18 @@ public class UmlParser
 
 			/* AGGREGATION */
 
-			roleOptionalRepeat	= bnfParser.newRule()
+			roleOptionalRepeat	= bnfParser.newRule().setName("roleOptionalRepeat")
 					.matchRule(space, 0, 1)
 					.matchStringWithoutCollecting(",", 1, 1)
 					.matchRule(space, 0, 1)
 					.matchRule(role, 1, 1).overrideCollector();
 
-			roleList	= bnfParser.newRule().setCollector(RoleListCollector.class)
+			roleList	= bnfParser.newRule().setName("roleList").setCollector(RoleListCollector.class)
 					.matchRule(role, 1, 1)
 					.matchRule(roleOptionalRepeat, 0, Rule.INFINITY);
 
-			aggregation	= bnfParser.newRule().setCollector(AggregationCollector.class)
+			aggregation	= bnfParser.newRule().setName("aggregation").setCollector(AggregationCollector.class)
+					.reportMatches()
 					.matchRule(space, 0, 1)
 					.matchStringWithoutCollecting("AGGREGATION", 1, 1)
 					.matchRule(space, 0, 1)
@@ -388,7 +502,7 @@ public class UmlParser
 
 			/* MODEL */
 
-			model	= bnfParser.newRule().setCollector(ModelCollector.class).mustMatchEndOfFile()
+			model	= bnfParser.newRule().setName("model").setCollector(ModelCollector.class).mustMatchEndOfFile()
 
 					/* Allows spaces at the beginning of file. Let's not be too strict... */
 					.matchRule(space, 0, 1)
@@ -2,6 +2,7 @@ package uml_parser.collectors;
 
 import uml_parser.Aggregation;
 import uml_parser.Role;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 
 /**
@@ -54,6 +55,25 @@ public class AggregationCollector extends Collector implements Aggregation
 		}
 	}
 
+	/**
+	 * Interns the names of the container and of the parts in the table of the model. Called by {@link ModelCollector}
+	 * when the aggregation is added to the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		if(null != roleCollector)
+		{
+			((RoleCollector) roleCollector).internSymbols(symbols);
+		}
+
+		if(null != roleListCollector)
+		{
+			roleListCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public Role getRole()
 	{
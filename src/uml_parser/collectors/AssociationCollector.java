@@ -3,6 +3,7 @@ package uml_parser.collectors;
 import uml_parser.Association;
 import uml_parser.Dataitem;
 import uml_parser.Role;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -87,6 +88,25 @@ public class AssociationCollector extends Collector implements Association
 		return identifier;
 	}
 
+	/**
+	 * Interns the names of the classes of both roles in the table of the model. Called by {@link ModelCollector}
+	 * when the association is added to the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		if(null != firstRoleCollector)
+		{
+			firstRoleCollector.internSymbols(symbols);
+		}
+
+		if(null != secondRoleCollector)
+		{
+			secondRoleCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public Role getFirstRole()
 	{
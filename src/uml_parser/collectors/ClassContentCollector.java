@@ -3,6 +3,7 @@ package uml_parser.collectors;
 import uml_parser.ClassContent;
 import uml_parser.Dataitem;
 import uml_parser.Operation;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -19,6 +20,16 @@ public class ClassContentCollector extends Collector implements ClassContent
 	 */
 	protected String identifier;
 
+	/**
+	 * The symbol of the identifier.
+	 */
+	protected int identifierSymbol	= SymbolTable.NO_SYMBOL;
+
+	/**
+	 * The table of the model the symbols are in, null until the class is added to the model.
+	 */
+	protected SymbolTable symbols;
+
 	/**
 	 * A collector of {@link Dataitem}'s which represent the attribute of the class. It can be empty.
 	 */
@@ -64,12 +75,47 @@ public class ClassContentCollector extends Collector implements ClassContent
 		}
 	}
 
+	/**
+	 * Interns the {@code identifier}, the attributes and the operations of the class in the table of the model, so
+	 * equal strings share one instance. Called by {@link ModelCollector} when the class is added to the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		this.symbols		= symbols;
+		identifierSymbol	= symbols.intern(identifier);
+		identifier			= symbols.getString(identifierSymbol);
+
+		if(null != dataitemListCollector)
+		{
+			dataitemListCollector.internSymbols(symbols);
+		}
+
+		if(null != operationListCollector)
+		{
+			operationListCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public String getIdentifier()
 	{
 		return identifier;
 	}
 
+	@Override
+	public int getIdentifierSymbol()
+	{
+		return identifierSymbol;
+	}
+
+	@Override
+	public SymbolTable getSymbolTable()
+	{
+		return symbols;
+	}
+
 	@Override
 	public Dataitem[] getAttributes()
 	{
@@ -1,6 +1,7 @@
 package uml_parser.collectors;
 
 import uml_parser.Dataitem;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -21,6 +22,16 @@ public class DataitemCollector extends Collector implements Dataitem
 	 */
 	protected String type;
 
+	/**
+	 * The symbol of the {@code identifier}.
+	 */
+	protected int identifierSymbol	= SymbolTable.NO_SYMBOL;
+
+	/**
+	 * The symbol of the {@code type}.
+	 */
+	protected int typeSymbol		= SymbolTable.NO_SYMBOL;
+
 	/**
 	 * Constructor.
 	 */
@@ -62,6 +73,20 @@ public class DataitemCollector extends Collector implements Dataitem
 		}
 	}
 
+	/**
+	 * Interns the {@code identifier} and the {@code type} in the table of the model, so equal strings share one
+	 * instance. Called when the declaration holding the {@link Dataitem} is added to the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		identifierSymbol	= symbols.intern(identifier);
+		identifier			= symbols.getString(identifierSymbol);
+		typeSymbol			= symbols.intern(type);
+		type				= symbols.getString(typeSymbol);
+	}
+
 	@Override
 	public String getIdentifier()
 	{
@@ -74,6 +99,18 @@ public class DataitemCollector extends Collector implements Dataitem
 		return type;
 	}
 
+	@Override
+	public int getIdentifierSymbol()
+	{
+		return identifierSymbol;
+	}
+
+	@Override
+	public int getTypeSymbol()
+	{
+		return typeSymbol;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import uml_parser.Dataitem;
 import uml_parser.DataitemList;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 
 /**
@@ -44,6 +45,19 @@ public class DataitemListCollector extends Collector implements DataitemList
 		}
 	}
 
+	/**
+	 * Interns the identifiers and types of every {@link Dataitem} in the table of the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		for(DataitemCollector dataitemCollector : dataitemCollectors)
+		{
+			dataitemCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public Dataitem[] getDataitems()
 	{
@@ -1,6 +1,7 @@
 package uml_parser.collectors;
 
 import uml_parser.Generalization;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -52,6 +53,22 @@ public class GeneralizationCollector extends Collector implements Generalization
 		}
 	}
 
+	/**
+	 * Interns the names of the superclass and of the subclasses in the table of the model. Called by
+	 * {@link ModelCollector} when the generalization is added to the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		identifier	= symbols.internString(identifier);
+
+		if(null != identifierListCollector)
+		{
+			identifierListCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public String getSuperclassName()
 	{
@@ -3,6 +3,7 @@ package uml_parser.collectors;
 import java.util.ArrayList;
 
 import uml_parser.IdentifierList;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -44,6 +45,19 @@ public class IdentifierListCollector extends Collector implements IdentifierList
 		}
 	}
 
+	/**
+	 * Interns every identifier, the name of a class, in the table of the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		for(int i = 0, iMax = identifiers.size(); i < iMax; ++i)
+		{
+			identifiers.set(i, symbols.internString(identifiers.get(i)));
+		}
+	}
+
 	@Override
 	public String[] getIdentifiers()
 	{
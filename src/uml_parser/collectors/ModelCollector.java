@@ -7,6 +7,7 @@ import uml_parser.Association;
 import uml_parser.ClassContent;
 import uml_parser.Generalization;
 import uml_parser.Model;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -43,6 +44,11 @@ public class ModelCollector extends Collector implements Model
 	 */
 	protected ArrayList<AggregationCollector> aggregationCollectors;
 
+	/**
+	 * The table of the symbols of the model, created with it: every declaration is interned in it when it is added.
+	 */
+	protected final SymbolTable symbols;
+
 	/**
 	 * Constructor.
 	 */
@@ -54,6 +60,7 @@ public class ModelCollector extends Collector implements Model
 		associationCollectors		= new ArrayList<AssociationCollector>();
 		generalizationCollectors	= new ArrayList<GeneralizationCollector>();
 		aggregationCollectors		= new ArrayList<AggregationCollector>();
+		symbols						= new SymbolTable();
 	}
 
 	/**
@@ -74,18 +81,26 @@ public class ModelCollector extends Collector implements Model
 			}
 			else if(collector instanceof ClassContentCollector)
 			{
+				((ClassContentCollector) collector).internSymbols(symbols);
+
 				classContentCollectors.add((ClassContentCollector) collector);
 			}
 			else if(collector instanceof AssociationCollector)
 			{
+				((AssociationCollector) collector).internSymbols(symbols);
+
 				associationCollectors.add((AssociationCollector) collector);
 			}
 			else if(collector instanceof GeneralizationCollector)
 			{
+				((GeneralizationCollector) collector).internSymbols(symbols);
+
 				generalizationCollectors.add((GeneralizationCollector) collector);
 			}
 			else if(collector instanceof AggregationCollector)
 			{
+				((AggregationCollector) collector).internSymbols(symbols);
+
 				aggregationCollectors.add((AggregationCollector) collector);
 			}
 		}
@@ -157,6 +172,12 @@ public class ModelCollector extends Collector implements Model
 		return identifier;
 	}
 
+	@Override
+	public SymbolTable getSymbolTable()
+	{
+		return symbols;
+	}
+
 	@Override
 	public ClassContent[] getClasses()
 	{
@@ -2,6 +2,7 @@ package uml_parser.collectors;
 
 import uml_parser.Dataitem;
 import uml_parser.Operation;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -23,6 +24,16 @@ public class OperationCollector extends Collector implements Operation
 	 */
 	protected String type;
 
+	/**
+	 * The symbol of the identifier.
+	 */
+	protected int identifierSymbol	= SymbolTable.NO_SYMBOL;
+
+	/**
+	 * The symbol of the multiplicity.
+	 */
+	protected int typeSymbol		= SymbolTable.NO_SYMBOL;
+
 	/**
 	 * A collector of {@link Dataitem} which represent the attribute of the operation. It can be empty.
 	 */
@@ -74,6 +85,25 @@ public class OperationCollector extends Collector implements Operation
 		}
 	}
 
+	/**
+	 * Interns the {@code identifier}, the {@code type} and the arguments in the table of the model, so equal strings
+	 * share one instance. Called when the class declaring the operation is added to the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		identifierSymbol	= symbols.intern(identifier);
+		identifier			= symbols.getString(identifierSymbol);
+		typeSymbol			= symbols.intern(type);
+		type				= symbols.getString(typeSymbol);
+
+		if(null != dataitemListCollector)
+		{
+			dataitemListCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public String getIdentifier()
 	{
@@ -86,6 +116,18 @@ public class OperationCollector extends Collector implements Operation
 		return type;
 	}
 
+	@Override
+	public int getIdentifierSymbol()
+	{
+		return identifierSymbol;
+	}
+
+	@Override
+	public int getTypeSymbol()
+	{
+		return typeSymbol;
+	}
+
 	@Override
 	public Dataitem[] getAttributes()
 	{
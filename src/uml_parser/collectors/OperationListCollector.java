@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import uml_parser.Operation;
 import uml_parser.OperationList;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -46,6 +47,19 @@ public class OperationListCollector extends Collector implements OperationList
 		}
 	}
 
+	/**
+	 * Interns the identifiers, types and arguments of every {@link Operation} in the table of the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		for(OperationCollector operationCollector : operationCollectors)
+		{
+			operationCollector.internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public Operation[] getOperations()
 	{
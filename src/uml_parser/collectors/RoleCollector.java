@@ -1,6 +1,7 @@
 package uml_parser.collectors;
 
 import uml_parser.Role;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 import bnf_parser.collectors.StringCollector;
 
@@ -63,6 +64,16 @@ public class RoleCollector extends Collector implements Role
 		}
 	}
 
+	/**
+	 * Interns the {@code identifier}, the name of a class, in the table of the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		identifier	= symbols.internString(identifier);
+	}
+
 	@Override
 	public String getIdentifier()
 	{
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import uml_parser.Role;
 import uml_parser.RoleList;
+import uml_parser.SymbolTable;
 import bnf_parser.collectors.Collector;
 
 /**
@@ -44,6 +45,19 @@ public class RoleListCollector extends Collector implements RoleList
 		}
 	}
 
+	/**
+	 * Interns the names of the classes of every {@link Role} in the table of the model.
+	 *
+	 * @param symbols	The table of the model.
+	 */
+	void internSymbols(SymbolTable symbols)
+	{
+		for(Role role : roleCollectors)
+		{
+			((RoleCollector) role).internSymbols(symbols);
+		}
+	}
+
 	@Override
 	public Role[] getRoles()
 	{